@@ -0,0 +1,193 @@
+package bench;
+
+import src.date.OCCCDate;
+import src.person.People;
+import src.person.Person;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Read throughput of People: get, getMeta and size on a million people, first on one thread
+ * (a scan in list order, shuffled positions, and the hits of a tag query) and then on 1..N
+ * threads sharing the list, with and without a writer replacing entries meanwhile.
+ * Run from the project root:
+ *   javac --enable-preview --release 21 -d out PersonApp.java $(find src bench -name '*.java')
+ *   java --enable-preview -cp out bench.PeopleReadBench [people] [reads per thread] [max threads] [storage]
+ * Max threads 0 runs only the single-thread figures.
+ * Each figure is the best of five timed rounds after two warm-up rounds.
+ */
+public class PeopleReadBench {
+    private static final int ROUNDS = 5, WARMUP = 2;
+
+    // Keeps the JIT from dropping reads whose results are never used
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int reads = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        List<People.Storage> storages = args.length > 3 ? List.of(People.Storage.valueOf(args[3])) : List.of(People.Storage.values());
+        System.out.printf("%d people, %d reads per thread, %d cores%n", count, reads,
+            Runtime.getRuntime().availableProcessors());
+        for (People.Storage storage : storages) {
+            People people = fill(storage, count);
+            int[] order = shuffled(count, 0);
+            System.out.printf("%-9s single thread: %6.1f ms scanning, %6.1f ms at random%n", storage,
+                best(() -> scanMillis(people, reads)), best(() -> readLoopMillis(people, reads, order)));
+            System.out.printf("%-9s tag hits:      %6.1f ms with getMeta per position, %6.1f ms with matchTags%n", storage,
+                best(() -> tagMillis(people, false)), best(() -> tagMillis(people, true)));
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                int n = threads;
+                double quiet = best(() -> concurrent(people, reads, n, false));
+                double busy = best(() -> concurrent(people, reads, n, true));
+                System.out.printf("%-9s %2d threads:    %6.1f M reads/s, %6.1f M reads/s with a writer%n",
+                    storage, n, n * (double) reads / quiet / 1000, n * (double) reads / busy / 1000);
+            }
+            people.close();
+        }
+    }
+
+    private static People fill(People.Storage storage, int count) {
+        People people = new People(storage);
+        List<People.PersonMeta> metas = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Person person = new Person("First" + i, "Last" + (i % 5000), new OCCCDate(1 + i % 28, 1 + i % 12, 1900 + i % 120));
+            metas.add(new People.PersonMeta(person, "", i % 3 == 0 ? "alumni" : ""));
+        }
+        people.addAll(metas);
+        return people;
+    }
+
+    // The loop callers write over the whole list: size, then get and getMeta at each index in turn
+    private static double scanMillis(People people, int reads) {
+        long began = System.nanoTime();
+        long acc = 0;
+        for (int done = 0; done < reads; ) {
+            for (int i = 0; i < people.size() && done < reads; i++, done += 2) {
+                acc += people.get(i).getFirstName().length();
+                acc += people.getMeta(i).getPerson().getLastName().length();
+            }
+        }
+        sink = acc;
+        return (System.nanoTime() - began) / 1e6;
+    }
+
+    // Resolves the entries tagged alumni, a third of the list, ten times over
+    private static double tagMillis(People people, boolean bulk) {
+        long began = System.nanoTime();
+        long acc = 0;
+        for (int round = 0; round < 10; round++) {
+            List<People.PersonMeta> hits;
+            if (bulk) {
+                hits = people.matchTags("alumni");
+            } else {
+                List<People.PersonMeta> found = new ArrayList<>();
+                people.queryTags("alumni").forEach(i -> found.add(people.getMeta(i)));
+                hits = found;
+            }
+            for (People.PersonMeta meta : hits) acc += meta.getPerson().getFirstName().length();
+        }
+        sink = acc;
+        return (System.nanoTime() - began) / 1e6;
+    }
+
+    // One read loop: get and getMeta at shuffled positions, as when walking a sorted view or the
+    // hits of a query, checking size every step
+    private static long readLoop(People people, int reads, int[] order) {
+        long acc = 0;
+        for (int i = 0, at = 0; i < reads; i += 2, at = at + 1 == order.length ? 0 : at + 1) {
+            int index = order[at];
+            if (index >= people.size()) continue;
+            acc += people.get(index).getFirstName().length();
+            acc += people.getMeta(index).getPerson().getLastName().length();
+        }
+        sink = acc;
+        return acc;
+    }
+
+    private static int[] shuffled(int count, int seed) {
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) order[i] = i;
+        java.util.Random random = new java.util.Random(seed);
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1), swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+
+    // Milliseconds for every reader to finish its loop; the writer keeps replacing entries until then
+    private static double concurrent(People people, int reads, int threads, boolean writer) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int[] order = shuffled(people.size(), t + 1);
+            Thread reader = new Thread(() -> {
+                awaitQuietly(start);
+                readLoop(people, reads, order);
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        Thread writing = null;
+        if (writer) {
+            writing = new Thread(() -> {
+                awaitQuietly(start);
+                int i = 0;
+                while (!Thread.currentThread().isInterrupted()) {
+                    int index = i++ % people.size();
+                    people.set(index, people.get(index));
+                    Thread.onSpinWait();
+                }
+            });
+            writing.start();
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Thread reader : readers) joinQuietly(reader);
+        long elapsed = System.nanoTime() - began;
+        if (writing != null) {
+            writing.interrupt();
+            joinQuietly(writing);
+        }
+        return elapsed / 1e6;
+    }
+
+    private static double best(Timed run) {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < WARMUP + ROUNDS; round++) {
+            double ms = run.millis();
+            if (round >= WARMUP) best = Math.min(best, ms);
+        }
+        return best;
+    }
+
+    private static double readLoopMillis(People people, int reads, int[] order) {
+        long began = System.nanoTime();
+        readLoop(people, reads, order);
+        return (System.nanoTime() - began) / 1e6;
+    }
+
+    private interface Timed {
+        double millis();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void joinQuietly(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package bench;
+
+import src.date.OCCCDate;
+import src.person.People;
+import src.person.Person;
+import src.person.query.Query;
+import src.person.query.QueryPlan;
+
+import java.util.List;
+
+/**
+ * Regression checks for the description index: edits reindex descriptions, a phrase with an
+ * unknown word finds nothing instead of failing, and desc: plans agree with a full scan.
+ * Run from the project root:
+ *   javac --enable-preview --release 21 -d out PersonApp.java $(find src bench -name '*.java')
+ *   java --enable-preview -cp out bench.TextIndexCheck
+ * Exits with status 1 on the first failed check.
+ */
+public class TextIndexCheck {
+    public static void main(String[] args) {
+        for (People.Storage storage : People.Storage.values()) {
+            People people = new People();
+            people.setStorage(storage);
+            OCCCDate dob = new OCCCDate(23, 6, 1912);
+            people.add(new Person("Grace", "Hopper", dob), "compiler pioneer", "");
+            people.add(new Person("Alan", "Turing", dob), "computing pioneer", "");
+            people.add(new Person("Ada", "Lovelace", dob), "first programmer", "");
+            // Built before the edit, so the edit has to update it
+            check(storage, "pioneer before edit", people.matchDescriptions("pioneer").size(), 2);
+
+            people.updateMeta(1, "wartime codebreaker", "");
+            check(storage, "old word after edit", people.matchDescriptions("pioneer").size(), 1);
+            check(storage, "new word after edit", people.matchDescriptions("codebreaker").size(), 1);
+            check(storage, "search after edit", people.searchDescriptions("codebreaker", 10).size(), 1);
+
+            people.updateAll(meta -> meta.getDescription().contains("programmer")
+                ? new People.PersonMeta(meta.getPerson(), "analytical engine programmer", meta.getTags()) : null);
+            check(storage, "word after updateAll", people.matchDescriptions("engine").size(), 1);
+
+            check(storage, "phrase with unknown word", people.searchDescriptions("pioneer \"zzz yyy\"", 10).size(), 0);
+            check(storage, "unknown phrase alone", people.matchDescriptions("\"zzz yyy\"").size(), 0);
+            check(storage, "known phrase", people.matchDescriptions("\"compiler pioneer\"").size(), 1);
+
+            for (String text : List.of("desc:pioneer", "desc:codebreaker", "desc:engine", "desc:\"wartime codebreaker\"")) {
+                Query query = Query.parse(text);
+                long scan = people.getAllMeta().stream().filter(query::test).count();
+                check(storage, text + " plan vs scan", QueryPlan.compile(query, people).execute().size(), (int) scan);
+            }
+        }
+        System.out.println("TextIndexCheck: all checks passed");
+    }
+
+    private static void check(People.Storage storage, String what, int actual, int expected) {
+        if (actual == expected) return;
+        System.out.println("TextIndexCheck: " + storage + " " + what + ": expected " + expected + ", got " + actual);
+        System.exit(1);
+    }
+}
@@ -21,6 +21,11 @@ public class AppController {
     public static final int DEFAULT_WINDOW_HEIGHT = 500;
     public static final String DEFAULT_THEME = "light";
     public static final String CONFIG_PATH = "data/.config/config";
+    public static final double DEFAULT_BLOOM_FPR = 0.01;
+    public static final int DEFAULT_BLOOM_MAX_KB = 16 * 1024;
+    public static final String DEFAULT_STORAGE = "objects";
+    public static final int DEFAULT_UNDO_MAX_MB = 64;
+    public static final int DEFAULT_COMPRESSION = 1;
 
     // --- State: Data, Config, Theme ---
     private People people = new People();
@@ -28,12 +33,19 @@ public class AppController {
     private boolean modified = false, hasChanges = false;
     private final List<DataChangeListener> listeners = new ArrayList<>();
     private Properties themeProps = new Properties();
+    private final IdAllocator idAllocator = new IdAllocator();
 
     // --- UI/Config State ---
     private int sidebarWidth = DEFAULT_SIDEBAR_WIDTH, filterWidth = DEFAULT_FILTER_WIDTH;
     private double listTerminalDivider = DEFAULT_LIST_TERMINAL_DIVIDER;
     private int windowWidth = DEFAULT_WINDOW_WIDTH, windowHeight = DEFAULT_WINDOW_HEIGHT;
     private String themeName = DEFAULT_THEME;
+    private double bloomFalsePositiveRate = DEFAULT_BLOOM_FPR;
+    private int bloomMaxKB = DEFAULT_BLOOM_MAX_KB;
+    private String storage = DEFAULT_STORAGE;
+    private int undoMaxMB = DEFAULT_UNDO_MAX_MB;
+    private int compression = DEFAULT_COMPRESSION;
+    private final UndoJournal journal = new UndoJournal(DEFAULT_UNDO_MAX_MB * 1024L * 1024L);
 
     // --- Modules ---
     private GuiAPI guiApi;
@@ -75,6 +87,25 @@ public class AppController {
         windowWidth = Integer.parseInt(props.getProperty("WINDOW_WIDTH", String.valueOf(DEFAULT_WINDOW_WIDTH)));
         windowHeight = Integer.parseInt(props.getProperty("WINDOW_HEIGHT", String.valueOf(DEFAULT_WINDOW_HEIGHT)));
         themeName = props.getProperty("THEME", DEFAULT_THEME);
+        try {
+            bloomFalsePositiveRate = Double.parseDouble(props.getProperty("BLOOM_FPR", String.valueOf(DEFAULT_BLOOM_FPR)));
+            bloomMaxKB = Integer.parseInt(props.getProperty("BLOOM_MAX_KB", String.valueOf(DEFAULT_BLOOM_MAX_KB)));
+        } catch (NumberFormatException e) {
+            bloomFalsePositiveRate = DEFAULT_BLOOM_FPR;
+            bloomMaxKB = DEFAULT_BLOOM_MAX_KB;
+        }
+        People.configureKeyFilter(bloomFalsePositiveRate, bloomMaxKB * 1024L);
+        setStorage(props.getProperty("STORAGE", DEFAULT_STORAGE));
+        try {
+            setUndoMaxMB(Integer.parseInt(props.getProperty("UNDO_MAX_MB", String.valueOf(DEFAULT_UNDO_MAX_MB))));
+        } catch (NumberFormatException e) {
+            setUndoMaxMB(DEFAULT_UNDO_MAX_MB);
+        }
+        try {
+            setCompression(Integer.parseInt(props.getProperty("COMPRESSION", String.valueOf(DEFAULT_COMPRESSION))));
+        } catch (NumberFormatException e) {
+            setCompression(DEFAULT_COMPRESSION);
+        }
         // Load date format from config, default to US
         String dateFmt = props.getProperty("DATE_FORMAT", "US");
         try {
@@ -92,6 +123,11 @@ public class AppController {
         props.setProperty("WINDOW_WIDTH", String.valueOf(windowWidth));
         props.setProperty("WINDOW_HEIGHT", String.valueOf(windowHeight));
         props.setProperty("THEME", themeName);
+        props.setProperty("BLOOM_FPR", String.valueOf(bloomFalsePositiveRate));
+        props.setProperty("BLOOM_MAX_KB", String.valueOf(bloomMaxKB));
+        props.setProperty("STORAGE", storage);
+        props.setProperty("UNDO_MAX_MB", String.valueOf(undoMaxMB));
+        props.setProperty("COMPRESSION", String.valueOf(compression));
         // Save date format to config
         props.setProperty("DATE_FORMAT", dateFormat.name());
         try (FileOutputStream fos = new FileOutputStream(configFile)) {
@@ -123,6 +159,45 @@ public class AppController {
     public int getWindowHeight() { return windowHeight; }
     public void setWindowHeight(int h) { windowHeight = h; }
     public String getThemeName() { return themeName; }
+    public double getBloomFalsePositiveRate() { return bloomFalsePositiveRate; }
+    public void setBloomFalsePositiveRate(double fpr) { bloomFalsePositiveRate = fpr; People.configureKeyFilter(bloomFalsePositiveRate, bloomMaxKB * 1024L); }
+    public int getBloomMaxKB() { return bloomMaxKB; }
+    public void setBloomMaxKB(int kb) { bloomMaxKB = kb; People.configureKeyFilter(bloomFalsePositiveRate, bloomMaxKB * 1024L); }
+    public String getStorage() { return storage; }
+    public int getUndoMaxMB() { return undoMaxMB; }
+    public void setUndoMaxMB(int mb) { undoMaxMB = Math.max(0, mb); journal.setMaxBytes(undoMaxMB * 1024L * 1024L); }
+    public int getCompression() { return compression; }
+    /**
+     * Deflate level for saving .ppl files, 0 (no compression: fastest saves, largest files) to 9
+     * (smallest files, most CPU). Files saved at any level open the same way.
+     */
+    public void setCompression(int level) { BlockFile.configureCompression(level); compression = BlockFile.getCompressionLevel(); }
+    /**
+     * Selects how people are held in memory: "objects", "columnar" (primitive columns, far less heap
+     * at scale), "offheap" (outside the heap in direct memory) or "mapped" (outside the heap in
+     * memory-mapped files under data/.cache, for lists larger than memory). Applies to the current
+     * list and to every list loaded later.
+     */
+    public void setStorage(String s) {
+        String previous = storage;
+        storage = s == null ? DEFAULT_STORAGE : s.toLowerCase();
+        People.Storage kind = switch (storage) {
+            case "columnar" -> People.Storage.COLUMNAR;
+            case "offheap", "mapped" -> People.Storage.OFF_HEAP;
+            default -> {
+                storage = DEFAULT_STORAGE;
+                yield People.Storage.OBJECTS;
+            }
+        };
+        File directory = storage.equals("mapped") ? new File("data/.cache") : null;
+        People.configureStorage(kind, directory);
+        if (people.getStorage() != kind || !storage.equals(previous)) {
+            // Between offheap and mapped the kind is the same but the memory is not
+            people.setStorage(People.Storage.OBJECTS);
+            people.setStorage(kind);
+            notifyDataChanged();
+        }
+    }
 
     // --- Date Format Support ---
     public enum DateFormatType { US, EURO, ISO }
@@ -152,6 +227,7 @@ public class AppController {
 
     // --- Data Access/Modification ---
     public People getPeople() { return people; }
+    public IdAllocator getIdAllocator() { return idAllocator; }
     public int size() { return people.size(); }
     public Person getPersonAt(int idx) { return (idx >= 0 && idx < people.size()) ? people.get(idx) : null; }
     public File getCurrentFile() { return currentFile; }
@@ -160,6 +236,8 @@ public class AppController {
     public boolean hasChanges() { return hasChanges; }
     public void clearAll() {
         people.clear();
+        journal.clear();
+        idAllocator.seed(people);
         currentFile = null;
         modified = hasChanges = false;
         notifyDataChanged();
@@ -169,26 +247,101 @@ public class AppController {
     public int loadFromFile(File file) throws Exception {
         People loaded = Dialogs.loadPeopleFromFile(file);
         if (loaded == null) throw new ClassCastException("File does not contain a valid People object");
-        people = loaded;
+        replacePeople(loaded);
+        journal.clear();
+        idAllocator.seed(people);
         currentFile = file;
         modified = hasChanges = false;
+        openIndexes(file);
         notifyDataChanged();
         return people.size();
     }
+    /**
+     * Loads only the people matching a query. Block files skip the blocks whose footer rules
+     * out a match; other formats are read whole and then filtered. The result is not tied to
+     * the file, so saving asks for a name rather than overwriting the full file with a subset.
+     */
+    public BlockFile.Result loadFromFile(File file, src.person.query.Query filter) throws Exception {
+        BlockFile.Result result;
+        if (BlockFile.isBlockFile(file)) {
+            result = BlockFile.read(file, filter::mightMatch, filter::test);
+        } else {
+            People all = Dialogs.loadPeopleFromFile(file);
+            People matching = new People();
+            matching.addAll(all.getAllMeta().stream().filter(filter::test).toList());
+            all.close();
+            result = new BlockFile.Result(matching, 0, 0);
+        }
+        replacePeople(result.people());
+        journal.clear();
+        idAllocator.seed(people);
+        currentFile = null;
+        modified = hasChanges = false;
+        notifyDataChanged();
+        return result;
+    }
     public int saveToFile(File file) throws IOException {
         if (file == null) return 0; // Defensive: do nothing if file is null
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(file))) {
-            oos.writeObject(people);
+        if (isWorkspaceFile(file)) {
+            BlockFile.write(file, people.getAllMeta());
+        } else {
+            try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(file))) {
+                oos.writeObject(people);
+            }
         }
+        if (isWorkspaceFile(file)) writeIndexes(file, people, people.getModCount());
         currentFile = file;
         modified = hasChanges = false;
         notifyDataChanged();
         return people.size();
     }
+    // The list being replaced is emptied so an OFF_HEAP store's files go now
+    private void replacePeople(People next) {
+        People old = people;
+        people = next;
+        if (old != next) old.close();
+    }
+    // --- Sidecar indexes: saved next to .ppl files so reopening does not rebuild them (see IndexSidecar) ---
+    private static boolean isWorkspaceFile(File file) {
+        return file.getName().toLowerCase().endsWith(".ppl");
+    }
+    // Uses a current sidecar, or writes one in the background and then uses that
+    private void openIndexes(File file) {
+        if (!isWorkspaceFile(file) || IndexSidecar.open(file, people, people.getModCount())) return;
+        writeIndexes(file, people, people.getModCount());
+    }
+    // The list is read as it goes rather than copied; an edit before the writer is done abandons the sidecar
+    private void writeIndexes(File file, People target, long saved) {
+        // Stamped now, while the file is the one the list matches; a later save may replace
+        // it before the writer runs, and must not lend its length and hash to these positions
+        long length, hash;
+        try {
+            length = file.length();
+            hash = IndexSidecar.checksum(file);
+        } catch (IOException e) {
+            return; // Only a cache: without it the indexes are built on first use as before
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                IndexSidecar.write(file, length, hash, target, saved);
+                // Attached only if the list is still as saved
+                IndexSidecar.open(file, target, saved);
+            } catch (IOException | java.util.ConcurrentModificationException e) {
+                // Only a cache: without it the indexes are built on first use as before
+            }
+        }, "index-sidecar");
+        worker.setDaemon(true);
+        worker.start();
+    }
     public int loadPeople(File file) throws Exception { return loadFromFile(file); }
     public int savePeople() throws IOException { return saveToFile(currentFile); }
     public int savePeopleAs(File file) throws IOException { return saveToFile(file); }
-    public People importPeople(File file) throws Exception { return Dialogs.loadPeopleFromFile(file); }
+    public People importPeople(File file) throws Exception {
+        // Only read until merged, so kept on the heap rather than in off-heap files
+        People imported = Dialogs.loadPeopleFromFile(file);
+        if (imported != null) imported.setStorage(People.Storage.OBJECTS);
+        return imported;
+    }
     public int exportPeople(People p, File file, String format, java.util.function.Function<OCCCDate, String> dateFormatter) throws IOException {
         return "json".equalsIgnoreCase(format) ? Dialogs.exportToJson(p, file, dateFormatter) : Dialogs.exportToText(p, file, dateFormatter);
     }
@@ -202,15 +355,33 @@ public class AppController {
         String err = validatePersonFields(first, last, dobStr, govID, studentID, -1);
         if (err != null) return new AddResult(false, err);
         Person p = buildPerson(first, last, dobStr, govID, studentID);
-        if (people.add(p, description, tags)) { modified = hasChanges = true; notifyDataChanged(); return new AddResult(true, null); }
+        reserveIDs(p);
+        long before = people.getModCount();
+        if (people.add(p, description, tags)) {
+            int at = people.size() - 1;
+            journal.record(people, before, recordsChange("add of " + p.getFirstName() + " " + p.getLastName(), new int[] {at}, false));
+            modified = hasChanges = true;
+            notifyDataChanged();
+            return new AddResult(true, null);
+        }
         return new AddResult(false, "Failed to add person (unknown error).");
     }
     public AddResult updatePersonFromFields(int idx, String first, String last, String dobStr, String govID, String studentID, String description, String tags) {
         String err = validatePersonFields(first, last, dobStr, govID, studentID, idx);
         if (err != null) return new AddResult(false, err);
         Person p = buildPerson(first, last, dobStr, govID, studentID);
+        reserveIDs(p);
+        long before = people.getModCount();
+        // Entries are replaced, not changed, so the old one still holds the previous values
+        People.PersonMeta old = idx >= 0 && idx < people.size() ? people.getMeta(idx) : null;
         if (people.update(idx, p)) {
             people.updateMeta(idx, description, tags);
+            PackedRecords diff = new PackedRecords();
+            if (diff.addDiff(old, people.getMeta(idx))) {
+                journal.record(people, before, UndoJournal.edits("edit of " + p.getFirstName() + " " + p.getLastName(), new int[] {idx}, diff));
+            } else {
+                journal.skip(people, before);
+            }
             modified = hasChanges = true;
             notifyDataChanged();
             return new AddResult(true, null);
@@ -218,16 +389,264 @@ public class AppController {
         return new AddResult(false, "Failed to update person (unknown error).");
     }
     public boolean deletePersonByIndex(int idx) {
-        boolean removed = people.remove(idx);
-        if (removed) { modified = hasChanges = true; notifyDataChanged(); }
-        return removed;
+        if (idx < 0 || idx >= people.size()) return false;
+        Person p = people.get(idx);
+        return removeRecorded(new int[] {idx}, "delete of " + p.getFirstName() + " " + p.getLastName()) > 0;
     }
     public boolean deletePerson(Person p) {
-        boolean removed = people.remove(p);
-        if (removed) { modified = hasChanges = true; notifyDataChanged(); }
+        return deletePeopleIf(meta -> meta.getPerson().equals(p)) > 0;
+    }
+
+    // --- Batches: one change event each, however many records they touch ---
+    public int addPeople(java.util.Collection<People.PersonMeta> entries) {
+        long modCount = people.getModCount();
+        int before = people.size();
+        people.addAll(entries);
+        int added = people.size() - before;
+        for (People.PersonMeta meta : entries) if (meta != null && meta.getPerson() != null) reserveIDs(meta.getPerson());
+        if (added > 0) {
+            journal.record(people, modCount, recordsChange("add of " + added + " people", java.util.stream.IntStream.range(before, before + added).toArray(), false));
+            modified = hasChanges = true;
+            notifyDataChanged();
+        }
+        return added;
+    }
+    public int updatePeople(java.util.function.Function<People.PersonMeta, People.PersonMeta> update) {
+        return updateRecorded(update, "edit");
+    }
+    /**
+     * Groups the changes made through the controller from now until endBatch into one undo
+     * entry, e.g. an import that adds its records in chunks. Undo waits until the batch ends.
+     */
+    public void beginBatch() {
+        journal.begin();
+    }
+    /**
+     * Ends the batch begun last; it is undone as one, under the given description.
+     */
+    public void endBatch(String description) {
+        journal.end(description);
+        notifyDataChanged();
+    }
+    public int deletePeopleIf(java.util.function.Predicate<People.PersonMeta> filter) {
+        int n = people.size();
+        int[] positions = new int[16];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (!filter.test(people.getMeta(i))) continue;
+            if (count == positions.length) positions = java.util.Arrays.copyOf(positions, count * 2);
+            positions[count++] = i;
+        }
+        return removeRecorded(java.util.Arrays.copyOf(positions, count), null);
+    }
+    public int deletePeopleByIndices(int... indices) {
+        int[] positions = java.util.Arrays.stream(indices).sorted().distinct().toArray();
+        int n = people.size();
+        if (positions.length > 0 && (positions[0] < 0 || positions[positions.length - 1] >= n)) {
+            int bad = positions[0] < 0 ? positions[0] : positions[positions.length - 1];
+            throw new IndexOutOfBoundsException("Index: " + bad + ", Size: " + n);
+        }
+        return removeRecorded(positions, null);
+    }
+
+    // Removes the entries at ascending positions as one journal entry
+    private int removeRecorded(int[] positions, String description) {
+        if (positions.length == 0) return 0;
+        long before = people.getModCount();
+        UndoJournal.Change change = recordsChange(description != null ? description : "delete of " + positions.length + " people", positions, true);
+        int removed = people.removeIndices(positions);
+        journal.record(people, before, change);
+        modified = hasChanges = true;
+        notifyDataChanged();
         return removed;
     }
 
+    // Replaces entries as one journal entry of field differences
+    private int updateRecorded(java.util.function.Function<People.PersonMeta, People.PersonMeta> update, String action) {
+        long before = people.getModCount();
+        PackedRecords diffs = new PackedRecords();
+        java.util.BitSet changed = new java.util.BitSet();
+        // updateAll visits the entries in order, so a running count gives each one's position
+        int[] position = {0};
+        int updated = people.updateAll(meta -> {
+            int at = position[0]++;
+            People.PersonMeta replacement = update.apply(meta);
+            if (replacement == null || replacement == meta || !diffs.addDiff(meta, replacement)) return null;
+            reserveIDs(replacement.getPerson());
+            changed.set(at);
+            return replacement;
+        });
+        if (updated > 0) {
+            UndoJournal.Change change = journal.fits(diffs.byteSize())
+                ? UndoJournal.edits(action + " of " + updated + " people", changed.stream().toArray(), diffs) : null;
+            journal.record(people, before, change);
+            modified = hasChanges = true;
+            notifyDataChanged();
+        }
+        return updated;
+    }
+
+    // The entries at ascending positions, packed; null if they would not fit in the journal
+    private UndoJournal.Change recordsChange(String description, int[] positions, boolean removed) {
+        PackedRecords records = new PackedRecords();
+        for (int i : positions) {
+            records.addRecord(people.getMeta(i));
+            if (!journal.fits(records.byteSize())) return null;
+        }
+        return UndoJournal.records(description, positions, records, removed);
+    }
+
+    /**
+     * Applies a resolved import plan as one batch: every replacement target is located first,
+     * and if any has disappeared nothing is changed. Fires a single change event.
+     * @return Number of people added
+     */
+    public int applyMergePlan(src.app.dialogs.MergePlan plan) {
+        List<src.app.dialogs.MergePlan.Replacement> replacements = plan.getReplacements();
+        int[] targets = new int[replacements.size()];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = replacements.get(i).resolveIndex(people);
+            if (targets[i] < 0) throw new IllegalStateException("The list changed while the import was being resolved; nothing was imported.");
+        }
+        long before = people.getModCount();
+        List<UndoJournal.Change> parts = new ArrayList<>();
+        for (int i = 0; i < targets.length; i++) {
+            Person replacement = replacements.get(i).replacement;
+            People.PersonMeta old = people.getMeta(targets[i]);
+            people.update(targets[i], replacement);
+            reserveIDs(replacement);
+            PackedRecords diff = new PackedRecords();
+            if (diff.addDiff(old, people.getMeta(targets[i]))) parts.add(UndoJournal.edits("edit", new int[] {targets[i]}, diff));
+        }
+        List<People.PersonMeta> additions = plan.getAdditions();
+        int start = people.size();
+        people.addAll(additions);
+        for (People.PersonMeta meta : additions) reserveIDs(meta.getPerson());
+        if (people.size() > start) parts.add(recordsChange("add", java.util.stream.IntStream.range(start, people.size()).toArray(), false));
+        if (parts.contains(null)) journal.record(people, before, null);
+        else if (!parts.isEmpty()) journal.record(people, before, UndoJournal.batch("import of " + plan.getAdditions().size() + " people", parts));
+        else journal.skip(people, before);
+        if (plan.hasChanges()) {
+            modified = hasChanges = true;
+            notifyDataChanged();
+        }
+        return additions.size();
+    }
+
+    // --- Filtered batches: matched off the EDT, applied on it as one undoable batch ---
+    private static final String CHANGED_WHILE_MATCHING = "The list changed while matching; nothing was changed.";
+
+    /**
+     * Positions of the entries a filter accepted, ascending, and the list version they refer to.
+     */
+    public static final class Matches {
+        public final int[] positions;
+        private final People people;
+        private final long modCount;
+        private Matches(People people, long modCount, int[] positions) {
+            this.people = people;
+            this.modCount = modCount;
+            this.positions = positions;
+        }
+        public int size() { return positions.length; }
+    }
+
+    /**
+     * Tests every entry against the filter. Safe to call off the EDT, as long as the filter is:
+     * People's query methods are, its index getters (getTagIndex, getDobIndex, ...) are EDT only.
+     * Interrupting the calling thread cancels the scan.
+     * @param progress Given the number of entries tested every so often, or null
+     * @throws IllegalStateException if the list changed during the scan
+     * @throws java.util.concurrent.CancellationException if the thread was interrupted
+     */
+    public Matches findMatches(java.util.function.Predicate<People.PersonMeta> filter, java.util.function.IntConsumer progress) {
+        People people = this.people;
+        long modCount = people.getModCount();
+        int n = people.size();
+        int[] positions = new int[16];
+        int count = 0;
+        try {
+            for (int i = 0; i < n; i++) {
+                if ((i & 4095) == 0) {
+                    if (Thread.currentThread().isInterrupted()) throw new java.util.concurrent.CancellationException();
+                    if (progress != null) progress.accept(i);
+                }
+                if (!filter.test(people.getMeta(i))) continue;
+                if (count == positions.length) positions = java.util.Arrays.copyOf(positions, count * 2);
+                positions[count++] = i;
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalStateException(CHANGED_WHILE_MATCHING);
+        }
+        if (progress != null) progress.accept(n);
+        if (people.getModCount() != modCount) throw new IllegalStateException(CHANGED_WHILE_MATCHING);
+        return new Matches(people, modCount, java.util.Arrays.copyOf(positions, count));
+    }
+
+    /**
+     * Deletes the matched people in one batch, undone as one.
+     * @throws IllegalStateException if the list has changed since the matches were found
+     */
+    public int deleteMatches(Matches matches) {
+        checkCurrent(matches);
+        return removeRecorded(matches.positions, null);
+    }
+
+    /**
+     * Adds tags to every matched person in one batch, undone as one. Tags a person already
+     * has are skipped.
+     * @return Number of people whose tags changed
+     * @throws IllegalStateException if the list has changed since the matches were found
+     */
+    public int tagMatches(Matches matches, String tags) {
+        checkCurrent(matches);
+        int[] positions = matches.positions;
+        // The next match
+        int[] cursor = {0};
+        int[] position = {0};
+        return updateRecorded(meta -> {
+            int at = position[0]++;
+            if (cursor[0] == positions.length || positions[cursor[0]] != at) return null;
+            cursor[0]++;
+            String current = meta.getTags();
+            String merged = TagIndex.addTags(current, tags);
+            return merged == current ? null : new People.PersonMeta(meta.getPerson(), meta.getDescription(), merged);
+        }, "tagging");
+    }
+
+    private void checkCurrent(Matches matches) {
+        if (matches.people != people || matches.modCount != people.getModCount()) throw new IllegalStateException(CHANGED_WHILE_MATCHING);
+    }
+
+    // --- Undo/Redo: every change made through the controller, as compact deltas (see UndoJournal) ---
+    public UndoJournal getJournal() { return journal; }
+    public boolean canUndo() { return journal.canUndo(people); }
+    public boolean canRedo() { return journal.canRedo(people); }
+    /** What undo() would reverse, e.g. "delete of 12 people", or null. */
+    public String getUndoDescription() { return journal.getUndoDescription(people); }
+    /** What redo() would repeat, or null. */
+    public String getRedoDescription() { return journal.getRedoDescription(people); }
+    /**
+     * Reverses the latest change, firing one change event.
+     * @return false if there is nothing to undo
+     */
+    public boolean undo() {
+        if (!journal.undo(people)) return false;
+        modified = hasChanges = true;
+        notifyDataChanged();
+        return true;
+    }
+    /**
+     * Repeats the latest undone change, firing one change event.
+     * @return false if there is nothing to redo
+     */
+    public boolean redo() {
+        if (!journal.redo(people)) return false;
+        modified = hasChanges = true;
+        notifyDataChanged();
+        return true;
+    }
+
     // --- Validation/Construction Helpers ---
     private String validatePersonFields(String first, String last, String dobStr, String govID, String studentID, int idx) {
         if (first == null || first.trim().isEmpty()) return "First Name cannot be empty.";
@@ -243,12 +662,19 @@ public class AppController {
     private Person buildPerson(String first, String last, String dobStr, String govID, String studentID) {
         // Fix: Always call parseDateUnchecked with both arguments
         OCCCDate dob = parseDateUnchecked(dobStr, dateFormat);
+        first = src.person.StringPool.intern(first);
+        last = src.person.StringPool.intern(last);
         govID = (govID != null && !govID.isEmpty()) ? normalizeID(govID) : null;
         studentID = (studentID != null && !studentID.isEmpty()) ? normalizeID(studentID) : null;
         if (govID != null && studentID != null) return new OCCCPerson(new RegisteredPerson(first, last, dob, govID), studentID);
         if (govID != null) return new RegisteredPerson(first, last, dob, govID);
         return new Person(first, last, dob);
     }
+    // Keeps hand-entered IDs out of the allocator's future output
+    private void reserveIDs(Person p) {
+        if (p instanceof RegisteredPerson rp) idAllocator.reserveGovID(rp.getGovID());
+        if (p instanceof OCCCPerson op) idAllocator.reserveStudentID(op.getStudentID());
+    }
     public static boolean isValidID(String id) { return id != null && id.matches("^[a-zA-Z0-9]*$"); }
     public static String normalizeID(String id) { return id == null ? null : id.toUpperCase(); }
     public static OCCCDate parseDate(String dateStr) throws Exception {
@@ -0,0 +1,108 @@
+package src.app;
+
+import src.person.People;
+
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out unique 8-character government and student IDs for importers and other bulk generators.
+ * Each ID kind walks an atomic sequence through a keyed Feistel permutation of the whole base-36 ID space,
+ * so generated IDs never collide with each other and look random without any locking.
+ * IDs already in the list (seeded from the People ID index) or reserved by callers are skipped.
+ */
+public class IdAllocator {
+    public static final int ID_LENGTH = 8;
+    private static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final long SPACE = pow(DIGITS.length(), ID_LENGTH); // 36^8
+    private static final long HALF = pow(DIGITS.length(), ID_LENGTH / 2); // 36^4, one Feistel half
+    private static final int ROUNDS = 4;
+
+    private final Sequence govIDs = new Sequence();
+    private final Sequence studentIDs = new Sequence();
+
+    /**
+     * Forgets previous reservations and takes the IDs present in the given list.
+     */
+    public void seed(People people) {
+        govIDs.taken.clear();
+        studentIDs.taken.clear();
+        if (people != null) {
+            govIDs.taken.addAll(people.getGovIDs());
+            studentIDs.taken.addAll(people.getStudentIDs());
+        }
+    }
+
+    public String nextGovID() { return govIDs.next(); }
+    public String nextStudentID() { return studentIDs.next(); }
+
+    /**
+     * Marks IDs as used so they are never handed out, e.g. IDs entered by hand or restored from a checkpoint.
+     */
+    public void reserveGovIDs(Collection<String> ids) { govIDs.reserve(ids); }
+    public void reserveStudentIDs(Collection<String> ids) { studentIDs.reserve(ids); }
+    public void reserveGovID(String id) { if (id != null) govIDs.reserve(Set.of(id)); }
+    public void reserveStudentID(String id) { if (id != null) studentIDs.reserve(Set.of(id)); }
+
+    private static class Sequence {
+        private final AtomicLong counter = new AtomicLong();
+        private final Set<String> taken = ConcurrentHashMap.newKeySet();
+        private final long[] roundKeys = new long[ROUNDS];
+
+        Sequence() {
+            SecureRandom random = new SecureRandom();
+            for (int i = 0; i < ROUNDS; i++) roundKeys[i] = random.nextLong();
+        }
+
+        String next() {
+            while (true) {
+                long n = counter.getAndIncrement();
+                if (n >= SPACE) throw new IllegalStateException("ID space exhausted");
+                String id = encode(permute(n));
+                if (!taken.contains(id)) return id;
+            }
+        }
+
+        void reserve(Collection<String> ids) {
+            for (String id : ids) {
+                if (id != null && !id.isEmpty()) taken.add(AppController.normalizeID(id));
+            }
+        }
+
+        // Feistel rounds over the two 4-digit halves; each round is invertible, so distinct sequence numbers give distinct IDs
+        private long permute(long x) {
+            long left = x / HALF, right = x % HALF;
+            for (long key : roundKeys) {
+                long next = (left + mix(right ^ key)) % HALF;
+                left = right;
+                right = next;
+            }
+            return left * HALF + right;
+        }
+    }
+
+    // 64-bit finalizer from MurmurHash3, reduced into one half
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return Math.floorMod(z ^ (z >>> 33), HALF);
+    }
+
+    private static String encode(long x) {
+        char[] id = new char[ID_LENGTH];
+        for (int i = ID_LENGTH - 1; i >= 0; i--) {
+            id[i] = DIGITS.charAt((int) (x % DIGITS.length()));
+            x /= DIGITS.length();
+        }
+        return new String(id);
+    }
+
+    private static long pow(long base, int exp) {
+        long r = 1;
+        for (int i = 0; i < exp; i++) r *= base;
+        return r;
+    }
+}
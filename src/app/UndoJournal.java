@@ -0,0 +1,251 @@
+package src.app;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import src.person.PackedRecords;
+import src.person.People;
+
+/**
+ * Undo and redo history of a People list, kept as inverse deltas rather than copies: an edit
+ * keeps only the fields it changed, an add or delete keeps the positions and the packed records
+ * (see PackedRecords). Each entry is one action, however many records it touched. Entries are
+ * positional, so the journal only applies while the list is exactly as the last recorded or
+ * replayed change left it; a change made around it clears it. Past the memory limit the oldest
+ * entries are dropped.
+ */
+public class UndoJournal {
+    private final Deque<Change> undo = new ArrayDeque<>();
+    private final Deque<Change> redo = new ArrayDeque<>();
+    private long bytes = 0;
+    private long maxBytes;
+    // The list and version the entries apply to
+    private People people;
+    private long modCount;
+    // Changes recorded since begin(), kept as one entry by end(); null when no group is open
+    private List<Change> group;
+    private long groupBytes;
+    // Set when the group can no longer be kept whole, so end() records nothing
+    private boolean groupLost;
+
+    /**
+     * @param maxBytes Memory the entries may use before the oldest are dropped
+     */
+    public UndoJournal(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * One undoable action.
+     */
+    public abstract static class Change {
+        private final String description;
+
+        Change(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() { return description; }
+        abstract void undo(People people);
+        abstract void redo(People people);
+        /** Estimated heap used by the entry. */
+        abstract long bytes();
+    }
+
+    /**
+     * Records added or removed at ascending positions, packed in the same order.
+     */
+    static Change records(String description, int[] positions, PackedRecords records, boolean removed) {
+        records.trim();
+        return new Change(description) {
+            void undo(People people) {
+                if (removed) insert(people);
+                else people.removeIndices(positions);
+            }
+            void redo(People people) {
+                if (removed) people.removeIndices(positions);
+                else insert(people);
+            }
+            private void insert(People people) {
+                List<People.PersonMeta> entries = new java.util.ArrayList<>(positions.length);
+                PackedRecords.Reader reader = records.reader();
+                for (int i = 0; i < positions.length; i++) entries.add(reader.nextRecord());
+                people.insertAll(positions, entries);
+            }
+            long bytes() { return 64 + 4L * positions.length + records.byteSize(); }
+        };
+    }
+
+    /**
+     * Field changes to the records at ascending positions, packed in the same order.
+     */
+    static Change edits(String description, int[] positions, PackedRecords diffs) {
+        diffs.trim();
+        return new Change(description) {
+            void undo(People people) { apply(people, false); }
+            void redo(People people) { apply(people, true); }
+            private void apply(People people, boolean forward) {
+                PackedRecords.Reader reader = diffs.reader();
+                // updateAll visits the entries in order: the next edit and the current position
+                int[] cursor = {0, 0};
+                people.updateAll(meta -> {
+                    int at = cursor[1]++;
+                    if (cursor[0] == positions.length || positions[cursor[0]] != at) return null;
+                    cursor[0]++;
+                    return reader.nextDiff(meta, forward);
+                });
+            }
+            long bytes() { return 64 + 4L * positions.length + diffs.byteSize(); }
+        };
+    }
+
+    /**
+     * Changes made one after another, undone as one.
+     */
+    static Change batch(String description, List<Change> parts) {
+        return new Change(description) {
+            void undo(People people) {
+                for (int i = parts.size() - 1; i >= 0; i--) parts.get(i).undo(people);
+            }
+            void redo(People people) {
+                for (Change part : parts) part.redo(people);
+            }
+            long bytes() {
+                long total = 64;
+                for (Change part : parts) total += part.bytes();
+                return total;
+            }
+        };
+    }
+
+    /**
+     * Adds a change just made to the list, dropping the redo history. Without a change (null,
+     * e.g. one too large to keep) the history is cleared, since it no longer lines up.
+     * @param before The list's mod count before the change
+     */
+    void record(People people, long before, Change change) {
+        if (people != this.people || before != modCount || change == null) clear();
+        redo.forEach(c -> bytes -= c.bytes());
+        redo.clear();
+        this.people = people;
+        modCount = people.getModCount();
+        if (change == null) return;
+        if (group != null) {
+            if (groupLost) return;
+            groupBytes += change.bytes();
+            if (fits(groupBytes)) {
+                group.add(change);
+            } else {
+                // Too large to undo as one, so it cannot be undone at all
+                clear();
+            }
+            return;
+        }
+        undo.push(change);
+        bytes += change.bytes();
+        trim();
+    }
+
+    /**
+     * Notes a change that left every record as it was, keeping the history in line.
+     * @param before The list's mod count before the change
+     */
+    void skip(People people, long before) {
+        if (people != this.people || before != modCount) clear();
+        this.people = people;
+        modCount = people.getModCount();
+    }
+
+    /**
+     * Groups the changes recorded from now until end() into one entry, e.g. an import that
+     * adds its records in chunks. Nothing can be undone or redone while the group is open.
+     */
+    void begin() {
+        group = new ArrayList<>();
+        groupBytes = 0;
+        groupLost = false;
+    }
+
+    /**
+     * Closes the group, keeping its changes as one entry.
+     */
+    void end(String description) {
+        List<Change> parts = group;
+        boolean lost = groupLost;
+        group = null;
+        if (parts == null || lost || parts.isEmpty()) return;
+        Change change = batch(description, parts);
+        undo.push(change);
+        bytes += change.bytes();
+        trim();
+    }
+
+    /** Whether a packed change of this many bytes could be kept at all. */
+    boolean fits(long size) {
+        return size <= maxBytes;
+    }
+
+    public boolean canUndo(People people) { return group == null && isCurrent(people) && !undo.isEmpty(); }
+    public boolean canRedo(People people) { return group == null && isCurrent(people) && !redo.isEmpty(); }
+    public String getUndoDescription(People people) { return canUndo(people) ? undo.peek().getDescription() : null; }
+    public String getRedoDescription(People people) { return canRedo(people) ? redo.peek().getDescription() : null; }
+
+    /**
+     * Reverses the latest change.
+     * @return false if there is nothing to undo
+     */
+    public boolean undo(People people) {
+        if (!canUndo(people)) return false;
+        Change change = undo.pop();
+        change.undo(people);
+        redo.push(change);
+        modCount = people.getModCount();
+        return true;
+    }
+
+    /**
+     * Repeats the latest undone change.
+     * @return false if there is nothing to redo
+     */
+    public boolean redo(People people) {
+        if (!canRedo(people)) return false;
+        Change change = redo.pop();
+        change.redo(people);
+        undo.push(change);
+        modCount = people.getModCount();
+        return true;
+    }
+
+    public void clear() {
+        undo.clear();
+        redo.clear();
+        bytes = 0;
+        if (group != null) {
+            group.clear();
+            groupLost = true;
+        }
+    }
+
+    /** Entries that can be undone, latest first. */
+    public List<Change> getUndoEntries() { return List.copyOf(undo); }
+    /** Entries that can be redone, next first. */
+    public List<Change> getRedoEntries() { return List.copyOf(redo); }
+    public long getBytes() { return bytes; }
+    public long getMaxBytes() { return maxBytes; }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        trim();
+    }
+
+    // Oldest first: the bottom of the undo stack, then the far end of the redo stack
+    private void trim() {
+        while (bytes > maxBytes && !undo.isEmpty()) bytes -= undo.removeLast().bytes();
+        while (bytes > maxBytes && !redo.isEmpty()) bytes -= redo.removeLast().bytes();
+    }
+
+    private boolean isCurrent(People people) {
+        return people == this.people && people.getModCount() == modCount;
+    }
+}
@@ -19,12 +19,15 @@ public class ConflictResolution {
 
     public static class ConflictInfo {
         public final Person existingPerson;
+        /** The entry holding existingPerson, which stays the same object while the entry is unchanged */
+        public final People.PersonMeta existingMeta;
         public final Person newPerson;
         public final int existingIndex;
         public final String conflictType;
         public final String conflictValue;
-        public ConflictInfo(Person existing, Person newP, int index, String type, String value) {
-            this.existingPerson = existing;
+        public ConflictInfo(People.PersonMeta existing, Person newP, int index, String type, String value) {
+            this.existingPerson = existing.getPerson();
+            this.existingMeta = existing;
             this.newPerson = newP;
             this.existingIndex = index;
             this.conflictType = type;
@@ -34,6 +37,8 @@ public class ConflictResolution {
 
     public static ConflictInfo checkForConflict(Person person, People people) {
         if (person == null) return null;
+        // No shared ID or name+DOB key at all, so none of the scans below can match
+        if (!people.mightContainKeyOf(person)) return null;
         if (person instanceof RegisteredPerson) {
             RegisteredPerson regPerson = (RegisteredPerson) person;
             String govID = regPerson.getGovID();
@@ -45,7 +50,7 @@ public class ConflictResolution {
                         if (arePersonsIdentical(existingPerson, person)) {
                             return null;
                         }
-                        return new ConflictInfo(existingPerson, person, i, "govID", govID);
+                        return new ConflictInfo(people.getMeta(i), person, i, "govID", govID);
                     }
                 }
             }
@@ -61,7 +66,7 @@ public class ConflictResolution {
                         if (arePersonsIdentical(existingPerson, person)) {
                             return null;
                         }
-                        return new ConflictInfo(existingPerson, person, i, "studentID", studentID);
+                        return new ConflictInfo(people.getMeta(i), person, i, "studentID", studentID);
                     }
                 }
             }
@@ -77,7 +82,7 @@ public class ConflictResolution {
                     if (person instanceof RegisteredPerson || existingPerson instanceof RegisteredPerson) {
                         continue;
                     }
-                    return new ConflictInfo(existingPerson, person, i, "basicPerson", firstName + " " + lastName);
+                    return new ConflictInfo(people.getMeta(i), person, i, "basicPerson", firstName + " " + lastName);
                 }
             }
         }
@@ -119,6 +124,7 @@ public class ConflictResolution {
 
     public static boolean isExactDuplicate(Person person, People people) {
         if (person == null) return false;
+        if (!people.mightContainNameDOB(person)) return false;
         for (int i = 0; i < people.size(); i++) {
             Person existingPerson = people.get(i);
             if (arePersonsIdentical(existingPerson, person)) {
@@ -218,6 +224,46 @@ public class ConflictResolution {
         }
     }
 
+    /**
+     * Shows every action of a resolved merge plan before it is applied.
+     * @return true if the user chose to apply the plan
+     */
+    public static boolean showMergePlanPreview(MergePlan plan, JFrame parentFrame) {
+        java.util.List<Object[]> rows = new java.util.ArrayList<>();
+        for (MergePlan.Replacement r : plan.getReplacements()) rows.add(previewRow("Replace #" + (r.index + 1), r.replacement));
+        for (People.PersonMeta meta : plan.getAdditions()) rows.add(previewRow("Add", meta.getPerson()));
+        for (ConflictInfo conflict : plan.getConflicts()) {
+            ConflictChoice choice = plan.getChoice(conflict);
+            if (choice != ConflictChoice.USE_NEW) rows.add(previewRow(choice == ConflictChoice.SKIP ? "Skip" : "Keep existing", conflict.newPerson));
+        }
+        for (People.PersonMeta meta : plan.getBatchDuplicates()) rows.add(previewRow("Skip (repeated)", meta.getPerson()));
+        for (MergePlan.NearDuplicate d : plan.getNearDuplicates()) rows.add(previewRow("Skip (like #" + (d.existingIndex + 1) + ")", d.record.getPerson()));
+        String[] columns = {"Action", "First", "Last", "DOB", "GID", "SID"};
+        javax.swing.table.AbstractTableModel model = new javax.swing.table.AbstractTableModel() {
+            public int getRowCount() { return rows.size(); }
+            public int getColumnCount() { return columns.length; }
+            public String getColumnName(int c) { return columns[c]; }
+            public Object getValueAt(int r, int c) { return rows.get(r)[c]; }
+        };
+        JTable table = new JTable(model);
+        table.setEnabled(false);
+        JScrollPane scroll = new JScrollPane(table);
+        scroll.setPreferredSize(new java.awt.Dimension(620, 300));
+        JPanel panel = new JPanel(new java.awt.BorderLayout(10, 10));
+        panel.add(new JLabel(plan.getAdditions().size() + " to add, " + plan.getReplacements().size() + " to replace, "
+            + plan.getSkipped().size() + " to skip, " + plan.getExactDuplicates().size() + " already present."), java.awt.BorderLayout.NORTH);
+        panel.add(scroll, java.awt.BorderLayout.CENTER);
+        Object[] options = {"Apply", "Cancel"};
+        int choice = JOptionPane.showOptionDialog(parentFrame, panel, "Review Import", JOptionPane.DEFAULT_OPTION,
+            JOptionPane.PLAIN_MESSAGE, null, options, options[0]);
+        return choice == 0;
+    }
+
+    private static Object[] previewRow(String action, Person p) {
+        return new Object[]{action, p.getFirstName(), p.getLastName(), formatDateForDisplay(p.getDOB()),
+            p instanceof RegisteredPerson rp ? rp.getGovID() : "", p instanceof OCCCPerson op ? op.getStudentID() : ""};
+    }
+
     public static void highlightDifferences(JPanel panel) {
         java.awt.Component[] components = panel.getComponents();
         Color errorColor = getThemeColor("ERROR", Color.RED);
@@ -13,6 +13,7 @@ public class Dialogs {
     private final JFrame parentFrame;
     private final File DATA_DIRECTORY;
     private final String FILE_EXTENSION;
+    private String lastPrefilterSummary = "";
     private final java.util.function.Function<src.date.OCCCDate, String> dateFormatter = date -> {
         if (date == null) return "";
         return String.format("%02d/%02d/%04d", date.getMonthNumber(), date.getDayOfMonth(), date.getYear());
@@ -51,7 +52,39 @@ public class Dialogs {
         }
     }
 
+    /**
+     * Opens only the people matching a query (see man query in the terminal). Blocks of the file
+     * that cannot hold a match are skipped without being decoded.
+     */
+    public void doOpenFiltered(Runnable clearFields, Runnable clearSelection) {
+        JFileChooser fileChooser = setupFileChooser(DATA_DIRECTORY, FILE_EXTENSION, false);
+        fileChooser.setPreferredSize(new java.awt.Dimension(700, 500));
+        if (fileChooser.showOpenDialog(parentFrame) != JFileChooser.APPROVE_OPTION) return;
+        File selectedFile = fileChooser.getSelectedFile();
+        String query = JOptionPane.showInputDialog(parentFrame, "Load only people matching (e.g. dob:1900..1909 AND tag:physicist):", "Open with Filter", JOptionPane.QUESTION_MESSAGE);
+        if (query == null || query.isBlank()) return;
+        try {
+            src.person.BlockFile.Result result = appController.loadFromFile(selectedFile, src.person.query.Query.parse(query));
+            if (clearFields != null) clearFields.run();
+            if (clearSelection != null) clearSelection.run();
+            appController.notifyDataChanged();
+            String blocks = result.blocks() > 0 ? "\nRead " + result.blocksRead() + " of " + result.blocks() + " blocks." : "";
+            JOptionPane.showMessageDialog(parentFrame, result.people().size() + " matching people loaded" + blocks
+                + "\nSave As to keep them; the file itself is unchanged.", "Load Complete", JOptionPane.INFORMATION_MESSAGE);
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(parentFrame, "Bad query: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(parentFrame, "Error loading file: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            ex.printStackTrace();
+        }
+    }
+
     public void doSave() {
+        // Nothing to save over yet, e.g. after New or Open with Filter
+        if (appController.getCurrentFile() == null) {
+            doSaveAs();
+            return;
+        }
         try {
             int count = appController.savePeople();
             JOptionPane.showMessageDialog(parentFrame, count + " people saved successfully", "Save Complete", JOptionPane.INFORMATION_MESSAGE);
@@ -90,6 +123,9 @@ public class Dialogs {
     public void doImport() {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setPreferredSize(new java.awt.Dimension(700, 500));
+        JCheckBox nearDuplicatesBox = new JCheckBox("<html>Check for<br>near-duplicates</html>", true);
+        nearDuplicatesBox.setToolTipText("Hold back imported people whose name and birth date closely match someone already in the list");
+        fileChooser.setAccessory(nearDuplicatesBox);
         int result = fileChooser.showOpenDialog(parentFrame);
         if (result == JFileChooser.APPROVE_OPTION) {
             File selectedFile = fileChooser.getSelectedFile();
@@ -104,78 +140,10 @@ public class Dialogs {
                     importedPeople = appController.importPeople(selectedFile);
                 }
                 if (importedPeople != null && !importedPeople.isEmpty()) {
-                    int importedCount = 0;
-                    List<ConflictResolution.ConflictInfo> conflicts = new ArrayList<>();
-                    List<Person> handledPersons = new ArrayList<>();
-                    // First, collect all conflicts and duplicates
-                    for (Person person : importedPeople) {
-                        if (person == null) continue;
-                        if (ConflictResolution.isExactDuplicate(person, appController.getPeople())) {
-                            handledPersons.add(person);
-                            continue;
-                        }
-                        ConflictResolution.ConflictInfo conflict = ConflictResolution.checkForConflict(person, appController.getPeople());
-                        if (conflict != null) {
-                            conflicts.add(conflict);
-                            handledPersons.add(person);
-                        }
-                    }
-                    // Resolve conflicts
-                    if (!conflicts.isEmpty()) {
-                        boolean resolveAllRemaining = false;
-                        ConflictResolution.ConflictChoice globalChoice = null;
-                        for (int i = 0; i < conflicts.size(); i++) {
-                            ConflictResolution.ConflictInfo conflict = conflicts.get(i);
-                            ConflictResolution.ConflictChoice choice;
-                            if (!resolveAllRemaining) {
-                                choice = ConflictResolution.showConflictResolutionDialogWithApplyToAll(conflict, conflicts.size() - i, parentFrame);
-                                if (choice == ConflictResolution.ConflictChoice.APPLY_TO_ALL) {
-                                    globalChoice = ConflictResolution.showGlobalResolutionDialog(parentFrame);
-                                    if (globalChoice == ConflictResolution.ConflictChoice.CANCEL) {
-                                        i--; continue;
-                                    }
-                                    resolveAllRemaining = true;
-                                    choice = globalChoice;
-                                }
-                            } else {
-                                choice = globalChoice;
-                            }
-                            if (choice == ConflictResolution.ConflictChoice.CANCEL && !resolveAllRemaining) {
-                                continue;
-                            }
-                            switch (choice) {
-                                case USE_NEW:
-                                    if (appController.getPeople().update(conflict.existingIndex, conflict.newPerson)) {
-                                    }
-                                    break;
-                                case KEEP_EXISTING:
-                                    break;
-                                case SKIP:
-                                    break;
-                                default:
-                                    break;
-                            }
-                        }
-                    }
-                    // Now import only those not handled as duplicate or conflict
-                    for (Person person : importedPeople) {
-                        if (person == null) continue;
-                        if (handledPersons.contains(person)) continue;
-                        if (ConflictResolution.isExactDuplicate(person, appController.getPeople())) {
-                            continue;
-                        }
-                        ConflictResolution.ConflictInfo conflict = ConflictResolution.checkForConflict(person, appController.getPeople());
-                        if (conflict != null) {
-                            continue;
-                        }
-                        if (appController.getPeople().add(person)) {
-                            importedCount++;
-                        }
-                    }
-                    appController.notifyDataChanged();
+                    int importedCount = mergeImport(importedPeople, false, nearDuplicatesBox.isSelected());
                     if (importedCount == 0) {
                         JOptionPane.showMessageDialog(parentFrame,
-                            "No changes were made during import. All entries already exist in the system.",
+                            "No changes were made during import. All entries already exist in the system.\n" + lastPrefilterSummary,
                             "Import Complete", JOptionPane.INFORMATION_MESSAGE);
                     } else {
                         StringBuilder message = new StringBuilder();
@@ -184,6 +152,7 @@ public class Dialogs {
                                 importedCount, 
                                 importedCount == 1 ? "person was" : "people were"));
                         }
+                        message.append("\n").append(lastPrefilterSummary);
                         JOptionPane.showMessageDialog(parentFrame, message.toString(),
                             "Import Complete", JOptionPane.INFORMATION_MESSAGE);
                     }
@@ -285,6 +254,8 @@ public class Dialogs {
             loaded = loadPeopleFromTextFile(file);
         } else if (fileName.endsWith(".json")) {
             loaded = loadPeopleFromJsonFile(file);
+        } else if (src.person.BlockFile.isBlockFile(file)) {
+            return src.person.BlockFile.read(file, null, null).people();
         } else {
             // Default .ser format
             try (FileInputStream fis = new FileInputStream(file);
@@ -297,16 +268,15 @@ public class Dialogs {
                 }
             }
         }
-        // Ensure all entries are PersonMeta (not raw Person)
+        // Copy into a fresh collection, keeping each entry's description and tags
         src.person.People result = new src.person.People();
-        for (src.person.Person p : loaded) {
-            result.add(p); // always wraps in PersonMeta
-        }
+        result.addAll(loaded.getAllMeta());
+        loaded.close();
         return result;
     }
 
     public static src.person.People loadPeopleFromTextFile(File file) throws IOException {
-        src.person.People people = new src.person.People();
+        src.person.People people = new src.person.People(src.person.People.Storage.OBJECTS);
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             String line;
             src.person.Person currentPerson = null;
@@ -353,9 +323,9 @@ public class Dialogs {
                     firstName = lastName = dateStr = govID = studentID = personType = null;
                     currentPerson = null;
                 } else if (line.startsWith("First Name: ")) {
-                    firstName = line.substring("First Name: ".length()).trim();
+                    firstName = src.person.StringPool.intern(line.substring("First Name: ".length()).trim());
                 } else if (line.startsWith("Last Name: ")) {
-                    lastName = line.substring("Last Name: ".length()).trim();
+                    lastName = src.person.StringPool.intern(line.substring("Last Name: ".length()).trim());
                 } else if (line.startsWith("DOB: ")) {
                     dateStr = line.substring("DOB: ".length()).trim();
                 } else if (line.startsWith("Government ID: ")) {
@@ -400,7 +370,7 @@ public class Dialogs {
         }
         
         // After reading all people, ensure all are PersonMeta
-        src.person.People result = new src.person.People();
+        src.person.People result = new src.person.People(src.person.People.Storage.OBJECTS);
         for (src.person.Person p : people) {
             result.add(p);
         }
@@ -408,7 +378,7 @@ public class Dialogs {
     }
 
     public static src.person.People loadPeopleFromJsonFile(File file) throws IOException {
-        src.person.People people = new src.person.People();
+        src.person.People people = new src.person.People(src.person.People.Storage.OBJECTS);
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             StringBuilder json = new StringBuilder();
             String line;
@@ -433,8 +403,8 @@ public class Dialogs {
                     
                     for (String personJson : personObjects) {
                         try {
-                            String firstName = extractJsonValue(personJson, "firstName");
-                            String lastName = extractJsonValue(personJson, "lastName");
+                            String firstName = src.person.StringPool.intern(extractJsonValue(personJson, "firstName"));
+                            String lastName = src.person.StringPool.intern(extractJsonValue(personJson, "lastName"));
                             String dobStr = extractJsonValue(personJson, "dob");
                             String govID = extractJsonValue(personJson, "governmentId");
                             String studentID = extractJsonValue(personJson, "studentId");
@@ -471,7 +441,7 @@ public class Dialogs {
         }
         
         // After reading all people, ensure all are PersonMeta
-        src.person.People result = new src.person.People();
+        src.person.People result = new src.person.People(src.person.People.Storage.OBJECTS);
         for (src.person.Person p : people) {
             result.add(p);
         }
@@ -650,7 +620,7 @@ public class Dialogs {
     }
     
     public static src.person.People importFromText(File file) throws IOException {
-        src.person.People people = new src.person.People();
+        src.person.People people = new src.person.People(src.person.People.Storage.OBJECTS);
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             String line;
             src.person.Person currentPerson = null;
@@ -741,7 +711,7 @@ public class Dialogs {
     }
     
     public static src.person.People importFromJson(File file) throws IOException {
-        src.person.People people = new src.person.People();
+        src.person.People people = new src.person.People(src.person.People.Storage.OBJECTS);
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             StringBuilder jsonContent = new StringBuilder();
             String line;
@@ -785,7 +755,7 @@ public class Dialogs {
         }
         
         // After reading all people, ensure all are PersonMeta
-        src.person.People result = new src.person.People();
+        src.person.People result = new src.person.People(src.person.People.Storage.OBJECTS);
         for (src.person.Person p : people) {
             result.add(p);
         }
@@ -943,84 +913,7 @@ public class Dialogs {
                 return 0;
             }
             
-            int importedCount = 0;
-            List<ConflictResolution.ConflictInfo> conflicts = new ArrayList<>();
-            List<Person> handledPersons = new ArrayList<>();
-            
-            // First, collect all conflicts and duplicates
-            for (Person person : importedPeople) {
-                if (person == null) continue;
-                if (ConflictResolution.isExactDuplicate(person, appController.getPeople())) {
-                    handledPersons.add(person);
-                    continue;
-                }
-                ConflictResolution.ConflictInfo conflict = ConflictResolution.checkForConflict(person, appController.getPeople());
-                if (conflict != null) {
-                    conflicts.add(conflict);
-                    handledPersons.add(person);
-                }
-            }
-            
-            // Resolve conflicts
-            if (!conflicts.isEmpty()) {
-                boolean resolveAllRemaining = false;
-                ConflictResolution.ConflictChoice globalChoice = null;
-                for (int i = 0; i < conflicts.size(); i++) {
-                    ConflictResolution.ConflictInfo conflict = conflicts.get(i);
-                    ConflictResolution.ConflictChoice choice;
-                    if (!silent) {
-                        if (!resolveAllRemaining) {
-                            choice = ConflictResolution.showConflictResolutionDialogWithApplyToAll(conflict, conflicts.size() - i, parentFrame);
-                            if (choice == ConflictResolution.ConflictChoice.APPLY_TO_ALL) {
-                                globalChoice = ConflictResolution.showGlobalResolutionDialog(parentFrame);
-                                if (globalChoice == ConflictResolution.ConflictChoice.CANCEL) {
-                                    i--; continue;
-                                }
-                                resolveAllRemaining = true;
-                                choice = globalChoice;
-                            }
-                        } else {
-                            choice = globalChoice;
-                        }
-                        if (choice == ConflictResolution.ConflictChoice.CANCEL && !resolveAllRemaining) {
-                            continue;
-                        }
-                    } else {
-                        // In silent mode, keep existing by default
-                        choice = ConflictResolution.ConflictChoice.KEEP_EXISTING;
-                    }
-                    
-                    switch (choice) {
-                        case USE_NEW:
-                            if (appController.getPeople().update(conflict.existingIndex, conflict.newPerson)) {
-                            }
-                            break;
-                        case KEEP_EXISTING:
-                            break;
-                        case SKIP:
-                            break;
-                        default:
-                            break;
-                    }
-                }
-            }
-            
-            // Now import only those not handled as duplicate or conflict
-            for (Person person : importedPeople) {
-                if (person == null) continue;
-                if (handledPersons.contains(person)) continue;
-                if (ConflictResolution.isExactDuplicate(person, appController.getPeople())) {
-                    continue;
-                }
-                ConflictResolution.ConflictInfo conflict = ConflictResolution.checkForConflict(person, appController.getPeople());
-                if (conflict != null) {
-                    continue;
-                }
-                if (appController.getPeople().add(person)) {
-                    importedCount++;
-                }
-            }
-            appController.notifyDataChanged();
+            int importedCount = mergeImport(importedPeople, silent, false);
             
             return importedCount;
         } catch (Exception ex) {
@@ -1029,6 +922,81 @@ public class Dialogs {
         }
     }
     
+    /**
+     * Classifies imported people against the current list, lets the user resolve conflicts
+     * (or keeps existing entries when silent) and review the plan, then applies it as one batch.
+     * @param checkNearDuplicates Also offer to hold back new people that closely resemble existing ones
+     * @return Number of people added
+     */
+    private int mergeImport(People importedPeople, boolean silent, boolean checkNearDuplicates) {
+        People people = appController.getPeople();
+        MergePlan plan = new ImportClassifier(people).classify(importedPeople);
+        lastPrefilterSummary = plan.getPrefilterSummary();
+        List<ConflictResolution.ConflictInfo> conflicts = plan.getConflicts();
+        boolean review = false;
+        if (checkNearDuplicates && !silent && !plan.getAdditions().isEmpty()) {
+            review = offerNearDuplicateSkip(plan, people);
+        }
+        if (!conflicts.isEmpty() && !silent) {
+            boolean resolveAllRemaining = false;
+            ConflictResolution.ConflictChoice globalChoice = null;
+            for (int i = 0; i < conflicts.size(); i++) {
+                ConflictResolution.ConflictInfo conflict = conflicts.get(i);
+                ConflictResolution.ConflictChoice choice;
+                if (!resolveAllRemaining) {
+                    choice = ConflictResolution.showConflictResolutionDialogWithApplyToAll(conflict, conflicts.size() - i, parentFrame);
+                    if (choice == ConflictResolution.ConflictChoice.APPLY_TO_ALL) {
+                        globalChoice = ConflictResolution.showGlobalResolutionDialog(parentFrame);
+                        if (globalChoice == ConflictResolution.ConflictChoice.CANCEL) {
+                            i--; continue;
+                        }
+                        resolveAllRemaining = true;
+                        choice = globalChoice;
+                    }
+                } else {
+                    choice = globalChoice;
+                }
+                plan.resolve(conflict, choice);
+            }
+            review = true;
+        }
+        if (review && !ConflictResolution.showMergePlanPreview(plan, parentFrame)) return 0;
+        // In silent mode conflicts keep the existing entry
+        return appController.applyMergePlan(plan);
+    }
+
+    /**
+     * Runs the dedupe engine over the planned additions and asks whether likely duplicates should be skipped.
+     * @return true if any were found
+     */
+    private boolean offerNearDuplicateSkip(MergePlan plan, People people) {
+        List<People.PersonMeta> additions = plan.getAdditions();
+        List<Person> incoming = new ArrayList<>(additions.size());
+        for (People.PersonMeta meta : additions) incoming.add(meta.getPerson());
+        List<src.person.match.DedupeEngine.Match> matches = new src.person.match.DedupeEngine().findMatches(people.getAllPeople(), incoming);
+        if (matches.isEmpty()) return false;
+        // Best match per imported record
+        java.util.Map<Integer, src.person.match.DedupeEngine.Match> best = new java.util.LinkedHashMap<>();
+        for (src.person.match.DedupeEngine.Match m : matches) best.putIfAbsent(m.second, m);
+        src.person.match.DedupeEngine.Match example = matches.get(0);
+        String message = best.size() + (best.size() == 1 ? " imported person looks" : " imported people look")
+            + " like someone already in the list, e.g.\n  " + describe(incoming.get(example.second)) + "  ~  " + describe(people.get(example.first))
+            + "\n\nSkip them?";
+        int choice = JOptionPane.showConfirmDialog(parentFrame, message, "Possible Duplicates", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+        if (choice == JOptionPane.YES_OPTION) {
+            List<MergePlan.NearDuplicate> skipped = new ArrayList<>();
+            for (src.person.match.DedupeEngine.Match m : best.values()) {
+                skipped.add(new MergePlan.NearDuplicate(additions.get(m.second), m.first, people.get(m.first), m.score));
+            }
+            plan.skipNearDuplicates(skipped);
+        }
+        return true;
+    }
+
+    private String describe(Person p) {
+        return p.getFirstName() + " " + p.getLastName() + " (" + dateFormatter.apply(p.getDOB()) + ")";
+    }
+
     /**
      * Get stats about file sizes in data directory
      * @return Stats string
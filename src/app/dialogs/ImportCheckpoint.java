@@ -0,0 +1,124 @@
+package src.app.dialogs;
+
+import src.person.OCCCPerson;
+import src.person.People;
+import src.person.RegisteredPerson;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Progress of a Wikipedia list import, persisted under data/.cache so an interrupted
+ * run (closed dialog, crash) can pick up where it stopped. Holds the full entry list
+ * of the source page and every entry fetched so far, keyed by its position in that list.
+ */
+public class ImportCheckpoint implements Serializable {
+    private static final long serialVersionUID = 1L;
+    public static final String CACHE_DIR = "data/.cache";
+    private static final String PREFIX = "wikipedia-import-";
+    private static final String SUFFIX = ".ckpt";
+
+    private final String sourceUrl;
+    private final List<String[]> entries; // {name, link}
+    private final Map<Integer, People.PersonMeta> completed = new TreeMap<>();
+
+    public ImportCheckpoint(String sourceUrl, List<String[]> entries) {
+        this.sourceUrl = sourceUrl;
+        this.entries = new ArrayList<>(entries);
+    }
+
+    public String getSourceUrl() { return sourceUrl; }
+    public List<String[]> getEntries() { return Collections.unmodifiableList(entries); }
+    public int getEntryCount() { return entries.size(); }
+
+    public synchronized int getCompletedCount() { return completed.size(); }
+
+    public synchronized boolean isCompleted(int entryIndex) {
+        return completed.containsKey(entryIndex);
+    }
+
+    public synchronized void complete(int entryIndex, People.PersonMeta meta) {
+        completed.put(entryIndex, meta);
+    }
+
+    /**
+     * Fetched people in source-list order.
+     */
+    public synchronized List<People.PersonMeta> getCompleted() {
+        return new ArrayList<>(completed.values());
+    }
+
+    /**
+     * Government and student IDs already handed out to fetched people, as {govIDs, studentIDs}.
+     */
+    public synchronized List<Set<String>> getUsedIDs() {
+        Set<String> govIDs = new HashSet<>();
+        Set<String> studentIDs = new HashSet<>();
+        for (People.PersonMeta meta : completed.values()) {
+            if (meta.getPerson() instanceof RegisteredPerson rp) govIDs.add(rp.getGovID());
+            if (meta.getPerson() instanceof OCCCPerson op) studentIDs.add(op.getStudentID());
+        }
+        return List.of(govIDs, studentIDs);
+    }
+
+    /**
+     * Writes to a temp file first so a crash mid-write never leaves a truncated checkpoint.
+     */
+    public synchronized void save() throws IOException {
+        File file = fileFor(sourceUrl);
+        file.getParentFile().mkdirs();
+        File tmp = new File(file.getPath() + ".tmp");
+        try (ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            oos.writeObject(this);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads the checkpoint for a source URL, or null if there is none or it cannot be read.
+     */
+    public static ImportCheckpoint load(String sourceUrl) {
+        ImportCheckpoint checkpoint = read(fileFor(sourceUrl));
+        return checkpoint != null && sourceUrl.equals(checkpoint.sourceUrl) ? checkpoint : null;
+    }
+
+    /**
+     * Most recently written checkpoint of any source, or null.
+     */
+    public static ImportCheckpoint latest() {
+        File[] files = new File(CACHE_DIR).listFiles((_, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+        if (files == null || files.length == 0) return null;
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified).reversed());
+        for (File f : files) {
+            ImportCheckpoint checkpoint = read(f);
+            if (checkpoint != null) return checkpoint;
+        }
+        return null;
+    }
+
+    public static void delete(String sourceUrl) {
+        fileFor(sourceUrl).delete();
+    }
+
+    private static ImportCheckpoint read(File file) {
+        if (!file.isFile()) return null;
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            Object obj = ois.readObject();
+            return obj instanceof ImportCheckpoint checkpoint ? checkpoint : null;
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private static File fileFor(String sourceUrl) {
+        try {
+            byte[] hash = java.security.MessageDigest.getInstance("SHA-1").digest(sourceUrl.getBytes(StandardCharsets.UTF_8));
+            return new File(CACHE_DIR, PREFIX + HexFormat.of().formatHex(hash, 0, 8) + SUFFIX);
+        } catch (java.security.NoSuchAlgorithmException e) {
+            return new File(CACHE_DIR, PREFIX + Integer.toHexString(sourceUrl.hashCode()) + SUFFIX);
+        }
+    }
+}
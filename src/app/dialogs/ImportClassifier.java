@@ -0,0 +1,164 @@
+package src.app.dialogs;
+
+import src.date.OCCCDate;
+import src.person.OCCCPerson;
+import src.person.People;
+import src.person.Person;
+import src.person.RegisteredPerson;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Classifies imported records against the current list using hash indexes built once,
+ * instead of rescanning the list per record. Follows the same rules as
+ * ConflictResolution.isExactDuplicate and checkForConflict: exact duplicates first,
+ * then govID, then studentID, then (first, last, DOB) between unregistered people.
+ * Records the list's key Bloom filter rules out skip the index probes entirely.
+ */
+public class ImportClassifier {
+    // Imports at least this large are matched against the existing list in parallel
+    private static final int PARALLEL_THRESHOLD = 10_000;
+
+    private final People existing;
+    private final Set<String> identities = new HashSet<>();
+    private final Map<String, Integer> govIndex = new HashMap<>();
+    private final Map<String, Integer> studentIndex = new HashMap<>();
+    private final Map<String, Integer> basicIndex = new HashMap<>();
+
+    private volatile boolean indexed = false;
+
+    public ImportClassifier(People existing) {
+        this.existing = existing;
+    }
+
+    // Built on the first possible hit, so imports the Bloom filter clears entirely never pay for it
+    private void ensureIndexes() {
+        if (indexed) return;
+        synchronized (this) {
+            if (indexed) return;
+            buildIndexes();
+            indexed = true;
+        }
+    }
+
+    private void buildIndexes() {
+        for (int i = 0; i < existing.size(); i++) {
+            Person p = existing.get(i);
+            if (p == null) continue;
+            identities.add(identityKey(p));
+            // First holder wins, matching the scan order of checkForConflict
+            if (govIDOf(p) != null) govIndex.putIfAbsent(govIDOf(p), i);
+            if (studentIDOf(p) != null) studentIndex.putIfAbsent(studentIDOf(p), i);
+            if (!(p instanceof RegisteredPerson) && hasName(p)) basicIndex.putIfAbsent(basicKey(p), i);
+        }
+    }
+
+    /**
+     * Classifies every incoming record in one pass over the import.
+     */
+    public MergePlan classify(People incoming) {
+        List<People.PersonMeta> records = incoming.getAllMeta();
+        ConflictResolution.ConflictInfo[] conflicts = new ConflictResolution.ConflictInfo[records.size()];
+        boolean[] duplicate = new boolean[records.size()];
+        LongAdder definiteMisses = new LongAdder(), possibleHits = new LongAdder(), falsePositives = new LongAdder();
+        // The existing-list indexes are read-only from here on, so lookups can run in parallel
+        IntStream range = IntStream.range(0, records.size());
+        if (records.size() >= PARALLEL_THRESHOLD) range = range.parallel();
+        range.forEach(i -> {
+            Person p = records.get(i).getPerson();
+            if (p == null) return;
+            if (!existing.mightContainKeyOf(p)) {
+                definiteMisses.increment();
+                return;
+            }
+            possibleHits.increment();
+            ensureIndexes();
+            if (identities.contains(identityKey(p))) {
+                duplicate[i] = true;
+            } else {
+                conflicts[i] = findConflict(p);
+                if (conflicts[i] == null) falsePositives.increment();
+            }
+        });
+
+        // Records of the import are checked against each other in order, as if added one at a time
+        MergePlan plan = new MergePlan();
+        plan.setPrefilterStats(definiteMisses.sum(), possibleHits.sum(), falsePositives.sum());
+        Set<String> batchIdentities = new HashSet<>();
+        Set<String> batchGovIDs = new HashSet<>();
+        Set<String> batchStudentIDs = new HashSet<>();
+        Set<String> batchBasic = new HashSet<>();
+        for (int i = 0; i < records.size(); i++) {
+            People.PersonMeta meta = records.get(i);
+            Person p = meta.getPerson();
+            if (p == null) continue;
+            if (duplicate[i]) {
+                plan.addExactDuplicate(meta);
+            } else if (conflicts[i] != null) {
+                plan.addConflict(conflicts[i]);
+            } else if (batchIdentities.contains(identityKey(p))) {
+                plan.addExactDuplicate(meta);
+            } else if ((govIDOf(p) != null && batchGovIDs.contains(govIDOf(p)))
+                    || (studentIDOf(p) != null && batchStudentIDs.contains(studentIDOf(p)))
+                    || (!(p instanceof RegisteredPerson) && hasName(p) && batchBasic.contains(basicKey(p)))) {
+                plan.addBatchDuplicate(meta);
+            } else {
+                plan.addNew(meta);
+                batchIdentities.add(identityKey(p));
+                if (govIDOf(p) != null) batchGovIDs.add(govIDOf(p));
+                if (studentIDOf(p) != null) batchStudentIDs.add(studentIDOf(p));
+                if (!(p instanceof RegisteredPerson) && hasName(p)) batchBasic.add(basicKey(p));
+            }
+        }
+        return plan;
+    }
+
+    private ConflictResolution.ConflictInfo findConflict(Person p) {
+        String govID = govIDOf(p);
+        Integer idx = govID != null ? govIndex.get(govID) : null;
+        if (idx != null) return new ConflictResolution.ConflictInfo(existing.getMeta(idx), p, idx, "govID", govID);
+        String studentID = studentIDOf(p);
+        idx = studentID != null ? studentIndex.get(studentID) : null;
+        if (idx != null) return new ConflictResolution.ConflictInfo(existing.getMeta(idx), p, idx, "studentID", studentID);
+        if (!(p instanceof RegisteredPerson) && hasName(p)) {
+            idx = basicIndex.get(basicKey(p));
+            if (idx != null) return new ConflictResolution.ConflictInfo(existing.getMeta(idx), p, idx, "basicPerson", p.getFirstName() + " " + p.getLastName());
+        }
+        return null;
+    }
+
+    // --- Keys ---
+
+    private static boolean hasName(Person p) {
+        return p.getFirstName() != null && !p.getFirstName().isEmpty() && p.getLastName() != null && !p.getLastName().isEmpty();
+    }
+
+    static String basicKey(Person p) {
+        return p.getFirstName() + '\u0000' + p.getLastName() + '\u0000' + packDate(p.getDOB());
+    }
+
+    // Equal keys exactly when ConflictResolution.arePersonsIdentical holds
+    static String identityKey(Person p) {
+        String govID = govIDOf(p), studentID = studentIDOf(p);
+        return basicKey(p) + '\u0000' + (p instanceof RegisteredPerson ? "R" + govID : "-")
+            + '\u0000' + (p instanceof OCCCPerson ? "S" + studentID : "-");
+    }
+
+    static int packDate(OCCCDate d) {
+        return d == null ? 0 : d.getYear() * 10000 + d.getMonthNumber() * 100 + d.getDayOfMonth();
+    }
+
+    private static String govIDOf(Person p) {
+        return p instanceof RegisteredPerson rp ? rp.getGovID() : null;
+    }
+
+    private static String studentIDOf(Person p) {
+        return p instanceof OCCCPerson op ? op.getStudentID() : null;
+    }
+}
@@ -0,0 +1,164 @@
+package src.app.dialogs;
+
+import src.person.People;
+import src.person.Person;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Result of classifying an import against the current list: records that are new,
+ * records already present unchanged, records that collide with an existing person,
+ * and records that collide with an earlier record of the same import.
+ * Once conflicts are resolved the plan describes the whole merge as adds, replacements
+ * and skips, and is applied in one batch by AppController.applyMergePlan.
+ */
+public class MergePlan {
+    private final List<People.PersonMeta> additions = new ArrayList<>();
+    private final List<People.PersonMeta> exactDuplicates = new ArrayList<>();
+    private final List<ConflictResolution.ConflictInfo> conflicts = new ArrayList<>();
+    private final List<People.PersonMeta> batchDuplicates = new ArrayList<>();
+    private final Map<ConflictResolution.ConflictInfo, ConflictResolution.ConflictChoice> choices = new IdentityHashMap<>();
+    private final List<NearDuplicate> nearDuplicates = new ArrayList<>();
+    private long prefilterMisses, prefilterHits, prefilterFalsePositives;
+
+    /**
+     * A new record held back because it looks like an existing person.
+     */
+    public static class NearDuplicate {
+        public final People.PersonMeta record;
+        public final int existingIndex;
+        public final Person existing;
+        public final double score;
+        public NearDuplicate(People.PersonMeta record, int existingIndex, Person existing, double score) {
+            this.record = record;
+            this.existingIndex = existingIndex;
+            this.existing = existing;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Replaces the existing person at an index. The target's entry is kept so it can be found
+     * again if the list moved since the plan was made; entries are compared, not persons, since
+     * slot stores hand out a new person view on every read.
+     */
+    public static class Replacement {
+        public final int index;
+        public final String keyType;
+        public final String keyValue;
+        public final Person existing;
+        public final People.PersonMeta existingMeta;
+        public final Person replacement;
+        Replacement(ConflictResolution.ConflictInfo conflict) {
+            this.index = conflict.existingIndex;
+            this.keyType = conflict.conflictType;
+            this.keyValue = conflict.conflictValue;
+            this.existing = conflict.existingPerson;
+            this.existingMeta = conflict.existingMeta;
+            this.replacement = conflict.newPerson;
+        }
+
+        /**
+         * Current index of the target in the list, or -1 if it is gone or has been edited since.
+         */
+        public int resolveIndex(People people) {
+            if (index >= 0 && index < people.size() && people.getMeta(index) == existingMeta) return index;
+            for (int i = 0; i < people.size(); i++) {
+                if (people.getMeta(i) == existingMeta) return i;
+            }
+            return -1;
+        }
+    }
+
+    void addNew(People.PersonMeta meta) { additions.add(meta); }
+    void addExactDuplicate(People.PersonMeta meta) { exactDuplicates.add(meta); }
+    void addConflict(ConflictResolution.ConflictInfo conflict) { conflicts.add(conflict); }
+    void addBatchDuplicate(People.PersonMeta meta) { batchDuplicates.add(meta); }
+
+    public List<People.PersonMeta> getAdditions() { return Collections.unmodifiableList(additions); }
+    public List<People.PersonMeta> getExactDuplicates() { return Collections.unmodifiableList(exactDuplicates); }
+    public List<ConflictResolution.ConflictInfo> getConflicts() { return Collections.unmodifiableList(conflicts); }
+    public List<People.PersonMeta> getBatchDuplicates() { return Collections.unmodifiableList(batchDuplicates); }
+    public List<NearDuplicate> getNearDuplicates() { return Collections.unmodifiableList(nearDuplicates); }
+
+    public boolean hasConflicts() { return !conflicts.isEmpty(); }
+
+    void setPrefilterStats(long misses, long hits, long falsePositives) {
+        prefilterMisses = misses;
+        prefilterHits = hits;
+        prefilterFalsePositives = falsePositives;
+    }
+
+    /**
+     * How many records the key Bloom filter ruled out, and how many of its possible hits turned out false.
+     */
+    public String getPrefilterSummary() {
+        return String.format("Duplicate prefilter: %d definite misses, %d possible matches (%d false positives).",
+            prefilterMisses, prefilterHits, prefilterFalsePositives);
+    }
+
+    /**
+     * Moves additions that look like existing people out of the plan.
+     */
+    public void skipNearDuplicates(List<NearDuplicate> skipped) {
+        Set<People.PersonMeta> records = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (NearDuplicate d : skipped) {
+            if (records.add(d.record)) nearDuplicates.add(d);
+        }
+        additions.removeIf(records::contains);
+    }
+
+    /**
+     * Records the user's choice for a conflict. Unresolved conflicts keep the existing person.
+     */
+    public void resolve(ConflictResolution.ConflictInfo conflict, ConflictResolution.ConflictChoice choice) {
+        choices.put(conflict, choice);
+    }
+
+    public ConflictResolution.ConflictChoice getChoice(ConflictResolution.ConflictInfo conflict) {
+        return choices.getOrDefault(conflict, ConflictResolution.ConflictChoice.KEEP_EXISTING);
+    }
+
+    /**
+     * Conflicts resolved as USE_NEW, in import order; a later replacement of the same target wins.
+     */
+    public List<Replacement> getReplacements() {
+        List<Replacement> result = new ArrayList<>();
+        for (ConflictResolution.ConflictInfo conflict : conflicts) {
+            if (getChoice(conflict) == ConflictResolution.ConflictChoice.USE_NEW) result.add(new Replacement(conflict));
+        }
+        return result;
+    }
+
+    /**
+     * Imported records that will not be applied: conflicts kept or skipped, repeats within the import
+     * and near-duplicates held back.
+     */
+    public List<Person> getSkipped() {
+        List<Person> result = new ArrayList<>();
+        for (ConflictResolution.ConflictInfo conflict : conflicts) {
+            if (getChoice(conflict) != ConflictResolution.ConflictChoice.USE_NEW) result.add(conflict.newPerson);
+        }
+        for (People.PersonMeta meta : batchDuplicates) result.add(meta.getPerson());
+        for (NearDuplicate d : nearDuplicates) result.add(d.record.getPerson());
+        return result;
+    }
+
+    /**
+     * True if applying the plan would change the list.
+     */
+    public boolean hasChanges() {
+        return !additions.isEmpty() || !getReplacements().isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return additions.size() + " new, " + exactDuplicates.size() + " already present, "
+            + conflicts.size() + " conflicting, " + batchDuplicates.size() + " repeated in import";
+    }
+}
@@ -0,0 +1,214 @@
+package src.app.dialogs;
+
+import src.app.AppController;
+import src.person.People;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.File;
+import java.util.List;
+
+/**
+ * Offline counterpart of WikipediaImportDialog: streams a local Wikidata JSON dump
+ * and adds every matching person straight into the current list.
+ */
+public class WikidataDumpImportDialog extends JDialog {
+    private final AppController appController;
+    private JTextField fileField;
+    private JTextField selectorField;
+    private JCheckBox requireDOBBox;
+    private JProgressBar progressBar;
+    private JTextArea logArea;
+    private JButton startButton;
+    private JButton cancelButton;
+    private JButton closeButton;
+    private WikidataDumpImporter importer;
+
+    public WikidataDumpImportDialog(JFrame parent, AppController appController) {
+        super(parent, "Import People from Wikidata Dump", false);
+        this.appController = appController;
+        setLayout(new BorderLayout(10, 10));
+        setSize(700, 480);
+        setLocationRelativeTo(parent);
+        buildUI();
+        setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+    }
+
+    private void buildUI() {
+        JPanel topPanel = new JPanel();
+        topPanel.setLayout(new BoxLayout(topPanel, BoxLayout.Y_AXIS));
+
+        JPanel blurbPanel = new JPanel(new BorderLayout());
+        JLabel blurbLabel = new JLabel("<html><b>Wikidata Dump Import</b><br>Select a local Wikidata JSON dump (.json, .json.gz or .json.bz2).<br>"
+                + "People are selected by claims, e.g. <i>P106=Q82594</i> (occupation: computer scientist) or <i>P106=Q82594; P27=Q30</i>.<br>"
+                + "Clauses separated by ';' must all match; comma-separated values within a clause are alternatives.</html>");
+        blurbLabel.setFont(blurbLabel.getFont().deriveFont(Font.PLAIN, 13f));
+        blurbPanel.add(blurbLabel, BorderLayout.CENTER);
+        topPanel.add(blurbPanel);
+
+        JPanel filePanel = new JPanel(new BorderLayout(5, 5));
+        fileField = new JTextField();
+        fileField.setFont(fileField.getFont().deriveFont(Font.PLAIN, 14f));
+        JButton browseButton = new JButton("Browse...");
+        browseButton.addActionListener(_ -> browse());
+        filePanel.add(new JLabel("Dump File:"), BorderLayout.WEST);
+        filePanel.add(fileField, BorderLayout.CENTER);
+        filePanel.add(browseButton, BorderLayout.EAST);
+        topPanel.add(filePanel);
+
+        JPanel selectorPanel = new JPanel(new BorderLayout(5, 5));
+        selectorField = new JTextField("P106=Q82594");
+        selectorField.setFont(selectorField.getFont().deriveFont(Font.PLAIN, 14f));
+        selectorPanel.add(new JLabel("Select:"), BorderLayout.WEST);
+        selectorPanel.add(selectorField, BorderLayout.CENTER);
+        topPanel.add(selectorPanel);
+
+        JPanel optionsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        requireDOBBox = new JCheckBox("Only people with a birth date", true);
+        optionsPanel.add(requireDOBBox);
+        topPanel.add(optionsPanel);
+
+        progressBar = new JProgressBar(0, 1000);
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+        topPanel.add(progressBar);
+        add(topPanel, BorderLayout.NORTH);
+
+        logArea = new JTextArea(12, 60);
+        logArea.setEditable(false);
+        add(new JScrollPane(logArea), BorderLayout.CENTER);
+
+        JPanel actionPanel = new JPanel(new BorderLayout());
+        JPanel leftPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        closeButton = new JButton("Close");
+        closeButton.addActionListener(_ -> {
+            if (importer != null) importer.cancel();
+            dispose();
+        });
+        leftPanel.add(closeButton);
+        leftPanel.setOpaque(false);
+        JPanel rightPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        cancelButton = new JButton("Cancel Import");
+        cancelButton.setEnabled(false);
+        cancelButton.addActionListener(_ -> {
+            if (importer != null) importer.cancel();
+            cancelButton.setEnabled(false);
+        });
+        startButton = new JButton("Start Import");
+        startButton.addActionListener(_ -> startImport());
+        rightPanel.add(cancelButton);
+        rightPanel.add(startButton);
+        rightPanel.setOpaque(false);
+        actionPanel.add(leftPanel, BorderLayout.WEST);
+        actionPanel.add(rightPanel, BorderLayout.EAST);
+        actionPanel.setOpaque(false);
+        add(actionPanel, BorderLayout.SOUTH);
+    }
+
+    private void browse() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("Wikidata JSON Dumps (*.json, *.gz, *.bz2)", "json", "gz", "bz2"));
+        if (chooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+            fileField.setText(chooser.getSelectedFile().getAbsolutePath());
+        }
+    }
+
+    private void startImport() {
+        File file = new File(fileField.getText().trim());
+        if (!file.isFile()) {
+            JOptionPane.showMessageDialog(this, "Please choose an existing dump file.", "Invalid File", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        WikidataDumpImporter.Selector selector;
+        try {
+            selector = WikidataDumpImporter.Selector.parse(selectorField.getText());
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "Invalid Selection", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        importer = new WikidataDumpImporter(file, selector);
+        importer.setRequireBirthDate(requireDOBBox.isSelected());
+        final WikidataDumpImporter running = importer;
+        // Chunks are added on the EDT only, so a plain counter is enough
+        final int[] added = {0};
+        // Imported entries whose tags still name occupations by item ID; only these are relabelled at the end
+        final java.util.Set<People.PersonMeta> unresolved = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+        appController.beginBatch();
+        startButton.setEnabled(false);
+        cancelButton.setEnabled(true);
+        logArea.setText("Reading " + file.getName() + " (" + Dialogs.formatFileSize(file.length()) + "), selecting " + selector + "...\n");
+
+        new SwingWorker<WikidataDumpImporter.Result, String>() {
+            private Exception error = null;
+            @Override
+            protected WikidataDumpImporter.Result doInBackground() {
+                try {
+                    // Chunks are added on the EDT through the controller, within one batch so the import
+                    // is undone as one, marking the list modified and reserving IDs; waiting here also
+                    // throttles the reader
+                    return running.run(chunk -> {
+                        try {
+                            SwingUtilities.invokeAndWait(() -> {
+                                int n = appController.addPeople(chunk);
+                                People people = appController.getPeople();
+                                for (int i = people.size() - n; i < people.size(); i++) {
+                                    People.PersonMeta meta = people.getMeta(i);
+                                    if (meta.getTags() != null && meta.getTags().contains("<Q")) unresolved.add(meta);
+                                }
+                                added[0] += n;
+                            });
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } catch (java.lang.reflect.InvocationTargetException e) {
+                            throw new RuntimeException(e.getCause());
+                        }
+                    }, (bytesRead, totalBytes, scanned, matched) -> SwingUtilities.invokeLater(() -> {
+                        int permille = totalBytes > 0 ? (int) Math.min(1000, bytesRead * 1000 / totalBytes) : 0;
+                        progressBar.setValue(permille);
+                        progressBar.setString(String.format("%.1f%%  -  %,d entities scanned, %,d people matched", permille / 10.0, scanned, matched));
+                    }));
+                } catch (Exception ex) {
+                    error = ex;
+                    return null;
+                }
+            }
+            @Override
+            protected void done() {
+                startButton.setEnabled(true);
+                cancelButton.setEnabled(false);
+                WikidataDumpImporter.Result result = null;
+                try {
+                    result = get();
+                } catch (Exception ex) {
+                    error = ex;
+                }
+                if (result != null && !unresolved.isEmpty()) {
+                    // Occupations that appear later in the dump than the people using them get their labels now
+                    final java.util.Map<String, String> labels = result.occupationLabels;
+                    appController.updatePeople(meta -> {
+                        if (!unresolved.contains(meta)) return null;
+                        String resolved = WikidataDumpImporter.resolveTagLabels(meta.getTags(), labels);
+                        if (resolved == null || resolved.equals(meta.getTags())) return null;
+                        return new People.PersonMeta(meta.getPerson(), meta.getDescription(), resolved);
+                    });
+                }
+                appController.endBatch("import of " + added[0] + " people");
+                if (error != null) {
+                    logArea.append("Import stopped: " + error.getMessage() + "\n");
+                    JOptionPane.showMessageDialog(WikidataDumpImportDialog.this, "Dump import failed: " + error.getMessage(), "Import Error", JOptionPane.ERROR_MESSAGE);
+                } else if (result != null) {
+                    logArea.append(String.format("%s: scanned %,d entities, imported %,d people.%n",
+                            result.cancelled ? "Cancelled" : "Done", result.entitiesScanned, added[0]));
+                }
+                importer = null;
+            }
+        }.execute();
+    }
+
+    public static void showDialog(JFrame parent, AppController appController) {
+        SwingUtilities.invokeLater(() -> {
+            WikidataDumpImportDialog dialog = new WikidataDumpImportDialog(parent, appController);
+            dialog.setVisible(true);
+        });
+    }
+}
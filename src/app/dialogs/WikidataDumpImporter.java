@@ -0,0 +1,319 @@
+package src.app.dialogs;
+
+import src.date.OCCCDate;
+import src.person.People;
+import src.person.Person;
+import src.person.StringPool;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams a local Wikidata JSON dump (.json, .json.gz or .json.bz2) and maps matching
+ * human entities to People entries with the same mapping as the live Wikipedia importer.
+ * One reader thread cuts the dump into line chunks, a worker pool maps them in parallel,
+ * and a bounded queue between the two keeps memory flat regardless of dump size.
+ */
+public class WikidataDumpImporter {
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+    private static final int MAX_LABEL_CACHE = 200_000;
+    // Entities that are "instance of" one of these are occupations whose labels we keep for tags
+    private static final Set<String> OCCUPATION_CLASSES = Set.of("Q28640", "Q12737077", "Q4164871");
+    private static final Pattern UNRESOLVED_TAG = Pattern.compile("<(Q\\d+)>");
+    private static final List<String> END_OF_DUMP = new ArrayList<>();
+
+    public interface ProgressListener {
+        void onProgress(long bytesRead, long totalBytes, long entitiesScanned, long peopleMatched);
+    }
+
+    /**
+     * Entity selection by claims, e.g. "P106=Q82594,Q1622272; P27=Q30".
+     * Values within a clause are OR-ed, clauses are AND-ed, and entities must always be humans (P31=Q5).
+     */
+    public static class Selector {
+        private final Map<String, Set<String>> clauses = new LinkedHashMap<>();
+
+        public static Selector parse(String spec) {
+            Selector selector = new Selector();
+            if (spec == null) return selector;
+            for (String clause : spec.split(";")) {
+                clause = clause.trim();
+                if (clause.isEmpty()) continue;
+                int eq = clause.indexOf('=');
+                if (eq <= 0) throw new IllegalArgumentException("Invalid clause (expected P123=Q456,...): " + clause);
+                String property = clause.substring(0, eq).trim().toUpperCase();
+                if (!property.matches("P\\d+")) throw new IllegalArgumentException("Invalid property: " + property);
+                Set<String> values = new LinkedHashSet<>();
+                for (String v : clause.substring(eq + 1).split(",")) {
+                    v = v.trim().toUpperCase();
+                    if (!v.matches("Q\\d+")) throw new IllegalArgumentException("Invalid item ID: " + v);
+                    values.add(v);
+                }
+                selector.clauses.computeIfAbsent(property, _ -> new LinkedHashSet<>()).addAll(values);
+            }
+            return selector;
+        }
+
+        /**
+         * Cheap substring test that rejects most lines before any claim is parsed.
+         */
+        boolean mayMatch(String line) {
+            if (!line.contains("\"" + WikidataMapping.HUMAN + "\"")) return false;
+            for (Set<String> values : clauses.values()) {
+                boolean any = false;
+                for (String v : values) {
+                    if (line.contains("\"" + v + "\"")) { any = true; break; }
+                }
+                if (!any) return false;
+            }
+            return true;
+        }
+
+        boolean matches(String entityJson) {
+            if (!WikidataMapping.extractClaimIds(entityJson, WikidataMapping.INSTANCE_OF).contains(WikidataMapping.HUMAN)) return false;
+            for (Map.Entry<String, Set<String>> clause : clauses.entrySet()) {
+                Set<String> ids = WikidataMapping.extractClaimIds(entityJson, clause.getKey());
+                if (Collections.disjoint(ids, clause.getValue())) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return clauses.isEmpty() ? "all humans" : clauses.toString();
+        }
+    }
+
+    /**
+     * Summary of a finished (or cancelled) run.
+     */
+    public static class Result {
+        public final long entitiesScanned;
+        public final long peopleMatched;
+        public final boolean cancelled;
+        public final Map<String, String> occupationLabels;
+        Result(long scanned, long matched, boolean cancelled, Map<String, String> labels) {
+            this.entitiesScanned = scanned;
+            this.peopleMatched = matched;
+            this.cancelled = cancelled;
+            this.occupationLabels = labels;
+        }
+    }
+
+    private final File dumpFile;
+    private final Selector selector;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private boolean requireBirthDate = true;
+    private volatile boolean cancelled = false;
+    private final Map<String, String> occupationLabels = new ConcurrentHashMap<>();
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong matched = new AtomicLong();
+
+    public WikidataDumpImporter(File dumpFile, Selector selector) {
+        this.dumpFile = dumpFile;
+        this.selector = selector;
+    }
+
+    public void setChunkSize(int chunkSize) { this.chunkSize = Math.max(1, chunkSize); }
+    public void setThreads(int threads) { this.threads = Math.max(1, threads); }
+    public void setRequireBirthDate(boolean requireBirthDate) { this.requireBirthDate = requireBirthDate; }
+    public void cancel() { cancelled = true; }
+
+    /**
+     * Runs the import. The sink receives one mapped chunk at a time from worker threads
+     * and must be thread-safe; blocking in the sink throttles the reader.
+     */
+    public Result run(Consumer<List<People.PersonMeta>> sink, ProgressListener progress) throws IOException, InterruptedException {
+        long totalBytes = dumpFile.length();
+        BlockingQueue<List<String>> queue = new ArrayBlockingQueue<>(threads * 2);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(pool.submit(() -> {
+                while (true) {
+                    List<String> chunk = queue.take();
+                    if (chunk == END_OF_DUMP) return null;
+                    List<People.PersonMeta> mapped = mapChunk(chunk);
+                    if (!mapped.isEmpty() && !cancelled) sink.accept(mapped);
+                }
+            }));
+        }
+        CountingInputStream counter = new CountingInputStream(new FileInputStream(dumpFile));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(openDecompressed(counter), StandardCharsets.UTF_8), 1 << 16)) {
+            List<String> chunk = new ArrayList<>(chunkSize);
+            String line;
+            while (!cancelled && (line = reader.readLine()) != null) {
+                if (line.length() < 2) continue; // "[" and "]" framing lines
+                chunk.add(line);
+                if (chunk.size() >= chunkSize) {
+                    putUnlessFailed(queue, chunk, workers);
+                    chunk = new ArrayList<>(chunkSize);
+                    if (progress != null) progress.onProgress(counter.getCount(), totalBytes, scanned.get(), matched.get());
+                }
+            }
+            if (!chunk.isEmpty() && !cancelled) putUnlessFailed(queue, chunk, workers);
+        } finally {
+            try {
+                endWorkers(queue, workers);
+                pool.shutdown();
+            } catch (InterruptedException e) {
+                // Workers waiting on the queue are interrupted instead
+                pool.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Future<?> f : workers) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                throw new IOException("Dump import failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        if (progress != null) progress.onProgress(counter.getCount(), totalBytes, scanned.get(), matched.get());
+        return new Result(scanned.get(), matched.get(), cancelled, new HashMap<>(occupationLabels));
+    }
+
+    /**
+     * Replaces "&lt;Q123&gt;" placeholders with labels seen later in the dump.
+     */
+    public static String resolveTagLabels(String tags, Map<String, String> labels) {
+        if (tags == null || tags.indexOf("<Q") < 0) return tags;
+        Matcher m = UNRESOLVED_TAG.matcher(tags);
+        StringBuilder sb = new StringBuilder();
+        while (m.find()) {
+            String label = labels.get(m.group(1));
+            m.appendReplacement(sb, Matcher.quoteReplacement("<" + (label != null ? label : m.group(1)) + ">"));
+        }
+        m.appendTail(sb);
+        return sb.toString();
+    }
+
+    // One end marker per worker still running; a full queue nobody takes from is left as it is
+    private void endWorkers(BlockingQueue<List<String>> queue, List<Future<?>> workers) throws InterruptedException {
+        for (int sent = 0; sent < workers.size(); ) {
+            if (queue.offer(END_OF_DUMP, 200, TimeUnit.MILLISECONDS)) sent++;
+            else if (workers.stream().allMatch(Future::isDone)) return;
+        }
+    }
+
+    // Avoids blocking forever on a full queue when every worker has already died
+    private void putUnlessFailed(BlockingQueue<List<String>> queue, List<String> chunk, List<Future<?>> workers) throws InterruptedException, IOException {
+        while (!queue.offer(chunk, 200, TimeUnit.MILLISECONDS)) {
+            if (workers.stream().allMatch(Future::isDone)) throw new IOException("All import workers stopped unexpectedly");
+            if (cancelled) return;
+        }
+    }
+
+    private List<People.PersonMeta> mapChunk(List<String> lines) {
+        List<People.PersonMeta> result = new ArrayList<>();
+        for (String line : lines) {
+            scanned.incrementAndGet();
+            String entity = line.endsWith(",") ? line.substring(0, line.length() - 1) : line;
+            if (selector.mayMatch(entity)) {
+                People.PersonMeta meta = mapEntity(entity);
+                if (meta != null) {
+                    result.add(meta);
+                    matched.incrementAndGet();
+                }
+            } else if (occupationLabels.size() < MAX_LABEL_CACHE) {
+                rememberOccupationLabel(entity);
+            }
+        }
+        return result;
+    }
+
+    private People.PersonMeta mapEntity(String entity) {
+        if (!selector.matches(entity)) return null;
+        String label = WikidataMapping.extractLabel(entity);
+        if (label.isEmpty()) return null;
+        OCCCDate dob = WikidataMapping.extractBirthDate(entity);
+        if (dob == null) {
+            if (requireBirthDate) return null;
+            dob = WikidataMapping.unknownDOB();
+        }
+        String[] name = WikidataMapping.splitName(label);
+        String tags = WikidataMapping.formatTags(WikidataMapping.extractOccupationIds(entity), occupationLabels, true);
+        return new People.PersonMeta(new Person(StringPool.intern(name[0]), StringPool.intern(name[1]), dob), WikidataMapping.extractDescription(entity), StringPool.intern(tags));
+    }
+
+    private void rememberOccupationLabel(String entity) {
+        boolean candidate = false;
+        for (String cls : OCCUPATION_CLASSES) {
+            if (entity.contains("\"" + cls + "\"")) { candidate = true; break; }
+        }
+        if (!candidate) return;
+        if (Collections.disjoint(WikidataMapping.extractClaimIds(entity, WikidataMapping.INSTANCE_OF), OCCUPATION_CLASSES)) return;
+        String id = WikidataMapping.extractId(entity);
+        String label = WikidataMapping.extractLabel(entity);
+        if (id != null && !label.isEmpty()) occupationLabels.put(id, label);
+    }
+
+    private InputStream openDecompressed(InputStream raw) throws IOException {
+        String name = dumpFile.getName().toLowerCase();
+        if (name.endsWith(".gz")) return new GZIPInputStream(raw, 1 << 16);
+        if (name.endsWith(".bz2")) return openBzip2(raw);
+        return raw;
+    }
+
+    /**
+     * The JDK has no bzip2 codec, so .bz2 dumps are piped through the system bzip2 tool.
+     * The compressed bytes are still fed from our counting stream so progress stays accurate.
+     */
+    private InputStream openBzip2(InputStream raw) throws IOException {
+        Process process;
+        try {
+            process = new ProcessBuilder("bzip2", "-dc").redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        } catch (IOException e) {
+            raw.close();
+            throw new IOException("Reading .bz2 dumps requires the 'bzip2' command on the PATH. Decompress the dump first or use the .json.gz version.", e);
+        }
+        Thread pump = new Thread(() -> {
+            try (InputStream in = raw; OutputStream out = process.getOutputStream()) {
+                in.transferTo(out);
+            } catch (IOException ignored) {
+                // Reader side closed early (cancel) or bzip2 exited
+            }
+        }, "bzip2-pump");
+        pump.setDaemon(true);
+        pump.start();
+        return new FilterInputStream(process.getInputStream()) {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                process.destroy();
+            }
+        };
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private volatile long count = 0;
+        CountingInputStream(InputStream in) { super(in); }
+        long getCount() { return count; }
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package src.app.dialogs;
+
+import src.date.OCCCDate;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps raw Wikidata entity JSON onto Person fields without a JSON library.
+ * Shared by the live Wikipedia importer (wbgetentities responses) and the offline
+ * dump importer (one entity per line), so both produce the same names, birth dates,
+ * descriptions and occupation tags.
+ */
+public final class WikidataMapping {
+    public static final String BIRTH_DATE = "P569";
+    public static final String OCCUPATION = "P106";
+    public static final String INSTANCE_OF = "P31";
+    public static final String HUMAN = "Q5";
+
+    private WikidataMapping() {}
+
+    /**
+     * Placeholder DOB used when an entity has no usable P569 claim.
+     */
+    public static OCCCDate unknownDOB() {
+        return new OCCCDate(1, 1, 1);
+    }
+
+    /**
+     * Returns the JSON object for one entity inside a wbgetentities response,
+     * or the whole string if it cannot be located.
+     */
+    public static String entityObject(String json, String entityId) {
+        int entities = findKey(json, "entities", 0, json.length());
+        if (entities < 0) return json;
+        int[] range = valueRange(json, entities);
+        if (range == null) return json;
+        int key = findKey(json, entityId, range[0] + 1, range[1]);
+        if (key < 0) return json;
+        int[] entity = valueRange(json, key);
+        return entity == null ? json : json.substring(entity[0], entity[1] + 1);
+    }
+
+    /**
+     * The entity's own ID ("Q42"), or null.
+     */
+    public static String extractId(String entityJson) {
+        int key = findKey(entityJson, "id", 0, entityJson.length());
+        if (key < 0) return null;
+        int start = skipToValue(entityJson, key);
+        return start >= 0 && entityJson.charAt(start) == '"' ? readString(entityJson, start) : null;
+    }
+
+    /**
+     * English label (labels.en.value), or empty string.
+     */
+    public static String extractLabel(String entityJson) {
+        return extractLanguageValue(entityJson, "labels");
+    }
+
+    /**
+     * English description (descriptions.en.value), or empty string.
+     */
+    public static String extractDescription(String entityJson) {
+        return extractLanguageValue(entityJson, "descriptions");
+    }
+
+    /**
+     * Every label in a wbgetentities response, keyed by entity ID.
+     */
+    public static Map<String, String> extractLabels(String json) {
+        Map<String, String> labels = new LinkedHashMap<>();
+        int entities = findKey(json, "entities", 0, json.length());
+        int[] range = entities < 0 ? null : valueRange(json, entities);
+        if (range == null) return labels;
+        int i = range[0] + 1;
+        while (i < range[1]) {
+            int quote = json.indexOf('"', i);
+            if (quote < 0 || quote >= range[1]) break;
+            String id = readString(json, quote);
+            int[] entity = valueRange(json, quote);
+            if (entity == null) break;
+            String label = extractLabel(json.substring(entity[0], entity[1] + 1));
+            if (!label.isEmpty()) labels.put(id, label);
+            i = entity[1] + 1;
+        }
+        return labels;
+    }
+
+    /**
+     * First parseable P569 (date of birth) value, or null if none.
+     */
+    public static OCCCDate extractBirthDate(String entityJson) {
+        for (String time : extractClaimValues(entityJson, BIRTH_DATE, "time")) {
+            OCCCDate dob = parseWikidataTime(time);
+            if (dob != null) return dob;
+        }
+        return null;
+    }
+
+    /**
+     * Parses a Wikidata time value such as "+1815-12-10T00:00:00Z".
+     * Month or day precision of 00 is widened to 1 like the live importer always did.
+     */
+    public static OCCCDate parseWikidataTime(String time) {
+        if (time == null || time.length() < 11) return null;
+        try {
+            int dash = time.indexOf('-', 1);
+            if (dash < 0 || time.charAt(0) == '-') return null;
+            int year = Integer.parseInt(time.substring(1, dash));
+            int month = Integer.parseInt(time.substring(dash + 1, dash + 3));
+            int day = Integer.parseInt(time.substring(dash + 4, dash + 6));
+            if (month == 0) month = 1;
+            if (day == 0) day = 1;
+            if (year < 1 || !OCCCDate.isValidDate(day, month, year)) return null;
+            return new OCCCDate(day, month, year);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Item IDs referenced by the main snaks of a property (e.g. P106 occupations).
+     */
+    public static Set<String> extractClaimIds(String entityJson, String property) {
+        return extractClaimValues(entityJson, property, "id");
+    }
+
+    /**
+     * Occupation IDs (P106).
+     */
+    public static Set<String> extractOccupationIds(String entityJson) {
+        return extractClaimIds(entityJson, OCCUPATION);
+    }
+
+    /**
+     * Formats occupation IDs as "&lt;label&gt;&lt;label&gt;" tags. IDs without a known label
+     * are kept as "&lt;Q123&gt;" when keepUnresolved is set, otherwise dropped.
+     */
+    public static String formatTags(Collection<String> ids, Map<String, String> labels, boolean keepUnresolved) {
+        StringBuilder tags = new StringBuilder();
+        for (String id : ids) {
+            String label = labels.get(id);
+            if (label != null) {
+                tags.append('<').append(label).append('>');
+            } else if (keepUnresolved) {
+                tags.append('<').append(id).append('>');
+            }
+        }
+        return tags.toString();
+    }
+
+    /**
+     * Splits a display name the way the Wikipedia list importer does:
+     * first word is the first name, last word is the last name.
+     */
+    public static String[] splitName(String name) {
+        String[] parts = name.trim().split(" ");
+        String first = parts.length > 1 ? parts[0] : name.trim();
+        String last = parts.length > 1 ? parts[parts.length - 1] : "";
+        return new String[]{first, last};
+    }
+
+    // --- Raw JSON helpers ---
+
+    private static String extractLanguageValue(String entityJson, String section) {
+        int key = findKey(entityJson, section, 0, entityJson.length());
+        if (key < 0) return "";
+        int[] sectionRange = valueRange(entityJson, key);
+        if (sectionRange == null) return "";
+        int en = findKey(entityJson, "en", sectionRange[0] + 1, sectionRange[1]);
+        if (en < 0) return "";
+        int[] enRange = valueRange(entityJson, en);
+        if (enRange == null) return "";
+        int value = findKey(entityJson, "value", enRange[0] + 1, enRange[1]);
+        if (value < 0) return "";
+        int start = skipToValue(entityJson, value);
+        return start >= 0 && entityJson.charAt(start) == '"' ? readString(entityJson, start) : "";
+    }
+
+    /**
+     * Collects one field (e.g. "id" or "time") of datavalue.value for each main snak of a claim.
+     */
+    private static Set<String> extractClaimValues(String entityJson, String property, String field) {
+        Set<String> values = new LinkedHashSet<>();
+        int claims = findKey(entityJson, "claims", 0, entityJson.length());
+        if (claims < 0) return values;
+        int[] claimsRange = valueRange(entityJson, claims);
+        if (claimsRange == null) return values;
+        int prop = findKey(entityJson, property, claimsRange[0] + 1, claimsRange[1]);
+        if (prop < 0) return values;
+        int[] statements = valueRange(entityJson, prop);
+        if (statements == null) return values;
+        int i = statements[0];
+        while (true) {
+            int snak = findKey(entityJson, "mainsnak", i, statements[1]);
+            if (snak < 0) break;
+            int[] snakRange = valueRange(entityJson, snak);
+            if (snakRange == null) break;
+            int dv = findKey(entityJson, "datavalue", snakRange[0], snakRange[1]);
+            int[] dvRange = dv < 0 ? null : valueRange(entityJson, dv);
+            int v = dvRange == null ? -1 : findKey(entityJson, "value", dvRange[0] + 1, dvRange[1]);
+            int[] valueRange = v < 0 ? null : valueRange(entityJson, v);
+            if (valueRange != null) {
+                int f = findKey(entityJson, field, valueRange[0] + 1, valueRange[1]);
+                int start = f < 0 ? -1 : skipToValue(entityJson, f);
+                if (start >= 0 && entityJson.charAt(start) == '"') values.add(readString(entityJson, start));
+            }
+            i = snakRange[1] + 1;
+        }
+        return values;
+    }
+
+    /**
+     * Index of the opening quote of "key": within [from, to), or -1.
+     */
+    static int findKey(String json, String key, int from, int to) {
+        String needle = "\"" + key + "\"";
+        int idx = json.indexOf(needle, from);
+        while (idx >= 0 && idx < to) {
+            int after = idx + needle.length();
+            while (after < json.length() && Character.isWhitespace(json.charAt(after))) after++;
+            if (after < json.length() && json.charAt(after) == ':') return idx;
+            idx = json.indexOf(needle, idx + 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Index of the first character of the value belonging to the key at keyIdx.
+     */
+    static int skipToValue(String json, int keyIdx) {
+        int colon = json.indexOf(':', keyIdx);
+        if (colon < 0) return -1;
+        int i = colon + 1;
+        while (i < json.length() && Character.isWhitespace(json.charAt(i))) i++;
+        return i < json.length() ? i : -1;
+    }
+
+    /**
+     * [open, close] indexes of the object or array value for the key at keyIdx.
+     */
+    static int[] valueRange(String json, int keyIdx) {
+        int start = skipToValue(json, keyIdx);
+        if (start < 0) return null;
+        char c = json.charAt(start);
+        if (c != '{' && c != '[') return null;
+        int end = matchBracket(json, start);
+        return end < 0 ? null : new int[]{start, end};
+    }
+
+    /**
+     * Finds the bracket closing the one at openIdx, skipping over string contents.
+     */
+    static int matchBracket(String json, int openIdx) {
+        int depth = 0;
+        boolean inString = false;
+        for (int i = openIdx; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (inString) {
+                if (c == '\\') i++;
+                else if (c == '"') inString = false;
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                if (--depth == 0) return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads and unescapes the JSON string whose opening quote is at quoteIdx.
+     */
+    static String readString(String json, int quoteIdx) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = quoteIdx + 1; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (c == '"') break;
+            if (c != '\\' || i + 1 >= json.length()) {
+                sb.append(c);
+                continue;
+            }
+            char e = json.charAt(++i);
+            switch (e) {
+                case 'n': sb.append('\n'); break;
+                case 't': sb.append('\t'); break;
+                case 'r': sb.append('\r'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    if (i + 4 < json.length()) {
+                        try {
+                            sb.append((char) Integer.parseInt(json.substring(i + 1, i + 5), 16));
+                            i += 4;
+                        } catch (NumberFormatException ex) {
+                            sb.append('u');
+                        }
+                    }
+                    break;
+                default: sb.append(e);
+            }
+        }
+        return sb.toString();
+    }
+}
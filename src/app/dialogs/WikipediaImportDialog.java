@@ -5,6 +5,7 @@ import src.person.Person;
 import src.person.People;
 import src.person.RegisteredPerson;
 import src.person.OCCCPerson;
+import src.person.StringPool;
 import src.date.OCCCDate;
 
 import javax.swing.*;
@@ -15,8 +16,6 @@ import java.net.URI;
 import java.net.URL;
 import java.util.*;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class WikipediaImportDialog extends JDialog {
     private final AppController appController;
@@ -43,6 +42,14 @@ public class WikipediaImportDialog extends JDialog {
     }
 
     private List<PersonWithMeta> scrapedPeople = new ArrayList<>();
+    private volatile ImportCheckpoint activeCheckpoint;
+    private volatile boolean closed = false;
+    // Entries whose first/last word marks them as non-person links
+    private static final String[] FORBIDDEN_FIRST = {"List", "Common", "Dynamic", "Category", "Template", "Portal", "Index", "Outline", "Main", "Help", "Special", "Wikipedia", "Wikidata", "Commons", "File", "Talk", "Draft", "Module", "Book", "Topic", "Glossary", "Timeline", "Bibliography", "See", "References", "External", "Navigation", "Authority", "Control"};
+    private static final String[] FORBIDDEN_LAST = {"people", "scientists", "sciences)", "Wikidata", "Commons", "Wikipedia", "articles", "(disambiguation)", "(surname)", "(given", "(name)", "(computer", "(mathematician)", "(engineer)", "(scientist)", "(author)", "(programmer)", "(theorist)", "(inventor)", "(researcher)", "(academic)", "(professor)", "(administrator)", "(biologist)", "(chemist)", "(physicist)", "(statistician)", "(philosopher)", "(linguist)", "(psychologist)", "(sociologist)", "(economist)", "(entrepreneur)", "(businessman)", "(businesswoman)", "(politician)", "(artist)", "(writer)", "(poet)", "(composer)", "(musician)", "(actor)", "(director)", "(producer)", "(journalist)", "(editor)", "(publisher)", "(cartoonist)", "(illustrator)", "(designer)", "(architect)", "(lawyer)", "(judge)", "(doctor)", "(physician)", "(surgeon)", "(dentist)", "(nurse)", "(veterinarian)", "(pharmacist)", "(engineer)", "(pilot)", "(astronaut)", "(athlete)", "(coach)", "(referee)", "(umpire)", "(trainer)", "(manager)", "(owner)", "(executive)", "(administrator)", "(consultant)", "(advisor)", "(counselor)", "(therapist)", "(social", "(activist)", "(advocate)", "(organizer)", "(volunteer)", "(philanthropist)", "(benefactor)", "(patron)", "(supporter)", "(sponsor)", "(donor)", "(contributor)", "(member)", "(participant)", "(attendee)", "(guest)", "(visitor)", "(resident)", "(citizen)", "(immigrant)", "(emigrant)", "(expatriate)", "(refugee)", "(migrant)", "(traveler)", "(tourist)", "(explorer)", "(adventurer)", "(pioneer)", "(settler)", "(colonist)", "(missionary)", "(clergy)", "(priest)", "(minister)", "(pastor)", "(rabbi)", "(imam)", "(monk)", "(nun)", "(bishop)", "(cardinal)", "(pope)", "(saint)", "(martyr)", "(prophet)", "(apostle)", "(disciple)", "(patriarch)", "(matriarch)", "(deacon)", "(elder)", "(preacher)", "(evangelist)", "(missionary)", "(theologian)", "(philosopher)", "(scholar)", "(teacher)", "(student)", "(alumnus)", "(alumna)", "(graduate)", "(undergraduate)", "(postgraduate)", "(fellow)", "(intern)", "(apprentice)", "(trainee)", "(candidate)", "(nominee)", "(winner)", "(finalist)", "(runner-up)", "(champion)", "(medalist)", "(record", "(holder)", "(titleholder)", "(defender)", "(challenger)", "(contender)", "(opponent)", "(rival)", "(competitor)", "(teammate)", "(partner)", "(collaborator)", "(co-author)", "(co-founder)", "(co-inventor)", "(co-owner)", "(co-director)", "(co-producer)", "(co-star)", "(co-host)", "(co-anchor)", "(co-editor)", "(co-pilot)", "(co-driver)", "(co-captain)", "(co-chair)", "(co-president)", "(co-CEO)", "(co-manager)", "(coordinator)", "(facilitator)", "(moderator)", "(mediator)", "(arbitrator)", "(negotiator)", "(representative)", "(delegate)", "(envoy)", "(ambassador)", "(consul)", "(attaché)", "(diplomat)", "(emissary)", "(messenger)", "(herald)", "(spokesperson)", "(press", "(secretary)", "(aide)", "(assistant)", "(associate)", "(colleague)", "(peer)", "(counterpart)", "(successor)", "(predecessor)", "(ancestor)", "(descendant)", "(relative)", "(kin)", "(family)", "(parent)", "(mother)", "(father)", "(child)", "(son)", "(daughter)", "(sibling)", "(brother)", "(sister)", "(uncle)", "(aunt)", "(nephew)", "(niece)", "(cousin)", "(grandparent)", "(grandmother)", "(grandfather)", "(grandchild)", "(grandson)", "(granddaughter)", "(in-law)", "(step", "(half", "(adopted)", "(foster)", "(guardian)", "(ward)", "(godparent)", "(godchild)", "(mentor)", "(mentee)", "(protege)", "(beneficiary)", "(heir)", "(legatee)", "(testator)", "(testatrix)", "(executor)", "(administrator)", "(trustee)", "(custodian)", "(conservator)", "(receiver)", "(liquidator)", "(insolvent)", "(debtor)", "(creditor)", "(claimant)", "(plaintiff)", "(defendant)", "(appellant)", "(respondent)", "(petitioner)", "(complainant)", "(accused)", "(suspect)", "(victim)", "(witness)", "(informant)", "(whistleblower)", "(leaker)", "(source)", "(contact)", "(confidant)", "(confidante)", "(friend)", "(acquaintance)", "(neighbor)", "(stranger)"};
+    // Fetched entries between checkpoint writes
+    private static final int CHECKPOINT_INTERVAL = 25;
+
 
     public WikipediaImportDialog(JFrame parent, AppController appController) {
         super(parent, "Import People from Wikipedia", false);
@@ -142,80 +149,120 @@ public class WikipediaImportDialog extends JDialog {
             JOptionPane.showMessageDialog(this, "Please enter a valid Wikipedia URL.", "Invalid URL", JOptionPane.ERROR_MESSAGE);
             return;
         }
+        ImportCheckpoint resumeFrom = ImportCheckpoint.load(url);
+        if (resumeFrom != null) {
+            int choice = JOptionPane.showConfirmDialog(this,
+                "An unfinished import of this list was found (" + resumeFrom.getCompletedCount() + " of " + resumeFrom.getEntryCount() + " people fetched).\nResume it?",
+                "Resume Import", JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.QUESTION_MESSAGE);
+            if (choice == JOptionPane.CANCEL_OPTION || choice == JOptionPane.CLOSED_OPTION) return;
+            if (choice == JOptionPane.NO_OPTION) {
+                ImportCheckpoint.delete(url);
+                resumeFrom = null;
+            }
+        }
+        final ImportCheckpoint resumed = resumeFrom;
         fetchButton.setEnabled(false);
         previewArea.setText("");
         new SwingWorker<List<PersonWithMeta>, String>() {
             private Exception error = null;
+            // Set when the last checkpoint write failed, so there is nothing current to resume from
+            private IOException saveError = null;
             @Override
             protected List<PersonWithMeta> doInBackground() {
                 List<PersonWithMeta> peopleWithMeta = new ArrayList<>();
+                ImportCheckpoint checkpoint = resumed;
                 try {
-                    publish("Fetching Wikipedia list page...\n");
-                    String html = fetchHtml(url);
-                    publish("Parsing names and links from list...\n");
-                    List<PersonEntry> entries = extractNamesAndLinksFromWikipediaList(html);
-                    // Filter out garbage entries
-                    Set<String> forbiddenFirst = new HashSet<>(Arrays.asList("List", "Common", "Dynamic", "Category", "Template", "Portal", "Index", "Outline", "Main", "Help", "Special", "Wikipedia", "Wikidata", "Commons", "File", "Talk", "Draft", "Module", "Book", "Topic", "Glossary", "Timeline", "Bibliography", "See", "References", "External", "Navigation", "Authority", "Control"));
-                    Set<String> forbiddenLast = new HashSet<>(Arrays.asList("people", "scientists", "sciences)", "Wikidata", "Commons", "Wikipedia", "articles", "(disambiguation)", "(surname)", "(given", "(name)", "(computer", "(mathematician)", "(engineer)", "(scientist)", "(author)", "(programmer)", "(theorist)", "(inventor)", "(researcher)", "(academic)", "(professor)", "(administrator)", "(biologist)", "(chemist)", "(physicist)", "(statistician)", "(philosopher)", "(linguist)", "(psychologist)", "(sociologist)", "(economist)", "(entrepreneur)", "(businessman)", "(businesswoman)", "(politician)", "(artist)", "(writer)", "(poet)", "(composer)", "(musician)", "(actor)", "(director)", "(producer)", "(journalist)", "(editor)", "(publisher)", "(cartoonist)", "(illustrator)", "(designer)", "(architect)", "(lawyer)", "(judge)", "(doctor)", "(physician)", "(surgeon)", "(dentist)", "(nurse)", "(veterinarian)", "(pharmacist)", "(engineer)", "(pilot)", "(astronaut)", "(athlete)", "(coach)", "(referee)", "(umpire)", "(trainer)", "(manager)", "(owner)", "(executive)", "(administrator)", "(consultant)", "(advisor)", "(counselor)", "(therapist)", "(social", "(activist)", "(advocate)", "(organizer)", "(volunteer)", "(philanthropist)", "(benefactor)", "(patron)", "(supporter)", "(sponsor)", "(donor)", "(contributor)", "(member)", "(participant)", "(attendee)", "(guest)", "(visitor)", "(resident)", "(citizen)", "(immigrant)", "(emigrant)", "(expatriate)", "(refugee)", "(migrant)", "(traveler)", "(tourist)", "(explorer)", "(adventurer)", "(pioneer)", "(settler)", "(colonist)", "(missionary)", "(clergy)", "(priest)", "(minister)", "(pastor)", "(rabbi)", "(imam)", "(monk)", "(nun)", "(bishop)", "(cardinal)", "(pope)", "(saint)", "(martyr)", "(prophet)", "(apostle)", "(disciple)", "(patriarch)", "(matriarch)", "(deacon)", "(elder)", "(preacher)", "(evangelist)", "(missionary)", "(theologian)", "(philosopher)", "(scholar)", "(teacher)", "(student)", "(alumnus)", "(alumna)", "(graduate)", "(undergraduate)", "(postgraduate)", "(fellow)", "(intern)", "(apprentice)", "(trainee)", "(candidate)", "(nominee)", "(winner)", "(finalist)", "(runner-up)", "(champion)", "(medalist)", "(record", "(holder)", "(titleholder)", "(defender)", "(challenger)", "(contender)", "(opponent)", "(rival)", "(competitor)", "(teammate)", "(partner)", "(collaborator)", "(co-author)", "(co-founder)", "(co-inventor)", "(co-owner)", "(co-director)", "(co-producer)", "(co-star)", "(co-host)", "(co-anchor)", "(co-editor)", "(co-pilot)", "(co-driver)", "(co-captain)", "(co-chair)", "(co-president)", "(co-CEO)", "(co-manager)", "(coordinator)", "(facilitator)", "(moderator)", "(mediator)", "(arbitrator)", "(negotiator)", "(representative)", "(delegate)", "(envoy)", "(ambassador)", "(consul)", "(attaché)", "(diplomat)", "(emissary)", "(messenger)", "(herald)", "(spokesperson)", "(press", "(secretary)", "(aide)", "(assistant)", "(associate)", "(colleague)", "(peer)", "(counterpart)", "(successor)", "(predecessor)", "(ancestor)", "(descendant)", "(relative)", "(kin)", "(family)", "(parent)", "(mother)", "(father)", "(child)", "(son)", "(daughter)", "(sibling)", "(brother)", "(sister)", "(uncle)", "(aunt)", "(nephew)", "(niece)", "(cousin)", "(grandparent)", "(grandmother)", "(grandfather)", "(grandchild)", "(grandson)", "(granddaughter)", "(in-law)", "(step", "(half", "(adopted)", "(foster)", "(guardian)", "(ward)", "(godparent)", "(godchild)", "(mentor)", "(mentee)", "(protege)", "(beneficiary)", "(heir)", "(legatee)", "(testator)", "(testatrix)", "(executor)", "(administrator)", "(trustee)", "(custodian)", "(conservator)", "(receiver)", "(liquidator)", "(insolvent)", "(debtor)", "(creditor)", "(claimant)", "(plaintiff)", "(defendant)", "(appellant)", "(respondent)", "(petitioner)", "(complainant)", "(accused)", "(suspect)", "(victim)", "(witness)", "(informant)", "(whistleblower)", "(leaker)", "(source)", "(contact)", "(confidant)", "(confidante)", "(friend)", "(acquaintance)", "(neighbor)", "(stranger)"));
-                    List<PersonEntry> filteredEntries = new ArrayList<>();
-                    for (PersonEntry entry : entries) {
-                        String[] parts = entry.name.split(" ");
-                        String first = parts.length > 1 ? parts[0] : entry.name;
-                        String last = parts.length > 1 ? parts[parts.length - 1] : "";
-                        if (forbiddenFirst.contains(first) || forbiddenLast.contains(last)) continue;
-                        filteredEntries.add(entry);
+                    if (checkpoint == null) {
+                        publish("Fetching Wikipedia list page...\n");
+                        String html = fetchHtml(url);
+                        publish("Parsing names and links from list...\n");
+                        List<PersonEntry> entries = extractNamesAndLinksFromWikipediaList(html);
+                        // Filter out garbage entries
+                        Set<String> forbiddenFirst = new HashSet<>(Arrays.asList(FORBIDDEN_FIRST));
+                        Set<String> forbiddenLast = new HashSet<>(Arrays.asList(FORBIDDEN_LAST));
+                        List<String[]> filteredEntries = new ArrayList<>();
+                        for (PersonEntry entry : entries) {
+                            String[] name = WikidataMapping.splitName(entry.name);
+                            if (forbiddenFirst.contains(name[0]) || forbiddenLast.contains(name[1])) continue;
+                            filteredEntries.add(new String[]{entry.name, entry.link});
+                        }
+                        checkpoint = new ImportCheckpoint(url, filteredEntries);
+                        checkpoint.save();
+                        publish("Filtered to " + checkpoint.getEntryCount() + " valid entries. Fetching Wikidata in parallel...\n");
+                    } else {
+                        publish("Resuming: " + checkpoint.getCompletedCount() + " of " + checkpoint.getEntryCount() + " entries already fetched.\n");
                     }
-                    int total = filteredEntries.size();
-                    publish("Filtered to " + total + " valid entries. Fetching Wikidata in parallel...\n");
-                    Set<String> usedGovIDs = Collections.synchronizedSet(new HashSet<>());
-                    Set<String> usedStudentIDs = Collections.synchronizedSet(new HashSet<>());
-                    Random rand = new Random();
+                    activeCheckpoint = checkpoint;
+                    final ImportCheckpoint progress = checkpoint;
+                    List<String[]> entries = checkpoint.getEntries();
+                    int total = entries.size();
+                    // IDs handed out before the interruption stay taken
+                    src.app.IdAllocator ids = appController.getIdAllocator();
+                    List<Set<String>> resumedIDs = checkpoint.getUsedIDs();
+                    ids.reserveGovIDs(resumedIDs.get(0));
+                    ids.reserveStudentIDs(resumedIDs.get(1));
                     int nThreads = Math.min(16, Runtime.getRuntime().availableProcessors() * 2);
                     java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(nThreads);
-                    List<java.util.concurrent.Future<PersonWithMeta>> futures = new ArrayList<>();
-                    java.util.concurrent.atomic.AtomicInteger completed = new java.util.concurrent.atomic.AtomicInteger(0);
-                    for (PersonEntry entry : filteredEntries) {
+                    List<java.util.concurrent.Future<?>> futures = new ArrayList<>();
+                    java.util.concurrent.atomic.AtomicInteger completed = new java.util.concurrent.atomic.AtomicInteger(checkpoint.getCompletedCount());
+                    for (int i = 0; i < total; i++) {
+                        if (checkpoint.isCompleted(i)) continue;
+                        final int entryIndex = i;
+                        final String entryName = entries.get(i)[0];
+                        final String entryLink = entries.get(i)[1];
                         futures.add(pool.submit(() -> {
-                            String[] parts = entry.name.split(" ");
-                            String first = parts.length > 1 ? parts[0] : entry.name;
-                            String last = parts.length > 1 ? parts[parts.length - 1] : "";
+                            if (closed) return null;
+                            String[] name = WikidataMapping.splitName(entryName);
+                            String first = name[0];
+                            String last = name[1];
                             int done = completed.incrementAndGet();
-                            final String entryName = entry.name;
-                            PersonWithMeta pwm = fetchPersonWithMetaFromWikidata(entry.link, first, last, msg -> publish("[" + done + "/" + total + "] " + entryName + ": " + msg + "\n"));
-                            // Optionally, fetch description/tags from Wikidata or fallback to HTML as before
-                            // ...existing random ID logic...
+                            PersonWithMeta pwm = fetchPersonWithMetaFromWikidata(entryLink, first, last, msg -> publish("[" + done + "/" + total + "] " + entryName + ": " + msg + "\n"));
                             String govID = null, studentID = null;
-                            if (randomizeGovIDBox.isSelected()) {
-                                do { govID = randomID(rand, 8); } while (usedGovIDs.contains(govID));
-                                usedGovIDs.add(govID);
-                            }
-                            if (randomizeStudentIDBox.isSelected()) {
-                                do { studentID = randomID(rand, 8); } while (usedStudentIDs.contains(studentID));
-                                usedStudentIDs.add(studentID);
-                            }
+                            if (randomizeGovIDBox.isSelected()) govID = ids.nextGovID();
+                            if (randomizeStudentIDBox.isSelected()) studentID = ids.nextStudentID();
                             Person p = pwm.person;
                             if (govID != null && studentID != null) {
                                 p = new OCCCPerson(new RegisteredPerson(p.getFirstName(), p.getLastName(), p.getDOB(), govID), studentID);
                             } else if (govID != null) {
                                 p = new RegisteredPerson(p.getFirstName(), p.getLastName(), p.getDOB(), govID);
                             }
-                            return new PersonWithMeta(p, pwm.description, pwm.tags);
+                            progress.complete(entryIndex, new People.PersonMeta(p, pwm.description, pwm.tags));
+                            if (done % CHECKPOINT_INTERVAL == 0) {
+                                try {
+                                    progress.save();
+                                } catch (IOException e) {
+                                    // Keep going; the next checkpoint may succeed
+                                }
+                            }
+                            return null;
                         }));
                     }
                     pool.shutdown();
-                    for (java.util.concurrent.Future<PersonWithMeta> f : futures) {
+                    for (java.util.concurrent.Future<?> f : futures) {
                         try {
-                            PersonWithMeta pwm = f.get();
-                            if (pwm != null) peopleWithMeta.add(pwm);
+                            f.get();
                         } catch (Exception e) {
                             // Log error for this entry
                         }
                     }
-                    publish("Done fetching all Wikidata.\n");
+                    for (People.PersonMeta meta : checkpoint.getCompleted()) {
+                        // Entries resumed from the checkpoint file were deserialized unpooled
+                        StringPool.intern(meta.getPerson());
+                        peopleWithMeta.add(new PersonWithMeta(meta.getPerson(), meta.getDescription(), StringPool.intern(meta.getTags())));
+                    }
+                    if (!closed) publish("Done fetching all Wikidata.\n");
                     return peopleWithMeta;
                 } catch (Exception ex) {
                     error = ex;
                     return Collections.emptyList();
+                } finally {
+                    if (checkpoint != null) {
+                        try {
+                            checkpoint.save();
+                        } catch (IOException e) {
+                            saveError = e;
+                        }
+                    }
                 }
             }
             @Override
@@ -227,6 +274,13 @@ public class WikipediaImportDialog extends JDialog {
             @Override
             protected void done() {
                 fetchButton.setEnabled(true);
+                if (saveError != null) {
+                    previewArea.append("Could not save progress for resume: " + saveError.getMessage() + "\n");
+                    JOptionPane.showMessageDialog(WikipediaImportDialog.this, "Progress could not be saved, so this import cannot be resumed later:\n"
+                        + saveError.getMessage(), "Progress Not Saved", JOptionPane.WARNING_MESSAGE);
+                } else if (closed) {
+                    previewArea.append("Stopped; progress saved for resume.\n");
+                }
                 try {
                     if (error != null) {
                         previewArea.append("\n");
@@ -418,12 +472,12 @@ public class WikipediaImportDialog extends JDialog {
         appendDebug(null, msg);
     }
 
-    // Improved: robustly extract all P569 (birth date) 'time' fields after locating 'P569' in Wikidata JSON
+    // Maps the Wikidata entity through WikidataMapping, then prefers the Wikipedia intro as description
     private PersonWithMeta fetchPersonWithMetaFromWikidata(String relativeLink, String first, String last, java.util.function.Consumer<String> logger) {
         String entityId = getWikidataEntityIdFromWikipedia(relativeLink);
         String description = "";
         StringBuilder occcTags = new StringBuilder();
-        OCCCDate dob = new OCCCDate(1, 1, 1);
+        OCCCDate dob = WikidataMapping.unknownDOB();
         String intro = "";
         String pageTitle = relativeLink.replace("/wiki/", "");
         if (entityId == null) {
@@ -433,90 +487,26 @@ public class WikipediaImportDialog extends JDialog {
                 // Fetch Wikidata entity info
                 String props = "claims%7Cdescriptions%7Clabels";
                 String apiUrl = "https://www.wikidata.org/w/api.php?action=wbgetentities&ids=" + entityId + "&props=" + props + "&languages=en&format=json";
-                String json = fetchHtml(apiUrl);
-                String entityKey = "\"" + entityId + "\"";
-                int entityIdx = json.indexOf(entityKey);
-                if (entityIdx == -1) entityIdx = 0;
+                String entity = WikidataMapping.entityObject(fetchHtml(apiUrl), entityId);
                 // --- Description (from Wikidata) ---
-                int descRoot = json.indexOf("\"descriptions\"", entityIdx);
-                if (descRoot != -1) {
-                    int enIdx = json.indexOf("\"en\"", descRoot);
-                    if (enIdx != -1 && enIdx < json.indexOf("}", descRoot)) {
-                        int valIdx = json.indexOf("\"value\"", enIdx);
-                        if (valIdx != -1 && valIdx < json.indexOf("}", enIdx)) {
-                            int colon = json.indexOf(':', valIdx);
-                            int quote1 = json.indexOf('"', colon + 1);
-                            int quote2 = json.indexOf('"', quote1 + 1);
-                            if (quote1 != -1 && quote2 != -1) {
-                                description = json.substring(quote1 + 1, quote2);
-                                logger.accept("Wikidata description: " + description);
-                            }
-                        }
-                    }
+                String wikidataDesc = WikidataMapping.extractDescription(entity);
+                if (!wikidataDesc.isEmpty()) {
+                    description = wikidataDesc;
+                    logger.accept("Wikidata description: " + description);
                 }
                 // --- Birthday (P569) ---
-                int p569Idx = json.indexOf("\"P569\"");
-                boolean foundDOB = false;
-                if (p569Idx != -1) {
-                    int timeIdx = json.indexOf("\"time\"", p569Idx);
-                    while (timeIdx != -1) {
-                        int quote1 = json.indexOf('"', timeIdx + 7);
-                        int quote2 = json.indexOf('"', quote1 + 1);
-                        if (quote1 != -1 && quote2 != -1) {
-                            String time = json.substring(quote1 + 1, quote2);
-                            if (time.length() >= 11) {
-                                try {
-                                    int year = Integer.parseInt(time.substring(1, 5));
-                                    int month = Integer.parseInt(time.substring(6, 8));
-                                    int day = Integer.parseInt(time.substring(9, 11));
-                                    if (month == 0) month = 1;
-                                    if (day == 0) day = 1;
-                                    dob = new OCCCDate(day, month, year);
-                                    logger.accept("Wikidata birthdate: " + year + "-" + month + "-" + day);
-                                    foundDOB = true;
-                                    break;
-                                } catch (Exception parseEx) {
-                                    logger.accept("Wikidata date parse error: " + parseEx.getMessage());
-                                }
-                            }
-                        }
-                        // Look for next '"time"' after this one
-                        timeIdx = json.indexOf("\"time\"", quote2);
-                    }
-                    if (!foundDOB) {
-                        logger.accept("No valid 'time' field found for P569");
-                    }
+                OCCCDate birthDate = WikidataMapping.extractBirthDate(entity);
+                if (birthDate != null) {
+                    dob = birthDate;
+                    logger.accept("Wikidata birthdate: " + dob.getYear() + "-" + dob.getMonthNumber() + "-" + dob.getDayOfMonth());
                 } else {
-                    logger.accept("No P569 (birthdate) property found");
+                    logger.accept("No valid P569 (birthdate) found");
                 }
                 // --- Tags (occupations, P106) ---
-                Set<String> occcIds = new LinkedHashSet<>();
-                int claimsIdxForTags = json.indexOf("\"claims\"", entityIdx);
-                int p106Idx = json.indexOf("\"P106\"", claimsIdxForTags);
-                if (p106Idx != -1) {
-                    int searchIdx = p106Idx;
-                    while (true) {
-                        int idIdx = json.indexOf("\"id\"", searchIdx);
-                        if (idIdx == -1 || idIdx > json.indexOf("\"labels\"", entityIdx)) break;
-                        int colon = json.indexOf(':', idIdx);
-                        int quote1 = json.indexOf('"', colon + 1);
-                        int quote2 = json.indexOf('"', quote1 + 1);
-                        if (quote1 == -1 || quote2 == -1) break;
-                        String occcId = json.substring(quote1 + 1, quote2);
-                        if (!occcId.startsWith("Q")) break;
-                        occcIds.add(occcId);
-                        searchIdx = quote2 + 1;
-                    }
-                }
-                // Fetch occupation labels robustly
-                for (String occcId : occcIds) {
-                    // Try to find the label for this occupation QID
-                    Pattern occcLabelPattern = Pattern.compile("\"" + occcId + "\"\\s*:\\s*\\{[^}]*?\"en\"\\s*:\\s*\\{[^}]*?\"value\"\\s*:\\s*\"([^\"]+)\"", Pattern.DOTALL);
-                    Matcher occcLabelMatcher = occcLabelPattern.matcher(json);
-                    if (occcLabelMatcher.find()) {
-                        String label = occcLabelMatcher.group(1);
-                        occcTags.append("<").append(label).append(">");
-                    }
+                Set<String> occcIds = WikidataMapping.extractOccupationIds(entity);
+                if (!occcIds.isEmpty()) {
+                    String labelsUrl = "https://www.wikidata.org/w/api.php?action=wbgetentities&ids=" + String.join("%7C", occcIds) + "&props=labels&languages=en&format=json";
+                    occcTags.append(WikidataMapping.formatTags(occcIds, WikidataMapping.extractLabels(fetchHtml(labelsUrl)), false));
                 }
                 if (occcTags.length() == 0) {
                     logger.accept("No occupation tags found");
@@ -546,17 +536,9 @@ public class WikipediaImportDialog extends JDialog {
             }
         }
         // Use first/last from arguments (from PersonEntry)
-        return new PersonWithMeta(new Person(first, last, dob), description, occcTags.toString());
+        return new PersonWithMeta(new Person(StringPool.intern(first), StringPool.intern(last), dob), description, StringPool.intern(occcTags.toString()));
     }
 
-    private String randomID(Random rand, int len) {
-        String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < len; i++) {
-            sb.append(chars.charAt(rand.nextInt(chars.length())));
-        }
-        return sb.toString();
-    }
 
     private String peoplePreview(List<PersonWithMeta> people) {
         StringBuilder sb = new StringBuilder();
@@ -584,15 +566,13 @@ public class WikipediaImportDialog extends JDialog {
             JOptionPane.showMessageDialog(this, "No people to import. Fetch a Wikipedia list first.", "Nothing to Import", JOptionPane.WARNING_MESSAGE);
             return;
         }
-        int imported = 0;
+        List<People.PersonMeta> entries = new ArrayList<>(scrapedPeople.size());
         for (PersonWithMeta pwm : scrapedPeople) {
-            Person p = pwm.person;
-            String desc = pwm.description;
-            String tags = pwm.tags;
-            boolean added = appController.getPeople().add(p, desc, tags);
-            if (added) imported++;
+            entries.add(new People.PersonMeta(pwm.person, pwm.description, pwm.tags));
         }
-        appController.notifyDataChanged(); // Flag data as changed for save prompt
+        // One batch and one change event, which also flags the data for the save prompt
+        int imported = appController.addPeople(entries);
+        discardCheckpoint();
         JOptionPane.showMessageDialog(this, imported + " people imported.", "Import Complete", JOptionPane.INFORMATION_MESSAGE);
         SwingUtilities.invokeLater(() -> dispose());
     }
@@ -615,7 +595,7 @@ public class WikipediaImportDialog extends JDialog {
         if (result == JFileChooser.APPROVE_OPTION) {
             File file = fileChooser.getSelectedFile();
             try {
-                People people = new People();
+                People people = new People(People.Storage.OBJECTS);
                 for (PersonWithMeta pwm : scrapedPeople) {
                     people.add(pwm.person, pwm.description, pwm.tags);
                 }
@@ -629,6 +609,7 @@ public class WikipediaImportDialog extends JDialog {
                     }
                 }
                 JOptionPane.showMessageDialog(this, "Exported " + people.size() + " people.", "Export Complete", JOptionPane.INFORMATION_MESSAGE);
+                discardCheckpoint();
                 dispose();
             } catch (Exception ex) {
                 JOptionPane.showMessageDialog(this, "Export failed: " + ex.getMessage(), "Export Error", JOptionPane.ERROR_MESSAGE);
@@ -636,10 +617,30 @@ public class WikipediaImportDialog extends JDialog {
         }
     }
 
+    // The fetched people have been imported or exported, so there is nothing left to resume
+    private void discardCheckpoint() {
+        ImportCheckpoint checkpoint = activeCheckpoint;
+        if (checkpoint != null) ImportCheckpoint.delete(checkpoint.getSourceUrl());
+        activeCheckpoint = null;
+    }
+
+    @Override
+    public void dispose() {
+        // Lets a running fetch stop early; its progress is written to the checkpoint
+        closed = true;
+        super.dispose();
+    }
+
     public static void showDialog(JFrame parent, AppController appController) {
         SwingUtilities.invokeLater(() -> {
             WikipediaImportDialog dialog = new WikipediaImportDialog(parent, appController);
             dialog.setVisible(true); // Only call setVisible(true) after construction
+            ImportCheckpoint unfinished = ImportCheckpoint.latest();
+            if (unfinished != null) {
+                dialog.urlField.setText(unfinished.getSourceUrl());
+                dialog.previewArea.setText("Unfinished import found (" + unfinished.getCompletedCount() + " of " + unfinished.getEntryCount()
+                    + " people fetched).\nPress Fetch to resume it.\n");
+            }
             dialog.urlField.setEnabled(true);
             dialog.urlField.setEditable(true);
             dialog.urlField.requestFocusInWindow();
@@ -55,6 +55,7 @@ public class Frame extends JFrame {
         fileMenu.setFont(fileMenu.getFont().deriveFont(Font.PLAIN, 15f));
         JMenuItem newItem = new FlatMenuItem("New");
         JMenuItem openItem = new FlatMenuItem("Open...");
+        JMenuItem openFilteredItem = new FlatMenuItem("Open with Filter...");
         saveItem = new FlatMenuItem("Save");
         saveAsItem = new FlatMenuItem("Save As...");
         exportAsItem = new FlatMenuItem("Export As...");
@@ -101,6 +102,7 @@ public class Frame extends JFrame {
             }
         });
         openItem.addActionListener(_ -> fileActions.doOpen(personModule::clearFields, listModule::clearSelection));
+        openFilteredItem.addActionListener(_ -> fileActions.doOpenFiltered(personModule::clearFields, listModule::clearSelection));
         saveItem.addActionListener(_ -> fileActions.doSave());
         saveAsItem.addActionListener(_ -> fileActions.doSaveAs());
         exportAsItem.addActionListener(_ -> fileActions.doExportAs());
@@ -108,6 +110,7 @@ public class Frame extends JFrame {
         exitItem.addActionListener(_ -> dispatchEvent(new java.awt.event.WindowEvent(this, java.awt.event.WindowEvent.WINDOW_CLOSING)));
         fileMenu.add(newItem);
         fileMenu.add(openItem);
+        fileMenu.add(openFilteredItem);
         fileMenu.add(importItem);
         fileMenu.addSeparator();
         fileMenu.add(saveItem);
@@ -128,6 +131,9 @@ public class Frame extends JFrame {
         JMenuItem wikiImportItem = new FlatMenuItem("Import from Wikipedia...");
         wikiImportItem.addActionListener(_ -> src.app.dialogs.WikipediaImportDialog.showDialog(this, appController));
         settingsMenu.add(wikiImportItem);
+        JMenuItem dumpImportItem = new FlatMenuItem("Import from Wikidata Dump...");
+        dumpImportItem.addActionListener(_ -> src.app.dialogs.WikidataDumpImportDialog.showDialog(this, appController));
+        settingsMenu.add(dumpImportItem);
         // Add Change Date Format item
         JMenuItem dateFormatItem = new FlatMenuItem("Change Date Format...");
         dateFormatItem.addActionListener(_ -> src.app.dialogs.DateFormatDialog.showDialog(this, appController));
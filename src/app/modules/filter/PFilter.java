@@ -1,7 +1,6 @@
 package src.app.modules.filter;
 
 import java.util.function.Predicate;
-import src.person.Person;
 import src.person.People;
 import src.app.dialogs.Dialogs;
 import src.app.modules.list.PList;
@@ -13,7 +12,7 @@ import src.app.modules.list.PList;
  */
 public interface PFilter {
     interface FilterListener {
-        void onFilterChanged(Predicate<Person> filter);
+        void onFilterChanged(Predicate<People.PersonMeta> filter);
     }
 
     /**
@@ -24,7 +23,7 @@ public interface PFilter {
     /**
      * Set a custom filter predicate (for extensibility)
      */
-    void setCustomFilter(Predicate<Person> filter);
+    void setCustomFilter(Predicate<People.PersonMeta> filter);
 
     /**
      * Set a listener to be notified when the filter changes
@@ -44,7 +43,7 @@ public interface PFilter {
     /**
      * Get the current filter predicate
      */
-    Predicate<Person> getCurrentFilter();
+    Predicate<People.PersonMeta> getCurrentFilter();
 
     /**
      * Get the main filter panel (for theming)
@@ -4,12 +4,13 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.List;
 import java.util.function.Predicate;
 import javax.swing.filechooser.FileNameExtensionFilter;
-import src.person.Person;
 import src.app.dialogs.Dialogs;
 import src.app.modules.list.PList;
 import src.person.People;
+import src.person.query.QueryPlan;
 import src.app.gui.FlatButton;
 import src.app.AppController;
 
@@ -17,11 +18,14 @@ public class PersonFilterImpl extends JPanel implements PFilter {
     // --- Field and Term controls: must be initialized before use ---
     private final JTextField searchField = new JTextField();
     private final JComboBox<String> filterTypeBox = new JComboBox<>(new String[]{
-        "First Name", "Last Name", "DOB", "Government ID", "Student ID", "All Fields"
+        "First Name", "Last Name", "Fuzzy Name", "DOB", "Birthdays", "Government ID", "Student ID", "Tags", "Description", "Query", "All Fields"
     });
     private final FlatButton clearButton = new FlatButton("Clear");
     private FlatButton exportButton = new FlatButton("Export Filtered");
-    private Predicate<Person> customFilter;
+    private final FlatButton deleteMatchingButton = new FlatButton("Delete Matching");
+    private final FlatButton tagMatchingButton = new FlatButton("Tag Matching");
+    private final FlatButton undoButton = new FlatButton("Undo");
+    private Predicate<People.PersonMeta> customFilter;
     private FilterListener filterListener;
     private Dialogs operations;
     private PList listModule;
@@ -36,6 +40,12 @@ public class PersonFilterImpl extends JPanel implements PFilter {
 
     // Use a reference to AppController directly for date formatting
     private AppController appController;
+    // Name completions shown under the search field; never takes focus from it
+    private final DefaultListModel<String> completionModel = new DefaultListModel<>();
+    private final JList<String> completionList = new JList<>(completionModel);
+    private final JPopupMenu completionPopup = new JPopupMenu();
+    private boolean completing;
+    private static final int MAX_COMPLETIONS = 8;
 
     public PersonFilterImpl() {
         // Change main layout to BorderLayout
@@ -83,9 +93,19 @@ public class PersonFilterImpl extends JPanel implements PFilter {
         belowTermButtonPanel.setOpaque(false);
         clearButton.setAlignmentX(Component.CENTER_ALIGNMENT);
         exportButton.setAlignmentX(Component.CENTER_ALIGNMENT);
+        deleteMatchingButton.setAlignmentX(Component.CENTER_ALIGNMENT);
+        tagMatchingButton.setAlignmentX(Component.CENTER_ALIGNMENT);
+        undoButton.setAlignmentX(Component.CENTER_ALIGNMENT);
+        undoButton.setEnabled(false);
         belowTermButtonPanel.add(clearButton);
         belowTermButtonPanel.add(Box.createVerticalStrut(8));
         belowTermButtonPanel.add(exportButton);
+        belowTermButtonPanel.add(Box.createVerticalStrut(8));
+        belowTermButtonPanel.add(deleteMatchingButton);
+        belowTermButtonPanel.add(Box.createVerticalStrut(8));
+        belowTermButtonPanel.add(tagMatchingButton);
+        belowTermButtonPanel.add(Box.createVerticalStrut(8));
+        belowTermButtonPanel.add(undoButton);
         belowTermButtonPanel.add(Box.createVerticalStrut(12));
         belowTermButtonPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
         topFieldsPanel.add(belowTermButtonPanel);
@@ -167,10 +187,11 @@ public class PersonFilterImpl extends JPanel implements PFilter {
             public void actionPerformed(ActionEvent e) { notifyFilterChanged(); }
         });
         searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            public void insertUpdate(javax.swing.event.DocumentEvent e) { notifyFilterChanged(); }
-            public void removeUpdate(javax.swing.event.DocumentEvent e) { notifyFilterChanged(); }
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { notifyFilterChanged(); scheduleCompletions(); }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { notifyFilterChanged(); scheduleCompletions(); }
             public void changedUpdate(javax.swing.event.DocumentEvent e) { notifyFilterChanged(); }
         });
+        setupCompletion();
         filterTypeBox.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) { notifyFilterChanged(); }
         });
@@ -183,6 +204,11 @@ public class PersonFilterImpl extends JPanel implements PFilter {
         exportButton.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) { exportFilteredList(); }
         });
+        deleteMatchingButton.addActionListener(_ -> deleteMatching());
+        tagMatchingButton.addActionListener(_ -> tagMatching());
+        undoButton.addActionListener(_ -> {
+            if (appController != null) appController.undo();
+        });
         loadSavedFilters();
         saveFilterButton.addActionListener(_ -> saveCurrentFilter());
         deleteFilterButton.addActionListener(_ -> deleteSelectedFilter());
@@ -208,7 +234,7 @@ public class PersonFilterImpl extends JPanel implements PFilter {
     }
 
     @Override
-    public void setCustomFilter(Predicate<Person> filter) {
+    public void setCustomFilter(Predicate<People.PersonMeta> filter) {
         this.customFilter = filter;
         notifyFilterChanged();
     }
@@ -230,6 +256,13 @@ public class PersonFilterImpl extends JPanel implements PFilter {
 
     public void setAppController(AppController controller) {
         this.appController = controller;
+        if (controller != null) controller.addDataChangeListener(this::updateUndoButton);
+    }
+
+    private void updateUndoButton() {
+        String undo = appController == null ? null : appController.getUndoDescription();
+        undoButton.setEnabled(undo != null);
+        undoButton.setToolTipText(undo == null ? null : "Undo the " + undo);
     }
 
     @Override
@@ -254,47 +287,80 @@ public class PersonFilterImpl extends JPanel implements PFilter {
     }
 
     @Override
-    public Predicate<Person> getCurrentFilter() {
+    public Predicate<People.PersonMeta> getCurrentFilter() {
         String term = searchField.getText().trim().toLowerCase();
+        // Names are matched against the folded keys on each entry, so no per-row lowercasing and accents are ignored
+        String folded = src.person.Folding.fold(searchField.getText().trim());
         String type = (String) filterTypeBox.getSelectedItem();
-        Predicate<Person> baseFilter;
+        Predicate<People.PersonMeta> baseFilter;
         if (term.isEmpty()) {
             baseFilter = _ -> true;
         } else {
             switch (type) {
                 case "First Name":
-                    baseFilter = p -> p.getFirstName() != null && p.getFirstName().toLowerCase().contains(term);
+                    baseFilter = m -> m.getFoldedFirstName().contains(folded);
                     break;
                 case "Last Name":
-                    baseFilter = p -> p.getLastName() != null && p.getLastName().toLowerCase().contains(term);
+                    baseFilter = m -> m.getFoldedLastName().contains(folded);
+                    break;
+                case "Fuzzy Name":
+                    // Misspelled or sound-alike names, e.g. "jon smyth"
+                    baseFilter = indexedFilter(people -> {
+                        List<People.PersonMeta> matches = new java.util.ArrayList<>();
+                        for (var hit : people.searchNames(term, Integer.MAX_VALUE)) matches.add(hit.meta);
+                        return matches;
+                    });
                     break;
                 case "DOB":
-                    baseFilter = p -> p.getDOB() != null &&
-                        appController != null && appController.formatDate(p.getDOB()).toLowerCase().contains(term);
+                    if (term.contains("..")) {
+                        // A range such as 1920..1940 or 1/1/1950..6/30/1950 reads the sorted DOB index
+                        String range = term.replace(" ", "");
+                        baseFilter = indexedFilter(people -> QueryPlan.compile("dob:" + range, people).execute());
+                        break;
+                    }
+                    baseFilter = m -> m.getPerson().getDOB() != null &&
+                        appController != null && appController.formatDate(m.getPerson().getDOB()).toLowerCase().contains(term);
                     break;
-                case "Government ID":
-                    baseFilter = p -> {
+                case "Birthdays":
+                    // Birthdays within the next n days, counting today
+                    baseFilter = indexedFilter(people -> {
+                        int days;
                         try {
-                            java.lang.reflect.Method m = p.getClass().getMethod("getGovID");
-                            Object v = m.invoke(p);
-                            return v != null && v.toString().toLowerCase().contains(term);
-                        } catch (Exception ex) { return false; }
-                    };
+                            days = Integer.parseInt(term);
+                        } catch (NumberFormatException ex) {
+                            throw new IllegalArgumentException("Enter a number of days");
+                        }
+                        return people.upcomingBirthdays(java.time.LocalDate.now(), days);
+                    });
+                    break;
+                case "Government ID":
+                    baseFilter = m -> m.getPerson() instanceof src.person.RegisteredPerson rp
+                        && src.person.Folding.containsIgnoreCase(rp.getGovID(), term);
                     break;
                 case "Student ID":
-                    baseFilter = p -> {
-                        try {
-                            java.lang.reflect.Method m = p.getClass().getMethod("getStudentID");
-                            Object v = m.invoke(p);
-                            return v != null && v.toString().toLowerCase().contains(term);
-                        } catch (Exception ex) { return false; }
-                    };
+                    baseFilter = m -> m.getPerson() instanceof src.person.OCCCPerson op
+                        && src.person.Folding.containsIgnoreCase(op.getStudentID(), term);
+                    break;
+                case "Tags":
+                    baseFilter = indexedFilter(people -> people.matchTags(term));
+                    break;
+                case "Description":
+                    // The word still being typed matches as a prefix
+                    String raw = searchField.getText();
+                    String query = raw.endsWith(" ") || term.endsWith("\"") || term.endsWith("*") ? term : term + "*";
+                    baseFilter = indexedFilter(people -> people.matchDescriptions(query));
+                    break;
+                case "Query": {
+                    // e.g. last:smi* AND dob:1930..1950 AND tag:"computer scientist"; see src.person.query.Query
+                    String text = searchField.getText().trim();
+                    baseFilter = indexedFilter(people -> QueryPlan.compile(text, people).execute());
                     break;
+                }
                 default:
-                    baseFilter = p ->
-                        (p.getFirstName() != null && p.getFirstName().toLowerCase().contains(term)) ||
-                        (p.getLastName() != null && p.getLastName().toLowerCase().contains(term)) ||
-                        (p.getDOB() != null && appController != null && appController.formatDate(p.getDOB()).toLowerCase().contains(term));
+                    baseFilter = m ->
+                        m.getFoldedFirstName().contains(folded) ||
+                        m.getFoldedLastName().contains(folded) ||
+                        (m.getPerson().getDOB() != null && appController != null && appController.formatDate(m.getPerson().getDOB()).toLowerCase().contains(term));
             }
         }
         if (customFilter != null) {
@@ -303,12 +369,211 @@ public class PersonFilterImpl extends JPanel implements PFilter {
         return baseFilter;
     }
 
+    /**
+     * Answers a filter from the People indexes (tag bitmaps, description text, names, DOBs, query plans) instead of
+     * testing every person, then matches the selected entries by identity. The query is re-run
+     * only when the list has changed since. A malformed query shows in the search field's
+     * tooltip on the EDT and matches nothing; on other threads its IllegalArgumentException is thrown.
+     */
+    private Predicate<People.PersonMeta> indexedFilter(java.util.function.Function<People, List<People.PersonMeta>> query) {
+        searchField.setToolTipText(null);
+        if (appController == null) return _ -> false;
+        return new Predicate<People.PersonMeta>() {
+            private People people;
+            private long modCount = -1;
+            private java.util.Set<People.PersonMeta> matches = java.util.Collections.emptySet();
+
+            @Override
+            public boolean test(People.PersonMeta meta) {
+                People current = appController.getPeople();
+                if (current != people || current.getModCount() != modCount) {
+                    people = current;
+                    modCount = current.getModCount();
+                    matches = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+                    try {
+                        matches.addAll(query.apply(current));
+                    } catch (IllegalArgumentException ex) {
+                        // Off the EDT (see runOnMatches) the error goes back with the result instead
+                        if (!SwingUtilities.isEventDispatchThread()) throw ex;
+                        searchField.setToolTipText(ex.getMessage());
+                    }
+                }
+                return matches.contains(meta);
+            }
+        };
+    }
+
+    private void setupCompletion() {
+        completionList.setFocusable(false);
+        completionList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        completionPopup.setFocusable(false);
+        completionPopup.add(new JScrollPane(completionList));
+        completionList.addMouseListener(new java.awt.event.MouseAdapter() {
+            @Override
+            public void mouseClicked(java.awt.event.MouseEvent e) {
+                int i = completionList.locationToIndex(e.getPoint());
+                if (i >= 0) acceptCompletion(completionModel.get(i));
+            }
+        });
+        searchField.addKeyListener(new java.awt.event.KeyAdapter() {
+            @Override
+            public void keyPressed(java.awt.event.KeyEvent e) {
+                if (!completionPopup.isVisible()) return;
+                int i = completionList.getSelectedIndex();
+                switch (e.getKeyCode()) {
+                    case java.awt.event.KeyEvent.VK_DOWN -> {
+                        completionList.setSelectedIndex(Math.min(i + 1, completionModel.size() - 1));
+                        e.consume();
+                    }
+                    case java.awt.event.KeyEvent.VK_UP -> {
+                        completionList.setSelectedIndex(Math.max(i - 1, 0));
+                        e.consume();
+                    }
+                    case java.awt.event.KeyEvent.VK_ENTER -> {
+                        if (i >= 0) {
+                            acceptCompletion(completionModel.get(i));
+                            e.consume();
+                        }
+                    }
+                    case java.awt.event.KeyEvent.VK_ESCAPE -> completionPopup.setVisible(false);
+                    default -> { }
+                }
+            }
+        });
+        searchField.addFocusListener(new java.awt.event.FocusAdapter() {
+            @Override
+            public void focusLost(java.awt.event.FocusEvent e) { completionPopup.setVisible(false); }
+        });
+    }
+
+    // The document cannot be read back consistently from inside its own listener
+    private void scheduleCompletions() {
+        if (!completing) SwingUtilities.invokeLater(this::updateCompletions);
+    }
+
+    /**
+     * Lists the first and/or last names starting with the search text from the People prefix
+     * index, for the name filter types.
+     */
+    private void updateCompletions() {
+        String type = (String) filterTypeBox.getSelectedItem();
+        String text = searchField.getText().trim();
+        People people = appController == null ? null : appController.getPeople();
+        boolean first = "First Name".equals(type) || "All Fields".equals(type);
+        boolean last = "Last Name".equals(type) || "All Fields".equals(type);
+        if (people == null || text.isEmpty() || !(first || last) || !searchField.isShowing()) {
+            completionPopup.setVisible(false);
+            return;
+        }
+        src.person.NamePrefixIndex index = people.getNamePrefixIndex();
+        java.util.TreeSet<String> names = new java.util.TreeSet<>(src.person.Folding::compare);
+        if (first) names.addAll(index.complete(src.person.NamePrefixIndex.FIRST, text, MAX_COMPLETIONS));
+        if (last) names.addAll(index.complete(src.person.NamePrefixIndex.LAST, text, MAX_COMPLETIONS));
+        // Nothing to offer beyond what is already typed
+        if (names.isEmpty() || (names.size() == 1 && names.first().equals(text))) {
+            completionPopup.setVisible(false);
+            return;
+        }
+        completionModel.clear();
+        for (String name : names) {
+            if (completionModel.size() == MAX_COMPLETIONS) break;
+            completionModel.addElement(name);
+        }
+        completionList.setVisibleRowCount(completionModel.size());
+        completionPopup.setPopupSize(searchField.getWidth(), completionList.getPreferredScrollableViewportSize().height + 4);
+        if (!completionPopup.isVisible()) completionPopup.show(searchField, 0, searchField.getHeight());
+    }
+
+    private void acceptCompletion(String name) {
+        completing = true;
+        try {
+            searchField.setText(name);
+        } finally {
+            completing = false;
+        }
+        completionPopup.setVisible(false);
+        searchField.requestFocusInWindow();
+    }
+
     private void notifyFilterChanged() {
         if (filterListener != null) {
             filterListener.onFilterChanged(getCurrentFilter());
         }
     }
 
+    private void deleteMatching() {
+        runOnMatches("Finding people to delete", matches -> {
+            int confirm = JOptionPane.showConfirmDialog(this, "Delete " + matches.size() + " matching people? Undo (Ctrl+Z) restores them.",
+                "Confirm Delete Matching", JOptionPane.YES_NO_OPTION);
+            if (confirm != JOptionPane.YES_OPTION) return;
+            int removed = appController.deleteMatches(matches);
+            JOptionPane.showMessageDialog(this, removed + " people deleted.", "Delete Matching", JOptionPane.INFORMATION_MESSAGE);
+        });
+    }
+
+    private void tagMatching() {
+        if (appController == null) return;
+        String tags = JOptionPane.showInputDialog(this, "Tags to add to every matching person, e.g. <physicist><nobel laureate> or physicist, nobel laureate:",
+            "Tag Matching", JOptionPane.QUESTION_MESSAGE);
+        if (tags == null || src.person.TagIndex.parseTags(tags).isEmpty()) return;
+        runOnMatches("Finding people to tag", matches -> {
+            int tagged = appController.tagMatches(matches, tags);
+            JOptionPane.showMessageDialog(this, tagged + " of " + matches.size() + " matching people tagged.", "Tag Matching", JOptionPane.INFORMATION_MESSAGE);
+        });
+    }
+
+    /**
+     * Tests the current filter against every person on a background thread, with a progress
+     * monitor, then hands the matches to the action on the EDT. The action applies them as one
+     * batch, so the table is updated once.
+     */
+    private void runOnMatches(String title, java.util.function.Consumer<AppController.Matches> action) {
+        if (appController == null) return;
+        Predicate<People.PersonMeta> filter = getCurrentFilter();
+        int total = appController.size();
+        ProgressMonitor monitor = new ProgressMonitor(this, title, null, 0, Math.max(1, total));
+        monitor.setMillisToDecideToPopup(200);
+        deleteMatchingButton.setEnabled(false);
+        tagMatchingButton.setEnabled(false);
+        new SwingWorker<AppController.Matches, Integer>() {
+            @Override
+            protected AppController.Matches doInBackground() {
+                return appController.findMatches(filter, tested -> publish(tested));
+            }
+            @Override
+            protected void process(List<Integer> chunks) {
+                if (monitor.isCanceled()) {
+                    cancel(true);
+                    return;
+                }
+                int tested = chunks.get(chunks.size() - 1);
+                monitor.setProgress(tested);
+                monitor.setNote(String.format("%,d of %,d tested", tested, total));
+            }
+            @Override
+            protected void done() {
+                monitor.close();
+                deleteMatchingButton.setEnabled(true);
+                tagMatchingButton.setEnabled(true);
+                if (isCancelled()) return;
+                try {
+                    AppController.Matches matches = get();
+                    if (matches.size() == 0) {
+                        JOptionPane.showMessageDialog(PersonFilterImpl.this, "No people match the filter.", title, JOptionPane.INFORMATION_MESSAGE);
+                        return;
+                    }
+                    action.accept(matches);
+                } catch (java.util.concurrent.ExecutionException ex) {
+                    JOptionPane.showMessageDialog(PersonFilterImpl.this, ex.getCause().getMessage(), title, JOptionPane.ERROR_MESSAGE);
+                } catch (IllegalStateException ex) {
+                    JOptionPane.showMessageDialog(PersonFilterImpl.this, ex.getMessage(), title, JOptionPane.ERROR_MESSAGE);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }.execute();
+    }
+
     private void exportFilteredList() {
         if (operations == null || listModule == null) {
             JOptionPane.showMessageDialog(this, "Export not available.", "Error", JOptionPane.ERROR_MESSAGE);
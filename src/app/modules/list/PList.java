@@ -12,7 +12,7 @@ import java.util.function.Predicate;
  */
 public interface PList {
     void refreshList();
-    void applyFilter(Predicate<Person> filter);
+    void applyFilter(Predicate<People.PersonMeta> filter);
     People getFilteredPeople();
     void setPersonManager(PViewer personManager);
     void selectPerson(Person person);
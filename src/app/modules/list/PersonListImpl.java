@@ -29,8 +29,12 @@ public class PersonListImpl extends JPanel implements PList, AppController.DataC
     private JLabel statusLabel;
     private JLabel titleLabel;
     private java.util.List<People.PersonMeta> filteredPeople = null;
-    private Predicate<Person> currentFilter = null;
+    private Predicate<People.PersonMeta> currentFilter = null;
     private JScrollPane scrollPane; // Store the scroll pane for robust retheming
+    private static final int FIRST_COLUMN = 1, LAST_COLUMN = 2;
+    // Typeahead: characters typed into the table within a second of each other form one prefix
+    private final StringBuilder typeahead = new StringBuilder();
+    private long typeaheadLast;
 
     /**
      * Creates a new List module
@@ -100,7 +104,23 @@ public class PersonListImpl extends JPanel implements PList, AppController.DataC
         personTable.setSelectionBackground(UIManager.getColor("Table.selectionBackground"));
         personTable.setSelectionForeground(UIManager.getColor("Table.selectionForeground"));
         sorter = new TableRowSorter<>(tableModel);
+        // Names sort by their folded form, the order typeahead binary searches in
+        sorter.setComparator(FIRST_COLUMN, (String a, String b) -> src.person.Folding.compare(a, b));
+        sorter.setComparator(LAST_COLUMN, (String a, String b) -> src.person.Folding.compare(a, b));
         personTable.setRowSorter(sorter);
+        personTable.addKeyListener(new java.awt.event.KeyAdapter() {
+            @Override
+            public void keyTyped(java.awt.event.KeyEvent e) {
+                char c = e.getKeyChar();
+                if (c == java.awt.event.KeyEvent.CHAR_UNDEFINED || Character.isISOControl(c) || e.isControlDown() || e.isAltDown() || e.isMetaDown()) return;
+                long now = System.currentTimeMillis();
+                if (now - typeaheadLast > 1000) typeahead.setLength(0);
+                typeaheadLast = now;
+                typeahead.append(c);
+                jumpToPrefix(src.person.Folding.fold(typeahead.toString()));
+                e.consume();
+            }
+        });
         statusLabel = new JLabel("No person selected");
         statusLabel.setBorder(BorderFactory.createEmptyBorder(5, 0, 0, 0));
         statusLabel.setForeground(UIManager.getColor("Module.foreground"));
@@ -152,6 +172,53 @@ public class PersonListImpl extends JPanel implements PList, AppController.DataC
         updateUI();
     }
 
+    /**
+     * Selects the first row whose name starts with the folded prefix: the first name if the table
+     * is sorted by it, otherwise the last name. When sorted ascending by that column the rows are
+     * binary searched; otherwise they are scanned from the current selection.
+     */
+    private void jumpToPrefix(String prefix) {
+        People people = dataManager.getPeople();
+        int rows = personTable.getRowCount();
+        if (people == null || rows == 0) return;
+        java.util.List<? extends RowSorter.SortKey> keys = sorter.getSortKeys();
+        RowSorter.SortKey primary = keys.isEmpty() ? null : keys.get(0);
+        int column = primary != null && primary.getColumn() == FIRST_COLUMN ? FIRST_COLUMN : LAST_COLUMN;
+        int field = column == FIRST_COLUMN ? src.person.NamePrefixIndex.FIRST : src.person.NamePrefixIndex.LAST;
+        // Nobody has the prefix: no need to look at the rows
+        if (!people.getNamePrefixIndex().hasPrefix(field, prefix)) {
+            Toolkit.getDefaultToolkit().beep();
+            return;
+        }
+        int row = -1;
+        if (primary != null && primary.getColumn() == column && primary.getSortOrder() == SortOrder.ASCENDING) {
+            int lo = 0, hi = rows;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (src.person.Folding.compare(nameAt(mid, column), prefix) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            if (lo < rows && src.person.Folding.startsWith(nameAt(lo, column), prefix)) row = lo;
+        } else {
+            int start = Math.max(0, personTable.getSelectedRow());
+            for (int i = 0; i < rows && row < 0; i++) {
+                int r = (start + i) % rows;
+                if (src.person.Folding.startsWith(nameAt(r, column), prefix)) row = r;
+            }
+        }
+        if (row < 0) {
+            // Filtered out of the table
+            Toolkit.getDefaultToolkit().beep();
+            return;
+        }
+        personTable.setRowSelectionInterval(row, row);
+        personTable.scrollRectToVisible(personTable.getCellRect(row, 0, true));
+    }
+
+    private String nameAt(int viewRow, int column) {
+        return (String) tableModel.getValueAt(personTable.convertRowIndexToModel(viewRow), column);
+    }
+
     private void updateStatusLabel(Person person) {
         if (person != null) {
             String personType = "Person";
@@ -240,7 +307,7 @@ public class PersonListImpl extends JPanel implements PList, AppController.DataC
      * Applies the given filter to the list of people
      * @param filter The filter to apply
      */
-    public void applyFilter(Predicate<Person> filter) {
+    public void applyFilter(Predicate<People.PersonMeta> filter) {
         this.currentFilter = filter;
         People people = dataManager.getPeople();
         filteredPeople = new java.util.ArrayList<>();
@@ -249,7 +316,7 @@ public class PersonListImpl extends JPanel implements PList, AppController.DataC
         if (displayList != null) {
             for (People.PersonMeta meta : displayList) {
                 Person person = meta.getPerson();
-                if (filter == null || filter.test(person)) {
+                if (filter == null || filter.test(meta)) {
                     filteredPeople.add(meta);
                     String type = "Person";
                     String govID = "-1";
@@ -283,7 +350,7 @@ public class PersonListImpl extends JPanel implements PList, AppController.DataC
 
     @Override
     public People getFilteredPeople() {
-        People result = new People();
+        People result = new People(People.Storage.OBJECTS);
         if (filteredPeople != null) {
             for (People.PersonMeta meta : filteredPeople) {
                 result.add(meta.getPerson());
@@ -78,6 +78,17 @@ public class PersonTerminalImpl extends JPanel implements PTerminal {
                 handleCommand(cmdLine);
             }
         });
+        // Tab completes command names and the name arguments of find, indexof and edit
+        inputField.setFocusTraversalKeysEnabled(false);
+        inputField.addKeyListener(new java.awt.event.KeyAdapter() {
+            @Override
+            public void keyPressed(java.awt.event.KeyEvent e) {
+                if (e.getKeyCode() == java.awt.event.KeyEvent.VK_TAB && e.getModifiersEx() == 0) {
+                    completeInput();
+                    e.consume();
+                }
+            }
+        });
     }
 
     public void appendOutput(String text) {
@@ -183,13 +194,13 @@ public class PersonTerminalImpl extends JPanel implements PTerminal {
         manual.put("cd", "cd <dir>\nChange directory (within /data only).");
         manual.put("list", "list\nList all people in the database.");
         manual.put("count", "count\nShow the number of people in the database.");
-        manual.put("find", "find <name>\nFind people by name (case-insensitive).");
+        manual.put("find", "find <name> | find -f [-n count] <name...>\nFind people by name (case-insensitive). With -f, match names that are misspelled or sound alike, closest first (default 20 results).");
         manual.put("info", "info <index>\nShow detailed info for a person by index.");
         manual.put("add", "add <FirstName> <LastName> <DOB MM/DD/YYYY> [GovID] [StudentID]\nAdd a person.");
         manual.put("edit", "edit <index> <FirstName> <LastName> <DOB MM/DD/YYYY> [GovID] [StudentID]\nEdit a person.");
-        manual.put("delete", "delete <index>\nDelete a person.");
+        manual.put("delete", "delete <index|from-to>...\nDelete people by index, e.g. delete 3 7 10-20. Several indexes are deleted as one batch.");
         manual.put("indexof", "indexof <FirstName> <LastName>\nGet the index of a person by name.");
-        manual.put("set", "set <KEY> <VALUE>\nSet a config property (THEME, SIDEBAR_WIDTH, etc.).");
+        manual.put("set", "set <KEY> <VALUE>\nSet a config property (THEME, SIDEBAR_WIDTH, etc.). COMPRESSION <0-9> trades save time for file size: 0 saves .ppl blocks uncompressed, 9 compresses hardest.");
         manual.put("get", "get <KEY>\nGet a config property value.");
         manual.put("saveconfig", "saveconfig\nSave the current config to disk.");
         manual.put("cat", "cat <filename>\nDisplay the contents of a file in the current directory.");
@@ -201,6 +212,20 @@ public class PersonTerminalImpl extends JPanel implements PTerminal {
         manual.put("touch", "touch <file>\nCreate an empty file (not starting with a dot).");
         manual.put("rm", "rm <file>\nRemove a file (not starting with a dot).");
         manual.put("easteregg", "easteregg\nPlay the Star Wars ASCII movie. Press 'q' or Ctrl+C to quit.");
+        manual.put("dedupe", "dedupe [threshold] [limit]\nList likely duplicate people (spelling variants, swapped day/month). Threshold 0-1, default 0.85; shows up to limit pairs (default 50).");
+        manual.put("search", "search [-n count] <words or \"phrase\">\nFull-text search over descriptions, best matches first (BM25). Quoted phrases must match exactly; word* matches a prefix. Shows 10 results unless -n is given.");
+        manual.put("query", "query <expression>\nList people matching a query, e.g. query last:smi* AND dob:1930..1950 AND tag:\"computer scientist\" AND NOT type:Person.\nFields: first, last, name, dob, gov, student, tag, desc, type. Combine with AND, OR, NOT and parentheses; * is a wildcard; dob takes a year, date or a..b range.");
+        manual.put("explain", "explain <expression>\nShow how a query would run: which index supplies the candidates and the estimated row counts.");
+        manual.put("born", "born <from>..<to> | born <date>\nList people born in a date range, oldest first. Dates are yyyy, yyyy-mm-dd or MM/DD/YYYY.");
+        manual.put("birthdays", "birthdays [days]\nList birthdays in the next days days (default 14), soonest first, wrapping across the new year.");
+        manual.put("oldest", "oldest [count]\nList the count oldest people (default 10).");
+        manual.put("youngest", "youngest [count]\nList the count youngest people (default 10).");
+        manual.put("pool", "pool\nShow the shared string pool: names and tags pooled, duplicates replaced on load, and the estimated memory saved.");
+        manual.put("deletewhere", "deletewhere <expression>\nDelete every person matching a query expression (see man query) as one batch, e.g. deletewhere tag:duplicate AND dob:..1800. The list is scanned in the background; undo restores them.");
+        manual.put("tagwhere", "tagwhere <tags> <expression>\nAdd tags to every person matching a query expression (see man query) as one batch, e.g. tagwhere \"nobel laureate\" tag:physicist. Tags are <a><b> or comma separated; tags a person already has are skipped. Undo reverses it.");
+        manual.put("undo", "undo\nUndo the latest add, edit or delete, from here or the panels. A batch (delete 3-9, deletewhere, tagwhere, an import) is undone as one. Loading a file clears the history.");
+        manual.put("redo", "redo\nRedo the latest undone change. Any new change clears what can be redone.");
+        manual.put("history", "history\nList the undo and redo history, latest first, and the memory it uses. The oldest entries are dropped past UNDO_MAX_MB (set UNDO_MAX_MB <mb>).");
         cmds.put("help", new Command("Show help for a command or list all commands.", this::handleHelp));
         cmds.put("man", new Command("Show the manual entry for a command.", this::handleMan));
         cmds.put("echo", new Command("Echo the input arguments.", this::handleEcho));
@@ -211,7 +236,7 @@ public class PersonTerminalImpl extends JPanel implements PTerminal {
         cmds.put("cd", new Command("Change directory (within /data only).", this::handleCd));
         cmds.put("list", new Command("List all people in the database.", _ -> listPeople()));
         cmds.put("count", new Command("Show the number of people in the database.", _ -> countPeople()));
-        cmds.put("find", new Command("Find people by name (case-insensitive).", this::handleFind));
+        cmds.put("find", new Command("Find people by name (case-insensitive, -f for fuzzy).", this::handleFind));
         cmds.put("info", new Command("Show detailed info for a person by index.", this::handleInfo));
         cmds.put("add", new Command("Add a person.", this::handleAdd));
         cmds.put("edit", new Command("Edit a person.", this::handleEdit));
@@ -229,9 +254,89 @@ public class PersonTerminalImpl extends JPanel implements PTerminal {
         cmds.put("touch", new Command("Create an empty file (not starting with a dot).", this::handleTouch));
         cmds.put("rm", new Command("Remove a file (not starting with a dot).", this::handleRm));
         cmds.put("easteregg", new Command("Play the Star Wars ASCII movie.", this::handleEasterEgg));
+        cmds.put("dedupe", new Command("List likely duplicate people.", this::handleDedupe));
+        cmds.put("search", new Command("Full-text search over descriptions.", this::handleSearch));
+        cmds.put("query", new Command("List people matching a query expression.", this::handleQuery));
+        cmds.put("explain", new Command("Show the plan for a query expression.", this::handleExplain));
+        cmds.put("born", new Command("List people born in a date range.", this::handleBorn));
+        cmds.put("birthdays", new Command("List upcoming birthdays.", this::handleBirthdays));
+        cmds.put("oldest", new Command("List the oldest people.", args -> handleAge(args, true)));
+        cmds.put("youngest", new Command("List the youngest people.", args -> handleAge(args, false)));
+        cmds.put("pool", new Command("Show string pool statistics.", _ -> appendOutput(src.person.StringPool.stats())));
+        cmds.put("deletewhere", new Command("Delete every person matching a query expression.", this::handleDeleteWhere));
+        cmds.put("tagwhere", new Command("Add tags to every person matching a query expression.", this::handleTagWhere));
+        cmds.put("undo", new Command("Undo the latest change.", _ -> handleUndo(false)));
+        cmds.put("redo", new Command("Redo the latest undone change.", _ -> handleUndo(true)));
+        cmds.put("history", new Command("List the undo and redo history.", this::handleHistory));
         return cmds;
     }
 
+    private static final int MAX_COMPLETIONS = 50;
+
+    /**
+     * Completes the last word of the input line: a command name, or a first or last name from
+     * the People prefix index where find, indexof or edit expect one. A single candidate is
+     * filled in; several are extended to their common prefix and listed.
+     */
+    private void completeInput() {
+        String text = inputField.getText();
+        int start = 0;
+        boolean inQuotes = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') inQuotes = !inQuotes;
+            else if (c == ' ' && !inQuotes) start = i + 1;
+        }
+        String word = text.substring(start).replace("\"", "");
+        List<String> before = tokenizeCommand(text.substring(0, start));
+        java.util.TreeSet<String> candidates = new java.util.TreeSet<>(src.person.Folding::compare);
+        if (before.isEmpty()) {
+            for (String name : commandMap.keySet()) {
+                if (name.startsWith(word.toLowerCase())) candidates.add(name);
+            }
+        } else {
+            int arg = before.size() - 1;
+            String cmd = before.get(0).toLowerCase();
+            int[] fields = switch (cmd) {
+                case "indexof" -> arg == 0 ? new int[]{src.person.NamePrefixIndex.FIRST}
+                    : arg == 1 ? new int[]{src.person.NamePrefixIndex.LAST} : new int[0];
+                case "edit" -> arg == 1 ? new int[]{src.person.NamePrefixIndex.FIRST}
+                    : arg == 2 ? new int[]{src.person.NamePrefixIndex.LAST} : new int[0];
+                case "find" -> word.startsWith("-") || before.get(arg).equals("-n") ? new int[0]
+                    : new int[]{src.person.NamePrefixIndex.FIRST, src.person.NamePrefixIndex.LAST};
+                default -> new int[0];
+            };
+            if (fields.length == 0 || word.isEmpty()) {
+                Toolkit.getDefaultToolkit().beep();
+                return;
+            }
+            src.person.NamePrefixIndex index = manager.getPeople().getNamePrefixIndex();
+            for (int field : fields) candidates.addAll(index.complete(field, word, MAX_COMPLETIONS));
+        }
+        if (candidates.isEmpty()) {
+            Toolkit.getDefaultToolkit().beep();
+            return;
+        }
+        String head = text.substring(0, start);
+        if (candidates.size() == 1) {
+            String only = candidates.first();
+            inputField.setText(head + (only.indexOf(' ') >= 0 ? "\"" + only + "\"" : only) + " ");
+            return;
+        }
+        // Longest prefix the candidates share, ignoring case
+        String first = candidates.first();
+        int common = first.length();
+        for (String c : candidates) {
+            int n = 0;
+            while (n < common && n < c.length() && Character.toLowerCase(c.charAt(n)) == Character.toLowerCase(first.charAt(n))) n++;
+            common = n;
+        }
+        if (common > word.length() && first.substring(0, common).indexOf(' ') < 0) {
+            inputField.setText(head + first.substring(0, common));
+        }
+        appendOutput(String.join("  ", candidates) + (candidates.size() >= MAX_COMPLETIONS ? "  ..." : ""));
+    }
+
     private List<String> tokenizeCommand(String command) {
         List<String> tokens = new ArrayList<>();
         StringBuilder currentToken = new StringBuilder();
@@ -294,13 +399,13 @@ public class PersonTerminalImpl extends JPanel implements PTerminal {
         manual.put("cd", "cd <dir>\nChange directory (within /data only).");
         manual.put("list", "list\nList all people in the database.");
         manual.put("count", "count\nShow the number of people in the database.");
-        manual.put("find", "find <name>\nFind people by name (case-insensitive).");
+        manual.put("find", "find <name> | find -f [-n count] <name...>\nFind people by name (case-insensitive). With -f, match names that are misspelled or sound alike, closest first (default 20 results).");
         manual.put("info", "info <index>\nShow detailed info for a person by index.");
         manual.put("add", "add <FirstName> <LastName> <DOB MM/DD/YYYY> [GovID] [StudentID]\nAdd a person.");
         manual.put("edit", "edit <index> <FirstName> <LastName> <DOB MM/DD/YYYY> [GovID] [StudentID]\nEdit a person.");
-        manual.put("delete", "delete <index>\nDelete a person.");
+        manual.put("delete", "delete <index|from-to>...\nDelete people by index, e.g. delete 3 7 10-20. Several indexes are deleted as one batch.");
         manual.put("indexof", "indexof <FirstName> <LastName>\nGet the index of a person by name.");
-        manual.put("set", "set <KEY> <VALUE>\nSet a config property (THEME, SIDEBAR_WIDTH, etc.).");
+        manual.put("set", "set <KEY> <VALUE>\nSet a config property (THEME, SIDEBAR_WIDTH, etc.). COMPRESSION <0-9> trades save time for file size: 0 saves .ppl blocks uncompressed, 9 compresses hardest.");
         manual.put("get", "get <KEY>\nGet a config property value.");
         manual.put("saveconfig", "saveconfig\nSave the current config to disk.");
         manual.put("cat", "cat <filename>\nDisplay the contents of a file in the current directory.");
@@ -312,6 +417,20 @@ public class PersonTerminalImpl extends JPanel implements PTerminal {
         manual.put("touch", "touch <file>\nCreate an empty file (not starting with a dot).");
         manual.put("rm", "rm <file>\nRemove a file (not starting with a dot).");
         manual.put("easteregg", "easteregg\nPlay the Star Wars ASCII movie. Press 'q' or Ctrl+C to quit.");
+        manual.put("dedupe", "dedupe [threshold] [limit]\nList likely duplicate people (spelling variants, swapped day/month). Threshold 0-1, default 0.85; shows up to limit pairs (default 50).");
+        manual.put("search", "search [-n count] <words or \"phrase\">\nFull-text search over descriptions, best matches first (BM25). Quoted phrases must match exactly; word* matches a prefix. Shows 10 results unless -n is given.");
+        manual.put("query", "query <expression>\nList people matching a query, e.g. query last:smi* AND dob:1930..1950 AND tag:\"computer scientist\" AND NOT type:Person.\nFields: first, last, name, dob, gov, student, tag, desc, type. Combine with AND, OR, NOT and parentheses; * is a wildcard; dob takes a year, date or a..b range.");
+        manual.put("explain", "explain <expression>\nShow how a query would run: which index supplies the candidates and the estimated row counts.");
+        manual.put("born", "born <from>..<to> | born <date>\nList people born in a date range, oldest first. Dates are yyyy, yyyy-mm-dd or MM/DD/YYYY.");
+        manual.put("birthdays", "birthdays [days]\nList birthdays in the next days days (default 14), soonest first, wrapping across the new year.");
+        manual.put("oldest", "oldest [count]\nList the count oldest people (default 10).");
+        manual.put("youngest", "youngest [count]\nList the count youngest people (default 10).");
+        manual.put("pool", "pool\nShow the shared string pool: names and tags pooled, duplicates replaced on load, and the estimated memory saved.");
+        manual.put("deletewhere", "deletewhere <expression>\nDelete every person matching a query expression (see man query) as one batch, e.g. deletewhere tag:duplicate AND dob:..1800. The list is scanned in the background; undo restores them.");
+        manual.put("tagwhere", "tagwhere <tags> <expression>\nAdd tags to every person matching a query expression (see man query) as one batch, e.g. tagwhere \"nobel laureate\" tag:physicist. Tags are <a><b> or comma separated; tags a person already has are skipped. Undo reverses it.");
+        manual.put("undo", "undo\nUndo the latest add, edit or delete, from here or the panels. A batch (delete 3-9, deletewhere, tagwhere, an import) is undone as one. Loading a file clears the history.");
+        manual.put("redo", "redo\nRedo the latest undone change. Any new change clears what can be redone.");
+        manual.put("history", "history\nList the undo and redo history, latest first, and the memory it uses. The oldest entries are dropped past UNDO_MAX_MB (set UNDO_MAX_MB <mb>).");
         if (args.isEmpty()) {
             appendOutput("Usage: man <command>");
             return;
@@ -395,21 +514,72 @@ public class PersonTerminalImpl extends JPanel implements PTerminal {
         }
     }
     private void handleFind(List<String> args) {
+        if (!args.isEmpty() && args.get(0).equals("-f")) {
+            handleFuzzyFind(args.subList(1, args.size()));
+            return;
+        }
         if (args.isEmpty()) {
             appendOutput("Usage: find <name>");
             return;
         }
-        String search = args.get(0).toLowerCase();
+        String search = src.person.Folding.fold(args.get(0));
         var people = manager.getPeople();
         boolean found = false;
         for (int i = 0; i < people.size(); i++) {
-            var p = people.get(i);
-            if (p.getFirstName().toLowerCase().contains(search) || p.getLastName().toLowerCase().contains(search)) {
+            var meta = people.getMeta(i);
+            if (meta.getFoldedFirstName().contains(search) || meta.getFoldedLastName().contains(search)) {
+                var p = meta.getPerson();
                 appendOutput((i+1) + ". " + p.getFirstName() + " " + p.getLastName());
                 found = true;
             }
         }
-        if (!found) appendOutput("No matches found for: " + search);
+        if (!found) {
+            appendOutput("No matches found for: " + search);
+            List<src.person.FuzzyNameIndex.Hit> close = people.searchNames(search, 5);
+            if (!close.isEmpty()) {
+                appendOutput("Did you mean:");
+                printFuzzyHits(close);
+            }
+        }
+    }
+
+    private void handleFuzzyFind(List<String> args) {
+        int limit = 20;
+        List<String> words = new ArrayList<>(args);
+        if (words.size() >= 2 && words.get(0).equals("-n")) {
+            try {
+                limit = Math.max(1, Integer.parseInt(words.get(1)));
+            } catch (NumberFormatException e) {
+                appendOutput("Usage: find -f [-n count] <name...>");
+                return;
+            }
+            words = words.subList(2, words.size());
+        }
+        if (words.isEmpty()) {
+            appendOutput("Usage: find -f [-n count] <name...>");
+            return;
+        }
+        String query = String.join(" ", words);
+        long start = System.nanoTime();
+        List<src.person.FuzzyNameIndex.Hit> hits = manager.getPeople().searchNames(query, limit);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        if (hits.isEmpty()) {
+            appendOutput("No close matches for: " + query);
+            return;
+        }
+        printFuzzyHits(hits);
+        appendOutput(hits.size() + " result(s) in " + elapsed + " ms.");
+    }
+
+    private void printFuzzyHits(List<src.person.FuzzyNameIndex.Hit> hits) {
+        var people = manager.getPeople();
+        Map<src.person.People.PersonMeta, Integer> positions = new java.util.IdentityHashMap<>();
+        for (var hit : hits) positions.put(hit.meta, -1);
+        for (int i = 0; i < people.size(); i++) positions.replace(people.getMeta(i), i);
+        for (var hit : hits) {
+            var p = hit.meta.getPerson();
+            appendOutput((positions.get(hit.meta) + 1) + ". " + p.getFirstName() + " " + p.getLastName() + " (distance " + hit.distance + ")");
+        }
     }
     private void handleInfo(List<String> args) {
         if (args.isEmpty()) {
@@ -479,22 +649,29 @@ public class PersonTerminalImpl extends JPanel implements PTerminal {
     }
     private void handleDelete(List<String> args) {
         if (args.isEmpty()) {
-            appendOutput("Usage: delete <index>");
+            appendOutput("Usage: delete <index|from-to>...");
             return;
         }
         try {
-            int idx = Integer.parseInt(args.get(0)) - 1;
-            var people = manager.getPeople();
-            if (idx < 0 || idx >= people.size()) {
-                appendOutput("Invalid index.");
-                return;
+            int size = manager.getPeople().size();
+            java.util.BitSet indices = new java.util.BitSet();
+            for (String arg : args) {
+                int dash = arg.indexOf('-', 1);
+                int from = Integer.parseInt(dash < 0 ? arg : arg.substring(0, dash)) - 1;
+                int to = dash < 0 ? from : Integer.parseInt(arg.substring(dash + 1)) - 1;
+                if (from < 0 || to >= size || from > to) {
+                    appendOutput("Invalid index: " + arg);
+                    return;
+                }
+                indices.set(from, to + 1);
             }
-            boolean ok = manager.deletePersonByIndex(idx);
-            if (ok) {
-                appendOutput("Person deleted.");
-            } else {
-                appendOutput("Delete failed.");
+            if (indices.cardinality() == 1) {
+                boolean ok = manager.deletePersonByIndex(indices.nextSetBit(0));
+                appendOutput(ok ? "Person deleted." : "Delete failed.");
+                return;
             }
+            int removed = manager.deletePeopleByIndices(indices.stream().toArray());
+            appendOutput(removed + " people deleted.");
         } catch (Exception e) {
             appendOutput("Invalid index or error: " + e.getMessage());
         }
@@ -504,13 +681,13 @@ public class PersonTerminalImpl extends JPanel implements PTerminal {
             appendOutput("Usage: indexof <FirstName> <LastName>");
             return;
         }
-        String first = args.get(0).toLowerCase();
-        String last = args.get(1).toLowerCase();
+        String first = src.person.Folding.fold(args.get(0));
+        String last = src.person.Folding.fold(args.get(1));
         var people = manager.getPeople();
         boolean found = false;
         for (int i = 0; i < people.size(); i++) {
-            var p = people.get(i);
-            if (p.getFirstName().toLowerCase().equals(first) && p.getLastName().toLowerCase().equals(last)) {
+            var meta = people.getMeta(i);
+            if (meta.getFoldedFirstName().equals(first) && meta.getFoldedLastName().equals(last)) {
                 appendOutput("Index: " + (i + 1));
                 found = true;
                 break;
@@ -534,6 +711,11 @@ public class PersonTerminalImpl extends JPanel implements PTerminal {
             case "LIST_TERMINAL_DIVIDER" -> manager.setListTerminalDivider(Double.parseDouble(value));
             case "WINDOW_WIDTH" -> manager.setWindowWidth(Integer.parseInt(value));
             case "WINDOW_HEIGHT" -> manager.setWindowHeight(Integer.parseInt(value));
+            case "BLOOM_FPR" -> manager.setBloomFalsePositiveRate(Double.parseDouble(value));
+            case "BLOOM_MAX_KB" -> manager.setBloomMaxKB(Integer.parseInt(value));
+            case "STORAGE" -> manager.setStorage(value);
+            case "UNDO_MAX_MB" -> manager.setUndoMaxMB(Integer.parseInt(value));
+            case "COMPRESSION" -> manager.setCompression(Integer.parseInt(value));
             default -> {
                 appendOutput("Unknown config key: " + key);
                 return;
@@ -554,6 +736,11 @@ public class PersonTerminalImpl extends JPanel implements PTerminal {
             case "LIST_TERMINAL_DIVIDER" -> String.valueOf(manager.getListTerminalDivider());
             case "WINDOW_WIDTH" -> String.valueOf(manager.getWindowWidth());
             case "WINDOW_HEIGHT" -> String.valueOf(manager.getWindowHeight());
+            case "BLOOM_FPR" -> String.valueOf(manager.getBloomFalsePositiveRate());
+            case "BLOOM_MAX_KB" -> String.valueOf(manager.getBloomMaxKB());
+            case "STORAGE" -> manager.getStorage();
+            case "UNDO_MAX_MB" -> String.valueOf(manager.getUndoMaxMB());
+            case "COMPRESSION" -> String.valueOf(manager.getCompression());
             default -> null;
         };
         if (value != null) {
@@ -593,6 +780,314 @@ public class PersonTerminalImpl extends JPanel implements PTerminal {
     }
 
     // --- Additional command handlers ---
+    private void handleDedupe(List<String> args) {
+        double threshold = src.person.match.DedupeEngine.DEFAULT_THRESHOLD;
+        int limit = 50;
+        try {
+            if (args.size() > 0) threshold = Double.parseDouble(args.get(0));
+            if (args.size() > 1) limit = Integer.parseInt(args.get(1));
+        } catch (NumberFormatException e) {
+            appendOutput("Usage: dedupe [threshold] [limit]");
+            return;
+        }
+        // Snapshot on the EDT, score in the background so large lists do not freeze the UI
+        List<src.person.Person> snapshot = manager.getPeople().snapshot().getAllPeople();
+        src.person.match.DedupeEngine engine = new src.person.match.DedupeEngine();
+        engine.setThreshold(threshold);
+        final int maxShown = limit;
+        appendOutput("Scanning " + snapshot.size() + " people for duplicates...");
+        Thread worker = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            List<src.person.match.DedupeEngine.Match> matches = engine.findDuplicates(snapshot);
+            long elapsed = System.currentTimeMillis() - start;
+            SwingUtilities.invokeLater(() -> {
+                if (matches.isEmpty()) {
+                    appendOutput("No likely duplicates found (" + elapsed + " ms).");
+                    return;
+                }
+                for (int i = 0; i < Math.min(maxShown, matches.size()); i++) {
+                    var m = matches.get(i);
+                    var a = snapshot.get(m.first);
+                    var b = snapshot.get(m.second);
+                    appendOutput(String.format("%.2f  %d. %s %s (%s)  ~  %d. %s %s (%s)  [%s]", m.score,
+                        m.first + 1, a.getFirstName(), a.getLastName(), manager.formatDate(a.getDOB()),
+                        m.second + 1, b.getFirstName(), b.getLastName(), manager.formatDate(b.getDOB()), m.reason));
+                }
+                appendOutput(matches.size() + " likely duplicate pair(s) found in " + elapsed + " ms"
+                    + (matches.size() > maxShown ? " (showing " + maxShown + ")." : "."));
+            });
+        }, "dedupe");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void handleSearch(List<String> args) {
+        int limit = 10;
+        List<String> words = new ArrayList<>(args);
+        if (words.size() >= 2 && words.get(0).equals("-n")) {
+            try {
+                limit = Math.max(1, Integer.parseInt(words.get(1)));
+            } catch (NumberFormatException e) {
+                appendOutput("Usage: search [-n count] <query>");
+                return;
+            }
+            words = words.subList(2, words.size());
+        }
+        if (words.isEmpty()) {
+            appendOutput("Usage: search [-n count] <query>");
+            return;
+        }
+        StringBuilder query = new StringBuilder(joinQuoted(words));
+        var people = manager.getPeople();
+        long start = System.nanoTime();
+        List<src.person.TextIndex.Hit> hits = people.searchDescriptions(query.toString(), limit);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        if (hits.isEmpty()) {
+            appendOutput("No descriptions match: " + query.toString().trim());
+            return;
+        }
+        Map<src.person.People.PersonMeta, Integer> positions = new java.util.IdentityHashMap<>();
+        for (var hit : hits) positions.put(hit.meta, -1);
+        for (int i = 0; i < people.size(); i++) positions.replace(people.getMeta(i), i);
+        List<String> terms = src.person.TextIndex.tokenize(query.toString());
+        for (var hit : hits) {
+            var p = hit.meta.getPerson();
+            appendOutput(String.format("%.2f  %d. %s %s | %s", hit.score, positions.get(hit.meta) + 1,
+                p.getFirstName(), p.getLastName(), snippet(hit.meta.getDescription(), terms)));
+        }
+        appendOutput(hits.size() + " result(s) in " + elapsed + " ms.");
+    }
+
+    private void handleQuery(List<String> args) {
+        if (args.isEmpty()) {
+            appendOutput("Usage: query <expression>");
+            return;
+        }
+        var people = manager.getPeople();
+        long start = System.nanoTime();
+        src.person.query.QueryPlan plan;
+        List<src.person.People.PersonMeta> matches;
+        try {
+            plan = src.person.query.QueryPlan.compile(joinQuoted(args), people);
+            matches = plan.execute();
+        } catch (IllegalArgumentException e) {
+            appendOutput("Invalid query: " + e.getMessage());
+            return;
+        }
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        // Print in list order
+        Map<src.person.People.PersonMeta, Integer> positions = new java.util.IdentityHashMap<>();
+        for (var meta : matches) positions.put(meta, -1);
+        for (int i = 0; i < people.size(); i++) positions.replace(people.getMeta(i), i);
+        List<Integer> order = new ArrayList<>(positions.values());
+        java.util.Collections.sort(order);
+        for (int i : order) {
+            var p = people.get(i);
+            appendOutput((i + 1) + ". " + p.getFirstName() + " " + p.getLastName() + " | DOB: " + manager.formatDate(p.getDOB()));
+        }
+        appendOutput(matches.size() + " match(es) in " + elapsed + " ms" + (plan.usesIndex() ? " (indexed)." : " (full scan)."));
+    }
+
+    private void handleDeleteWhere(List<String> args) {
+        if (args.isEmpty()) {
+            appendOutput("Usage: deletewhere <expression>");
+            return;
+        }
+        runOnMatches(joinQuoted(args), matches -> {
+            int removed = manager.deleteMatches(matches);
+            appendOutput(removed + " people deleted. Type undo to restore them.");
+        });
+    }
+
+    private void handleTagWhere(List<String> args) {
+        if (args.size() < 2 || src.person.TagIndex.parseTags(args.get(0)).isEmpty()) {
+            appendOutput("Usage: tagwhere <tags> <expression>");
+            return;
+        }
+        String tags = args.get(0);
+        runOnMatches(joinQuoted(args.subList(1, args.size())), matches -> {
+            int tagged = manager.tagMatches(matches, tags);
+            appendOutput(tagged + " of " + matches.size() + " matching people tagged." + (tagged > 0 ? " Type undo to reverse it." : ""));
+        });
+    }
+
+    // Scans the list for the query in the background, printing progress, then applies the batch on the EDT
+    private void runOnMatches(String expression, Consumer<AppController.Matches> action) {
+        src.person.query.Query query;
+        try {
+            query = src.person.query.Query.parse(expression);
+        } catch (IllegalArgumentException e) {
+            appendOutput("Invalid query: " + e.getMessage());
+            return;
+        }
+        int total = manager.size();
+        appendOutput(String.format("Matching %,d people against %s...", total, query));
+        Thread worker = new Thread(() -> {
+            int[] reported = {0};
+            AppController.Matches matches;
+            try {
+                matches = manager.findMatches(query::test, tested -> {
+                    // Every quarter of the list
+                    int quarter = total == 0 ? 4 : (int) (4L * tested / total);
+                    if (quarter > reported[0] && quarter < 4) {
+                        reported[0] = quarter;
+                        SwingUtilities.invokeLater(() -> appendOutput((quarter * 25) + "%..."));
+                    }
+                });
+            } catch (IllegalStateException e) {
+                SwingUtilities.invokeLater(() -> appendOutput(e.getMessage()));
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (matches.size() == 0) {
+                    appendOutput("No people match.");
+                    return;
+                }
+                try {
+                    action.accept(matches);
+                } catch (IllegalStateException e) {
+                    appendOutput(e.getMessage());
+                }
+            });
+        }, "batch-match");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void handleUndo(boolean redo) {
+        String change = redo ? manager.getRedoDescription() : manager.getUndoDescription();
+        if (change == null || !(redo ? manager.redo() : manager.undo())) {
+            appendOutput(redo ? "Nothing to redo." : "Nothing to undo.");
+            return;
+        }
+        appendOutput((redo ? "Redid the " : "Undid the ") + change + ".");
+    }
+
+    private void handleHistory(List<String> args) {
+        var journal = manager.getJournal();
+        var undo = manager.canUndo() ? journal.getUndoEntries() : List.<src.app.UndoJournal.Change>of();
+        var redo = manager.canRedo() ? journal.getRedoEntries() : List.<src.app.UndoJournal.Change>of();
+        if (undo.isEmpty() && redo.isEmpty()) {
+            appendOutput("No history.");
+            return;
+        }
+        for (int i = redo.size() - 1; i >= 0; i--) appendOutput("  redo: " + redo.get(i).getDescription());
+        for (var change : undo) appendOutput("  undo: " + change.getDescription());
+        appendOutput(String.format("%d undo, %d redo; %,.1f KB of %,d MB.", undo.size(), redo.size(),
+            journal.getBytes() / 1024.0, manager.getUndoMaxMB()));
+    }
+
+    private void handleExplain(List<String> args) {
+        if (args.isEmpty()) {
+            appendOutput("Usage: explain <expression>");
+            return;
+        }
+        try {
+            var plan = src.person.query.QueryPlan.compile(joinQuoted(args), manager.getPeople());
+            for (String line : plan.explain().split("\n")) appendOutput(line);
+        } catch (IllegalArgumentException e) {
+            appendOutput("Invalid query: " + e.getMessage());
+        }
+    }
+
+    private void handleBorn(List<String> args) {
+        if (args.size() != 1) {
+            appendOutput("Usage: born <from>..<to>");
+            return;
+        }
+        src.person.query.Query.Term range;
+        try {
+            range = (src.person.query.Query.Term) src.person.query.Query.parse("dob:" + args.get(0));
+        } catch (IllegalArgumentException | ClassCastException e) {
+            appendOutput("Invalid date range: " + args.get(0));
+            return;
+        }
+        var people = manager.getPeople();
+        long start = System.nanoTime();
+        var matches = people.getDobIndex().range(range.getFromDate(), range.getToDate());
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        printDated(matches, null);
+        appendOutput(matches.size() + " match(es) in " + elapsed + " ms.");
+    }
+
+    private void handleBirthdays(List<String> args) {
+        int days = 14;
+        try {
+            if (!args.isEmpty()) days = Integer.parseInt(args.get(0));
+        } catch (NumberFormatException e) {
+            appendOutput("Usage: birthdays [days]");
+            return;
+        }
+        java.time.LocalDate today = java.time.LocalDate.now();
+        var matches = manager.getPeople().getDobIndex().upcomingBirthdays(today, days);
+        printDated(matches, p -> {
+            // Feb 29 birthdays fall on Feb 28 in other years
+            java.time.LocalDate next = java.time.MonthDay.of(p.getDOB().getMonthNumber(), p.getDOB().getDayOfMonth()).atYear(today.getYear());
+            if (next.isBefore(today)) next = java.time.MonthDay.from(next).atYear(today.getYear() + 1);
+            long until = java.time.temporal.ChronoUnit.DAYS.between(today, next);
+            return until == 0 ? "today" : "in " + until + " day(s), turns " + (next.getYear() - p.getDOB().getYear());
+        });
+        appendOutput(matches.size() + " birthday(s) in the next " + days + " day(s).");
+    }
+
+    private void handleAge(List<String> args, boolean oldest) {
+        int count = 10;
+        try {
+            if (!args.isEmpty()) count = Integer.parseInt(args.get(0));
+        } catch (NumberFormatException e) {
+            appendOutput("Usage: " + (oldest ? "oldest" : "youngest") + " [count]");
+            return;
+        }
+        var index = manager.getPeople().getDobIndex();
+        printDated(oldest ? index.oldest(count) : index.youngest(count), null);
+    }
+
+    // Prints entries in the given order with their list positions, plus an optional note per person
+    private void printDated(List<src.person.People.PersonMeta> metas, java.util.function.Function<src.person.Person, String> note) {
+        var people = manager.getPeople();
+        Map<src.person.People.PersonMeta, Integer> positions = new java.util.IdentityHashMap<>();
+        for (var meta : metas) positions.put(meta, -1);
+        for (int i = 0; i < people.size(); i++) positions.replace(people.getMeta(i), i);
+        for (var meta : metas) {
+            var p = meta.getPerson();
+            appendOutput((positions.get(meta) + 1) + ". " + p.getFirstName() + " " + p.getLastName() + " | DOB: " + manager.formatDate(p.getDOB())
+                + (note == null ? "" : " | " + note.apply(p)));
+        }
+    }
+
+    // The tokenizer strips quotes, so re-quote arguments that contained spaces (tag:"a b" arrives as tag:a b)
+    private static String joinQuoted(List<String> args) {
+        StringBuilder sb = new StringBuilder();
+        for (String arg : args) {
+            if (sb.length() > 0) sb.append(' ');
+            if (!arg.contains(" ")) {
+                sb.append(arg);
+                continue;
+            }
+            // Parentheses stay outside the quotes
+            int from = 0, to = arg.length();
+            while (from < to && arg.charAt(from) == '(') from++;
+            while (to > from && arg.charAt(to - 1) == ')') to--;
+            String body = arg.substring(from, to);
+            int colon = body.matches("[A-Za-z]+:.*") ? body.indexOf(':') + 1 : 0;
+            sb.append(arg, 0, from).append(body, 0, colon).append('"').append(body.substring(colon)).append('"').append(arg.substring(to));
+        }
+        return sb.toString();
+    }
+
+    // A short window of the description around the first query term it contains
+    private static String snippet(String text, List<String> terms) {
+        if (text == null) return "";
+        String lower = text.toLowerCase();
+        int at = -1;
+        for (String t : terms) {
+            int i = lower.indexOf(t);
+            if (i >= 0 && (at < 0 || i < at)) at = i;
+        }
+        int from = Math.max(0, at - 30), to = Math.min(text.length(), Math.max(at, 0) + 70);
+        return (from > 0 ? "..." : "") + text.substring(from, to).replace('\n', ' ') + (to < text.length() ? "..." : "");
+    }
+
     private void handleCat(List<String> args) {
         if (args.isEmpty()) {
             appendOutput("Usage: cat <filename>");
@@ -626,14 +1121,16 @@ public class PersonTerminalImpl extends JPanel implements PTerminal {
         if (args.size() == 1) {
             // Search People list
             var people = manager.getPeople();
+            String folded = src.person.Folding.fold(args.get(0));
             boolean found = false;
             for (int i = 0; i < people.size(); i++) {
-                var p = people.get(i);
-                String personStr = p.getFirstName() + " " + p.getLastName();
-                // Use AppController's date format for DOB
-                String dobStr = manager.formatDate(p.getDOB());
-                if (personStr.toLowerCase().contains(pattern) || (dobStr != null && dobStr.toLowerCase().contains(pattern))) {
-                    appendOutput((i+1) + ". " + personStr + " | DOB: " + dobStr);
+                var meta = people.getMeta(i);
+                var p = meta.getPerson();
+                boolean match = src.person.Folding.containsJoined(meta.getFoldedFirstName(), ' ', meta.getFoldedLastName(), folded);
+                // Use AppController's date format for DOB; only formatted when the name did not match
+                String dobStr = match ? null : manager.formatDate(p.getDOB());
+                if (match || (dobStr != null && dobStr.toLowerCase().contains(pattern))) {
+                    appendOutput((i+1) + ". " + p.getFirstName() + " " + p.getLastName() + " | DOB: " + (match ? manager.formatDate(p.getDOB()) : dobStr));
                     found = true;
                 }
             }
@@ -4,6 +4,9 @@ import javax.swing.*;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
@@ -30,7 +33,7 @@ public class PersonViewerImpl implements PViewer, AppController.DateFormatChange
     private final JTextArea descArea;
     private final JLabel govIDLabel;
     private final JLabel studentIDLabel;
-    private final JButton addButton, updateButton, deleteButton;
+    private final JButton addButton, updateButton, deleteButton, undoButton, redoButton;
     private final AppController appController;
     private final JFrame parent;
     private boolean creationMode = true;
@@ -187,10 +190,14 @@ public class PersonViewerImpl implements PViewer, AppController.DateFormatChange
         addButton = new FlatButton("Add");
         updateButton = new FlatButton("Update");
         deleteButton = new FlatButton("Delete");
+        undoButton = new FlatButton("Undo");
+        redoButton = new FlatButton("Redo");
         Dimension btnSize = new Dimension(120, 28);
         addButton.setPreferredSize(btnSize);
         updateButton.setPreferredSize(btnSize);
         deleteButton.setPreferredSize(btnSize);
+        undoButton.setPreferredSize(new Dimension(80, 28));
+        redoButton.setPreferredSize(new Dimension(80, 28));
         GridBagConstraints bgbc = new GridBagConstraints();
         bgbc.gridy = 0;
         bgbc.insets = new Insets(0, 8, 0, 8);
@@ -202,6 +209,10 @@ public class PersonViewerImpl implements PViewer, AppController.DateFormatChange
         buttonPanel.add(updateButton, bgbc);
         bgbc.gridx = 2;
         buttonPanel.add(deleteButton, bgbc);
+        bgbc.gridx = 3;
+        buttonPanel.add(undoButton, bgbc);
+        bgbc.gridx = 4;
+        buttonPanel.add(redoButton, bgbc);
         // Add space above the button panel
         JPanel buttonPanelWrapper = new JPanel(new BorderLayout());
         buttonPanelWrapper.setOpaque(false);
@@ -216,6 +227,7 @@ public class PersonViewerImpl implements PViewer, AppController.DateFormatChange
         panel.add(tagAndButtonsPanel, BorderLayout.SOUTH);
         // Remove hardcoded textFieldBg, textFieldInactiveBg, textFieldHighlightBg, textFieldHighlightBorder
         attachButtonActions();
+        attachUndoActions();
         attachFieldListeners();
         updateFieldStates();
         setCreationMode(true);
@@ -537,6 +549,39 @@ public class PersonViewerImpl implements PViewer, AppController.DateFormatChange
             }
         });
     }
+    // Undo/Redo buttons, plus Ctrl+Z and Ctrl+Y (Ctrl+Shift+Z) anywhere in the window
+    private void attachUndoActions() {
+        Action undo = new AbstractAction() {
+            public void actionPerformed(ActionEvent e) {
+                if (appController.undo()) clearFields();
+            }
+        };
+        Action redo = new AbstractAction() {
+            public void actionPerformed(ActionEvent e) {
+                if (appController.redo()) clearFields();
+            }
+        };
+        undoButton.addActionListener(undo);
+        redoButton.addActionListener(redo);
+        int menu = Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx();
+        InputMap keys = panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW);
+        keys.put(KeyStroke.getKeyStroke(KeyEvent.VK_Z, menu), "undo");
+        keys.put(KeyStroke.getKeyStroke(KeyEvent.VK_Y, menu), "redo");
+        keys.put(KeyStroke.getKeyStroke(KeyEvent.VK_Z, menu | InputEvent.SHIFT_DOWN_MASK), "redo");
+        panel.getActionMap().put("undo", undo);
+        panel.getActionMap().put("redo", redo);
+        appController.addDataChangeListener(this::updateUndoButtons);
+        updateUndoButtons();
+    }
+
+    private void updateUndoButtons() {
+        String undo = appController.getUndoDescription(), redo = appController.getRedoDescription();
+        undoButton.setEnabled(undo != null);
+        undoButton.setToolTipText(undo == null ? null : "Undo the " + undo);
+        redoButton.setEnabled(redo != null);
+        redoButton.setToolTipText(redo == null ? null : "Redo the " + redo);
+    }
+
     private String getCurrentDateFormatExample() {
         AppController.DateFormatType fmt = appController.getDateFormat();
         switch (fmt) {
@@ -0,0 +1,399 @@
+package src.person;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary .ppl format: records packed in blocks (see PackedRecords), each followed by a footer of
+ * statistics, and an index of the blocks at the end of the file. A footer holds the block's
+ * DOB range, its count of each person type and a Bloom filter of its tags, so a filtered load
+ * reads every footer but only the blocks that may hold a match, and decodes only those.
+ * Each block's records are Deflate-compressed on their own, in parallel on save, and stored
+ * as they are when that does not make them smaller; the index keeps both lengths, so a
+ * Reader reaches any block directly and inflates only the blocks it is asked for. Footers
+ * are never compressed.
+ * <pre>
+ * magic, version
+ * per block: records (compressed unless stored length = length), footer
+ * per block: offset, stored length, length, footer length, record count
+ * index offset, block count, magic
+ * </pre>
+ * Version 1 files, which have no compression and no length column, are still read.
+ */
+public final class BlockFile {
+    public static final int MAGIC = 0x50504C42; // "PPLB"
+    private static final int VERSION = 2;
+    private static final int HEADER = 8, TRAILER = 16;
+    private static final int BLOCK_RECORDS = 4096;
+    // Deflate level for saving, from Deflater.NO_COMPRESSION (fastest, largest) to BEST_COMPRESSION
+    private static volatile int compressionLevel = Deflater.BEST_SPEED;
+    private static final double TAG_FPR = 0.01;
+    private static final long TAG_MAX_BITS = 1 << 16;
+
+    private BlockFile() {}
+
+    /**
+     * Statistics of one block.
+     */
+    public static final class Footer {
+        private final int records;
+        // yyyymmdd range of the dated records; 0 and 0 if none has a DOB
+        private final int minDate, maxDate;
+        private final int[] typeCounts;
+        private final BloomFilter tags;
+
+        private Footer(int records, int minDate, int maxDate, int[] typeCounts, BloomFilter tags) {
+            this.records = records;
+            this.minDate = minDate;
+            this.maxDate = maxDate;
+            this.typeCounts = typeCounts;
+            this.tags = tags;
+        }
+
+        public int getRecordCount() { return records; }
+
+        /**
+         * False if no record in the block was born between two yyyymmdd dates inclusive.
+         */
+        public boolean mayHaveDobBetween(int fromDate, int toDate) {
+            return maxDate != 0 && fromDate <= maxDate && toDate >= minDate;
+        }
+
+        /**
+         * Records of exactly this type: Person, RegisteredPerson or OCCCPerson.
+         */
+        public int getTypeCount(String simpleName) {
+            return switch (simpleName) {
+                case "OCCCPerson" -> typeCounts[SlotStore.OCCC];
+                case "RegisteredPerson" -> typeCounts[SlotStore.REGISTERED];
+                case "Person" -> typeCounts[SlotStore.PERSON];
+                default -> 0;
+            };
+        }
+
+        /**
+         * False if no record in the block carries the tag.
+         */
+        public boolean mightHaveTag(String tag) {
+            return tags.mightContain(tagKey(tag));
+        }
+
+        private static Footer of(List<People.PersonMeta> block) {
+            int minDate = 0, maxDate = 0;
+            int[] typeCounts = new int[3];
+            Set<String> tagKeys = new HashSet<>();
+            for (People.PersonMeta meta : block) {
+                Person p = meta.getPerson();
+                int date = DobIndex.packDate(p);
+                if (date != 0) {
+                    minDate = minDate == 0 ? date : Math.min(minDate, date);
+                    maxDate = Math.max(maxDate, date);
+                }
+                typeCounts[p instanceof OCCCPerson ? SlotStore.OCCC : p instanceof RegisteredPerson ? SlotStore.REGISTERED : SlotStore.PERSON]++;
+                for (String tag : TagIndex.parseTags(meta.getTags())) tagKeys.add(TagIndex.fold(tag));
+            }
+            BloomFilter tags = new BloomFilter(tagKeys.size(), TAG_FPR, TAG_MAX_BITS);
+            for (String key : tagKeys) tags.add(BloomFilter.hash(key));
+            return new Footer(block.size(), minDate, maxDate, typeCounts, tags);
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeInt(records);
+            out.writeInt(minDate);
+            out.writeInt(maxDate);
+            for (int count : typeCounts) out.writeInt(count);
+            tags.write(out);
+        }
+
+        private static Footer read(ByteBuffer in) {
+            int records = in.getInt(), minDate = in.getInt(), maxDate = in.getInt();
+            int[] typeCounts = {in.getInt(), in.getInt(), in.getInt()};
+            return new Footer(records, minDate, maxDate, typeCounts, BloomFilter.read(in));
+        }
+    }
+
+    /**
+     * What a load read: the people, and how many blocks it had to decode.
+     */
+    public record Result(People people, int blocks, int blocksRead) {}
+
+    private static long tagKey(String tag) {
+        return BloomFilter.hash(TagIndex.fold(tag));
+    }
+
+    /**
+     * True if the file starts like a block file rather than a serialized People.
+     */
+    public static boolean isBlockFile(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            return channel.read(header, 0) == 4 && header.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Sets the Deflate level used by later saves: 0 stores blocks uncompressed (least CPU, most
+     * I/O), 9 compresses hardest. Reading does not depend on it.
+     */
+    public static void configureCompression(int level) {
+        compressionLevel = Math.max(Deflater.NO_COMPRESSION, Math.min(Deflater.BEST_COMPRESSION, level));
+    }
+
+    public static int getCompressionLevel() { return compressionLevel; }
+
+    // One block, ready to write
+    private record Packed(byte[] records, int storedLength, int length, byte[] footer, int count) {}
+
+    /**
+     * Writes the entries in order. Blocks are packed and compressed on every core, a bounded
+     * number ahead of the one being written.
+     */
+    public static void write(File file, List<People.PersonMeta> entries) throws IOException {
+        int blocks = (entries.size() + BLOCK_RECORDS - 1) / BLOCK_RECORDS;
+        int level = compressionLevel;
+        int threads = Math.max(1, Math.min(blocks, Runtime.getRuntime().availableProcessors()));
+        ByteBuffer index = ByteBuffer.allocate(blocks * indexEntry(VERSION));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            long offset = HEADER;
+            ArrayDeque<Future<Packed>> pending = new ArrayDeque<>();
+            int next = 0;
+            for (int b = 0; b < blocks; b++) {
+                while (next < blocks && pending.size() < threads * 2) {
+                    List<People.PersonMeta> block = entries.subList(next * BLOCK_RECORDS, Math.min(entries.size(), (next + 1) * BLOCK_RECORDS));
+                    pending.add(pool.submit(() -> pack(block, level)));
+                    next++;
+                }
+                Packed packed = pending.remove().get();
+                out.write(packed.records(), 0, packed.storedLength());
+                out.write(packed.footer());
+                index.putLong(offset).putInt(packed.storedLength()).putInt(packed.length()).putInt(packed.footer().length).putInt(packed.count());
+                offset += packed.storedLength() + packed.footer().length;
+            }
+            out.write(index.array());
+            out.writeLong(offset);
+            out.writeInt(blocks);
+            out.writeInt(MAGIC);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new java.io.InterruptedIOException("Save interrupted");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Packed pack(List<People.PersonMeta> block, int level) throws IOException {
+        PackedRecords records = new PackedRecords();
+        for (People.PersonMeta meta : block) records.addRecord(meta);
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(records.byteSize());
+        records.writeTo(new DataOutputStream(raw));
+        byte[] bytes = raw.toByteArray();
+        ByteArrayOutputStream footer = new ByteArrayOutputStream();
+        Footer.of(block).write(new DataOutputStream(footer));
+        byte[] compressed = level == Deflater.NO_COMPRESSION ? null : deflate(bytes, level);
+        return compressed == null
+            ? new Packed(bytes, bytes.length, bytes.length, footer.toByteArray(), block.size())
+            : new Packed(compressed, compressed.length, bytes.length, footer.toByteArray(), block.size());
+    }
+
+    // The compressed bytes, or null if they would be no smaller; the array may have spare room
+    private static byte[] deflate(byte[] bytes, int level) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            byte[] out = new byte[bytes.length];
+            int n = 0;
+            while (!deflater.finished() && n < out.length) n += deflater.deflate(out, n, out.length - n);
+            return deflater.finished() && n < bytes.length ? Arrays.copyOf(out, n) : null;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] stored, int length) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored);
+            byte[] out = new byte[length];
+            int n = 0;
+            while (n < length && !inflater.finished()) {
+                int got = inflater.inflate(out, n, length - n);
+                if (got == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                n += got;
+            }
+            if (n != length) throw new IOException("Damaged block: expected " + length + " bytes, inflated " + n);
+            return out;
+        } catch (DataFormatException e) {
+            throw new IOException("Damaged block: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static int indexEntry(int version) {
+        return version == 1 ? 20 : 24;
+    }
+
+    /**
+     * Reads the entries of the blocks whose footer passes the block filter that pass the record
+     * filter, in file order. Null filters accept everything.
+     */
+    public static Result read(File file, Predicate<Footer> blockFilter, Predicate<People.PersonMeta> recordFilter) throws IOException {
+        try (Reader reader = open(file)) {
+            List<People.PersonMeta> entries = new ArrayList<>();
+            int blocksRead = 0;
+            for (int b = 0; b < reader.getBlockCount(); b++) {
+                if (blockFilter != null && !blockFilter.test(reader.getFooter(b))) continue;
+                blocksRead++;
+                for (People.PersonMeta meta : reader.readBlock(b)) {
+                    if (recordFilter == null || recordFilter.test(meta)) entries.add(meta);
+                }
+            }
+            People people = new People();
+            people.addAll(entries);
+            return new Result(people, reader.getBlockCount(), blocksRead);
+        }
+    }
+
+    /**
+     * Opens a file for random access, reading only its index.
+     */
+    public static Reader open(File file) throws IOException {
+        return new Reader(file);
+    }
+
+    /**
+     * Random access to the blocks of a file: the index is read on open, a footer or a block's
+     * records when asked for. Not thread-safe.
+     */
+    public static final class Reader implements Closeable {
+        private final File file;
+        private final FileChannel channel;
+        private final int version;
+        private final long[] offsets;
+        private final int[] storedLengths, lengths, footerLengths;
+        // Position of each block's first record, plus the total at the end
+        private final int[] starts;
+        // The last block decoded by get
+        private int cachedBlock = -1;
+        private List<People.PersonMeta> cached;
+
+        private Reader(File file) throws IOException {
+            this.file = file;
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            try {
+                long size = channel.size();
+                if (size < HEADER + TRAILER) throw new IOException("Not a block file: " + file);
+                ByteBuffer header = readFully(0, HEADER);
+                if (header.getInt() != MAGIC) throw new IOException("Not a block file: " + file);
+                version = header.getInt();
+                if (version < 1 || version > VERSION) throw new IOException("Unsupported block file version " + version);
+                ByteBuffer trailer = readFully(size - TRAILER, TRAILER);
+                long indexOffset = trailer.getLong();
+                int blocks = trailer.getInt();
+                int entry = indexEntry(version);
+                if (trailer.getInt() != MAGIC || blocks < 0 || indexOffset + (long) blocks * entry != size - TRAILER) throw new IOException("Damaged block file: " + file);
+                ByteBuffer index = readFully(indexOffset, blocks * entry);
+                offsets = new long[blocks];
+                storedLengths = new int[blocks];
+                lengths = new int[blocks];
+                footerLengths = new int[blocks];
+                starts = new int[blocks + 1];
+                for (int b = 0; b < blocks; b++) {
+                    offsets[b] = index.getLong();
+                    storedLengths[b] = index.getInt();
+                    lengths[b] = version == 1 ? storedLengths[b] : index.getInt();
+                    footerLengths[b] = index.getInt();
+                    starts[b + 1] = starts[b] + index.getInt();
+                }
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        public int getBlockCount() { return offsets.length; }
+
+        /** Number of records in the file. */
+        public int size() { return starts[offsets.length]; }
+
+        /** Bytes of records in a block before and after compression. */
+        public int getStoredLength(int block) { return storedLengths[block]; }
+        public int getLength(int block) { return lengths[block]; }
+
+        public Footer getFooter(int block) throws IOException {
+            return Footer.read(readFully(offsets[block] + storedLengths[block], footerLengths[block]));
+        }
+
+        /**
+         * Decodes one block's records, inflating them first if they are compressed.
+         */
+        public List<People.PersonMeta> readBlock(int block) throws IOException {
+            byte[] stored = readFully(offsets[block], storedLengths[block]).array();
+            byte[] bytes = storedLengths[block] == lengths[block] ? stored : inflate(stored, lengths[block]);
+            int count = starts[block + 1] - starts[block];
+            PackedRecords.Reader reader = new PackedRecords(bytes, count).reader();
+            List<People.PersonMeta> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) records.add(reader.nextRecord());
+            return records;
+        }
+
+        /**
+         * The record at a position in the file, decoding only its block; reading nearby
+         * positions reuses the block.
+         */
+        public People.PersonMeta get(int position) throws IOException {
+            if (position < 0 || position >= size()) throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size());
+            int block = Arrays.binarySearch(starts, position);
+            // Blocks are never empty, so an exact hit is the first record of that block
+            block = block >= 0 ? block : -block - 2;
+            if (block != cachedBlock) {
+                cached = readBlock(block);
+                cachedBlock = block;
+            }
+            return cached.get(position - starts[block]);
+        }
+
+        private ByteBuffer readFully(long position, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) throw new IOException("Unexpected end of block file: " + file);
+            }
+            return buffer.flip();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package src.person;
+
+import java.io.Serializable;
+
+/**
+ * Fixed-size Bloom filter over 64-bit key hashes. A negative answer is definite,
+ * a positive one is only probable. Bits are derived from one hash by double hashing.
+ */
+public class BloomFilter implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    private int entries = 0;
+
+    /**
+     * Sizes the filter for the expected number of entries and target false-positive rate,
+     * never using more than maxBits bits.
+     */
+    public BloomFilter(int expectedEntries, double falsePositiveRate, long maxBits) {
+        int n = Math.max(1, expectedEntries);
+        double p = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        m = Math.max(64, Math.min(m, Math.max(64, maxBits)));
+        this.bitCount = (m + 63) / 64 * 64;
+        this.bits = new long[(int) (bitCount / 64)];
+        this.hashCount = Math.max(1, Math.min(16, (int) Math.round((double) bitCount / n * Math.log(2))));
+    }
+
+    private BloomFilter(long[] bits, int hashCount, int entries) {
+        this.bits = bits;
+        this.bitCount = bits.length * 64L;
+        this.hashCount = hashCount;
+        this.entries = entries;
+    }
+
+    // --- Sidecar form (see IndexSidecar) ---
+
+    void write(java.io.DataOutput out) throws java.io.IOException {
+        out.writeInt(hashCount);
+        out.writeInt(entries);
+        out.writeInt(bits.length);
+        for (long word : bits) out.writeLong(word);
+    }
+
+    static BloomFilter read(java.nio.ByteBuffer in) {
+        int hashCount = in.getInt(), entries = in.getInt();
+        long[] bits = new long[in.getInt()];
+        in.asLongBuffer().get(bits);
+        in.position(in.position() + bits.length * 8);
+        return new BloomFilter(bits, hashCount, entries);
+    }
+
+    public void add(long hash) {
+        long h1 = hash, h2 = (hash >>> 32) | (hash << 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        entries++;
+    }
+
+    public boolean mightContain(long hash) {
+        long h1 = hash, h2 = (hash >>> 32) | (hash << 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    public int getEntries() { return entries; }
+    public long getBitCount() { return bitCount; }
+    public int getHashCount() { return hashCount; }
+    public long getMemoryBytes() { return bits.length * 8L; }
+
+    /**
+     * False-positive rate expected at the current fill.
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * entries / bitCount), hashCount);
+    }
+
+    /**
+     * 64-bit hash of a string, for callers building keys.
+     */
+    public static long hash(String s) {
+        return s == null ? 0 : mix(s.hashCode() * 0x9E3779B97F4A7C15L + s.length());
+    }
+
+    /**
+     * Combines hashes without building composite key strings.
+     */
+    public static long combine(long a, long b) {
+        return mix(a * 31 + b);
+    }
+
+    public static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -0,0 +1,117 @@
+package src.person;
+
+import java.util.Arrays;
+
+/**
+ * Copy-on-write list of entries in chunks of up to CHUNK, from which People takes snapshots.
+ * A snapshot keeps the current chunk directory and chunks and starts a new epoch; the list
+ * then copies the directory and each chunk the first time it changes them, so a snapshot
+ * costs O(1) and versions share every chunk neither has changed. Chunks and directories owned
+ * by the current epoch are updated in place. Only the writer thread may use this class.
+ */
+final class ChunkedEntries {
+    static final int CHUNK = 256;
+
+    private long epoch = 0;
+    private long directoryEpoch = 0;
+    // Directory: each chunk's entries, the epoch that owns it, and the position just past its last entry
+    private People.PersonMeta[][] chunks = new People.PersonMeta[16][];
+    private long[] owners = new long[16];
+    private int[] ends = new int[16];
+    private int chunkCount = 0;
+    private int size = 0;
+
+    int size() { return size; }
+
+    void add(People.PersonMeta meta) {
+        ownDirectory();
+        int last = chunkCount - 1;
+        if (last < 0 || chunkSize(last) == CHUNK) {
+            if (chunkCount == chunks.length) growDirectory();
+            chunks[chunkCount] = new People.PersonMeta[CHUNK];
+            owners[chunkCount] = epoch;
+            ends[chunkCount] = size;
+            last = chunkCount++;
+        }
+        own(last)[chunkSize(last)] = meta;
+        ends[last]++;
+        size++;
+    }
+
+    void set(int index, People.PersonMeta meta) {
+        ownDirectory();
+        int c = chunkOf(index);
+        own(c)[index - start(c)] = meta;
+    }
+
+    void remove(int index) {
+        ownDirectory();
+        int c = chunkOf(index);
+        People.PersonMeta[] items = own(c);
+        int at = index - start(c), n = chunkSize(c);
+        System.arraycopy(items, at + 1, items, at, n - at - 1);
+        items[n - 1] = null;
+        for (int i = c; i < chunkCount; i++) ends[i]--;
+        if (n == 1) {
+            System.arraycopy(chunks, c + 1, chunks, c, chunkCount - c - 1);
+            System.arraycopy(owners, c + 1, owners, c, chunkCount - c - 1);
+            System.arraycopy(ends, c + 1, ends, c, chunkCount - c - 1);
+            chunks[--chunkCount] = null;
+        }
+        size--;
+    }
+
+    /**
+     * Freezes the current contents; later changes copy what they touch.
+     */
+    People.Snapshot snapshot(long version) {
+        People.Snapshot snapshot = new People.Snapshot(chunks, ends, chunkCount, size, version);
+        epoch++;
+        return snapshot;
+    }
+
+    private int start(int c) { return c == 0 ? 0 : ends[c - 1]; }
+    private int chunkSize(int c) { return ends[c] - start(c); }
+
+    private int chunkOf(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return chunkOf(ends, chunkCount, index);
+    }
+
+    /**
+     * The chunk holding a position, by binary search over the chunk ends.
+     */
+    static int chunkOf(int[] ends, int count, int index) {
+        int lo = 0, hi = count - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ends[mid] <= index) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Directory arrays a snapshot holds are replaced, not written
+    private void ownDirectory() {
+        if (directoryEpoch == epoch) return;
+        chunks = chunks.clone();
+        owners = owners.clone();
+        ends = ends.clone();
+        directoryEpoch = epoch;
+    }
+
+    private People.PersonMeta[] own(int c) {
+        if (owners[c] != epoch) {
+            chunks[c] = chunks[c].clone();
+            owners[c] = epoch;
+        }
+        return chunks[c];
+    }
+
+    private void growDirectory() {
+        int n = chunks.length * 2;
+        chunks = Arrays.copyOf(chunks, n);
+        owners = Arrays.copyOf(owners, n);
+        ends = Arrays.copyOf(ends, n);
+    }
+}
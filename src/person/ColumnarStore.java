@@ -0,0 +1,191 @@
+package src.person;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Struct-of-arrays encoding for a SlotStore: parallel primitive columns holding a type byte,
+ * dictionary codes for the first name, last name and tags, the DOB as a yyyymmdd int, and
+ * offsets into a shared byte arena for the government and student IDs. Each distinct name is
+ * stored (and folded) once. No Person, OCCCDate or calendar is kept per record.
+ */
+class ColumnarStore extends SlotStore {
+    private static final long serialVersionUID = 1L;
+    private static final byte FREE = -1;
+    private static final long NO_ID = -1L;
+
+    // Columns, by slot
+    private byte[] kind = new byte[0];
+    private int[] first = new int[0], last = new int[0], dob = new int[0], tags = new int[0];
+    private long[] govID = new long[0], studentID = new long[0];
+    private String[] description = new String[0];
+
+    private Dictionary names = new Dictionary(true);
+    private Dictionary tagStrings = new Dictionary(false);
+    // IDs as UTF-8, addressed by (offset << 32 | length)
+    private byte[] arena = new byte[256];
+    private int arenaSize = 0;
+    private int arenaGarbage = 0;
+
+    /**
+     * Distinct strings by int code, optionally with their folded forms (see Folding).
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private String[] values = new String[16];
+        private String[] folded;
+        private int count = 0;
+
+        Dictionary(boolean folding) {
+            folded = folding ? new String[16] : null;
+        }
+
+        int code(String s) {
+            if (s == null) return -1;
+            Integer code = codes.get(s);
+            if (code != null) return code;
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+                if (folded != null) folded = Arrays.copyOf(folded, count * 2);
+            }
+            values[count] = s;
+            if (folded != null) folded[count] = Folding.fold(s);
+            codes.put(s, count);
+            return count++;
+        }
+
+        String value(int code) { return code < 0 ? null : values[code]; }
+        String folded(int code) { return code < 0 ? "" : folded[code]; }
+    }
+
+    ColumnarStore() {}
+
+    ColumnarStore(List<People.PersonMeta> entries) {
+        ensureCapacity(entries.size());
+        for (People.PersonMeta meta : entries) add(meta);
+    }
+
+    @Override
+    void growSlots(int capacity) {
+        int old = kind.length;
+        kind = Arrays.copyOf(kind, capacity);
+        Arrays.fill(kind, old, capacity, FREE);
+        first = Arrays.copyOf(first, capacity);
+        last = Arrays.copyOf(last, capacity);
+        dob = Arrays.copyOf(dob, capacity);
+        tags = Arrays.copyOf(tags, capacity);
+        govID = Arrays.copyOf(govID, capacity);
+        studentID = Arrays.copyOf(studentID, capacity);
+        description = Arrays.copyOf(description, capacity);
+    }
+
+    @Override
+    void freeSlot(int slot) {
+        freeBytes(govID[slot]);
+        freeBytes(studentID[slot]);
+        description[slot] = null;
+        kind[slot] = FREE;
+    }
+
+    @Override
+    void clearSlots() {
+        Arrays.fill(kind, FREE);
+        Arrays.fill(description, null);
+        arenaSize = arenaGarbage = 0;
+        names = new Dictionary(true);
+        tagStrings = new Dictionary(false);
+    }
+
+    @Override byte kind(int slot) { return kind[slot]; }
+    @Override String firstName(int slot) { return names.value(first[slot]); }
+    @Override String lastName(int slot) { return names.value(last[slot]); }
+    @Override String foldedFirstName(int slot) { return names.folded(first[slot]); }
+    @Override String foldedLastName(int slot) { return names.folded(last[slot]); }
+    @Override int packedDOB(int slot) { return dob[slot]; }
+    @Override String govID(int slot) { return string(govID[slot]); }
+    @Override String studentID(int slot) { return string(studentID[slot]); }
+    @Override String description(int slot) { return description[slot]; }
+    @Override String tags(int slot) { return tagStrings.value(tags[slot]); }
+
+    @Override
+    void writePerson(int slot, Person p) {
+        // Read everything from p first: it may be a view of this slot
+        byte[] gov = p instanceof RegisteredPerson rp ? utf8(rp.getGovID()) : null;
+        byte[] student = p instanceof OCCCPerson op ? utf8(op.getStudentID()) : null;
+        // Room for both first: a compaction between the two puts would move the first
+        reserve((gov == null ? 0 : gov.length) + (student == null ? 0 : student.length));
+        long newGov = putBytes(gov), newStudent = putBytes(student);
+        first[slot] = names.code(p.getFirstName());
+        last[slot] = names.code(p.getLastName());
+        dob[slot] = DobIndex.packDate(p);
+        if (kind[slot] != FREE) {
+            freeBytes(govID[slot]);
+            freeBytes(studentID[slot]);
+        }
+        govID[slot] = newGov;
+        studentID[slot] = newStudent;
+        kind[slot] = p instanceof OCCCPerson ? OCCC : p instanceof RegisteredPerson ? REGISTERED : PERSON;
+    }
+
+    @Override void writeFirstName(int slot, String name) { first[slot] = names.code(name); }
+    @Override void writeLastName(int slot, String name) { last[slot] = names.code(name); }
+    @Override void writeDescription(int slot, String text) { description[slot] = text; }
+    @Override void writeTags(int slot, String text) { tags[slot] = tagStrings.code(text); }
+
+    // --- ID arena ---
+
+    private static byte[] utf8(String s) {
+        return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void reserve(int n) {
+        if (arenaSize + n > arena.length) {
+            // Reclaim the bytes of removed IDs when they are at least half the arena
+            if (arenaGarbage > arenaSize / 2) compactArena(n);
+            if (arenaSize + n > arena.length) {
+                arena = Arrays.copyOf(arena, Math.max(arenaSize + n, arena.length + (arena.length >> 1)));
+            }
+        }
+    }
+
+    // Callers reserve the room first
+    private long putBytes(byte[] bytes) {
+        if (bytes == null) return NO_ID;
+        System.arraycopy(bytes, 0, arena, arenaSize, bytes.length);
+        long ref = (long) arenaSize << 32 | bytes.length;
+        arenaSize += bytes.length;
+        return ref;
+    }
+
+    private void freeBytes(long ref) {
+        if (ref != NO_ID) arenaGarbage += (int) ref;
+    }
+
+    private String string(long ref) {
+        return ref == NO_ID ? null : new String(arena, (int) (ref >>> 32), (int) ref, StandardCharsets.UTF_8);
+    }
+
+    private void compactArena(int extra) {
+        byte[] compacted = new byte[Math.max(256, (arenaSize - arenaGarbage + extra) * 2)];
+        int at = 0;
+        for (int slot = 0; slot < getSlotCount(); slot++) {
+            if (kind[slot] == FREE) continue;
+            govID[slot] = move(govID[slot], compacted, at);
+            if (govID[slot] != NO_ID) at += (int) govID[slot];
+            studentID[slot] = move(studentID[slot], compacted, at);
+            if (studentID[slot] != NO_ID) at += (int) studentID[slot];
+        }
+        arena = compacted;
+        arenaSize = at;
+        arenaGarbage = 0;
+    }
+
+    private long move(long ref, byte[] to, int at) {
+        if (ref == NO_ID) return NO_ID;
+        System.arraycopy(arena, (int) (ref >>> 32), to, at, (int) ref);
+        return (long) at << 32 | (ref & 0xFFFFFFFFL);
+    }
+}
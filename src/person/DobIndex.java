@@ -0,0 +1,296 @@
+package src.person;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sorted primitive indexes over dates of birth: one by full date (yyyymmdd) for range and
+ * oldest/youngest queries, one by day of year (mmdd) for birthday queries. Keys are packed as
+ * (date &lt;&lt; 32 | document) in a sorted long array, with recent additions in a small sorted
+ * side array that is merged in once it grows; both are binary searched, so a range costs
+ * O(log n + k). Entries keep a fixed document number; removals are tombstoned and dropped
+ * when the arrays are next merged. People without a DOB are not indexed.
+ */
+public class DobIndex {
+    private final Map<People.PersonMeta, Integer> docIds = new IdentityHashMap<>();
+    private People.PersonMeta[] docs = new People.PersonMeta[64];
+    private final BitSet deleted = new BitSet();
+    private int deletedCount = 0;
+    private int docCount = 0;
+    private final SortedKeys byDate = new SortedKeys();
+    private final SortedKeys byDay = new SortedKeys();
+
+    /**
+     * Receives entries in key order; return false to stop.
+     */
+    private interface Visitor {
+        boolean visit(int doc);
+    }
+
+    DobIndex(List<People.PersonMeta> entries) {
+        List<People.PersonMeta> dated = new ArrayList<>(entries.size());
+        for (People.PersonMeta meta : entries) {
+            if (packDate(meta.getPerson()) != 0) dated.add(meta);
+        }
+        load(dated);
+    }
+
+    void add(People.PersonMeta meta) {
+        int date = packDate(meta.getPerson());
+        if (date == 0) return;
+        int doc = docCount++;
+        if (doc == docs.length) docs = Arrays.copyOf(docs, doc * 2);
+        docs[doc] = meta;
+        docIds.put(meta, doc);
+        byDate.add((long) date << 32 | doc);
+        byDay.add((long) (date % 10000) << 32 | doc);
+    }
+
+    void remove(People.PersonMeta meta) {
+        Integer doc = docIds.remove(meta);
+        if (doc == null) return;
+        docs[doc] = null;
+        deleted.set(doc);
+        deletedCount++;
+        if (deletedCount > docIds.size() / 4 + 1024) rebuild();
+    }
+
+    // Renumbers the live entries and drops every tombstone
+    private void rebuild() {
+        List<People.PersonMeta> live = new ArrayList<>(docIds.size());
+        for (int doc = 0; doc < docCount; doc++) {
+            if (docs[doc] != null) live.add(docs[doc]);
+        }
+        load(live);
+    }
+
+    // Numbers the entries in order and sorts their keys in one pass
+    private void load(List<People.PersonMeta> live) {
+        docIds.clear();
+        deleted.clear();
+        deletedCount = 0;
+        docCount = live.size();
+        docs = live.toArray(new People.PersonMeta[Math.max(64, live.size())]);
+        long[] dates = new long[live.size()], days = new long[live.size()];
+        for (int doc = 0; doc < live.size(); doc++) {
+            docIds.put(docs[doc], doc);
+            int date = packDate(docs[doc].getPerson());
+            dates[doc] = (long) date << 32 | doc;
+            days[doc] = (long) (date % 10000) << 32 | doc;
+        }
+        byDate.reset(dates);
+        byDay.reset(days);
+    }
+
+    // --- Sidecar form (see IndexSidecar) ---
+
+    /**
+     * Writes the positions of the dated entries and both key arrays, sorted.
+     */
+    static void write(java.io.DataOutput out, List<People.PersonMeta> entries) throws java.io.IOException {
+        int[] positions = new int[entries.size()];
+        int n = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            if (packDate(entries.get(i).getPerson()) != 0) positions[n++] = i;
+        }
+        long[] dates = new long[n], days = new long[n];
+        for (int doc = 0; doc < n; doc++) {
+            int date = packDate(entries.get(positions[doc]).getPerson());
+            dates[doc] = (long) date << 32 | doc;
+            days[doc] = (long) (date % 10000) << 32 | doc;
+        }
+        Arrays.sort(dates);
+        Arrays.sort(days);
+        out.writeInt(n);
+        for (int doc = 0; doc < n; doc++) out.writeInt(positions[doc]);
+        for (long key : dates) out.writeLong(key);
+        for (long key : days) out.writeLong(key);
+    }
+
+    /**
+     * Reads an index written by write over the same entries, without sorting.
+     */
+    static DobIndex read(java.nio.ByteBuffer in, List<People.PersonMeta> entries) {
+        DobIndex index = new DobIndex(List.of());
+        int n = in.getInt();
+        index.docCount = n;
+        index.docs = new People.PersonMeta[Math.max(64, n)];
+        for (int doc = 0; doc < n; doc++) {
+            index.docs[doc] = entries.get(in.getInt());
+            index.docIds.put(index.docs[doc], doc);
+        }
+        long[] dates = new long[n], days = new long[n];
+        in.asLongBuffer().get(dates);
+        in.position(in.position() + n * 8);
+        in.asLongBuffer().get(days);
+        in.position(in.position() + n * 8);
+        index.byDate.main = dates;
+        index.byDay.main = days;
+        return index;
+    }
+
+    public int size() { return docIds.size(); }
+
+    /**
+     * Entries born between two yyyymmdd dates inclusive, oldest first.
+     */
+    public List<People.PersonMeta> range(int fromDate, int toDate) {
+        List<People.PersonMeta> result = new ArrayList<>();
+        byDate.walk(fromDate, toDate, false, doc -> result.add(docs[doc]));
+        return result;
+    }
+
+    /**
+     * Number of entries born between two yyyymmdd dates inclusive, including any removed
+     * since the last merge; exact enough for planning.
+     */
+    public int count(int fromDate, int toDate) {
+        return byDate.count(fromDate, toDate);
+    }
+
+    /**
+     * Entries whose birthday (mmdd) falls between two days of the year inclusive, in calendar
+     * order from the first. If from is after to the window wraps across the end of the year.
+     */
+    public List<People.PersonMeta> birthdaysBetween(int fromMonthDay, int toMonthDay) {
+        List<People.PersonMeta> result = new ArrayList<>();
+        if (fromMonthDay <= toMonthDay) {
+            byDay.walk(fromMonthDay, toMonthDay, false, doc -> result.add(docs[doc]));
+        } else {
+            byDay.walk(fromMonthDay, 1231, false, doc -> result.add(docs[doc]));
+            byDay.walk(101, toMonthDay, false, doc -> result.add(docs[doc]));
+        }
+        return result;
+    }
+
+    /**
+     * Entries with a birthday in the next days days, counting today, soonest first.
+     */
+    public List<People.PersonMeta> upcomingBirthdays(java.time.LocalDate today, int days) {
+        if (days <= 0) return new ArrayList<>();
+        if (days >= 366) return birthdaysBetween(monthDay(today), monthDay(today.minusDays(1)));
+        java.time.LocalDate last = today.plusDays(days - 1);
+        // Feb 29 birthdays fall on Feb 28 outside leap years
+        int to = monthDay(last) == 228 && !last.isLeapYear() ? 229 : monthDay(last);
+        return birthdaysBetween(monthDay(today), to);
+    }
+
+    /**
+     * The k earliest-born entries, oldest first.
+     */
+    public List<People.PersonMeta> oldest(int k) {
+        List<People.PersonMeta> result = new ArrayList<>();
+        if (k > 0) byDate.walk(0, Integer.MAX_VALUE, false, doc -> result.add(docs[doc]) && result.size() < k);
+        return result;
+    }
+
+    /**
+     * The k latest-born entries, youngest first.
+     */
+    public List<People.PersonMeta> youngest(int k) {
+        List<People.PersonMeta> result = new ArrayList<>();
+        if (k > 0) byDate.walk(0, Integer.MAX_VALUE, true, doc -> result.add(docs[doc]) && result.size() < k);
+        return result;
+    }
+
+    private static int monthDay(java.time.LocalDate d) {
+        return d.getMonthValue() * 100 + d.getDayOfMonth();
+    }
+
+    static int packDate(Person p) {
+        // Views over a slot store have it packed already
+        if (p instanceof SlotStore.View view) return view.row().packedDOB();
+        src.date.OCCCDate dob = p == null ? null : p.getDOB();
+        return dob == null ? 0 : dob.getYear() * 10000 + dob.getMonthNumber() * 100 + dob.getDayOfMonth();
+    }
+
+    /**
+     * A large sorted array plus a small sorted array of recent keys.
+     */
+    private final class SortedKeys {
+        private long[] main = new long[0];
+        private long[] recent = new long[16];
+        private int recentSize = 0;
+
+        void reset(long[] keys) {
+            Arrays.sort(keys);
+            main = keys;
+            recentSize = 0;
+        }
+
+        void add(long key) {
+            int i = Arrays.binarySearch(recent, 0, recentSize, key);
+            i = i < 0 ? -i - 1 : i;
+            if (recentSize == recent.length) recent = Arrays.copyOf(recent, recentSize * 2);
+            System.arraycopy(recent, i, recent, i + 1, recentSize - i);
+            recent[i] = key;
+            recentSize++;
+            // Keeps inserts into recent cheap while merges stay rare
+            if (recentSize > Math.max(1024, (int) Math.sqrt(main.length) * 8)) merge();
+        }
+
+        // Linear merge of both arrays, dropping tombstoned keys
+        private void merge() {
+            long[] merged = new long[main.length + recentSize];
+            int i = 0, j = 0, n = 0;
+            while (i < main.length || j < recentSize) {
+                long key = j >= recentSize || (i < main.length && main[i] < recent[j]) ? main[i++] : recent[j++];
+                if (!deleted.get((int) key)) merged[n++] = key;
+            }
+            main = n == merged.length ? merged : Arrays.copyOf(merged, n);
+            recentSize = 0;
+        }
+
+        int count(int from, int to) {
+            long lo = (long) from << 32, hi = to == Integer.MAX_VALUE ? Long.MAX_VALUE : ((long) to << 32 | 0xFFFFFFFFL);
+            return upperBound(main, main.length, hi) - lowerBound(main, main.length, lo)
+                + upperBound(recent, recentSize, hi) - lowerBound(recent, recentSize, lo);
+        }
+
+        // Visits live keys with from <= value <= to in order (or reverse order), merging both arrays
+        void walk(int from, int to, boolean descending, Visitor visitor) {
+            long lo = (long) from << 32, hi = to == Integer.MAX_VALUE ? Long.MAX_VALUE : ((long) to << 32 | 0xFFFFFFFFL);
+            int mainStart = lowerBound(main, main.length, lo), mainEnd = upperBound(main, main.length, hi);
+            int recentStart = lowerBound(recent, recentSize, lo), recentEnd = upperBound(recent, recentSize, hi);
+            if (!descending) {
+                int i = mainStart, j = recentStart;
+                while (i < mainEnd || j < recentEnd) {
+                    long key = j >= recentEnd || (i < mainEnd && main[i] < recent[j]) ? main[i++] : recent[j++];
+                    if (!deleted.get((int) key) && !visitor.visit((int) key)) return;
+                }
+            } else {
+                int i = mainEnd - 1, j = recentEnd - 1;
+                while (i >= mainStart || j >= recentStart) {
+                    long key = j < recentStart || (i >= mainStart && main[i] > recent[j]) ? main[i--] : recent[j--];
+                    if (!deleted.get((int) key) && !visitor.visit((int) key)) return;
+                }
+            }
+        }
+
+        // First index whose key is >= target
+        private int lowerBound(long[] a, int size, long target) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (a[mid] < target) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        // First index whose key is > target
+        private int upperBound(long[] a, int size, long target) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (a[mid] <= target) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package src.person;
+
+/**
+ * Case and accent folding for matching names: lowercased, NFD-decomposed with combining marks
+ * removed, and a few letters that do not decompose spelled out ("Łódź" -> "lodz", "Straße" ->
+ * "strasse"). Folded strings are compared with plain String methods.
+ */
+public final class Folding {
+
+    private Folding() {}
+
+    /**
+     * Folded form of s, or "" for null. Returns s itself when it is already folded.
+     */
+    public static String fold(String s) {
+        if (s == null) return "";
+        int i = 0;
+        while (i < s.length()) {
+            char c = s.charAt(i);
+            if (c >= 0x80 || (c >= 'A' && c <= 'Z')) break;
+            i++;
+        }
+        if (i == s.length()) return s;
+        boolean ascii = true;
+        for (int j = i; j < s.length() && ascii; j++) ascii = s.charAt(j) < 0x80;
+        if (ascii) return s.toLowerCase(java.util.Locale.ROOT);
+        String decomposed = java.text.Normalizer.normalize(s, java.text.Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        for (int j = 0; j < decomposed.length(); j++) {
+            char c = decomposed.charAt(j);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue;
+            switch (c) {
+                case 'ß' -> sb.append("ss");
+                case 'Æ', 'æ' -> sb.append("ae");
+                case 'Œ', 'œ' -> sb.append("oe");
+                case 'Þ', 'þ' -> sb.append("th");
+                case 'Ø', 'ø' -> sb.append('o');
+                case 'Ł', 'ł' -> sb.append('l');
+                case 'Đ', 'đ' -> sb.append('d');
+                case 'ı' -> sb.append('i');
+                default -> sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Orders two strings as their folded forms compare, without folding when both are ASCII.
+     */
+    public static int compare(String a, String b) {
+        if (a == null) a = "";
+        if (b == null) b = "";
+        if (isAscii(a) && isAscii(b)) return String.CASE_INSENSITIVE_ORDER.compare(a, b);
+        return fold(a).compareTo(fold(b));
+    }
+
+    /**
+     * True if the folded form of text starts with the folded prefix; ASCII text is not copied.
+     */
+    public static boolean startsWith(String text, String foldedPrefix) {
+        if (text == null) return foldedPrefix.isEmpty();
+        if (isAscii(text)) return text.regionMatches(true, 0, foldedPrefix, 0, foldedPrefix.length());
+        return fold(text).startsWith(foldedPrefix);
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+
+    /**
+     * True if the folded needle occurs in a + sep + b, without building the joined string.
+     */
+    public static boolean containsJoined(String a, char sep, String b, String needle) {
+        if (a.contains(needle) || b.contains(needle)) return true;
+        int sepAt = needle.indexOf(sep);
+        if (sepAt < 0) return false;
+        // A match spanning both parts puts the separator at the join
+        do {
+            int rest = needle.length() - sepAt - 1;
+            if (a.length() >= sepAt && a.regionMatches(a.length() - sepAt, needle, 0, sepAt)
+                && b.regionMatches(0, needle, sepAt + 1, rest)) return true;
+            sepAt = needle.indexOf(sep, sepAt + 1);
+        } while (sepAt >= 0);
+        return false;
+    }
+
+    /**
+     * Case-insensitive substring test for ASCII identifiers; the needle must already be lowercase.
+     */
+    public static boolean containsIgnoreCase(String text, String lowerNeedle) {
+        if (text == null) return false;
+        int max = text.length() - lowerNeedle.length();
+        for (int i = 0; i <= max; i++) {
+            if (text.regionMatches(true, i, lowerNeedle, 0, lowerNeedle.length())) return true;
+        }
+        return false;
+    }
+}
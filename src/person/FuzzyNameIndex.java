@@ -0,0 +1,276 @@
+package src.person;
+
+import src.person.match.Phonetics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typo- and spelling-tolerant index over the words of first and last names. Each distinct
+ * case-folded word is stored once, with its Double Metaphone codes and a node in a BK-tree
+ * keyed by edit distance. A query word matches the words within a small edit distance (from
+ * the tree) plus those that sound alike (from the codes), so "jon smyth" finds John Smith and
+ * "schmidt" finds Smith. Entries keep a fixed document number; removals are tombstoned and the
+ * index rebuilt once tombstones dominate. Words no longer used by any entry stay in the tree
+ * until then and simply have no live postings.
+ */
+public class FuzzyNameIndex {
+    private final Map<String, Integer> wordIds = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    private final List<IntList> postings = new ArrayList<>();
+    private final Map<String, IntList> phonetic = new HashMap<>();
+    private final Map<People.PersonMeta, Integer> docIds = new IdentityHashMap<>();
+    private People.PersonMeta[] docs = new People.PersonMeta[64];
+    private int[][] docWords = new int[64][];
+    private final BitSet deleted = new BitSet();
+    private int deletedCount = 0;
+    private int docCount = 0;
+
+    // BK-tree over word ids: children of a node are linked through nextSibling, each at distance edge from its parent
+    private int root = -1;
+    private int[] firstChild = new int[64], nextSibling = new int[64], edge = new int[64];
+
+    private static final class IntList {
+        int[] values = new int[2];
+        int size = 0;
+        void add(int v) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+    }
+
+    /**
+     * A matching entry and its total edit distance from the query words.
+     */
+    public static final class Hit {
+        public final People.PersonMeta meta;
+        public final int distance;
+
+        Hit(People.PersonMeta meta, int distance) {
+            this.meta = meta;
+            this.distance = distance;
+        }
+    }
+
+    FuzzyNameIndex() {}
+
+    void add(People.PersonMeta meta) {
+        int doc = docCount++;
+        if (doc == docs.length) {
+            docs = Arrays.copyOf(docs, doc * 2);
+            docWords = Arrays.copyOf(docWords, doc * 2);
+        }
+        docs[doc] = meta;
+        docIds.put(meta, doc);
+        List<String> names = words(meta.getFoldedFirstName());
+        names.addAll(words(meta.getFoldedLastName()));
+        int[] ids = new int[names.size()];
+        int n = 0;
+        for (String w : names) {
+            int id = wordId(w);
+            IntList list = postings.get(id);
+            // Postings stay sorted because document numbers only grow; a repeated word is added once
+            if (list.size == 0 || list.values[list.size - 1] != doc) {
+                list.add(doc);
+                ids[n++] = id;
+            }
+        }
+        docWords[doc] = n == ids.length ? ids : Arrays.copyOf(ids, n);
+    }
+
+    void remove(People.PersonMeta meta) {
+        Integer doc = docIds.remove(meta);
+        if (doc == null) return;
+        docs[doc] = null;
+        docWords[doc] = null;
+        deleted.set(doc);
+        deletedCount++;
+        if (deletedCount > docIds.size() + 1024) rebuild();
+    }
+
+    // Renumbers the live entries and drops unused words
+    private void rebuild() {
+        List<People.PersonMeta> live = new ArrayList<>(docIds.size());
+        for (int doc = 0; doc < docCount; doc++) {
+            if (docs[doc] != null) live.add(docs[doc]);
+        }
+        wordIds.clear();
+        words.clear();
+        postings.clear();
+        phonetic.clear();
+        docIds.clear();
+        deleted.clear();
+        deletedCount = 0;
+        docCount = 0;
+        root = -1;
+        docs = new People.PersonMeta[Math.max(64, live.size() * 2)];
+        docWords = new int[docs.length][];
+        for (People.PersonMeta meta : live) add(meta);
+    }
+
+    private int wordId(String w) {
+        Integer id = wordIds.get(w);
+        if (id != null) return id;
+        int nid = words.size();
+        wordIds.put(w, nid);
+        words.add(w);
+        postings.add(new IntList());
+        String[] codes = Phonetics.doubleMetaphone(w);
+        if (!codes[0].isEmpty()) phonetic.computeIfAbsent(codes[0], _ -> new IntList()).add(nid);
+        if (!codes[1].isEmpty() && !codes[1].equals(codes[0])) phonetic.computeIfAbsent(codes[1], _ -> new IntList()).add(nid);
+        insert(nid);
+        return nid;
+    }
+
+    private void insert(int id) {
+        if (id == firstChild.length) {
+            firstChild = Arrays.copyOf(firstChild, id * 2);
+            nextSibling = Arrays.copyOf(nextSibling, id * 2);
+            edge = Arrays.copyOf(edge, id * 2);
+        }
+        firstChild[id] = nextSibling[id] = -1;
+        if (root < 0) {
+            root = id;
+            return;
+        }
+        String w = words.get(id);
+        int node = root;
+        while (true) {
+            int d = Phonetics.levenshtein(w, words.get(node), Integer.MAX_VALUE - 1);
+            int child = firstChild[node];
+            while (child >= 0 && edge[child] != d) child = nextSibling[child];
+            if (child < 0) {
+                edge[id] = d;
+                nextSibling[id] = firstChild[node];
+                firstChild[node] = id;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Distinct words in the index.
+     */
+    public int getWordCount() { return words.size(); }
+
+    /**
+     * Entries whose names contain, for every query word, a word within its edit distance
+     * allowance (none up to 2 letters, 1 up to 5, 2 beyond) or a word that sounds the same.
+     * Ranked by total edit distance, closest first; at most limit hits.
+     */
+    public List<Hit> search(String query, int limit) {
+        List<String> terms = words(query);
+        if (terms.isEmpty() || root < 0 || limit <= 0) return new ArrayList<>();
+        // Word id -> distance, per query word
+        List<Map<Integer, Integer>> matches = new ArrayList<>();
+        int driver = 0;
+        long driverSize = Long.MAX_VALUE;
+        for (String term : terms) {
+            Map<Integer, Integer> m = matchWords(term);
+            long size = 0;
+            for (int id : m.keySet()) size += postings.get(id).size;
+            if (size < driverSize) {
+                driverSize = size;
+                driver = matches.size();
+            }
+            matches.add(m);
+        }
+        // Bucketed by distance, so ranking needs no sort
+        List<List<Hit>> byDistance = new ArrayList<>();
+        BitSet seen = new BitSet();
+        for (int id : matches.get(driver).keySet()) {
+            IntList list = postings.get(id);
+            for (int i = 0; i < list.size; i++) {
+                int doc = list.values[i];
+                if (deleted.get(doc) || seen.get(doc)) continue;
+                seen.set(doc);
+                int total = 0;
+                for (Map<Integer, Integer> m : matches) {
+                    int best = Integer.MAX_VALUE;
+                    for (int w : docWords[doc]) {
+                        Integer d = m.get(w);
+                        if (d != null && d < best) best = d;
+                    }
+                    if (best == Integer.MAX_VALUE) {
+                        total = -1;
+                        break;
+                    }
+                    total += best;
+                }
+                if (total < 0) continue;
+                while (byDistance.size() <= total) byDistance.add(new ArrayList<>());
+                byDistance.get(total).add(new Hit(docs[doc], total));
+            }
+        }
+        List<Hit> result = new ArrayList<>();
+        for (List<Hit> bucket : byDistance) {
+            if (result.size() >= limit) break;
+            for (Hit h : bucket) {
+                if (result.size() == limit) break;
+                result.add(h);
+            }
+        }
+        return result;
+    }
+
+    // Words close to the term: within its edit allowance by BK-tree, or sharing a Double Metaphone
+    // code with it if not too far off
+    private Map<Integer, Integer> matchWords(String term) {
+        Map<Integer, Integer> result = new HashMap<>();
+        int max = maxDistance(term);
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            int node = stack[--top];
+            int d = Phonetics.levenshtein(term, words.get(node), Integer.MAX_VALUE - 1);
+            if (d <= max) result.put(node, d);
+            // Triangle inequality: only children at distance d - max .. d + max can hold matches
+            for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+                if (Math.abs(edge[child] - d) <= max) {
+                    if (top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+                    stack[top++] = child;
+                }
+            }
+        }
+        int soundsLike = Math.max(max, (term.length() + 1) / 2);
+        for (String code : Phonetics.doubleMetaphone(term)) {
+            IntList ids = code.isEmpty() ? null : phonetic.get(code);
+            if (ids == null) continue;
+            for (int i = 0; i < ids.size; i++) {
+                int id = ids.values[i];
+                if (result.containsKey(id)) continue;
+                int d = Phonetics.levenshtein(term, words.get(id), soundsLike);
+                if (d <= soundsLike) result.put(id, d);
+            }
+        }
+        return result;
+    }
+
+    private static int maxDistance(String term) {
+        return term.length() <= 2 ? 0 : term.length() <= 5 ? 1 : 2;
+    }
+
+    // Folded words of a name with punctuation removed ("O'Brien-Núñez" -> obrien, nunez)
+    static List<String> words(String s) {
+        List<String> result = new ArrayList<>();
+        String folded = Folding.fold(s);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i <= folded.length(); i++) {
+            char c = i < folded.length() ? folded.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+            } else if (Character.isWhitespace(c) || c == '-' || c == ',' || c == '.') {
+                if (sb.length() > 0) result.add(sb.toString());
+                sb.setLength(0);
+            }
+        }
+        return result;
+    }
+}
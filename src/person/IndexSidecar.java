@@ -0,0 +1,162 @@
+package src.person;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Indexes of a saved People file, kept next to it (people.ppl.idx) so reopening a large file
+ * does not rebuild them: the key filter, the name trigrams, the DOB keys and the tag dictionary.
+ * Entries are referred to by position, so a sidecar only applies to the list exactly as loaded
+ * from its file; it records the file's length and CRC-32C and is ignored when either differs.
+ * Opening maps the sections and decodes none of them; People decodes one the first time it
+ * needs that index, in place of building it.
+ */
+public final class IndexSidecar {
+    public static final String SUFFIX = ".idx";
+    private static final int MAGIC = 0x50504C58; // "PPLX"
+    private static final int VERSION = 1;
+    private static final int HEADER = 28;
+    private static final int KEYS = 0, NAMES = 1, DOBS = 2, TAGS = 3, SECTIONS = 4;
+
+    private final ByteBuffer[] sections;
+
+    private IndexSidecar(ByteBuffer[] sections) {
+        this.sections = sections;
+    }
+
+    public static File fileFor(File dataFile) {
+        return new File(dataFile.getPath() + SUFFIX);
+    }
+
+    /**
+     * Maps the sidecar of a data file and hands it to the list loaded from that file.
+     * @param modCount The list's mod count when it matched the file; nothing is attached if it has changed since
+     * @return false if there is no usable sidecar, so the indexes will be built as usual
+     */
+    public static boolean open(File dataFile, People people, long modCount) {
+        File file = fileFor(dataFile);
+        if (!file.isFile()) return false;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            if (channel.read(header, 0) < HEADER) return false;
+            header.flip();
+            // Cheapest checks first; the checksum reads the whole data file
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) return false;
+            long length = header.getLong(), hash = header.getLong();
+            if (header.getInt() != people.size() || length != dataFile.length() || hash != checksum(dataFile)) return false;
+            ByteBuffer[] sections = new ByteBuffer[SECTIONS];
+            long at = HEADER;
+            ByteBuffer size = ByteBuffer.allocate(8);
+            for (int i = 0; i < SECTIONS; i++) {
+                size.clear();
+                if (channel.read(size, at) < 8) return false;
+                long n = size.flip().getLong();
+                if (n < 0 || n > Integer.MAX_VALUE || at + 8 + n > channel.size()) return false;
+                // The mapping outlives the channel
+                sections[i] = channel.map(FileChannel.MapMode.READ_ONLY, at + 8, n);
+                at += 8 + n;
+            }
+            return people.attachSidecar(new IndexSidecar(sections), modCount);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the sidecar of a data file from the entries it holds, in file order. Written to a
+     * temp file and moved into place, so a reader never sees a partial sidecar.
+     * @param length The data file's length when the entries were saved to it
+     * @param hash Its checksum then (see checksum); taken by the caller at save time, since the
+     *             file may have been saved again by the time this runs
+     */
+    public static void write(File dataFile, long length, long hash, List<People.PersonMeta> entries) throws IOException {
+        Path target = fileFor(dataFile).toPath();
+        Path tmp = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(length);
+                out.writeLong(hash);
+                out.writeInt(entries.size());
+                for (int i = 0; i < SECTIONS; i++) {
+                    // Each section follows its byte length, filled in once the section is written
+                    out.flush();
+                    long start = channel.position();
+                    out.writeLong(0);
+                    switch (i) {
+                        case KEYS -> People.buildKeyFilter(entries).write(out);
+                        case NAMES -> NameIndex.write(out, entries);
+                        case DOBS -> DobIndex.write(out, entries);
+                        default -> TagIndex.write(out, entries);
+                    }
+                    out.flush();
+                    channel.write(ByteBuffer.allocate(8).putLong(0, channel.position() - start - 8), start);
+                }
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Writes the sidecar of a data file from the list saved to it, reading the list one entry
+     * at a time rather than from a copy.
+     * @param modCount The list's mod count when it was saved
+     * @throws java.util.ConcurrentModificationException if the list changes before the sidecar is written; nothing is written then
+     */
+    public static void write(File dataFile, long length, long hash, People people, long modCount) throws IOException {
+        write(dataFile, length, hash, people.entriesAt(modCount));
+    }
+
+    /**
+     * CRC-32C of a file's contents.
+     */
+    public static long checksum(File file) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        // Read, not mapped: a mapping would keep the file locked on some platforms until collected
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                crc.update(buffer.flip());
+                buffer.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
+    // --- Decoding, one section at a time; the entries are the live list ---
+
+    BloomFilter readKeys() {
+        return BloomFilter.read(section(KEYS));
+    }
+
+    NameIndex readNames(List<People.PersonMeta> entries) {
+        return NameIndex.read(section(NAMES), entries);
+    }
+
+    DobIndex readDobs(List<People.PersonMeta> entries) {
+        return DobIndex.read(section(DOBS), entries);
+    }
+
+    TagIndex readTags() {
+        return TagIndex.read(section(TAGS));
+    }
+
+    private ByteBuffer section(int i) {
+        return sections[i].duplicate();
+    }
+}
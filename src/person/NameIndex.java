@@ -0,0 +1,199 @@
+package src.person;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trigram index over first and last names for wildcard lookups such as smi*, *son or *mit*.
+ * Names are folded (see Folding) and wrapped in start and end markers, so anchored patterns use the
+ * markers' trigrams too. A lookup intersects the postings of the pattern's trigrams and returns
+ * a superset of the matches, which callers confirm against the names. Entries keep a fixed
+ * document number; removals are tombstoned and the postings rebuilt once tombstones dominate.
+ */
+public class NameIndex {
+    public static final int FIRST = 0, LAST = 1;
+    private static final char START = '\u0002', END = '\u0003';
+
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final Map<People.PersonMeta, Integer> docIds = new IdentityHashMap<>();
+    private People.PersonMeta[] docs = new People.PersonMeta[64];
+    private final BitSet deleted = new BitSet();
+    private int deletedCount = 0;
+    private int docCount = 0;
+
+    private static final class IntList {
+        int[] values = new int[4];
+        int size = 0;
+        void add(int v) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+    }
+
+    NameIndex() {}
+
+    void add(People.PersonMeta meta) {
+        int doc = docCount++;
+        if (doc == docs.length) docs = Arrays.copyOf(docs, doc * 2);
+        docs[doc] = meta;
+        docIds.put(meta, doc);
+        index(doc, FIRST, meta.getFoldedFirstName());
+        index(doc, LAST, meta.getFoldedLastName());
+    }
+
+    private void index(int doc, int field, String name) {
+        if (name == null || name.isEmpty()) return;
+        String s = START + name + END;
+        for (int i = 0; i + 3 <= s.length(); i++) {
+            // Postings stay sorted because document numbers only grow; a repeated trigram is added once
+            IntList list = postings.computeIfAbsent(key(field, s, i), _ -> new IntList());
+            if (list.size == 0 || list.values[list.size - 1] != doc) list.add(doc);
+        }
+    }
+
+    void remove(People.PersonMeta meta) {
+        Integer doc = docIds.remove(meta);
+        if (doc == null) return;
+        docs[doc] = null;
+        deleted.set(doc);
+        deletedCount++;
+        if (deletedCount > docIds.size() + 1024) rebuild();
+    }
+
+    // Renumbers the live entries from scratch
+    private void rebuild() {
+        List<People.PersonMeta> live = new ArrayList<>(docIds.size());
+        for (int doc = 0; doc < docCount; doc++) {
+            if (docs[doc] != null) live.add(docs[doc]);
+        }
+        postings.clear();
+        docIds.clear();
+        deleted.clear();
+        deletedCount = 0;
+        docCount = 0;
+        docs = new People.PersonMeta[Math.max(64, live.size() * 2)];
+        for (People.PersonMeta meta : live) add(meta);
+    }
+
+    // --- Sidecar form (see IndexSidecar) ---
+
+    /**
+     * Writes the postings of the entries, numbered by their position in the list.
+     */
+    static void write(java.io.DataOutput out, List<People.PersonMeta> entries) throws java.io.IOException {
+        NameIndex index = new NameIndex();
+        for (People.PersonMeta meta : entries) index.add(meta);
+        out.writeInt(index.postings.size());
+        for (Map.Entry<Long, IntList> e : index.postings.entrySet()) {
+            IntList list = e.getValue();
+            out.writeLong(e.getKey());
+            out.writeInt(list.size);
+            for (int i = 0; i < list.size; i++) out.writeInt(list.values[i]);
+        }
+    }
+
+    /**
+     * Reads postings written by write over the same entries, without folding any name.
+     */
+    static NameIndex read(java.nio.ByteBuffer in, List<People.PersonMeta> entries) {
+        NameIndex index = new NameIndex();
+        index.docCount = entries.size();
+        index.docs = entries.toArray(new People.PersonMeta[Math.max(64, entries.size())]);
+        for (int doc = 0; doc < index.docCount; doc++) index.docIds.put(index.docs[doc], doc);
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            long key = in.getLong();
+            IntList list = new IntList();
+            list.size = in.getInt();
+            list.values = new int[Math.max(4, list.size)];
+            in.asIntBuffer().get(list.values, 0, list.size);
+            in.position(in.position() + list.size * 4);
+            index.postings.put(key, list);
+        }
+        return index;
+    }
+
+    /**
+     * Upper bound on the entries matching a pattern, from its rarest trigram,
+     * or -1 if the pattern is too short to use the index.
+     */
+    public int estimate(int field, String pattern) {
+        long[] keys = trigrams(field, pattern);
+        if (keys.length == 0) return -1;
+        int best = Integer.MAX_VALUE;
+        for (long key : keys) {
+            IntList list = postings.get(key);
+            best = Math.min(best, list == null ? 0 : list.size);
+        }
+        return best;
+    }
+
+    /**
+     * Entries whose name in the field may match the wildcard pattern (a superset),
+     * or null if the pattern is too short to use the index.
+     */
+    public List<People.PersonMeta> candidates(int field, String pattern) {
+        long[] keys = trigrams(field, pattern);
+        if (keys.length == 0) return null;
+        IntList[] lists = new IntList[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            lists[i] = postings.get(keys[i]);
+            if (lists[i] == null) return new ArrayList<>();
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        List<People.PersonMeta> result = new ArrayList<>();
+        int[] at = new int[lists.length];
+        outer:
+        for (int i = 0; i < lists[0].size; i++) {
+            int doc = lists[0].values[i];
+            if (deleted.get(doc)) continue;
+            for (int j = 1; j < lists.length; j++) {
+                IntList list = lists[j];
+                // Galloping would be faster for very skewed lists; a forward binary search is enough here
+                int k = Arrays.binarySearch(list.values, at[j], list.size, doc);
+                if (k < 0) {
+                    at[j] = -k - 1;
+                    continue outer;
+                }
+                at[j] = k;
+            }
+            result.add(docs[doc]);
+        }
+        return result;
+    }
+
+    private static long[] trigrams(int field, String pattern) {
+        String[] pieces = trigrams(pattern);
+        long[] keys = new long[pieces.length];
+        for (int i = 0; i < pieces.length; i++) keys[i] = key(field, pieces[i], 0);
+        return keys;
+    }
+
+    // Trigrams every match must contain: the literal runs between *s, anchored at either end
+    // unless the pattern starts or ends with *
+    private static String[] trigrams(String pattern) {
+        if (pattern == null) return new String[0];
+        String p = Folding.fold(pattern);
+        String[] parts = p.split("\\*", -1);
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i];
+            if (i == 0) part = START + part;
+            if (i == parts.length - 1) part = part + END;
+            for (int j = 0; j + 3 <= part.length(); j++) {
+                String t = part.substring(j, j + 3);
+                if (!result.contains(t)) result.add(t);
+            }
+        }
+        return result.toArray(new String[0]);
+    }
+
+    private static long key(int field, String s, int i) {
+        return (long) field << 48 | (long) s.charAt(i) << 32 | (long) s.charAt(i + 1) << 16 | s.charAt(i + 2);
+    }
+}
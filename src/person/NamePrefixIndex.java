@@ -0,0 +1,202 @@
+package src.person;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sorted arrays of the distinct folded first and last names (see Folding), each with how many
+ * entries use it, for prefix completion. A prefix is a binary search for the start of its
+ * range, so a lookup costs O(log n + k) however long the list is. Changes are counted in a pending map and
+ * applied before the next lookup: count changes in place, a few new names by insertion, many by
+ * one merge. Names whose count drops to zero stay in the arrays, skipped, until that merge.
+ */
+public class NamePrefixIndex {
+    public static final int FIRST = 0, LAST = 1;
+    // Above this many new names a merge is cheaper than inserting them one by one
+    private static final int MAX_INSERTS = 32;
+
+    private final Field[] fields = {new Field(), new Field()};
+
+    private static final class Field {
+        String[] keys = new String[0];
+        String[] names = new String[0];
+        int[] counts = new int[0];
+        int size = 0;
+        int dead = 0;
+        // Folded name -> change in count since the arrays were last brought up to date
+        final Map<String, Integer> pending = new HashMap<>();
+        final Map<String, String> pendingNames = new HashMap<>();
+    }
+
+    NamePrefixIndex(List<People.PersonMeta> entries) {
+        for (int f = FIRST; f <= LAST; f++) {
+            // Folded name -> {count, index of the first entry using it}
+            Map<String, int[]> seen = new HashMap<>();
+            for (int i = 0; i < entries.size(); i++) {
+                String key = key(entries.get(i), f);
+                if (key.isEmpty()) continue;
+                int[] c = seen.get(key);
+                if (c == null) seen.put(key, new int[]{1, i});
+                else c[0]++;
+            }
+            Field field = fields[f];
+            field.keys = seen.keySet().toArray(new String[0]);
+            Arrays.sort(field.keys);
+            field.size = field.keys.length;
+            field.names = new String[field.size];
+            field.counts = new int[field.size];
+            for (int i = 0; i < field.size; i++) {
+                int[] c = seen.get(field.keys[i]);
+                field.counts[i] = c[0];
+                field.names[i] = name(entries.get(c[1]), f);
+            }
+        }
+    }
+
+    void add(People.PersonMeta meta) {
+        change(meta, FIRST, 1);
+        change(meta, LAST, 1);
+    }
+
+    void remove(People.PersonMeta meta) {
+        change(meta, FIRST, -1);
+        change(meta, LAST, -1);
+    }
+
+    private void change(People.PersonMeta meta, int f, int delta) {
+        String key = key(meta, f);
+        if (key.isEmpty()) return;
+        Field field = fields[f];
+        field.pending.merge(key, delta, Integer::sum);
+        if (delta > 0) field.pendingNames.putIfAbsent(key, name(meta, f));
+    }
+
+    /**
+     * Up to limit names in the field (FIRST or LAST) starting with the prefix, ignoring case and
+     * accents, in folded order. Each distinct name is listed once, spelled as it was first seen.
+     */
+    public List<String> complete(int f, String prefix, int limit) {
+        Field field = flush(f);
+        String p = Folding.fold(prefix);
+        List<String> result = new ArrayList<>();
+        for (int i = lowerBound(field, p); i < field.size && result.size() < limit && field.keys[i].startsWith(p); i++) {
+            if (field.counts[i] > 0) result.add(field.names[i]);
+        }
+        return result;
+    }
+
+    /**
+     * True if some entry's name in the field starts with the folded prefix.
+     */
+    public boolean hasPrefix(int f, String foldedPrefix) {
+        Field field = flush(f);
+        for (int i = lowerBound(field, foldedPrefix); i < field.size && field.keys[i].startsWith(foldedPrefix); i++) {
+            if (field.counts[i] > 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Distinct names currently in the field.
+     */
+    public int getNameCount(int f) {
+        Field field = flush(f);
+        return field.size - field.dead;
+    }
+
+    private Field flush(int f) {
+        Field field = fields[f];
+        if (field.pending.isEmpty()) return field;
+        List<String> added = new ArrayList<>();
+        for (Map.Entry<String, Integer> e : field.pending.entrySet()) {
+            int delta = e.getValue();
+            if (delta == 0) continue;
+            int i = Arrays.binarySearch(field.keys, 0, field.size, e.getKey());
+            if (i >= 0) {
+                int before = field.counts[i];
+                field.counts[i] = Math.max(0, before + delta);
+                if (before > 0 && field.counts[i] == 0) field.dead++;
+                else if (before == 0 && field.counts[i] > 0) field.dead--;
+            } else if (delta > 0) {
+                added.add(e.getKey());
+            }
+        }
+        if (added.size() <= MAX_INSERTS && field.dead <= field.size / 4 + MAX_INSERTS) {
+            for (String key : added) insert(field, key, field.pendingNames.get(key), field.pending.get(key));
+        } else {
+            merge(field, added);
+        }
+        field.pending.clear();
+        field.pendingNames.clear();
+        return field;
+    }
+
+    private static void insert(Field field, String key, String name, int count) {
+        int at = -Arrays.binarySearch(field.keys, 0, field.size, key) - 1;
+        if (field.size == field.keys.length) {
+            int capacity = Math.max(16, field.size + (field.size >> 3));
+            field.keys = Arrays.copyOf(field.keys, capacity);
+            field.names = Arrays.copyOf(field.names, capacity);
+            field.counts = Arrays.copyOf(field.counts, capacity);
+        }
+        int tail = field.size - at;
+        System.arraycopy(field.keys, at, field.keys, at + 1, tail);
+        System.arraycopy(field.names, at, field.names, at + 1, tail);
+        System.arraycopy(field.counts, at, field.counts, at + 1, tail);
+        field.keys[at] = key;
+        field.names[at] = name;
+        field.counts[at] = count;
+        field.size++;
+    }
+
+    // Merges the sorted new names into the arrays and drops the unused ones
+    private static void merge(Field field, List<String> added) {
+        added.sort(null);
+        int n = field.size - field.dead + added.size();
+        String[] keys = new String[n];
+        String[] names = new String[n];
+        int[] counts = new int[n];
+        int i = 0, j = 0, k = 0;
+        while (i < field.size || j < added.size()) {
+            if (j >= added.size() || (i < field.size && field.keys[i].compareTo(added.get(j)) < 0)) {
+                if (field.counts[i] > 0) {
+                    keys[k] = field.keys[i];
+                    names[k] = field.names[i];
+                    counts[k++] = field.counts[i];
+                }
+                i++;
+            } else {
+                String key = added.get(j++);
+                keys[k] = key;
+                names[k] = field.pendingNames.get(key);
+                counts[k++] = field.pending.get(key);
+            }
+        }
+        field.keys = keys;
+        field.names = names;
+        field.counts = counts;
+        field.size = n;
+        field.dead = 0;
+    }
+
+    private static int lowerBound(Field field, String key) {
+        int lo = 0, hi = field.size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (field.keys[mid].compareTo(key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static String key(People.PersonMeta meta, int f) {
+        return f == FIRST ? meta.getFoldedFirstName() : meta.getFoldedLastName();
+    }
+
+    private static String name(People.PersonMeta meta, int f) {
+        return f == FIRST ? meta.getPerson().getFirstName() : meta.getPerson().getLastName();
+    }
+}
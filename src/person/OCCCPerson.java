@@ -10,7 +10,7 @@ public class OCCCPerson extends RegisteredPerson {
     }
     public OCCCPerson(OCCCPerson p) { // copy constructor
         super(p);
-        this.studentID = p.studentID;
+        this.studentID = p.getStudentID();
     }
 
     // getters
@@ -20,7 +20,7 @@ public class OCCCPerson extends RegisteredPerson {
 
     // equals
     public boolean equals(OCCCPerson p) {
-        return super.equals(p) && studentID.equals(p.studentID);
+        return super.equals(p) && getStudentID().equals(p.getStudentID());
     }
     public boolean equals(RegisteredPerson p) {
         return super.equals(p);
@@ -31,6 +31,6 @@ public class OCCCPerson extends RegisteredPerson {
 
     // toString
     public String toString() {
-        return super.toString() + " {" + studentID + "}";
+        return super.toString() + " {" + getStudentID() + "}";
     }
 }
@@ -0,0 +1,269 @@
+package src.person;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Off-heap encoding for a SlotStore: fixed-width slots plus an arena of length-prefixed UTF-8
+ * strings, both held in direct ByteBuffers, or in memory-mapped temporary files when given a
+ * directory, so the operating system can page them out. The heap holds only the position array
+ * and the handles already handed out; the garbage collector never scans the records, and
+ * strings are decoded on each access. Folded names are stored alongside the names they differ
+ * from, so name filters do not fold per record. Direct memory is limited by
+ * -XX:MaxDirectMemorySize (by default the heap size); mapped files are not.
+ */
+class OffHeapStore extends SlotStore {
+    private static final long serialVersionUID = 1L;
+    // Slot layout: kind + 1 (0 = free), DOB, then string addresses
+    private static final int KIND = 0, DOB = 4, FIRST = 8, LAST = 16, FOLDED_FIRST = 24, FOLDED_LAST = 32,
+        GOV = 40, STUDENT = 48, DESCRIPTION = 56, TAGS = 64, SLOT_BYTES = 72;
+    private static final int PAGE_SHIFT = 22, PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int SLOTS_PER_PAGE = PAGE_SIZE / SLOT_BYTES;
+    // String address meaning "none", and (for folded names) "same as the name"
+    private static final long NONE = -1L, SAME = -2L;
+
+    private final File directory;
+    private transient Region slots;
+    private transient Region arena;
+    private long arenaSize = 0;
+    private long arenaGarbage = 0;
+
+    /**
+     * Pages of off-heap memory addressed by a long: direct buffers, or consecutive mappings
+     * of one file.
+     */
+    private static final class Region {
+        private final File directory;
+        private final String suffix;
+        // Created with the first page, so an empty store leaves nothing on disk
+        private File file;
+        private RandomAccessFile raf;
+        private FileChannel channel;
+        private ByteBuffer[] pages = new ByteBuffer[0];
+
+        Region(File directory, String suffix) {
+            this.directory = directory;
+            this.suffix = suffix;
+        }
+
+        ByteBuffer page(int index) {
+            if (index >= pages.length) pages = Arrays.copyOf(pages, Math.max(index + 1, pages.length + (pages.length >> 1)));
+            ByteBuffer page = pages[index];
+            if (page == null) pages[index] = page = allocate(index);
+            return page;
+        }
+
+        private ByteBuffer allocate(int index) {
+            if (directory == null) return ByteBuffer.allocateDirect(PAGE_SIZE);
+            if (channel == null) createFile();
+            try {
+                return channel.map(FileChannel.MapMode.READ_WRITE, (long) index << PAGE_SHIFT, PAGE_SIZE);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map off-heap store file", e);
+            }
+        }
+
+        private void createFile() {
+            try {
+                directory.mkdirs();
+                file = File.createTempFile("people", suffix, directory);
+                file.deleteOnExit();
+                raf = new RandomAccessFile(file, "rw");
+                channel = raf.getChannel();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create off-heap store file", e);
+            }
+        }
+
+        // Buffers are released when collected; the file goes now
+        void close() {
+            pages = new ByteBuffer[0];
+            if (channel == null) return;
+            try {
+                raf.close();
+            } catch (IOException ignored) {
+            }
+            file.delete();
+            file = null;
+            raf = null;
+            channel = null;
+        }
+    }
+
+    /**
+     * @param directory Where to map the slot and string files, or null for direct memory
+     */
+    OffHeapStore(File directory) {
+        this.directory = directory;
+        slots = new Region(directory, ".slots");
+        arena = new Region(directory, ".strings");
+    }
+
+    OffHeapStore(File directory, List<People.PersonMeta> entries) {
+        this(directory);
+        ensureCapacity(entries.size());
+        for (People.PersonMeta meta : entries) add(meta);
+    }
+
+    // --- Slots ---
+
+    private ByteBuffer slotPage(int slot) { return slots.page(slot / SLOTS_PER_PAGE); }
+    private static int slotOffset(int slot) { return slot % SLOTS_PER_PAGE * SLOT_BYTES; }
+    private long ref(int slot, int field) { return slotPage(slot).getLong(slotOffset(slot) + field); }
+    private void setRef(int slot, int field, long address) { slotPage(slot).putLong(slotOffset(slot) + field, address); }
+
+    @Override
+    void growSlots(int capacity) {
+        if (capacity > 0) slots.page((capacity - 1) / SLOTS_PER_PAGE);
+    }
+
+    @Override
+    void freeSlot(int slot) {
+        for (int field = FIRST; field < SLOT_BYTES; field += 8) {
+            freeString(ref(slot, field));
+            setRef(slot, field, NONE);
+        }
+        slotPage(slot).put(slotOffset(slot) + KIND, (byte) 0);
+    }
+
+    @Override
+    void clearSlots() {
+        slots.close();
+        arena.close();
+        slots = new Region(directory, ".slots");
+        arena = new Region(directory, ".strings");
+        arenaSize = arenaGarbage = 0;
+    }
+
+    private boolean isFree(int slot) { return slotPage(slot).get(slotOffset(slot) + KIND) == 0; }
+
+    @Override byte kind(int slot) { return (byte) (slotPage(slot).get(slotOffset(slot) + KIND) - 1); }
+    @Override String firstName(int slot) { return string(ref(slot, FIRST)); }
+    @Override String lastName(int slot) { return string(ref(slot, LAST)); }
+    @Override String foldedFirstName(int slot) { return folded(slot, FOLDED_FIRST, FIRST); }
+    @Override String foldedLastName(int slot) { return folded(slot, FOLDED_LAST, LAST); }
+    @Override int packedDOB(int slot) { return slotPage(slot).getInt(slotOffset(slot) + DOB); }
+    @Override String govID(int slot) { return string(ref(slot, GOV)); }
+    @Override String studentID(int slot) { return string(ref(slot, STUDENT)); }
+    @Override String description(int slot) { return string(ref(slot, DESCRIPTION)); }
+    @Override String tags(int slot) { return string(ref(slot, TAGS)); }
+
+    private String folded(int slot, int field, int source) {
+        long address = ref(slot, field);
+        String s = string(address == SAME ? ref(slot, source) : address);
+        return s == null ? "" : s;
+    }
+
+    @Override
+    void writePerson(int slot, Person p) {
+        // Read everything from p first: it may be a view of this slot
+        String first = p.getFirstName(), last = p.getLastName();
+        String gov = p instanceof RegisteredPerson rp ? rp.getGovID() : null;
+        String student = p instanceof OCCCPerson op ? op.getStudentID() : null;
+        int dob = DobIndex.packDate(p);
+        byte kind = p instanceof OCCCPerson ? OCCC : p instanceof RegisteredPerson ? REGISTERED : PERSON;
+        ByteBuffer page = slotPage(slot);
+        if (isFree(slot)) {
+            for (int field = FIRST; field < SLOT_BYTES; field += 8) setRef(slot, field, NONE);
+        }
+        // Marked in use before any string is written, so a compaction moves them
+        page.put(slotOffset(slot) + KIND, (byte) (kind + 1));
+        page.putInt(slotOffset(slot) + DOB, dob);
+        writeName(slot, FIRST, FOLDED_FIRST, first);
+        writeName(slot, LAST, FOLDED_LAST, last);
+        writeString(slot, GOV, gov);
+        writeString(slot, STUDENT, student);
+    }
+
+    @Override void writeFirstName(int slot, String name) { writeName(slot, FIRST, FOLDED_FIRST, name); }
+    @Override void writeLastName(int slot, String name) { writeName(slot, LAST, FOLDED_LAST, name); }
+    @Override void writeDescription(int slot, String text) { writeString(slot, DESCRIPTION, text); }
+    @Override void writeTags(int slot, String text) { writeString(slot, TAGS, text); }
+
+    private void writeName(int slot, int field, int foldedField, String name) {
+        writeString(slot, field, name);
+        String folded = Folding.fold(name);
+        if (name != null && folded.equals(name)) {
+            freeString(ref(slot, foldedField));
+            setRef(slot, foldedField, SAME);
+        } else {
+            writeString(slot, foldedField, folded);
+        }
+    }
+
+    private void writeString(int slot, int field, String s) {
+        long address = putString(s);
+        // After the put: a compaction may have moved the old string
+        freeString(ref(slot, field));
+        setRef(slot, field, address);
+    }
+
+    // --- String arena ---
+
+    private long putString(String s) {
+        if (s == null) return NONE;
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        int length = 4 + bytes.length;
+        if (length > PAGE_SIZE) throw new IllegalArgumentException("Text too long for the off-heap store: " + bytes.length + " bytes");
+        if (arenaGarbage > PAGE_SIZE && arenaGarbage > arenaSize / 2) compact();
+        return putRaw(bytes);
+    }
+
+    private String string(long address) {
+        if (address < 0) return null;
+        ByteBuffer page = arena.page((int) (address >>> PAGE_SHIFT));
+        int offset = (int) (address & (PAGE_SIZE - 1));
+        byte[] bytes = new byte[page.getInt(offset)];
+        page.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void freeString(long address) {
+        if (address < 0) return;
+        arenaGarbage += 4 + arena.page((int) (address >>> PAGE_SHIFT)).getInt((int) (address & (PAGE_SIZE - 1)));
+    }
+
+    // Copies the live strings into a fresh arena
+    private void compact() {
+        Region old = arena;
+        arena = new Region(directory, ".strings");
+        arenaSize = arenaGarbage = 0;
+        for (int slot = 0; slot < getSlotCount(); slot++) {
+            if (isFree(slot)) continue;
+            for (int field = FIRST; field < SLOT_BYTES; field += 8) {
+                long address = ref(slot, field);
+                if (address < 0) continue;
+                ByteBuffer page = old.page((int) (address >>> PAGE_SHIFT));
+                int offset = (int) (address & (PAGE_SIZE - 1));
+                byte[] bytes = new byte[page.getInt(offset)];
+                page.get(offset + 4, bytes);
+                setRef(slot, field, putRaw(bytes));
+            }
+        }
+        old.close();
+    }
+
+    private long putRaw(byte[] bytes) {
+        int length = 4 + bytes.length;
+        // Strings never straddle pages
+        int room = PAGE_SIZE - (int) (arenaSize & (PAGE_SIZE - 1));
+        if (room < length) {
+            arenaSize += room;
+            arenaGarbage += room;
+        }
+        long address = arenaSize;
+        ByteBuffer page = arena.page((int) (address >>> PAGE_SHIFT));
+        int offset = (int) (address & (PAGE_SIZE - 1));
+        page.putInt(offset, bytes.length);
+        page.put(offset + 4, bytes);
+        arenaSize += length;
+        return address;
+    }
+}
@@ -0,0 +1,195 @@
+package src.person;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Whole records, and the fields that differ between two versions of a record, packed one after
+ * another into a single byte array: strings as UTF-8 behind a varint length, dates as yyyymmdd.
+ * A few dozen bytes per record instead of the object graph, for histories that keep many (undo).
+ * Date formatting flags are not kept; decoded dates use the defaults.
+ */
+public final class PackedRecords {
+    // Field order, and bit in a difference's mask
+    private static final int KIND = 0, FIRST = 1, LAST = 2, DOB = 3, GOV = 4, STUDENT = 5, DESCRIPTION = 6, TAGS = 7, FIELDS = 8;
+    private static final int PERSON_FIELDS = (1 << DESCRIPTION) - 1;
+
+    private byte[] data = new byte[64];
+    private int length = 0;
+    private int count = 0;
+
+    public PackedRecords() {}
+
+    // Items already packed, e.g. a block of a data file
+    PackedRecords(byte[] data, int count) {
+        this.data = data;
+        this.length = data.length;
+        this.count = count;
+    }
+
+    /** Number of records and differences added. */
+    public int size() { return count; }
+
+    /** Bytes used by the packed data. */
+    public int byteSize() { return length; }
+
+    /** Drops the spare capacity once nothing more will be added. */
+    public void trim() {
+        if (data.length > length) data = Arrays.copyOf(data, length);
+    }
+
+    /**
+     * Appends a whole record.
+     */
+    public void addRecord(People.PersonMeta meta) {
+        Object[] values = values(meta);
+        for (int f = 0; f < FIELDS; f++) write(f, values[f]);
+        count++;
+    }
+
+    /**
+     * Appends the fields that differ between two versions of a record, with both values of each.
+     * @return false, appending nothing, if every field is equal
+     */
+    public boolean addDiff(People.PersonMeta from, People.PersonMeta to) {
+        Object[] before = values(from), after = values(to);
+        int mask = 0;
+        for (int f = 0; f < FIELDS; f++) {
+            if (!java.util.Objects.equals(before[f], after[f])) mask |= 1 << f;
+        }
+        if (mask == 0) return false;
+        ensure(1);
+        data[length++] = (byte) mask;
+        for (int f = 0; f < FIELDS; f++) {
+            if ((mask & 1 << f) == 0) continue;
+            write(f, before[f]);
+            write(f, after[f]);
+        }
+        count++;
+        return true;
+    }
+
+    /**
+     * Writes the packed bytes, to be read back by the (byte[], int) constructor.
+     */
+    void writeTo(java.io.DataOutput out) throws java.io.IOException {
+        out.write(data, 0, length);
+    }
+
+    /**
+     * Reads the items back in the order they were added.
+     */
+    public Reader reader() {
+        return new Reader();
+    }
+
+    public final class Reader {
+        private int at = 0;
+
+        private Reader() {}
+
+        /**
+         * The next item, added by addRecord, as a new entry.
+         */
+        public People.PersonMeta nextRecord() {
+            Object[] values = new Object[FIELDS];
+            for (int f = 0; f < FIELDS; f++) values[f] = read(f);
+            return new People.PersonMeta(person(values), (String) values[DESCRIPTION], (String) values[TAGS]);
+        }
+
+        /**
+         * The next item, added by addDiff, applied to the current version of its record: a new
+         * entry with the later values of the changed fields if forward, otherwise the earlier ones.
+         */
+        public People.PersonMeta nextDiff(People.PersonMeta current, boolean forward) {
+            int mask = data[at++] & 0xFF;
+            Object[] values = values(current);
+            for (int f = 0; f < FIELDS; f++) {
+                if ((mask & 1 << f) == 0) continue;
+                Object before = read(f), after = read(f);
+                values[f] = forward ? after : before;
+            }
+            Person person = (mask & PERSON_FIELDS) == 0 ? current.getPerson() : person(values);
+            return new People.PersonMeta(person, (String) values[DESCRIPTION], (String) values[TAGS]);
+        }
+
+        private Object read(int field) {
+            return switch (field) {
+                case KIND -> data[at++];
+                case DOB -> readVarint();
+                default -> {
+                    int n = readVarint();
+                    if (n == 0) yield null;
+                    String s = new String(data, at, n - 1, StandardCharsets.UTF_8);
+                    at += n - 1;
+                    // Names and tags repeat across records; the rest are unique
+                    yield field == GOV || field == STUDENT || field == DESCRIPTION ? s : StringPool.intern(s);
+                }
+            };
+        }
+
+        private int readVarint() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = data[at++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+        }
+    }
+
+    private static Object[] values(People.PersonMeta meta) {
+        Person p = meta.getPerson();
+        return new Object[] {
+            p instanceof OCCCPerson ? SlotStore.OCCC : p instanceof RegisteredPerson ? SlotStore.REGISTERED : SlotStore.PERSON,
+            p.getFirstName(), p.getLastName(), DobIndex.packDate(p),
+            p instanceof RegisteredPerson rp ? rp.getGovID() : null,
+            p instanceof OCCCPerson op ? op.getStudentID() : null,
+            meta.getDescription(), meta.getTags()
+        };
+    }
+
+    private static Person person(Object[] values) {
+        String first = (String) values[FIRST], last = (String) values[LAST];
+        src.date.OCCCDate date = SlotStore.date((Integer) values[DOB]);
+        return switch ((Byte) values[KIND]) {
+            case SlotStore.OCCC -> new OCCCPerson(new RegisteredPerson(first, last, date, (String) values[GOV]), (String) values[STUDENT]);
+            case SlotStore.REGISTERED -> new RegisteredPerson(first, last, date, (String) values[GOV]);
+            default -> new Person(first, last, date);
+        };
+    }
+
+    private void write(int field, Object value) {
+        switch (field) {
+            case KIND -> {
+                ensure(1);
+                data[length++] = (Byte) value;
+            }
+            case DOB -> writeVarint((Integer) value);
+            default -> {
+                if (value == null) {
+                    writeVarint(0);
+                    return;
+                }
+                byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+                writeVarint(bytes.length + 1);
+                ensure(bytes.length);
+                System.arraycopy(bytes, 0, data, length, bytes.length);
+                length += bytes.length;
+            }
+        }
+    }
+
+    private void writeVarint(int value) {
+        ensure(5);
+        while ((value & ~0x7F) != 0) {
+            data[length++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    private void ensure(int n) {
+        if (length + n > data.length) data = Arrays.copyOf(data, Math.max(length + n, data.length * 2));
+    }
+}
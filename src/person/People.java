@@ -2,8 +2,15 @@ package src.person;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 /**
  * A collection class for Person objects that provides convenient group operations
@@ -20,6 +27,19 @@ public class People implements Serializable, Iterable<Person> {
         private Person person;
         private String description;
         private String tags;
+        // Folded names for matching, recomputed when the person or their names change
+        private transient FoldedNames folded;
+
+        // Immutable so a reader never sees one name's key paired with another's source
+        private static final class FoldedNames {
+            final String first, last, foldedFirst, foldedLast;
+            FoldedNames(String first, String last) {
+                this.first = first;
+                this.last = last;
+                this.foldedFirst = StringPool.intern(Folding.fold(first));
+                this.foldedLast = StringPool.intern(Folding.fold(last));
+            }
+        }
 
         public PersonMeta(Person person, String description, String tags) {
             this.person = person;
@@ -30,14 +50,158 @@ public class People implements Serializable, Iterable<Person> {
             this(person, "", "");
         }
         public Person getPerson() { return person; }
-        public void setPerson(Person person) { this.person = person; }
+        public void setPerson(Person person) {
+            this.person = person;
+            this.folded = null;
+        }
+        /**
+         * First name lowercased with accents removed (see Folding); "" if there is none.
+         */
+        public String getFoldedFirstName() { return foldedNames().foldedFirst; }
+        /**
+         * Last name lowercased with accents removed (see Folding); "" if there is none.
+         */
+        public String getFoldedLastName() { return foldedNames().foldedLast; }
+
+        private FoldedNames foldedNames() {
+            FoldedNames f = folded;
+            String first = person == null ? null : person.getFirstName();
+            String last = person == null ? null : person.getLastName();
+            // Identity checks catch names changed through Person's setters
+            if (f == null || f.first != first || f.last != last) folded = f = new FoldedNames(first, last);
+            return f;
+        }
         public String getDescription() { return description; }
         public void setDescription(String description) { this.description = description; }
         public String getTags() { return tags; }
+        /**
+         * Sets the raw tags string. On an entry already in a People list, use
+         * People.updateMeta instead so the tag index stays current.
+         */
         public void setTags(String tags) { this.tags = tags; }
     }
 
-    private List<PersonMeta> people = new ArrayList<>();
+    /**
+     * The collection as it was when snapshot() was called. Later changes to the People do not
+     * show up here, so a snapshot can be read from any thread while the collection is edited.
+     */
+    public static final class Snapshot implements Iterable<Person> {
+        // Shared with the collection, which copies a chunk before changing it
+        private final PersonMeta[][] chunks;
+        private final int[] ends;
+        private final int chunkCount;
+        private final int size;
+        private final long modCount;
+
+        Snapshot(PersonMeta[][] chunks, int[] ends, int chunkCount, int size, long modCount) {
+            this.chunks = chunks;
+            this.ends = ends;
+            this.chunkCount = chunkCount;
+            this.size = size;
+            this.modCount = modCount;
+        }
+
+        public int size() { return size; }
+        public boolean isEmpty() { return size == 0; }
+        /**
+         * The collection's modification count when the snapshot was taken.
+         */
+        public long getModCount() { return modCount; }
+
+        public PersonMeta getMeta(int index) {
+            java.util.Objects.checkIndex(index, size);
+            int c = ChunkedEntries.chunkOf(ends, chunkCount, index);
+            return chunks[c][c == 0 ? index : index - ends[c - 1]];
+        }
+
+        public Person get(int index) {
+            return getMeta(index).getPerson();
+        }
+
+        /**
+         * Unmodifiable list view of the entries; no copy is made.
+         */
+        public List<PersonMeta> getAllMeta() {
+            return new java.util.AbstractList<>() {
+                public PersonMeta get(int index) { return getMeta(index); }
+                public int size() { return size; }
+                public Iterator<PersonMeta> iterator() { return metaIterator(); }
+            };
+        }
+
+        /**
+         * Unmodifiable list view of the people; no copy is made.
+         */
+        public List<Person> getAllPeople() {
+            return new java.util.AbstractList<>() {
+                public Person get(int index) { return Snapshot.this.get(index); }
+                public int size() { return size; }
+                public Iterator<Person> iterator() { return Snapshot.this.iterator(); }
+            };
+        }
+
+        @Override
+        public Iterator<Person> iterator() {
+            Iterator<PersonMeta> metaIt = metaIterator();
+            return new Iterator<Person>() {
+                public boolean hasNext() { return metaIt.hasNext(); }
+                public Person next() { return metaIt.next().getPerson(); }
+            };
+        }
+
+        // Walks the chunks in order instead of searching for each position
+        private Iterator<PersonMeta> metaIterator() {
+            return new Iterator<PersonMeta>() {
+                private int position = 0, chunk = 0, offset = 0;
+                public boolean hasNext() { return position < size; }
+                public PersonMeta next() {
+                    if (position >= size) throw new java.util.NoSuchElementException();
+                    while (position == ends[chunk]) {
+                        chunk++;
+                        offset = 0;
+                    }
+                    position++;
+                    return chunks[chunk][offset++];
+                }
+            };
+        }
+    }
+
+    private List<PersonMeta> people = newList(defaultStorage, new ArrayList<>());
+    // ID -> entry holding it, or a List of entries when shared; rebuilt lazily after deserialization
+    private transient Map<String, Object> govIDHolders;
+    private transient Map<String, Object> studentIDHolders;
+    // Bloom filter over govID, studentID and name+DOB keys; removals only count towards a lazy rebuild
+    private transient volatile BloomFilter keyFilter;
+    private transient int keyFilterRemovals;
+    private transient int keyFilterCapacity;
+    private static volatile double keyFilterFalsePositiveRate = 0.01;
+    private static volatile long keyFilterMaxBits = 16L * 1024 * 1024 * 8;
+    // Backend for new and deserialized collections; see setStorage
+    private static volatile Storage defaultStorage = Storage.OBJECTS;
+    private static volatile java.io.File offHeapDirectory;
+    // Bumped by every mutation so cached query results can tell they are stale
+    private transient long modCount;
+    // Dictionary-encoded tags with per-tag bitmaps; built on first tag query
+    private transient TagIndex tagIndex;
+    // Inverted index over descriptions; built on first search
+    private transient TextIndex textIndex;
+    // Trigram index over names; built on first wildcard lookup
+    private transient NameIndex nameIndex;
+    // Sorted DOB and day-of-year keys; built on first date query
+    private transient DobIndex dobIndex;
+    // Phonetic codes and BK-tree over name words; built on first fuzzy search
+    private transient FuzzyNameIndex fuzzyNameIndex;
+    // Sorted distinct names for completion; built on first prefix lookup
+    private transient NamePrefixIndex namePrefixIndex;
+    // Copy-on-write mirror of the entries that snapshots share; built on first snapshot
+    private transient ChunkedEntries versions;
+    // Indexes saved next to the file the list was loaded from; used while the list is unchanged since
+    private transient IndexSidecar sidecar;
+    private transient long sidecarModCount;
+    // Many readers or one writer; get, getMeta and size try an optimistic read first
+    private transient StampedLock lock = new StampedLock();
+    private static final long GOV_SEED = 0x6A09E667F3BCC909L, STUDENT_SEED = 0xBB67AE8584CAA73BL, NAME_SEED = 0x3C6EF372FE94F82BL;
 
     /**
      * Creates an empty People collection
@@ -46,6 +210,14 @@ public class People implements Serializable, Iterable<Person> {
         // Creates an empty collection
     }
 
+    /**
+     * Creates an empty collection on the given backend rather than the default one, e.g.
+     * OBJECTS for a short-lived list that should not take off-heap memory or files.
+     */
+    public People(Storage storage) {
+        people = newList(storage, new ArrayList<>());
+    }
+
     /**
      * Creates a People collection with initial person entries
      * @param initialPeople Initial array of Person objects
@@ -65,7 +237,12 @@ public class People implements Serializable, Iterable<Person> {
      */
     public boolean add(Person person) {
         if (person != null) {
-            return people.add(new PersonMeta(person));
+            long stamp = lock.writeLock();
+            try {
+                return add(new PersonMeta(person));
+            } finally {
+                lock.unlockWrite(stamp);
+            }
         }
         return false;
     }
@@ -75,18 +252,96 @@ public class People implements Serializable, Iterable<Person> {
      */
     public boolean add(Person person, String description, String tags) {
         if (person != null) {
-            return people.add(new PersonMeta(person, description, tags));
+            long stamp = lock.writeLock();
+            try {
+                return add(new PersonMeta(person, description, tags));
+            } finally {
+                lock.unlockWrite(stamp);
+            }
         }
         return false;
     }
 
+    /**
+     * Adds many entries at once, growing the backing list a single time. A large batch drops
+     * the indexes, to be rebuilt on next use, instead of updating them per entry.
+     * @param metas Entries to add; null entries or entries without a person are ignored
+     * @return true if anything was added
+     */
+    public boolean addAll(java.util.Collection<PersonMeta> metas) {
+        long stamp = lock.writeLock();
+        try {
+            if (people instanceof ArrayList<PersonMeta> list) list.ensureCapacity(people.size() + metas.size());
+            else if (people instanceof SlotStore store) store.ensureCapacity(people.size() + metas.size());
+            if (isLargeBatch(metas.size())) dropIndexes();
+            boolean changed = false;
+            for (PersonMeta meta : metas) {
+                if (meta != null && meta.getPerson() != null) changed |= add(meta);
+            }
+            return changed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Callers hold the write lock, as for every private mutator below
+    private boolean add(PersonMeta entry) {
+        people.add(entry);
+        // A slot store keeps its own handle for the entry
+        PersonMeta meta = people.get(people.size() - 1);
+        modCount++;
+        indexIDs(meta, true);
+        if (tagIndex != null) tagIndex.append(meta.getTags());
+        if (textIndex != null) textIndex.add(meta);
+        if (nameIndex != null) nameIndex.add(meta);
+        if (dobIndex != null) dobIndex.add(meta);
+        if (fuzzyNameIndex != null) fuzzyNameIndex.add(meta);
+        if (namePrefixIndex != null) namePrefixIndex.add(meta);
+        if (versions != null) versions.add(frozen(meta));
+        filterKeys(meta.getPerson());
+        return true;
+    }
+
     /**
      * Removes a person from the collection
      * @param person Person to remove
      * @return true if successfully removed
      */
     public boolean remove(Person person) {
-        return people.removeIf(meta -> meta.getPerson().equals(person));
+        long stamp = lock.writeLock();
+        try {
+            // removeIf tests the entries in order, so the count gives each one's position
+            int[] position = {0};
+            List<Integer> removedAt = versions == null ? null : new ArrayList<>();
+            boolean removed = people.removeIf(meta -> {
+                int at = position[0]++;
+                if (!meta.getPerson().equals(person)) return false;
+                if (removedAt != null) removedAt.add(at);
+                unindex(meta);
+                return true;
+            });
+            if (removed) {
+                modCount++;
+                tagIndex = null;
+                if (removedAt != null) {
+                    for (int i = removedAt.size() - 1; i >= 0; i--) versions.remove(removedAt.get(i));
+                }
+            }
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Drops a removed entry from every index kept by position-independent keys
+    private void unindex(PersonMeta meta) {
+        indexIDs(meta, false);
+        keyFilterRemovals++;
+        if (textIndex != null) textIndex.remove(meta);
+        if (nameIndex != null) nameIndex.remove(meta);
+        if (dobIndex != null) dobIndex.remove(meta);
+        if (fuzzyNameIndex != null) fuzzyNameIndex.remove(meta);
+        if (namePrefixIndex != null) namePrefixIndex.remove(meta);
     }
 
     /**
@@ -95,11 +350,20 @@ public class People implements Serializable, Iterable<Person> {
      * @return true if successfully removed
      */
     public boolean remove(int index) {
-        if (index >= 0 && index < people.size()) {
-            people.remove(index);
-            return true;
+        long stamp = lock.writeLock();
+        try {
+            if (index >= 0 && index < people.size()) {
+                PersonMeta removed = people.remove(index);
+                modCount++;
+                unindex(removed);
+                if (tagIndex != null) tagIndex.remove(index);
+                if (versions != null) versions.remove(index);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlockWrite(stamp);
         }
-        return false;
     }
 
     /**
@@ -109,14 +373,65 @@ public class People implements Serializable, Iterable<Person> {
      * @throws IndexOutOfBoundsException if index is out of range
      */
     public Person get(int index) {
-        return people.get(index).getPerson();
+        return entry(index).getPerson();
     }
 
     /**
      * Gets the PersonMeta at a specific index
      */
     public PersonMeta getMeta(int index) {
-        return people.get(index);
+        return entry(index);
+    }
+
+    // Lock-free unless a write overlaps: the list is read optimistically and the read is repeated
+    // under the read lock if the stamp no longer validates
+    private PersonMeta entry(int index) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                PersonMeta meta = people.get(index);
+                if (lock.validate(stamp)) return meta;
+            } catch (RuntimeException e) {
+                // A torn read of a list being changed, unless nothing changed
+                if (lock.validate(stamp)) throw e;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return people.get(index);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Runs a read under the read lock
+    private <T> T read(Supplier<T> action) {
+        long stamp = lock.readLock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Runs a read that needs a lazily built index: under the read lock once the index exists,
+    // otherwise under the write lock so it is built once
+    private <T> T read(BooleanSupplier built, Supplier<T> action) {
+        long stamp = lock.readLock();
+        try {
+            if (!built.getAsBoolean()) {
+                long writeStamp = lock.tryConvertToWriteLock(stamp);
+                if (writeStamp == 0L) {
+                    lock.unlockRead(stamp);
+                    stamp = lock.writeLock();
+                } else {
+                    stamp = writeStamp;
+                }
+            }
+            return action.get();
+        } finally {
+            lock.unlock(stamp);
+        }
     }
 
     /**
@@ -127,9 +442,54 @@ public class People implements Serializable, Iterable<Person> {
      * @throws IndexOutOfBoundsException if index is out of range
      */
     public Person set(int index, Person person) {
+        long stamp = lock.writeLock();
+        try {
+            return replace(index, person).getPerson();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Swaps in a new entry for the person, keeping description and tags; returns the old entry
+    private PersonMeta replace(int index, Person person) {
         PersonMeta old = people.get(index);
-        people.set(index, new PersonMeta(person, old.getDescription(), old.getTags()));
-        return old.getPerson();
+        return replace(index, new PersonMeta(person, old.getDescription(), old.getTags()));
+    }
+
+    // Entries are replaced rather than changed in place, so a snapshot holding one is unaffected
+    private PersonMeta replace(int index, PersonMeta entry) {
+        PersonMeta old = people.get(index);
+        String oldDescription = old.getDescription();
+        people.set(index, entry);
+        PersonMeta meta = people.get(index);
+        Person person = meta.getPerson();
+        modCount++;
+        if (textIndex != null) {
+            if (java.util.Objects.equals(oldDescription, meta.getDescription())) textIndex.replace(old, meta);
+            else textIndex.update(old, meta);
+        }
+        if (nameIndex != null) {
+            nameIndex.remove(old);
+            nameIndex.add(meta);
+        }
+        if (dobIndex != null) {
+            dobIndex.remove(old);
+            dobIndex.add(meta);
+        }
+        if (fuzzyNameIndex != null) {
+            fuzzyNameIndex.remove(old);
+            fuzzyNameIndex.add(meta);
+        }
+        if (namePrefixIndex != null) {
+            namePrefixIndex.remove(old);
+            namePrefixIndex.add(meta);
+        }
+        indexIDs(old, false);
+        indexIDs(meta, true);
+        keyFilterRemovals++;
+        filterKeys(person);
+        if (versions != null) versions.set(index, frozen(meta));
+        return old;
     }
 
     /**
@@ -137,7 +497,30 @@ public class People implements Serializable, Iterable<Person> {
      * @return Number of people in the collection
      */
     public int size() {
-        return people.size();
+        long stamp = lock.tryOptimisticRead();
+        int size = people.size();
+        if (lock.validate(stamp)) return size;
+        stamp = lock.readLock();
+        try {
+            return people.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Number of changes made to the collection so far; equal values mean nothing changed in between.
+     */
+    public long getModCount() {
+        long stamp = lock.tryOptimisticRead();
+        long count = modCount;
+        if (lock.validate(stamp)) return count;
+        stamp = lock.readLock();
+        try {
+            return modCount;
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 
     /**
@@ -145,14 +528,339 @@ public class People implements Serializable, Iterable<Person> {
      * @return true if the collection contains no people
      */
     public boolean isEmpty() {
-        return people.isEmpty();
+        return size() == 0;
+    }
+
+    /**
+     * Empties a collection that is no longer used and releases what its backend holds outside
+     * the heap (the memory and files of an OFF_HEAP store) now rather than at exit. Entries
+     * obtained earlier stay valid.
+     */
+    public void close() {
+        if (getStorage() == Storage.OFF_HEAP) clear();
     }
 
     /**
      * Clears all people from the collection
      */
     public void clear() {
-        people.clear();
+        long stamp = lock.writeLock();
+        try {
+            people.clear();
+            modCount++;
+            dropIndexes();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // --- Batches ---
+
+    // Past this share of the collection, a batch drops the indexes for a rebuild on next use
+    // rather than updating them once per entry
+    private static final int REBUILD_DIVISOR = 8;
+
+    private boolean isLargeBatch(int count) {
+        return count > 1024 && count > people.size() / REBUILD_DIVISOR;
+    }
+
+    /**
+     * Replaces entries in one batch. The function sees every entry in order and returns its
+     * replacement, or the entry itself or null to keep it; it must not change the entry it is
+     * given.
+     * @return Number of entries replaced
+     */
+    public int updateAll(java.util.function.Function<PersonMeta, PersonMeta> update) {
+        long stamp = lock.writeLock();
+        try {
+            int n = people.size();
+            int[] positions = new int[16];
+            PersonMeta[] entries = new PersonMeta[16];
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                PersonMeta meta = people.get(i);
+                PersonMeta replacement = update.apply(meta);
+                if (replacement == null || replacement == meta) continue;
+                if (count == positions.length) {
+                    positions = java.util.Arrays.copyOf(positions, count * 2);
+                    entries = java.util.Arrays.copyOf(entries, count * 2);
+                }
+                positions[count] = i;
+                entries[count++] = replacement;
+            }
+            if (count == 0) return 0;
+            if (isLargeBatch(count)) {
+                dropIndexes();
+                for (int i = 0; i < count; i++) people.set(positions[i], entries[i]);
+                modCount++;
+            } else {
+                for (int i = 0; i < count; i++) {
+                    replace(positions[i], entries[i]);
+                    if (tagIndex != null) tagIndex.set(positions[i], entries[i].getTags());
+                }
+            }
+            return count;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes every entry the filter accepts, compacting the list in one pass.
+     * @return Number of entries removed
+     */
+    public int removeIf(java.util.function.Predicate<PersonMeta> filter) {
+        long stamp = lock.writeLock();
+        try {
+            int n = people.size();
+            int[] positions = new int[16];
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                if (!filter.test(people.get(i))) continue;
+                if (count == positions.length) positions = java.util.Arrays.copyOf(positions, count * 2);
+                positions[count++] = i;
+            }
+            return removePositions(java.util.Arrays.copyOf(positions, count));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the entries at the given positions, compacting the list in one pass. Duplicate
+     * positions count once.
+     * @return Number of entries removed
+     * @throws IndexOutOfBoundsException if a position is out of range; nothing is removed
+     */
+    public int removeIndices(int... indices) {
+        long stamp = lock.writeLock();
+        try {
+            int[] positions = java.util.Arrays.stream(indices).sorted().distinct().toArray();
+            int n = people.size();
+            if (positions.length > 0 && (positions[0] < 0 || positions[positions.length - 1] >= n)) {
+                int bad = positions[0] < 0 ? positions[0] : positions[positions.length - 1];
+                throw new IndexOutOfBoundsException("Index: " + bad + ", Size: " + n);
+            }
+            return removePositions(positions);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Positions are ascending and distinct
+    private int removePositions(int[] positions) {
+        if (positions.length == 0) return 0;
+        boolean rebuild = isLargeBatch(positions.length);
+        if (rebuild) dropIndexes();
+        // removeIf tests the entries in order, so a running count gives each one's position
+        int[] cursor = {0, 0};
+        people.removeIf(meta -> {
+            int at = cursor[1]++;
+            if (cursor[0] == positions.length || positions[cursor[0]] != at) return false;
+            cursor[0]++;
+            if (!rebuild) unindex(meta);
+            return true;
+        });
+        modCount++;
+        tagIndex = null;
+        if (versions != null) {
+            for (int i = positions.length - 1; i >= 0; i--) versions.remove(positions[i]);
+        }
+        return positions.length;
+    }
+
+    /**
+     * Inserts entries at the positions they will hold afterwards, moving each existing entry
+     * once. Reverses a removeIndices call given the removed positions and entries.
+     * @param positions Final positions, ascending and distinct
+     * @param entries The entry for each position
+     * @throws IndexOutOfBoundsException if a position is out of order or past the final size; nothing is inserted
+     */
+    public void insertAll(int[] positions, List<PersonMeta> entries) {
+        if (positions.length != entries.size()) throw new IllegalArgumentException("Positions and entries differ in number");
+        long stamp = lock.writeLock();
+        try {
+            int k = positions.length, total = people.size() + k;
+            for (int i = 0; i < k; i++) {
+                if (positions[i] < (i == 0 ? 0 : positions[i - 1] + 1) || positions[i] >= total) {
+                    throw new IndexOutOfBoundsException("Index: " + positions[i] + ", Size: " + total);
+                }
+            }
+            if (k == 0) return;
+            boolean rebuild = isLargeBatch(k);
+            if (rebuild) dropIndexes();
+            if (people instanceof SlotStore store) {
+                store.insertAll(positions, entries);
+            } else {
+                int from = people.size() - 1, next = k - 1;
+                people.addAll(java.util.Collections.nCopies(k, null));
+                for (int to = total - 1; next >= 0; to--) {
+                    people.set(to, positions[next] == to ? entries.get(next--) : people.get(from--));
+                }
+            }
+            modCount++;
+            tagIndex = null;
+            versions = null;
+            if (rebuild) return;
+            for (int position : positions) {
+                PersonMeta meta = people.get(position);
+                indexIDs(meta, true);
+                if (textIndex != null) textIndex.add(meta);
+                if (nameIndex != null) nameIndex.add(meta);
+                if (dobIndex != null) dobIndex.add(meta);
+                if (fuzzyNameIndex != null) fuzzyNameIndex.add(meta);
+                if (namePrefixIndex != null) namePrefixIndex.add(meta);
+                filterKeys(meta.getPerson());
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // --- Snapshots ---
+
+    /**
+     * An immutable copy of the collection for reading off the EDT, e.g. by exports or background
+     * filters. Taking one is O(1): the snapshot shares its chunks of entries with the collection,
+     * which copies a chunk only when it next changes it. The first call builds the shared chunks
+     * in one pass. Slot stores are the exception: their entries are decoded into a copy that
+     * only the snapshot holds, so the store does not keep a second, on-heap list of everyone.
+     */
+    public Snapshot snapshot() {
+        long stamp = lock.writeLock();
+        try {
+            if (people instanceof SlotStore) {
+                ChunkedEntries copy = new ChunkedEntries();
+                for (PersonMeta meta : people) copy.add(frozen(meta));
+                return copy.snapshot(modCount);
+            }
+            if (versions == null) {
+                versions = new ChunkedEntries();
+                for (PersonMeta meta : people) versions.add(frozen(meta));
+            }
+            return versions.snapshot(modCount);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Slot stores hand out handles that read the live store, so snapshots keep standalone copies
+    private static PersonMeta frozen(PersonMeta meta) {
+        return meta instanceof SlotStore.Row row ? row.copy() : meta;
+    }
+
+    /**
+     * The entries as they are at modCount, for a long read off the EDT that should not copy the
+     * whole list first (see IndexSidecar.write). Each get reads one entry under the lock, as a
+     * standalone copy for slot stores.
+     * @throws java.util.ConcurrentModificationException from size and get once the collection has changed since savedModCount
+     */
+    List<PersonMeta> entriesAt(long savedModCount) {
+        return new java.util.AbstractList<>() {
+            @Override
+            public PersonMeta get(int index) {
+                return read(() -> {
+                    checkModCount();
+                    return frozen(people.get(index));
+                });
+            }
+
+            @Override
+            public int size() {
+                return read(() -> {
+                    checkModCount();
+                    return people.size();
+                });
+            }
+
+            private void checkModCount() {
+                if (People.this.modCount != savedModCount) throw new java.util.ConcurrentModificationException();
+            }
+        };
+    }
+
+    // --- Storage ---
+
+    /**
+     * How the entries are held in memory.
+     */
+    public enum Storage {
+        /** A list of PersonMeta and Person objects */
+        OBJECTS,
+        /** Primitive columns on the heap; see ColumnarStore */
+        COLUMNAR,
+        /** Fixed-width slots and a string arena outside the heap; see OffHeapStore */
+        OFF_HEAP
+    }
+
+    /**
+     * Sets the backend used by collections created or loaded from now on.
+     * @param directory For OFF_HEAP, where to memory-map the store's files; null keeps it in direct memory
+     */
+    public static void configureStorage(Storage storage, java.io.File directory) {
+        defaultStorage = storage;
+        offHeapDirectory = directory;
+    }
+
+    public Storage getStorage() {
+        return read(this::storage);
+    }
+
+    private Storage storage() {
+        return people instanceof OffHeapStore ? Storage.OFF_HEAP : people instanceof ColumnarStore ? Storage.COLUMNAR : Storage.OBJECTS;
+    }
+
+    /**
+     * Moves the entries to another backend. Entries obtained before the switch stay valid but
+     * are no longer part of the collection, and every index is rebuilt on next use.
+     */
+    public void setStorage(Storage storage) {
+        long stamp = lock.writeLock();
+        try {
+            if (storage == storage()) return;
+            List<PersonMeta> old = people;
+            List<PersonMeta> entries = old instanceof SlotStore store ? store.toObjects() : old;
+            people = newList(storage, entries);
+            // Deletes its files now rather than at exit; handed-out entries are detached first
+            if (old instanceof OffHeapStore) old.clear();
+            modCount++;
+            dropIndexes();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private static List<PersonMeta> newList(Storage storage, List<PersonMeta> entries) {
+        return switch (storage) {
+            case COLUMNAR -> new ColumnarStore(entries);
+            case OFF_HEAP -> new OffHeapStore(offHeapDirectory, entries);
+            default -> entries;
+        };
+    }
+
+    private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        lock = new StampedLock();
+        // Each record arrives with its own copies of shared names and tags
+        for (PersonMeta meta : people) {
+            StringPool.intern(meta.person);
+            meta.tags = StringPool.intern(meta.tags);
+        }
+        people = newList(defaultStorage, people);
+    }
+
+    private void dropIndexes() {
+        versions = null;
+        sidecar = null;
+        govIDHolders = null;
+        studentIDHolders = null;
+        keyFilter = null;
+        tagIndex = null;
+        textIndex = null;
+        nameIndex = null;
+        dobIndex = null;
+        fuzzyNameIndex = null;
+        namePrefixIndex = null;
     }
 
     /**
@@ -160,20 +868,23 @@ public class People implements Serializable, Iterable<Person> {
      * @return ArrayList containing all people
      */
     public List<Person> getAllPeople() {
-        List<Person> result = new ArrayList<>();
-        for (PersonMeta meta : people) result.add(meta.getPerson());
-        return result;
+        return read(() -> {
+            List<Person> result = new ArrayList<>(people.size());
+            for (PersonMeta meta : people) result.add(meta.getPerson());
+            return result;
+        });
     }
 
     /**
      * Gets all PersonMeta as a list
      */
     public List<PersonMeta> getAllMeta() {
-        return new ArrayList<>(people);
+        return read(() -> new ArrayList<>(people));
     }
 
     /**
-     * Provides an iterator for the People collection
+     * Provides an iterator for the People collection. It reads the live list without locking,
+     * so iterate on the thread that modifies the collection, or over a snapshot() elsewhere.
      * @return Iterator over Person objects
      */
     @Override
@@ -190,14 +901,16 @@ public class People implements Serializable, Iterable<Person> {
      */
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder("People collection [size=" + size() + "]:\n");
-        for (PersonMeta meta : people) {
-            sb.append("  ").append(meta.getPerson().toString());
-            if (!meta.getDescription().isEmpty()) sb.append(" | Desc: ").append(meta.getDescription());
-            if (!meta.getTags().isEmpty()) sb.append(" | Tags: ").append(meta.getTags());
-            sb.append("\n");
-        }
-        return sb.toString();
+        return read(() -> {
+            StringBuilder sb = new StringBuilder("People collection [size=" + people.size() + "]:\n");
+            for (PersonMeta meta : people) {
+                sb.append("  ").append(meta.getPerson().toString());
+                if (!meta.getDescription().isEmpty()) sb.append(" | Desc: ").append(meta.getDescription());
+                if (!meta.getTags().isEmpty()) sb.append(" | Tags: ").append(meta.getTags());
+                sb.append("\n");
+            }
+            return sb.toString();
+        });
     }
 
     /**
@@ -207,35 +920,46 @@ public class People implements Serializable, Iterable<Person> {
      * @return true if updated
      */
     public boolean update(int index, Person person) {
-        if (index >= 0 && index < people.size() && person != null) {
-            PersonMeta old = people.get(index);
-            people.set(index, new PersonMeta(person, old.getDescription(), old.getTags()));
-            return true;
+        long stamp = lock.writeLock();
+        try {
+            if (index >= 0 && index < people.size() && person != null) {
+                replace(index, person);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlockWrite(stamp);
         }
-        return false;
     }
 
     /**
      * Updates metadata for a person at a specific index
      */
     public boolean updateMeta(int index, String description, String tags) {
-        if (index >= 0 && index < people.size()) {
-            PersonMeta meta = people.get(index);
-            meta.setDescription(description);
-            meta.setTags(tags);
-            return true;
+        long stamp = lock.writeLock();
+        try {
+            if (index >= 0 && index < people.size()) {
+                PersonMeta old = people.get(index);
+                replace(index, new PersonMeta(old.getPerson(), description, tags));
+                if (tagIndex != null) tagIndex.set(index, tags);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlockWrite(stamp);
         }
-        return false;
     }
 
     /**
      * Returns the index of a person in the collection, or -1 if not found
      */
     public int indexOf(Person person) {
-        for (int i = 0; i < people.size(); i++) {
-            if (people.get(i).getPerson().equals(person)) return i;
-        }
-        return -1;
+        return read(() -> {
+            for (int i = 0; i < people.size(); i++) {
+                if (people.get(i).getPerson().equals(person)) return i;
+            }
+            return -1;
+        });
     }
 
     /**
@@ -243,17 +967,11 @@ public class People implements Serializable, Iterable<Person> {
      */
     public boolean isDuplicateGovID(String govID, int excludeIndex) {
         if (govID == null || govID.isEmpty()) return false;
-        for (int i = 0; i < people.size(); i++) {
-            if (i == excludeIndex) continue;
-            Person person = people.get(i).getPerson();
-            if (person instanceof RegisteredPerson) {
-                RegisteredPerson regPerson = (RegisteredPerson) person;
-                if (govID.equals(regPerson.getGovID())) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return read(this::hasIDIndex, () -> {
+            int count = holderCount(ensureIDIndex().govIDHolders.get(govID));
+            if (excludeIndex >= 0 && excludeIndex < people.size() && govID.equals(govIDOf(people.get(excludeIndex).getPerson()))) count--;
+            return count > 0;
+        });
     }
 
     /**
@@ -261,17 +979,439 @@ public class People implements Serializable, Iterable<Person> {
      */
     public boolean isDuplicateStudentID(String studentID, int excludeIndex) {
         if (studentID == null || studentID.isEmpty()) return false;
-        for (int i = 0; i < people.size(); i++) {
-            if (i == excludeIndex) continue;
-            Person person = people.get(i).getPerson();
-            if (person instanceof OCCCPerson) {
-                OCCCPerson occPerson = (OCCCPerson) person;
-                if (studentID.equals(occPerson.getStudentID())) {
-                    return true;
+        return read(this::hasIDIndex, () -> {
+            int count = holderCount(ensureIDIndex().studentIDHolders.get(studentID));
+            if (excludeIndex >= 0 && excludeIndex < people.size() && studentID.equals(studentIDOf(people.get(excludeIndex).getPerson()))) count--;
+            return count > 0;
+        });
+    }
+
+    /**
+     * All government IDs currently in the collection, as a copy
+     */
+    public Set<String> getGovIDs() {
+        return read(this::hasIDIndex, () -> Set.copyOf(ensureIDIndex().govIDHolders.keySet()));
+    }
+
+    /**
+     * All student IDs currently in the collection, as a copy
+     */
+    public Set<String> getStudentIDs() {
+        return read(this::hasIDIndex, () -> Set.copyOf(ensureIDIndex().studentIDHolders.keySet()));
+    }
+
+    /**
+     * Entries holding a government ID, found by hash lookup; a copy, safe to keep off the EDT
+     */
+    public List<PersonMeta> getByGovID(String govID) {
+        return read(this::hasIDIndex, () -> holders(ensureIDIndex().govIDHolders.get(govID)));
+    }
+
+    /**
+     * Entries holding a student ID, found by hash lookup; a copy, safe to keep off the EDT
+     */
+    public List<PersonMeta> getByStudentID(String studentID) {
+        return read(this::hasIDIndex, () -> holders(ensureIDIndex().studentIDHolders.get(studentID)));
+    }
+
+    private boolean hasIDIndex() {
+        return govIDHolders != null && studentIDHolders != null;
+    }
+
+    private People ensureIDIndex() {
+        if (govIDHolders == null || studentIDHolders == null) {
+            govIDHolders = new HashMap<>();
+            studentIDHolders = new HashMap<>();
+            for (PersonMeta meta : people) indexIDs(meta, true);
+        }
+        return this;
+    }
+
+    private void indexIDs(PersonMeta meta, boolean add) {
+        if (govIDHolders == null || studentIDHolders == null) return; // built on first lookup
+        hold(govIDHolders, govIDOf(meta.getPerson()), meta, add);
+        hold(studentIDHolders, studentIDOf(meta.getPerson()), meta, add);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void hold(Map<String, Object> holders, String id, PersonMeta meta, boolean add) {
+        if (id == null || id.isEmpty()) return;
+        Object current = holders.get(id);
+        if (add) {
+            if (current == null) {
+                holders.put(id, meta);
+            } else if (current instanceof List) {
+                ((List<PersonMeta>) current).add(meta);
+            } else {
+                List<PersonMeta> shared = new ArrayList<>(2);
+                shared.add((PersonMeta) current);
+                shared.add(meta);
+                holders.put(id, shared);
+            }
+        } else if (current == meta) {
+            holders.remove(id);
+        } else if (current instanceof List) {
+            List<PersonMeta> shared = (List<PersonMeta>) current;
+            shared.removeIf(m -> m == meta);
+            if (shared.size() == 1) holders.put(id, shared.get(0));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<PersonMeta> holders(Object value) {
+        if (value == null) return Collections.emptyList();
+        // Copied under the lock: the shared list changes with the collection
+        if (value instanceof List) return List.copyOf((List<PersonMeta>) value);
+        return Collections.singletonList((PersonMeta) value);
+    }
+
+    private static int holderCount(Object value) {
+        return value == null ? 0 : value instanceof List<?> list ? list.size() : 1;
+    }
+
+    // --- Tags ---
+
+    /**
+     * Tag index over the collection, built on first use and kept current by every mutation.
+     * Its positions are indexes into this collection. The index is shared, not copied, so use
+     * it on the EDT only; other threads go through queryTags.
+     */
+    public TagIndex getTagIndex() {
+        return read(() -> tagIndex != null, this::tagIndex);
+    }
+
+    private TagIndex tagIndex() {
+        if (tagIndex == null) tagIndex = fromSidecar(IndexSidecar::readTags);
+        if (tagIndex == null) {
+            TagIndex index = new TagIndex();
+            for (PersonMeta meta : people) index.append(meta.getTags());
+            tagIndex = index;
+        }
+        return tagIndex;
+    }
+
+    /**
+     * Indexes of the people matching a tag expression; see TagIndex.query.
+     * @throws IllegalArgumentException if the expression is malformed
+     */
+    public TagBitmap queryTags(String expression) {
+        // A query may first rebuild the bitmaps
+        return read(() -> tagIndex != null && tagIndex.isCurrent(), () -> tagIndex().query(expression));
+    }
+
+    /**
+     * Entries matching a tag expression, in list order, read under the lock; see TagIndex.query.
+     * One lock for the whole result rather than a getMeta call per position, which also keeps
+     * the positions from going stale between the query and the reads.
+     * @throws IllegalArgumentException if the expression is malformed
+     */
+    public List<PersonMeta> matchTags(String expression) {
+        return read(() -> tagIndex != null && tagIndex.isCurrent(), () -> {
+            TagBitmap positions = tagIndex().query(expression);
+            List<PersonMeta> result = new ArrayList<>(positions.cardinality());
+            positions.forEach(i -> result.add(people.get(i)));
+            return result;
+        });
+    }
+
+    // --- Names ---
+
+    /**
+     * Trigram index over first and last names, built on first use and kept current by every mutation.
+     * EDT only, like getTagIndex; other threads go through estimateNames and nameCandidates.
+     */
+    public NameIndex getNameIndex() {
+        return read(() -> nameIndex != null, this::nameIndex);
+    }
+
+    private NameIndex nameIndex() {
+        if (nameIndex == null) nameIndex = fromSidecar(s -> s.readNames(people));
+        if (nameIndex == null) {
+            NameIndex index = new NameIndex();
+            for (PersonMeta meta : people) index.add(meta);
+            nameIndex = index;
+        }
+        return nameIndex;
+    }
+
+    /**
+     * Upper bound on the entries matching a name pattern, read under the lock; see NameIndex.estimate.
+     */
+    public int estimateNames(int field, String pattern) {
+        return read(() -> nameIndex != null, () -> nameIndex().estimate(field, pattern));
+    }
+
+    /**
+     * Entries whose name may match a pattern, read under the lock; see NameIndex.candidates.
+     */
+    public List<PersonMeta> nameCandidates(int field, String pattern) {
+        return read(() -> nameIndex != null, () -> nameIndex().candidates(field, pattern));
+    }
+
+    /**
+     * Phonetic and edit-distance index over name words, built on first use and kept current by every mutation.
+     */
+    public FuzzyNameIndex getFuzzyNameIndex() {
+        return read(() -> fuzzyNameIndex != null, this::fuzzyNameIndex);
+    }
+
+    private FuzzyNameIndex fuzzyNameIndex() {
+        if (fuzzyNameIndex == null) {
+            FuzzyNameIndex index = new FuzzyNameIndex();
+            for (PersonMeta meta : people) index.add(meta);
+            fuzzyNameIndex = index;
+        }
+        return fuzzyNameIndex;
+    }
+
+    /**
+     * Sorted distinct first and last names for prefix completion, built on first use and kept current by every mutation.
+     */
+    public NamePrefixIndex getNamePrefixIndex() {
+        return read(() -> namePrefixIndex != null, () -> {
+            if (namePrefixIndex == null) namePrefixIndex = new NamePrefixIndex(people);
+            return namePrefixIndex;
+        });
+    }
+
+    /**
+     * People whose names approximately match the query words, closest first; see FuzzyNameIndex.search.
+     */
+    public List<FuzzyNameIndex.Hit> searchNames(String query, int limit) {
+        return read(() -> fuzzyNameIndex != null, () -> fuzzyNameIndex().search(query, limit));
+    }
+
+    // --- Dates of birth ---
+
+    /**
+     * Sorted index over dates of birth and birthdays, built on first use and kept current by every mutation.
+     * EDT only, like getTagIndex; other threads go through bornBetween and upcomingBirthdays.
+     */
+    public DobIndex getDobIndex() {
+        return read(() -> dobIndex != null, this::dobIndex);
+    }
+
+    private DobIndex dobIndex() {
+        if (dobIndex == null) dobIndex = fromSidecar(s -> s.readDobs(people));
+        if (dobIndex == null) {
+            dobIndex = new DobIndex(people);
+        }
+        return dobIndex;
+    }
+
+    /**
+     * Entries born between two yyyymmdd dates inclusive, read under the lock; see DobIndex.range.
+     */
+    public List<PersonMeta> bornBetween(int fromDate, int toDate) {
+        return read(() -> dobIndex != null, () -> dobIndex().range(fromDate, toDate));
+    }
+
+    /**
+     * Number of entries born between two yyyymmdd dates, read under the lock; see DobIndex.count.
+     */
+    public int countBornBetween(int fromDate, int toDate) {
+        return read(() -> dobIndex != null, () -> dobIndex().count(fromDate, toDate));
+    }
+
+    /**
+     * Entries with a birthday in the next days days, read under the lock; see DobIndex.upcomingBirthdays.
+     */
+    public List<PersonMeta> upcomingBirthdays(java.time.LocalDate today, int days) {
+        return read(() -> dobIndex != null, () -> dobIndex().upcomingBirthdays(today, days));
+    }
+
+    // --- Descriptions ---
+
+    /**
+     * Full-text index over descriptions, built on first use and kept current by every mutation.
+     * EDT only, like getTagIndex; other threads go through searchDescriptions and matchDescriptions.
+     */
+    public TextIndex getTextIndex() {
+        return read(() -> textIndex != null, this::textIndex);
+    }
+
+    private TextIndex textIndex() {
+        if (textIndex == null) {
+            TextIndex index = new TextIndex();
+            for (PersonMeta meta : people) index.add(meta);
+            textIndex = index;
+        }
+        return textIndex;
+    }
+
+    /**
+     * Best k entries for a description query, ranked with BM25; see TextIndex.search.
+     */
+    public List<TextIndex.Hit> searchDescriptions(String query, int k) {
+        return read(() -> textIndex != null, () -> textIndex().search(query, k));
+    }
+
+    /**
+     * Every entry containing all words and phrases of the query, read under the lock; see TextIndex.matchAll.
+     */
+    public List<PersonMeta> matchDescriptions(String query) {
+        return read(() -> textIndex != null, () -> textIndex().matchAll(query));
+    }
+
+    /**
+     * Upper bound on the entries matchDescriptions would return; see TextIndex.estimate.
+     */
+    public int estimateDescriptions(String query) {
+        return read(() -> textIndex != null, () -> textIndex().estimate(query));
+    }
+
+    // --- Sidecar ---
+
+    /**
+     * Lets the indexes be read from a sidecar instead of built, for as long as the list stays
+     * as it was at modCount. See IndexSidecar.open.
+     * @return false if the list has changed since modCount
+     */
+    boolean attachSidecar(IndexSidecar sidecar, long modCount) {
+        long stamp = lock.writeLock();
+        try {
+            if (modCount != this.modCount) return false;
+            this.sidecar = sidecar;
+            sidecarModCount = modCount;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Reads an index from the sidecar, or returns null to have it built; callers build indexes
+    // under the write lock (or, for the key filter, inside the monitor), so the field is theirs
+    private <T> T fromSidecar(java.util.function.Function<IndexSidecar, T> read) {
+        IndexSidecar current = sidecar;
+        if (current == null) return null;
+        if (sidecarModCount != modCount) {
+            // Positions have moved; let the mapping go
+            sidecar = null;
+            return null;
+        }
+        try {
+            return read.apply(current);
+        } catch (RuntimeException e) {
+            // A damaged sidecar only costs the rebuild
+            sidecar = null;
+            return null;
+        }
+    }
+
+    // --- Key prefilter ---
+
+    /**
+     * Sets the target false-positive rate and memory cap used when the key filter is (re)built.
+     */
+    public static void configureKeyFilter(double falsePositiveRate, long maxBytes) {
+        keyFilterFalsePositiveRate = falsePositiveRate;
+        keyFilterMaxBits = Math.max(64, maxBytes * 8);
+    }
+
+    /**
+     * False means no one in the collection has this government ID.
+     */
+    public boolean mightContainGovID(String govID) {
+        return govID != null && read(() -> keyFilter().mightContain(govKey(govID)));
+    }
+
+    /**
+     * False means no one in the collection has this student ID.
+     */
+    public boolean mightContainStudentID(String studentID) {
+        return studentID != null && read(() -> keyFilter().mightContain(studentKey(studentID)));
+    }
+
+    /**
+     * False means no one in the collection has this first name, last name and DOB.
+     */
+    public boolean mightContainNameDOB(Person person) {
+        return person != null && read(() -> keyFilter().mightContain(nameKey(person)));
+    }
+
+    /**
+     * False means the person shares no ID and no name+DOB with anyone in the collection,
+     * so no duplicate or conflict check can find anything.
+     */
+    public boolean mightContainKeyOf(Person person) {
+        if (person == null) return false;
+        BloomFilter filter = read(this::keyFilter);
+        if (filter.mightContain(nameKey(person))) return true;
+        String govID = govIDOf(person), studentID = studentIDOf(person);
+        return (govID != null && filter.mightContain(govKey(govID))) || (studentID != null && filter.mightContain(studentKey(studentID)));
+    }
+
+    /**
+     * Size and expected false-positive rate of the key filter.
+     */
+    public String getKeyFilterStats() {
+        BloomFilter filter = read(this::keyFilter);
+        return String.format("%d keys, %d KB, %d hashes, ~%.3f%% false positives", filter.getEntries(),
+            filter.getMemoryBytes() / 1024, filter.getHashCount(), filter.expectedFalsePositiveRate() * 100);
+    }
+
+    // Built on first use by one of the readers; rebuilt once removals or growth make it stale
+    private BloomFilter keyFilter() {
+        BloomFilter filter = keyFilter;
+        if (filter == null) {
+            synchronized (this) {
+                filter = keyFilter;
+                if (filter == null) {
+                    keyFilterCapacity = keyFilterCapacity(people.size());
+                    filter = fromSidecar(IndexSidecar::readKeys);
+                    if (filter == null) filter = buildKeyFilter(people);
+                    keyFilterRemovals = 0;
+                    keyFilter = filter;
                 }
             }
         }
-        return false;
+        return filter;
+    }
+
+    // Room for every person's keys (up to three each) to double before a rebuild
+    private static int keyFilterCapacity(int size) {
+        return Math.max(1024, size * 3 * 2);
+    }
+
+    static BloomFilter buildKeyFilter(List<PersonMeta> entries) {
+        BloomFilter filter = new BloomFilter(keyFilterCapacity(entries.size()), keyFilterFalsePositiveRate, keyFilterMaxBits);
+        for (PersonMeta meta : entries) addKeys(filter, meta.getPerson());
+        return filter;
+    }
+
+    private void filterKeys(Person person) {
+        BloomFilter filter = keyFilter;
+        if (filter == null) return;
+        // Rebuild lazily when too many keys are dead or the filter has outgrown its sizing
+        if (keyFilterRemovals > people.size() / 4 + 64 || filter.getEntries() >= keyFilterCapacity) {
+            keyFilter = null;
+            return;
+        }
+        addKeys(filter, person);
+    }
+
+    private static void addKeys(BloomFilter filter, Person person) {
+        if (person == null) return;
+        filter.add(nameKey(person));
+        String govID = govIDOf(person), studentID = studentIDOf(person);
+        if (govID != null && !govID.isEmpty()) filter.add(govKey(govID));
+        if (studentID != null && !studentID.isEmpty()) filter.add(studentKey(studentID));
+    }
+
+    private static long govKey(String govID) { return BloomFilter.combine(GOV_SEED, BloomFilter.hash(govID)); }
+    private static long studentKey(String studentID) { return BloomFilter.combine(STUDENT_SEED, BloomFilter.hash(studentID)); }
+
+    private static long nameKey(Person p) {
+        long date = DobIndex.packDate(p);
+        return BloomFilter.combine(BloomFilter.combine(BloomFilter.combine(NAME_SEED, BloomFilter.hash(p.getFirstName())), BloomFilter.hash(p.getLastName())), date);
+    }
+
+    private static String govIDOf(Person person) {
+        return person instanceof RegisteredPerson rp ? rp.getGovID() : null;
+    }
+
+    private static String studentIDOf(Person person) {
+        return person instanceof OCCCPerson op ? op.getStudentID() : null;
     }
 
     /**
@@ -280,9 +1420,11 @@ public class People implements Serializable, Iterable<Person> {
      * @return The PersonMeta, or null if not found
      */
     public PersonMeta getMetaByPerson(Person person) {
-        for (PersonMeta meta : people) {
-            if (meta.getPerson().equals(person)) return meta;
-        }
-        return null;
+        return read(() -> {
+            for (PersonMeta meta : people) {
+                if (meta.getPerson().equals(person)) return meta;
+            }
+            return null;
+        });
     }
 }
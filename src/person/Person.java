@@ -6,12 +6,11 @@ import java.text.SimpleDateFormat;
 public class Person implements Serializable {
     
     private String firstName, lastName;
-    private OCCCDate dob = new OCCCDate();
+    private OCCCDate dob;
 
     // constructors
     public Person(String firstName, String lastName) {
-        this.firstName = firstName;
-        this.lastName = lastName;
+        this(firstName, lastName, new OCCCDate());
     }
 
     public Person(String firstName, String lastName, OCCCDate dob) {
@@ -20,9 +19,9 @@ public class Person implements Serializable {
         this.dob = dob;
     }
     public Person(Person p) { // copy constructor
-        this.firstName = p.firstName;
-        this.lastName = p.lastName;
-        this.dob = p.dob;
+        this.firstName = p.getFirstName();
+        this.lastName = p.getLastName();
+        this.dob = p.getDOB();
     }
 
     // getters
@@ -47,20 +46,20 @@ public class Person implements Serializable {
     }
 
     public int getAge() {
-        return (int)dob.getDifferenceInYears();
+        return (int)getDOB().getDifferenceInYears();
     }
 
     // toString
     public String toString() {
         SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy"); // format Date object to MM/dd/yyyy
-        return lastName + ", " + firstName + " (" + sdf.format(dob) + ")";
+        return getLastName() + ", " + getFirstName() + " (" + sdf.format(getDOB()) + ")";
         //return lastName + ", " + firstName + " " + dob.toString();
 
     }
 
     // equals
     public boolean equals(Person p) {
-        return this.firstName.equals(p.firstName) && this.lastName.equals(p.lastName) && this.dob.equals(p.dob);
+        return getFirstName().equals(p.getFirstName()) && getLastName().equals(p.getLastName()) && getDOB().equals(p.getDOB());
     }
 
     // actions
@@ -15,7 +15,7 @@ public class RegisteredPerson extends Person {
     }
     public RegisteredPerson(RegisteredPerson p) { // copy constructor
         super(p);
-        this.govID = p.govID;
+        this.govID = p.getGovID();
     }
 
     public RegisteredPerson(String firstName, String lastName, String govID) { // this constructor is not mentioned in the specifications but is tested for in your TestPerson.class file so I included it here
@@ -29,7 +29,7 @@ public class RegisteredPerson extends Person {
 
     // equals
     public boolean equals(RegisteredPerson p) {
-        return super.equals(p) && govID.equals(p.govID);
+        return super.equals(p) && getGovID().equals(p.getGovID());
     }
     public boolean equals(Person p) {
         return super.equals(p);
@@ -37,6 +37,6 @@ public class RegisteredPerson extends Person {
 
     // toString
     public String toString() {
-        return super.toString() + " [" + govID + "]";
+        return super.toString() + " [" + getGovID() + "]";
     }
 }
@@ -0,0 +1,384 @@
+package src.person;
+
+import src.date.OCCCDate;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * Backing list for People that keeps records as numbered slots in some compact encoding
+ * instead of as objects. Positions map to slots, so a removal shifts one int array and a freed
+ * slot is reused. The list hands out small PersonMeta handles whose getPerson() returns a
+ * flyweight view of the right Person subclass over the slot, so the People API is unchanged.
+ * A removed record's handle is detached first: it keeps a decoded copy, so entries held
+ * elsewhere stay valid. Date formatting flags are not stored; decoded dates use the defaults.
+ * Subclasses supply the encoding.
+ */
+abstract class SlotStore extends AbstractList<People.PersonMeta> implements RandomAccess, java.io.Serializable {
+    private static final long serialVersionUID = 1L;
+    static final byte PERSON = 0, REGISTERED = 1, OCCC = 2;
+    // Source of the copies the views' Person constructors make
+    private static final RegisteredPerson BLANK = new RegisteredPerson(null, null, null, null);
+
+    // Position -> slot
+    private int[] order = new int[16];
+    private int size = 0;
+    private int slotCount = 0;
+    private int capacity = 0;
+    private int[] freeSlots = new int[16];
+    private int freeCount = 0;
+    private Row[] rows = new Row[0];
+    private static final java.lang.invoke.VarHandle ROWS = java.lang.invoke.MethodHandles.arrayElementVarHandle(Row[].class);
+
+    // --- Encoding, by slot ---
+
+    abstract byte kind(int slot);
+    abstract String firstName(int slot);
+    abstract String lastName(int slot);
+    abstract String foldedFirstName(int slot);
+    abstract String foldedLastName(int slot);
+    /** DOB as yyyymmdd, 0 if none. */
+    abstract int packedDOB(int slot);
+    abstract String govID(int slot);
+    abstract String studentID(int slot);
+    abstract String description(int slot);
+    abstract String tags(int slot);
+
+    /**
+     * Stores the person in the slot, replacing what it held. The person may be a view of
+     * the same slot.
+     */
+    abstract void writePerson(int slot, Person p);
+    abstract void writeFirstName(int slot, String name);
+    abstract void writeLastName(int slot, String name);
+    abstract void writeDescription(int slot, String text);
+    abstract void writeTags(int slot, String text);
+    /** Makes room for slots below the capacity; new slots are empty. */
+    abstract void growSlots(int capacity);
+    /** Releases what the slot holds and marks it empty. */
+    abstract void freeSlot(int slot);
+    /** Drops every slot's contents. */
+    abstract void clearSlots();
+
+    int getSlotCount() { return slotCount; }
+
+    void ensureCapacity(int n) {
+        if (n > order.length) order = Arrays.copyOf(order, n);
+        if (n > capacity) grow(n);
+    }
+
+    private void grow(int n) {
+        growSlots(n);
+        rows = Arrays.copyOf(rows, n);
+        capacity = n;
+    }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public People.PersonMeta get(int index) {
+        return row(slotAt(index));
+    }
+
+    @Override
+    public boolean add(People.PersonMeta meta) {
+        add(size, meta);
+        return true;
+    }
+
+    @Override
+    public void add(int index, People.PersonMeta meta) {
+        if (index < 0 || index > size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        int slot = allocate();
+        write(slot, meta);
+        if (size == order.length) order = Arrays.copyOf(order, Math.max(16, size + (size >> 1)));
+        System.arraycopy(order, index, order, index + 1, size - index);
+        order[index] = slot;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Stores the entry in a new slot; the returned previous entry is detached.
+     */
+    @Override
+    public People.PersonMeta set(int index, People.PersonMeta meta) {
+        int old = slotAt(index);
+        int slot = allocate();
+        write(slot, meta);
+        order[index] = slot;
+        return release(old);
+    }
+
+    @Override
+    public People.PersonMeta remove(int index) {
+        int slot = slotAt(index);
+        System.arraycopy(order, index + 1, order, index, size - index - 1);
+        size--;
+        modCount++;
+        return release(slot);
+    }
+
+    // One pass over the positions instead of a shift per removal
+    @Override
+    public boolean removeIf(Predicate<? super People.PersonMeta> filter) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int slot = order[i];
+            if (filter.test(row(slot))) release(slot);
+            else order[kept++] = slot;
+        }
+        boolean removed = kept < size;
+        if (removed) {
+            size = kept;
+            modCount++;
+        }
+        return removed;
+    }
+
+    /**
+     * Inserts the entries so that each ends up at its position, moving every existing entry
+     * at most once. Positions are ascending and within the final size.
+     */
+    void insertAll(int[] positions, List<People.PersonMeta> entries) {
+        int k = positions.length, total = size + k;
+        if (total > order.length) order = Arrays.copyOf(order, Math.max(total, size + (size >> 1)));
+        int[] slots = new int[k];
+        for (int i = 0; i < k; i++) {
+            slots[i] = allocate();
+            write(slots[i], entries.get(i));
+        }
+        // Filled from the back, so an entry is never overwritten before it has moved
+        int from = size - 1, next = k - 1;
+        for (int to = total - 1; next >= 0; to--) {
+            order[to] = positions[next] == to ? slots[next--] : order[from--];
+        }
+        size = total;
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            Row row = rows[order[i]];
+            if (row != null) row.detach();
+        }
+        Arrays.fill(rows, 0, slotCount, null);
+        size = slotCount = freeCount = 0;
+        clearSlots();
+        modCount++;
+    }
+
+    private int slotAt(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return order[index];
+    }
+
+    // Readers may call this concurrently (People's read lock is shared), so a new handle is
+    // published with a compare-and-set and every caller gets the same one
+    private Row row(int slot) {
+        Row[] cache = rows;
+        Row row = (Row) ROWS.getAcquire(cache, slot);
+        if (row == null) {
+            Row fresh = new Row(slot);
+            row = (Row) ROWS.compareAndExchangeRelease(cache, slot, (Row) null, fresh);
+            if (row == null) row = fresh;
+        }
+        return row;
+    }
+
+    private int allocate() {
+        if (freeCount > 0) return freeSlots[--freeCount];
+        if (slotCount == capacity) grow(Math.max(16, slotCount + (slotCount >> 1)));
+        return slotCount++;
+    }
+
+    private void write(int slot, People.PersonMeta meta) {
+        writePerson(slot, meta.getPerson());
+        writeDescription(slot, meta.getDescription());
+        writeTags(slot, meta.getTags());
+    }
+
+    // Detaches the slot's handle and returns it; the slot is reused by a later add
+    private Row release(int slot) {
+        Row row = row(slot);
+        row.detach();
+        rows[slot] = null;
+        freeSlot(slot);
+        if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        freeSlots[freeCount++] = slot;
+        return row;
+    }
+
+    static OCCCDate date(int packed) {
+        return packed == 0 ? null : new OCCCDate(packed % 100, packed / 100 % 100, packed / 10000);
+    }
+
+    // A standalone copy of the slot's person
+    private Person materialize(int slot) {
+        String first = firstName(slot), last = lastName(slot);
+        OCCCDate date = date(packedDOB(slot));
+        return switch (kind(slot)) {
+            case OCCC -> new OCCCPerson(new RegisteredPerson(first, last, date, govID(slot)), studentID(slot));
+            case REGISTERED -> new RegisteredPerson(first, last, date, govID(slot));
+            default -> new Person(first, last, date);
+        };
+    }
+
+    // Serialized as a plain list of standalone entries, so saved files do not depend on the backend
+    protected Object writeReplace() {
+        return toObjects();
+    }
+
+    /**
+     * Standalone copies of the entries, in order.
+     */
+    List<People.PersonMeta> toObjects() {
+        List<People.PersonMeta> copy = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int slot = order[i];
+            copy.add(new People.PersonMeta(materialize(slot), description(slot), tags(slot)));
+        }
+        return copy;
+    }
+
+    /**
+     * Handle for one record. Reads go to the slot until the record is removed, after which
+     * the handle holds a decoded copy in the base class fields.
+     */
+    final class Row extends People.PersonMeta {
+        private static final long serialVersionUID = 1L;
+        private int slot;
+
+        Row(int slot) {
+            super(null, null, null);
+            this.slot = slot;
+        }
+
+        void detach() {
+            if (slot < 0) return;
+            super.setPerson(materialize(slot));
+            super.setDescription(description(slot));
+            super.setTags(tags(slot));
+            slot = -1;
+        }
+
+        @Override
+        public Person getPerson() {
+            if (slot < 0) return super.getPerson();
+            return switch (kind(slot)) {
+                case OCCC -> new OCCCView(this);
+                case REGISTERED -> new RegisteredView(this);
+                default -> new PersonView(this);
+            };
+        }
+
+        @Override
+        public void setPerson(Person person) {
+            if (slot < 0) super.setPerson(person);
+            else writePerson(slot, person);
+        }
+
+        @Override
+        public String getFoldedFirstName() { return slot < 0 ? super.getFoldedFirstName() : foldedFirstName(slot); }
+        @Override
+        public String getFoldedLastName() { return slot < 0 ? super.getFoldedLastName() : foldedLastName(slot); }
+        @Override
+        public String getDescription() { return slot < 0 ? super.getDescription() : description(slot); }
+        @Override
+        public void setDescription(String text) {
+            if (slot < 0) super.setDescription(text);
+            else writeDescription(slot, text);
+        }
+        @Override
+        public String getTags() { return slot < 0 ? super.getTags() : tags(slot); }
+        @Override
+        public void setTags(String text) {
+            if (slot < 0) super.setTags(text);
+            else writeTags(slot, text);
+        }
+
+        String first() { return slot < 0 ? super.getPerson().getFirstName() : firstName(slot); }
+        String last() { return slot < 0 ? super.getPerson().getLastName() : lastName(slot); }
+        void setFirst(String name) {
+            if (slot < 0) super.getPerson().setFirstName(name);
+            else writeFirstName(slot, name);
+        }
+        void setLast(String name) {
+            if (slot < 0) super.getPerson().setLastName(name);
+            else writeLastName(slot, name);
+        }
+        OCCCDate dob() { return slot < 0 ? super.getPerson().getDOB() : date(SlotStore.this.packedDOB(slot)); }
+        int packedDOB() { return slot < 0 ? DobIndex.packDate(super.getPerson()) : SlotStore.this.packedDOB(slot); }
+        String gov() { return slot < 0 ? ((RegisteredPerson) super.getPerson()).getGovID() : govID(slot); }
+        String student() { return slot < 0 ? ((OCCCPerson) super.getPerson()).getStudentID() : studentID(slot); }
+
+        /**
+         * A standalone entry with the record's current contents.
+         */
+        People.PersonMeta copy() {
+            return new People.PersonMeta(slot < 0 ? super.getPerson() : materialize(slot), getDescription(), getTags());
+        }
+
+        private Object writeReplace() {
+            return copy();
+        }
+    }
+
+    /**
+     * A Person view over a record's slot.
+     */
+    interface View {
+        Row row();
+    }
+
+    private static final class PersonView extends Person implements View {
+        private final Row row;
+        PersonView(Row row) {
+            super(null, null, null);
+            this.row = row;
+        }
+        public Row row() { return row; }
+        @Override public String getFirstName() { return row.first(); }
+        @Override public String getLastName() { return row.last(); }
+        @Override public void setFirstName(String name) { row.setFirst(name); }
+        @Override public void setLastName(String name) { row.setLast(name); }
+        @Override public OCCCDate getDOB() { return row.dob(); }
+    }
+
+    private static final class RegisteredView extends RegisteredPerson implements View {
+        private final Row row;
+        RegisteredView(Row row) {
+            super(BLANK);
+            this.row = row;
+        }
+        public Row row() { return row; }
+        @Override public String getFirstName() { return row.first(); }
+        @Override public String getLastName() { return row.last(); }
+        @Override public void setFirstName(String name) { row.setFirst(name); }
+        @Override public void setLastName(String name) { row.setLast(name); }
+        @Override public OCCCDate getDOB() { return row.dob(); }
+        @Override public String getGovID() { return row.gov(); }
+    }
+
+    private static final class OCCCView extends OCCCPerson implements View {
+        private final Row row;
+        OCCCView(Row row) {
+            super(BLANK, null);
+            this.row = row;
+        }
+        public Row row() { return row; }
+        @Override public String getFirstName() { return row.first(); }
+        @Override public String getLastName() { return row.last(); }
+        @Override public void setFirstName(String name) { row.setFirst(name); }
+        @Override public void setLastName(String name) { row.setLast(name); }
+        @Override public OCCCDate getDOB() { return row.dob(); }
+        @Override public String getGovID() { return row.gov(); }
+        @Override public String getStudentID() { return row.student(); }
+    }
+}
@@ -0,0 +1,118 @@
+package src.person;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared pool of strings that repeat across records (names, folded names, tag strings), so
+ * loaders keep one copy of "John" instead of one per person. Entries are weak: a string no
+ * record uses any more is dropped by the garbage collector. The pool stops taking new strings
+ * at MAX_ENTRIES and hands those back unpooled. Unique values such as IDs and descriptions
+ * should not be pooled; each entry costs more than the copy it would save.
+ */
+public final class StringPool {
+    public static final int MAX_ENTRIES = 1 << 18;
+
+    private static final ConcurrentHashMap<Entry, Entry> entries = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<String> cleared = new ReferenceQueue<>();
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong bytesSaved = new AtomicLong();
+
+    private StringPool() {}
+
+    /**
+     * Weak reference to a pooled string that hashes and compares by the string's contents.
+     * Lookups use a throwaway Entry over the probe string.
+     */
+    private static final class Entry extends WeakReference<String> {
+        private final int hash;
+
+        Entry(String s, ReferenceQueue<String> queue) {
+            super(s, queue);
+            hash = s.hashCode();
+        }
+
+        @Override
+        public int hashCode() { return hash; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) return true;
+            if (!(o instanceof Entry e) || e.hash != hash) return false;
+            String s = get();
+            return s != null && s.equals(e.get());
+        }
+    }
+
+    /**
+     * The pooled copy of s, adding s if it is new; s itself when the pool is full; null for null.
+     */
+    public static String intern(String s) {
+        if (s == null) return null;
+        purge();
+        Entry probe = new Entry(s, null);
+        while (true) {
+            Entry e = entries.get(probe);
+            String pooled = e == null ? null : e.get();
+            if (pooled != null) {
+                if (pooled != s) {
+                    hits.incrementAndGet();
+                    bytesSaved.addAndGet(sizeOf(s));
+                }
+                return pooled;
+            }
+            if (e != null) {
+                // Collected but not yet purged
+                entries.remove(e, e);
+                continue;
+            }
+            if (entries.size() >= MAX_ENTRIES) return s;
+            Entry added = new Entry(s, cleared);
+            if (entries.putIfAbsent(added, added) == null) return s;
+        }
+    }
+
+    /**
+     * Pools the person's names in place.
+     */
+    public static void intern(Person p) {
+        if (p == null) return;
+        p.setFirstName(intern(p.getFirstName()));
+        p.setLastName(intern(p.getLastName()));
+    }
+
+    private static void purge() {
+        java.lang.ref.Reference<? extends String> ref;
+        while ((ref = cleared.poll()) != null) entries.remove(ref, ref);
+    }
+
+    // Retained size of a String and its array with compressed strings: 24 + 16 bytes of headers plus the data, padded
+    static long sizeOf(String s) {
+        boolean latin1 = true;
+        for (int i = 0; i < s.length() && latin1; i++) latin1 = s.charAt(i) < 0x100;
+        long data = latin1 ? s.length() : 2L * s.length();
+        return 40 + (data + 7 & ~7L);
+    }
+
+    /** Number of strings currently pooled. */
+    public static int size() {
+        purge();
+        return entries.size();
+    }
+
+    /** Duplicates replaced by a pooled copy since startup. */
+    public static long getHits() { return hits.get(); }
+
+    /** Estimated heap freed by those replacements, in bytes. */
+    public static long getBytesSaved() { return bytesSaved.get(); }
+
+    /**
+     * One-line summary for display.
+     */
+    public static String stats() {
+        return String.format("%,d strings pooled (max %,d), %,d duplicates replaced, ~%,.1f MB saved",
+            size(), MAX_ENTRIES, getHits(), getBytesSaved() / (1024.0 * 1024.0));
+    }
+}
@@ -0,0 +1,334 @@
+package src.person;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative ints, split into chunks of 65536 values like a Roaring bitmap:
+ * sparse chunks are sorted char arrays, dense chunks are plain bitsets. Set operations work a
+ * chunk at a time and always return a new bitmap, so results never alias their inputs.
+ */
+public class TagBitmap {
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int WORDS = 1024;
+
+    private char[] keys = new char[4];
+    private Chunk[] chunks = new Chunk[4];
+    private int count = 0;
+
+    public TagBitmap() {}
+
+    /**
+     * Every value in [0, size).
+     */
+    public static TagBitmap range(int size) {
+        TagBitmap result = new TagBitmap();
+        for (int start = 0; start < size; start += 1 << 16) {
+            int n = Math.min(1 << 16, size - start);
+            long[] words = new long[WORDS];
+            Arrays.fill(words, 0, n >>> 6, -1L);
+            if ((n & 63) != 0) words[n >>> 6] = (1L << n) - 1;
+            result.append((char) (start >>> 16), Chunk.fromWords(words));
+        }
+        return result;
+    }
+
+    void add(int value) {
+        char key = (char) (value >>> 16);
+        int i = find(key);
+        if (i < 0) {
+            i = -i - 1;
+            insert(i, key, new Chunk());
+        }
+        chunks[i].add((char) value);
+    }
+
+    void remove(int value) {
+        int i = find((char) (value >>> 16));
+        if (i < 0) return;
+        chunks[i].remove((char) value);
+        if (chunks[i].cardinality == 0) {
+            System.arraycopy(keys, i + 1, keys, i, count - i - 1);
+            System.arraycopy(chunks, i + 1, chunks, i, count - i - 1);
+            chunks[--count] = null;
+        }
+    }
+
+    public boolean contains(int value) {
+        int i = find((char) (value >>> 16));
+        return i >= 0 && chunks[i].contains((char) value);
+    }
+
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < count; i++) total += chunks[i].cardinality;
+        return total;
+    }
+
+    public boolean isEmpty() { return count == 0; }
+
+    /**
+     * Calls the consumer with every value in ascending order.
+     */
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < count; i++) chunks[i].forEach(keys[i] << 16, consumer);
+    }
+
+    public int[] toArray() {
+        int[] result = new int[cardinality()];
+        int[] n = new int[1];
+        forEach(v -> result[n[0]++] = v);
+        return result;
+    }
+
+    /**
+     * Approximate heap footprint of the chunks.
+     */
+    public long getMemoryBytes() {
+        long bytes = count * 3L;
+        for (int i = 0; i < count; i++) bytes += chunks[i].words != null ? WORDS * 8L : chunks[i].values.length * 2L;
+        return bytes;
+    }
+
+    // --- Set operations ---
+
+    public static TagBitmap and(TagBitmap a, TagBitmap b) {
+        TagBitmap result = new TagBitmap();
+        int i = 0, j = 0;
+        while (i < a.count && j < b.count) {
+            if (a.keys[i] < b.keys[j]) i++;
+            else if (a.keys[i] > b.keys[j]) j++;
+            else {
+                Chunk c = Chunk.and(a.chunks[i], b.chunks[j]);
+                if (c != null) result.append(a.keys[i], c);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public static TagBitmap or(TagBitmap a, TagBitmap b) {
+        TagBitmap result = new TagBitmap();
+        int i = 0, j = 0;
+        while (i < a.count || j < b.count) {
+            if (j >= b.count || (i < a.count && a.keys[i] < b.keys[j])) {
+                result.append(a.keys[i], a.chunks[i].copy());
+                i++;
+            } else if (i >= a.count || a.keys[i] > b.keys[j]) {
+                result.append(b.keys[j], b.chunks[j].copy());
+                j++;
+            } else {
+                result.append(a.keys[i], Chunk.or(a.chunks[i], b.chunks[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Values of a that are not in b.
+     */
+    public static TagBitmap andNot(TagBitmap a, TagBitmap b) {
+        TagBitmap result = new TagBitmap();
+        int j = 0;
+        for (int i = 0; i < a.count; i++) {
+            while (j < b.count && b.keys[j] < a.keys[i]) j++;
+            Chunk c = j < b.count && b.keys[j] == a.keys[i] ? Chunk.andNot(a.chunks[i], b.chunks[j]) : a.chunks[i].copy();
+            if (c != null) result.append(a.keys[i], c);
+        }
+        return result;
+    }
+
+    // --- Chunk directory ---
+
+    private int find(char key) {
+        // Values mostly arrive in ascending order
+        if (count > 0 && keys[count - 1] == key) return count - 1;
+        return Arrays.binarySearch(keys, 0, count, key);
+    }
+
+    private void append(char key, Chunk chunk) {
+        insert(count, key, chunk);
+    }
+
+    private void insert(int i, char key, Chunk chunk) {
+        if (count == keys.length) {
+            keys = Arrays.copyOf(keys, count * 2);
+            chunks = Arrays.copyOf(chunks, count * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, count - i);
+        System.arraycopy(chunks, i, chunks, i + 1, count - i);
+        keys[i] = key;
+        chunks[i] = chunk;
+        count++;
+    }
+
+    /**
+     * The low 16 bits of the values sharing one high half.
+     */
+    private static final class Chunk {
+        char[] values = new char[4]; // sorted; used while sparse
+        long[] words;                // used once dense
+        int cardinality;
+
+        void add(char v) {
+            if (words != null) {
+                long before = words[v >>> 6];
+                words[v >>> 6] |= 1L << v;
+                if (before != words[v >>> 6]) cardinality++;
+                return;
+            }
+            int i = cardinality > 0 && values[cardinality - 1] < v ? -cardinality - 1 : Arrays.binarySearch(values, 0, cardinality, v);
+            if (i >= 0) return;
+            i = -i - 1;
+            if (cardinality == ARRAY_LIMIT) {
+                toWords();
+                add(v);
+                return;
+            }
+            if (cardinality == values.length) values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, cardinality * 2));
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = v;
+            cardinality++;
+        }
+
+        void remove(char v) {
+            if (words != null) {
+                long before = words[v >>> 6];
+                words[v >>> 6] &= ~(1L << v);
+                if (before != words[v >>> 6] && --cardinality <= ARRAY_LIMIT / 2) toValues();
+                return;
+            }
+            int i = Arrays.binarySearch(values, 0, cardinality, v);
+            if (i < 0) return;
+            System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+            cardinality--;
+        }
+
+        boolean contains(char v) {
+            if (words != null) return (words[v >>> 6] & (1L << v)) != 0;
+            return Arrays.binarySearch(values, 0, cardinality, v) >= 0;
+        }
+
+        void forEach(int base, IntConsumer consumer) {
+            if (words == null) {
+                for (int i = 0; i < cardinality; i++) consumer.accept(base | values[i]);
+                return;
+            }
+            for (int w = 0; w < WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    consumer.accept(base | (w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        long[] asWords() {
+            if (words != null) return words;
+            long[] result = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) result[values[i] >>> 6] |= 1L << values[i];
+            return result;
+        }
+
+        private void toWords() {
+            words = asWords();
+            values = null;
+        }
+
+        private void toValues() {
+            char[] sparse = new char[Math.max(4, cardinality)];
+            int n = 0;
+            for (int w = 0; w < WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    sparse[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            values = sparse;
+            words = null;
+        }
+
+        Chunk copy() {
+            Chunk c = new Chunk();
+            c.cardinality = cardinality;
+            if (words != null) {
+                c.words = words.clone();
+                c.values = null;
+            } else {
+                c.values = Arrays.copyOf(values, Math.max(4, cardinality));
+            }
+            return c;
+        }
+
+        // Null when the result is empty
+        static Chunk fromWords(long[] words) {
+            int cardinality = 0;
+            for (long w : words) cardinality += Long.bitCount(w);
+            if (cardinality == 0) return null;
+            Chunk c = new Chunk();
+            c.words = words;
+            c.values = null;
+            c.cardinality = cardinality;
+            if (cardinality <= ARRAY_LIMIT) c.toValues();
+            return c;
+        }
+
+        static Chunk fromValues(char[] values, int cardinality) {
+            if (cardinality == 0) return null;
+            Chunk c = new Chunk();
+            c.values = values;
+            c.cardinality = cardinality;
+            return c;
+        }
+
+        static Chunk and(Chunk a, Chunk b) {
+            if (a.words != null && b.words != null) {
+                long[] result = new long[WORDS];
+                for (int w = 0; w < WORDS; w++) result[w] = a.words[w] & b.words[w];
+                return fromWords(result);
+            }
+            // At least one side is sparse: keep its values the other side contains
+            Chunk sparse = a.words == null ? a : b, other = sparse == a ? b : a;
+            char[] result = new char[Math.max(4, sparse.cardinality)];
+            int n = 0;
+            for (int i = 0; i < sparse.cardinality; i++) {
+                if (other.contains(sparse.values[i])) result[n++] = sparse.values[i];
+            }
+            return fromValues(result, n);
+        }
+
+        static Chunk or(Chunk a, Chunk b) {
+            if (a.words == null && b.words == null && a.cardinality + b.cardinality <= ARRAY_LIMIT) {
+                char[] result = new char[Math.max(4, a.cardinality + b.cardinality)];
+                int i = 0, j = 0, n = 0;
+                while (i < a.cardinality || j < b.cardinality) {
+                    if (j >= b.cardinality || (i < a.cardinality && a.values[i] < b.values[j])) result[n++] = a.values[i++];
+                    else if (i >= a.cardinality || a.values[i] > b.values[j]) result[n++] = b.values[j++];
+                    else { result[n++] = a.values[i++]; j++; }
+                }
+                return fromValues(result, n);
+            }
+            long[] x = a.asWords(), y = b.asWords(), result = new long[WORDS];
+            for (int w = 0; w < WORDS; w++) result[w] = x[w] | y[w];
+            return fromWords(result);
+        }
+
+        static Chunk andNot(Chunk a, Chunk b) {
+            if (a.words == null) {
+                char[] result = new char[Math.max(4, a.cardinality)];
+                int n = 0;
+                for (int i = 0; i < a.cardinality; i++) {
+                    if (!b.contains(a.values[i])) result[n++] = a.values[i];
+                }
+                return fromValues(result, n);
+            }
+            long[] y = b.asWords(), result = new long[WORDS];
+            for (int w = 0; w < WORDS; w++) result[w] = a.words[w] & ~y[w];
+            return fromWords(result);
+        }
+    }
+}
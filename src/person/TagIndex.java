@@ -0,0 +1,407 @@
+package src.person;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary-encoded tags of every record in a People list. Each distinct tag (compared
+ * case-insensitively) gets an int ID, each record keeps the sorted IDs of its tags, and each
+ * tag keeps a TagBitmap of the positions carrying it. Appends and in-place changes update the
+ * bitmaps directly; a removal shifts every later position, so the bitmaps are then rebuilt from
+ * the per-record IDs (no tag parsing) on the next query.
+ */
+public class TagIndex {
+    private static final int[] NONE = new int[0];
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<int[]> records = new ArrayList<>();
+    private final List<TagBitmap> bitmaps = new ArrayList<>();
+    private boolean bitmapsStale = false;
+    private long version = 0;
+
+    TagIndex() {}
+
+    void append(String tags) {
+        int[] tagIds = encode(tags);
+        records.add(tagIds);
+        if (!bitmapsStale) {
+            for (int id : tagIds) bitmaps.get(id).add(records.size() - 1);
+        }
+        version++;
+    }
+
+    void set(int position, String tags) {
+        int[] tagIds = encode(tags);
+        int[] old = records.set(position, tagIds);
+        if (!bitmapsStale) {
+            for (int id : old) bitmaps.get(id).remove(position);
+            for (int id : tagIds) bitmaps.get(id).add(position);
+        }
+        version++;
+    }
+
+    void remove(int position) {
+        int[] old = records.remove(position);
+        if (position == records.size() && !bitmapsStale) {
+            for (int id : old) bitmaps.get(id).remove(position);
+        } else {
+            bitmapsStale = true;
+        }
+        version++;
+    }
+
+    // --- Sidecar form (see IndexSidecar) ---
+
+    /**
+     * Writes the dictionary and each entry's tag IDs, in list order.
+     */
+    static void write(java.io.DataOutput out, List<People.PersonMeta> entries) throws java.io.IOException {
+        TagIndex index = new TagIndex();
+        for (People.PersonMeta meta : entries) index.append(meta.getTags());
+        out.writeInt(index.names.size());
+        for (String name : index.names) {
+            byte[] utf8 = name.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+            out.writeInt(utf8.length);
+            out.write(utf8);
+        }
+        out.writeInt(index.records.size());
+        for (int[] tagIds : index.records) {
+            out.writeInt(tagIds.length);
+            for (int id : tagIds) out.writeInt(id);
+        }
+    }
+
+    /**
+     * Reads an index written by write, without parsing any tags. The bitmaps are built from
+     * the IDs on the first query.
+     */
+    static TagIndex read(java.nio.ByteBuffer in) {
+        TagIndex index = new TagIndex();
+        int dictionary = in.getInt();
+        for (int id = 0; id < dictionary; id++) {
+            byte[] utf8 = new byte[in.getInt()];
+            in.get(utf8);
+            String name = StringPool.intern(new String(utf8, java.nio.charset.StandardCharsets.UTF_8));
+            index.ids.put(fold(name), id);
+            index.names.add(name);
+            index.bitmaps.add(new TagBitmap());
+        }
+        int count = in.getInt();
+        for (int position = 0; position < count; position++) {
+            int n = in.getInt();
+            if (n == 0) {
+                index.records.add(NONE);
+                continue;
+            }
+            int[] tagIds = new int[n];
+            in.asIntBuffer().get(tagIds);
+            in.position(in.position() + n * 4);
+            index.records.add(tagIds);
+        }
+        index.bitmapsStale = true;
+        return index;
+    }
+
+    /**
+     * Changes whenever a record's tags or position change.
+     */
+    public long getVersion() { return version; }
+
+    public int size() { return records.size(); }
+
+    /**
+     * Number of distinct tags ever seen, including ones no record carries any more.
+     */
+    public int getDictionarySize() { return names.size(); }
+
+    public String getTagName(int id) { return names.get(id); }
+
+    /**
+     * ID of a tag, or -1 if no record has ever carried it.
+     */
+    public int getTagId(String tag) {
+        Integer id = ids.get(fold(tag));
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Sorted tag IDs of the record at a position.
+     */
+    public int[] getTagIds(int position) {
+        return records.get(position).clone();
+    }
+
+    /**
+     * Positions of the records carrying a tag. The bitmap is live; use the TagBitmap set
+     * operations, which return copies, to combine it.
+     */
+    public TagBitmap positionsOf(int id) {
+        ensureBitmaps();
+        return bitmaps.get(id);
+    }
+
+    /**
+     * Positions of the records carrying a tag, or an empty bitmap for an unknown tag.
+     */
+    public TagBitmap positionsOf(String tag) {
+        int id = getTagId(tag);
+        return id < 0 ? new TagBitmap() : positionsOf(id);
+    }
+
+    /**
+     * Record count per tag, most common first, skipping tags no record carries.
+     */
+    public Map<String, Integer> getTagCounts() {
+        ensureBitmaps();
+        Integer[] order = new Integer[names.size()];
+        int[] counts = new int[names.size()];
+        for (int id = 0; id < order.length; id++) {
+            order[id] = id;
+            counts[id] = bitmaps.get(id).cardinality();
+        }
+        Arrays.sort(order, (a, b) -> counts[b] != counts[a] ? Integer.compare(counts[b], counts[a]) : names.get(a).compareToIgnoreCase(names.get(b)));
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int id : order) {
+            if (counts[id] > 0) result.put(names.get(id), counts[id]);
+        }
+        return result;
+    }
+
+    /**
+     * Approximate heap footprint of the bitmaps.
+     */
+    public long getBitmapBytes() {
+        ensureBitmaps();
+        long bytes = 0;
+        for (TagBitmap b : bitmaps) bytes += b.getMemoryBytes();
+        return bytes;
+    }
+
+    /**
+     * Evaluates a tag expression such as
+     * <code>physicist AND (chemist OR "computer scientist") AND NOT politician</code>
+     * as bitmap operations. AND, OR and NOT are case-insensitive, NOT binds tightest and AND
+     * before OR; adjacent terms are ANDed. Unquoted words up to the next operator form one tag,
+     * and a trailing * matches every tag with that prefix.
+     * @throws IllegalArgumentException if the expression is malformed
+     */
+    public TagBitmap query(String expression) {
+        ensureBitmaps();
+        return new Parser(expression).parse();
+    }
+
+    /**
+     * False when the bitmaps will be rebuilt by the next query.
+     */
+    boolean isCurrent() {
+        return !bitmapsStale;
+    }
+
+    private void ensureBitmaps() {
+        if (!bitmapsStale) return;
+        for (int id = 0; id < bitmaps.size(); id++) bitmaps.set(id, new TagBitmap());
+        for (int position = 0; position < records.size(); position++) {
+            for (int id : records.get(position)) bitmaps.get(id).add(position);
+        }
+        bitmapsStale = false;
+    }
+
+    private int[] encode(String tags) {
+        List<String> parsed = parseTags(tags);
+        if (parsed.isEmpty()) return NONE;
+        int[] result = new int[parsed.size()];
+        int n = 0;
+        for (String tag : parsed) {
+            String key = fold(tag);
+            Integer id = ids.get(key);
+            if (id == null) {
+                id = names.size();
+                ids.put(key, id);
+                names.add(tag);
+                bitmaps.add(new TagBitmap());
+            }
+            result[n++] = id;
+        }
+        Arrays.sort(result);
+        // Drop repeats of the same tag
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || result[i] != result[i - 1]) result[unique++] = result[i];
+        }
+        return unique == n ? result : Arrays.copyOf(result, unique);
+    }
+
+    /**
+     * Splits a tags string into tags. Imported tags look like "&lt;physicist&gt;&lt;chemist&gt;";
+     * typed tags without angle brackets are split on commas and semicolons.
+     */
+    public static List<String> parseTags(String tags) {
+        List<String> result = new ArrayList<>();
+        if (tags == null || tags.isBlank()) return result;
+        if (tags.indexOf('<') >= 0) {
+            int start = tags.indexOf('<');
+            while (start >= 0) {
+                int end = tags.indexOf('>', start + 1);
+                if (end < 0) break;
+                String tag = tags.substring(start + 1, end).trim();
+                if (!tag.isEmpty()) result.add(tag);
+                start = tags.indexOf('<', end + 1);
+            }
+        } else {
+            for (String tag : tags.split("[,;]")) {
+                if (!tag.isBlank()) result.add(tag.trim());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The tags string with the added tags appended in the "&lt;tag&gt;" form, skipping tags it
+     * already has; the string itself if nothing is new.
+     */
+    public static String addTags(String tags, String added) {
+        List<String> current = parseTags(tags);
+        java.util.Set<String> keys = new java.util.HashSet<>();
+        for (String tag : current) keys.add(fold(tag));
+        StringBuilder sb = null;
+        for (String tag : parseTags(added)) {
+            if (!keys.add(fold(tag))) continue;
+            if (sb == null) {
+                sb = new StringBuilder();
+                for (String t : current) sb.append('<').append(t).append('>');
+            }
+            sb.append('<').append(tag).append('>');
+        }
+        return sb == null ? tags : StringPool.intern(sb.toString());
+    }
+
+    /**
+     * The form tags are compared in: trimmed, single-spaced and lowercased.
+     */
+    public static String fold(String tag) {
+        if (tag == null) return "";
+        String t = tag.trim();
+        // Collapse inner whitespace only when there is something to collapse
+        for (int i = 1; i < t.length(); i++) {
+            if (Character.isWhitespace(t.charAt(i)) && (t.charAt(i) != ' ' || Character.isWhitespace(t.charAt(i - 1)))) {
+                t = t.replaceAll("\\s+", " ");
+                break;
+            }
+        }
+        return t.toLowerCase();
+    }
+
+    /**
+     * Recursive-descent parser that evaluates while it parses.
+     */
+    private class Parser {
+        private final List<String> tokens = new ArrayList<>();
+        private final List<Boolean> quoted = new ArrayList<>();
+        private int pos = 0;
+
+        Parser(String expression) {
+            String s = expression == null ? "" : expression;
+            int i = 0;
+            while (i < s.length()) {
+                char c = s.charAt(i);
+                if (Character.isWhitespace(c)) { i++; continue; }
+                if (c == '(' || c == ')') {
+                    add(String.valueOf(c), false);
+                    i++;
+                } else if (c == '"') {
+                    int end = s.indexOf('"', i + 1);
+                    if (end < 0) throw new IllegalArgumentException("Unclosed quote");
+                    add(s.substring(i + 1, end), true);
+                    i = end + 1;
+                } else {
+                    int end = i;
+                    while (end < s.length() && !Character.isWhitespace(s.charAt(end)) && "()\"".indexOf(s.charAt(end)) < 0) end++;
+                    add(s.substring(i, end), false);
+                    i = end;
+                }
+            }
+        }
+
+        private void add(String token, boolean isQuoted) {
+            tokens.add(token);
+            quoted.add(isQuoted);
+        }
+
+        TagBitmap parse() {
+            if (tokens.isEmpty()) throw new IllegalArgumentException("Empty tag query");
+            TagBitmap result = or();
+            if (pos < tokens.size()) throw new IllegalArgumentException("Unexpected '" + tokens.get(pos) + "'");
+            return result;
+        }
+
+        private TagBitmap or() {
+            TagBitmap result = and();
+            while (isKeyword("OR")) {
+                pos++;
+                result = TagBitmap.or(result, and());
+            }
+            return result;
+        }
+
+        private TagBitmap and() {
+            TagBitmap result = not();
+            while (pos < tokens.size() && !isKeyword("OR") && !isToken(")")) {
+                if (isKeyword("AND")) pos++;
+                result = TagBitmap.and(result, not());
+            }
+            return result;
+        }
+
+        private TagBitmap not() {
+            if (isKeyword("NOT")) {
+                pos++;
+                return TagBitmap.andNot(TagBitmap.range(records.size()), not());
+            }
+            if (isToken("(")) {
+                pos++;
+                TagBitmap result = or();
+                if (!isToken(")")) throw new IllegalArgumentException("Missing ')'");
+                pos++;
+                return result;
+            }
+            return term();
+        }
+
+        private TagBitmap term() {
+            if (pos >= tokens.size()) throw new IllegalArgumentException("Expected a tag");
+            if (quoted.get(pos)) return match(tokens.get(pos++));
+            StringBuilder tag = new StringBuilder();
+            while (pos < tokens.size() && !quoted.get(pos) && !isToken("(") && !isToken(")")
+                    && !isKeyword("AND") && !isKeyword("OR") && !isKeyword("NOT")) {
+                if (tag.length() > 0) tag.append(' ');
+                tag.append(tokens.get(pos++));
+            }
+            if (tag.length() == 0) throw new IllegalArgumentException("Expected a tag");
+            return match(tag.toString());
+        }
+
+        private TagBitmap match(String tag) {
+            String key = fold(tag);
+            if (!key.endsWith("*")) return TagBitmap.or(new TagBitmap(), positionsOf(tag));
+            String prefix = key.substring(0, key.length() - 1);
+            TagBitmap result = new TagBitmap();
+            for (Map.Entry<String, Integer> e : ids.entrySet()) {
+                if (e.getKey().startsWith(prefix)) result = TagBitmap.or(result, bitmaps.get(e.getValue()));
+            }
+            return result;
+        }
+
+        private boolean isKeyword(String keyword) {
+            return pos < tokens.size() && !quoted.get(pos) && tokens.get(pos).equalsIgnoreCase(keyword);
+        }
+
+        private boolean isToken(String token) {
+            return pos < tokens.size() && !quoted.get(pos) && tokens.get(pos).equals(token);
+        }
+    }
+}
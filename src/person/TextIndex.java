@@ -0,0 +1,439 @@
+package src.person;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Inverted index over PersonMeta descriptions with positional postings and BM25 ranking.
+ * Every entry gets a document number that stays fixed while the entry is in the list, so
+ * removals elsewhere cost nothing; removed or rewritten documents are tombstoned and their
+ * postings dropped by a compaction once tombstones outnumber live documents. Searches only
+ * touch the postings of the query terms, and keep scores for the documents found there.
+ */
+public class TextIndex {
+    private static final double K1 = 1.2, B = 0.75;
+
+    private final Map<String, Postings> terms = new HashMap<>();
+    // Sorted view of the dictionary for prefix queries; rebuilt after new terms arrive
+    private String[] sortedTerms;
+    private final Map<People.PersonMeta, Integer> docIds = new IdentityHashMap<>();
+    private People.PersonMeta[] docs = new People.PersonMeta[64];
+    private int[] docLengths = new int[64];
+    // Postings of each document's distinct terms, so removal needs no re-tokenizing
+    private Postings[][] docTerms = new Postings[64][];
+    private final BitSet deleted = new BitSet();
+    private int deletedCount = 0;
+    private int docCount = 0;
+    private int liveDocs = 0;
+    private long totalLength = 0;
+
+    /**
+     * A ranked search result.
+     */
+    public static class Hit {
+        public final People.PersonMeta meta;
+        public final double score;
+        Hit(People.PersonMeta meta, double score) {
+            this.meta = meta;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Documents containing one term, in document order, with the term's positions in each.
+     */
+    private static final class Postings {
+        int[] docs = new int[2];
+        int[] freqs = new int[2];
+        int[] positionStart = new int[3];
+        int[] positions = new int[4];
+        int size = 0;
+        int live = 0;
+
+        // termPositions[from, to) are the term's positions in doc
+        void add(int doc, int[] termPositions, int from, int to) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+                positionStart = Arrays.copyOf(positionStart, size * 2 + 1);
+            }
+            int start = positionStart[size], n = to - from;
+            if (start + n > positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(positions.length * 2, start + n));
+            }
+            System.arraycopy(termPositions, from, positions, start, n);
+            docs[size] = doc;
+            freqs[size] = n;
+            positionStart[size + 1] = start + n;
+            size++;
+            live++;
+        }
+
+        int find(int doc) {
+            return Arrays.binarySearch(docs, 0, size, doc);
+        }
+    }
+
+    TextIndex() {}
+
+    // --- Maintenance, called by People ---
+
+    void add(People.PersonMeta meta) {
+        String description = meta.getDescription();
+        List<String> tokens = tokenize(description);
+        int doc = docCount++;
+        if (doc == docs.length) {
+            int capacity = doc * 2;
+            docs = Arrays.copyOf(docs, capacity);
+            docLengths = Arrays.copyOf(docLengths, capacity);
+            docTerms = Arrays.copyOf(docTerms, capacity);
+        }
+        docs[doc] = meta;
+        docIds.put(meta, doc);
+        docLengths[doc] = tokens.size();
+        totalLength += tokens.size();
+        liveDocs++;
+        // Group positions by term: sort (term slot, position) pairs packed into longs
+        Map<String, Integer> slots = new HashMap<>();
+        List<String> distinct = new ArrayList<>();
+        long[] pairs = new long[tokens.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            Integer slot = slots.putIfAbsent(tokens.get(i), distinct.size());
+            if (slot == null) {
+                slot = distinct.size();
+                distinct.add(tokens.get(i));
+            }
+            pairs[i] = (long) slot << 32 | i;
+        }
+        Arrays.sort(pairs);
+        int[] positions = new int[pairs.length];
+        for (int i = 0; i < pairs.length; i++) positions[i] = (int) pairs[i];
+        Postings[] termsOfDoc = new Postings[distinct.size()];
+        for (int from = 0; from < pairs.length; ) {
+            int slot = (int) (pairs[from] >>> 32), to = from + 1;
+            while (to < pairs.length && (int) (pairs[to] >>> 32) == slot) to++;
+            Postings p = terms.get(distinct.get(slot));
+            if (p == null) {
+                terms.put(distinct.get(slot), p = new Postings());
+                sortedTerms = null;
+            }
+            p.add(doc, positions, from, to);
+            termsOfDoc[slot] = p;
+            from = to;
+        }
+        docTerms[doc] = termsOfDoc;
+    }
+
+    void remove(People.PersonMeta meta) {
+        Integer doc = docIds.remove(meta);
+        if (doc == null) return;
+        deleted.set(doc);
+        deletedCount++;
+        docs[doc] = null;
+        totalLength -= docLengths[doc];
+        liveDocs--;
+        for (Postings p : docTerms[doc]) p.live--;
+        docTerms[doc] = null;
+        if (deletedCount > liveDocs + 1024) compact();
+    }
+
+    /**
+     * The entry object changed but its description did not (People.set and update copy metas).
+     */
+    void replace(People.PersonMeta old, People.PersonMeta meta) {
+        Integer doc = docIds.remove(old);
+        if (doc == null) return;
+        docs[doc] = meta;
+        docIds.put(meta, doc);
+    }
+
+    /**
+     * Re-indexes an entry whose description changed.
+     */
+    void update(People.PersonMeta old, People.PersonMeta meta) {
+        remove(old);
+        add(meta);
+    }
+
+    // Drops tombstoned documents from every postings list; document numbers are kept
+    private void compact() {
+        var it = terms.entrySet().iterator();
+        while (it.hasNext()) {
+            Postings p = it.next().getValue();
+            if (p.live == 0) {
+                it.remove();
+                sortedTerms = null;
+                continue;
+            }
+            if (p.live == p.size) continue;
+            Postings kept = new Postings();
+            for (int i = 0; i < p.size; i++) {
+                if (!deleted.get(p.docs[i])) kept.add(p.docs[i], p.positions, p.positionStart[i], p.positionStart[i + 1]);
+            }
+            p.docs = kept.docs;
+            p.freqs = kept.freqs;
+            p.positionStart = kept.positionStart;
+            p.positions = kept.positions;
+            p.size = kept.size;
+        }
+        // Deleted documents no longer appear anywhere, so they need no tombstone
+        deleted.clear();
+        deletedCount = 0;
+    }
+
+    // --- Queries ---
+
+    public int getDocumentCount() { return liveDocs; }
+
+    public int getTermCount() { return terms.size(); }
+
+    /**
+     * Top k entries for a query, best first. Plain words are ranked with BM25 and at least one
+     * must occur; "quoted phrases" must occur word for word; a trailing * matches every term
+     * with that prefix.
+     */
+    public List<Hit> search(String query, int k) {
+        List<Scored> found = score(Query.parse(query), false);
+        PriorityQueue<Scored> top = new PriorityQueue<>(Math.max(1, Math.min(k, found.size()) + 1), (x, y) -> Double.compare(x.score, y.score));
+        for (Scored d : found) {
+            if (top.size() < k) top.add(d);
+            else if (k > 0 && d.score > top.peek().score) {
+                top.poll();
+                top.add(d);
+            }
+        }
+        List<Hit> hits = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            Scored d = top.poll();
+            hits.add(new Hit(docs[d.doc], d.score));
+        }
+        java.util.Collections.reverse(hits);
+        return hits;
+    }
+
+    /**
+     * Every entry containing all words and phrases of the query, unranked.
+     */
+    public List<People.PersonMeta> matchAll(String query) {
+        List<Scored> found = score(Query.parse(query), true);
+        found.sort((x, y) -> Integer.compare(x.doc, y.doc));
+        List<People.PersonMeta> result = new ArrayList<>(found.size());
+        for (Scored d : found) result.add(docs[d.doc]);
+        return result;
+    }
+
+    /**
+     * Upper bound on the entries matchAll would return: the document frequency of the
+     * rarest word or phrase word.
+     */
+    public int estimate(String query) {
+        Query q = Query.parse(query);
+        int best = liveDocs;
+        for (String word : q.words) {
+            int df = 0;
+            for (Postings p : expand(word)) df += p.live;
+            best = Math.min(best, df);
+        }
+        for (List<String> phrase : q.phrases) {
+            for (String word : phrase) {
+                Postings p = terms.get(word);
+                best = Math.min(best, p == null ? 0 : p.live);
+            }
+        }
+        return best;
+    }
+
+    // Running score of a document found on a query term's postings
+    private static final class Scored {
+        final int doc;
+        double score, best;
+        int lastWord, wordHits;
+        boolean found;
+        Scored(int doc) { this.doc = doc; }
+    }
+
+    // Scores the documents on the query terms' postings and returns the matching ones; the
+    // work and memory follow the postings read, not the size of the index
+    private List<Scored> score(Query q, boolean requireAll) {
+        List<Scored> found = new ArrayList<>();
+        if (q.words.isEmpty() && q.phrases.isEmpty()) return found;
+        double avgLength = liveDocs == 0 ? 1 : Math.max(1, (double) totalLength / liveDocs);
+        Map<Integer, Scored> scored = new HashMap<>();
+        for (int w = 1; w <= q.words.size(); w++) {
+            // A prefix counts as one word: each document scores its best expansion
+            for (Postings p : expand(q.words.get(w - 1))) {
+                double idf = idf(p);
+                for (int i = 0; i < p.size; i++) {
+                    int doc = p.docs[i];
+                    if (deleted.get(doc)) continue;
+                    double s = bm25(idf, p.freqs[i], docLengths[doc], avgLength);
+                    Scored d = scored.computeIfAbsent(doc, Scored::new);
+                    if (d.lastWord != w) {
+                        d.lastWord = w;
+                        d.best = s;
+                        d.score += s;
+                        d.wordHits++;
+                    } else if (s > d.best) {
+                        d.score += s - d.best;
+                        d.best = s;
+                    }
+                }
+            }
+        }
+        int required = requireAll ? q.words.size() : 1;
+        for (Scored d : scored.values()) {
+            if (d.wordHits >= required) {
+                d.found = true;
+                found.add(d);
+            }
+        }
+        for (int i = 0; i < q.phrases.size(); i++) {
+            BitSet matches = phraseMatches(q.phrases.get(i));
+            if (q.words.isEmpty() && i == 0) {
+                for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+                    Scored d = scored.computeIfAbsent(doc, Scored::new);
+                    d.found = true;
+                    found.add(d);
+                }
+            } else {
+                for (Scored d : found) d.found = matches.get(d.doc);
+                found.removeIf(d -> !d.found);
+            }
+        }
+        for (List<String> phrase : q.phrases) {
+            for (String word : phrase) {
+                // A word no document has means the phrase matched nothing
+                Postings p = terms.get(word);
+                if (p == null) continue;
+                double idf = idf(p);
+                for (int j = 0; j < p.size; j++) {
+                    Scored d = scored.get(p.docs[j]);
+                    if (d != null && d.found) d.score += bm25(idf, p.freqs[j], docLengths[d.doc], avgLength);
+                }
+            }
+        }
+        return found;
+    }
+
+    private double idf(Postings p) {
+        return Math.log(1 + (liveDocs - p.live + 0.5) / (p.live + 0.5));
+    }
+
+    private static double bm25(double idf, double tf, int length, double avgLength) {
+        return idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / avgLength));
+    }
+
+    private List<Postings> expand(String word) {
+        if (!word.endsWith("*")) {
+            Postings p = terms.get(word);
+            return p == null ? List.of() : List.of(p);
+        }
+        String prefix = word.substring(0, word.length() - 1);
+        if (prefix.isEmpty()) return List.of();
+        if (sortedTerms == null) {
+            sortedTerms = terms.keySet().toArray(new String[0]);
+            Arrays.sort(sortedTerms);
+        }
+        List<Postings> result = new ArrayList<>();
+        int i = Arrays.binarySearch(sortedTerms, prefix);
+        for (i = i < 0 ? -i - 1 : i; i < sortedTerms.length && sortedTerms[i].startsWith(prefix); i++) {
+            Postings p = terms.get(sortedTerms[i]);
+            if (p != null) result.add(p);
+        }
+        return result;
+    }
+
+    // Documents where the phrase's terms occur at consecutive positions
+    private BitSet phraseMatches(List<String> phrase) {
+        BitSet result = new BitSet();
+        Postings[] lists = new Postings[phrase.size()];
+        Postings rarest = null;
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = terms.get(phrase.get(i));
+            if (lists[i] == null) return result;
+            if (rarest == null || lists[i].size < rarest.size) rarest = lists[i];
+        }
+        for (int r = 0; r < rarest.size; r++) {
+            int doc = rarest.docs[r];
+            if (deleted.get(doc)) continue;
+            int[] at = new int[lists.length];
+            boolean all = true;
+            for (int i = 0; i < lists.length && all; i++) {
+                at[i] = lists[i].find(doc);
+                all = at[i] >= 0;
+            }
+            if (!all) continue;
+            Postings first = lists[0];
+            for (int j = first.positionStart[at[0]]; j < first.positionStart[at[0] + 1]; j++) {
+                int start = first.positions[j];
+                boolean match = true;
+                for (int i = 1; i < lists.length && match; i++) {
+                    Postings p = lists[i];
+                    match = Arrays.binarySearch(p.positions, p.positionStart[at[i]], p.positionStart[at[i] + 1], start + i) >= 0;
+                }
+                if (match) {
+                    result.set(doc);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    // --- Tokenizing ---
+
+    /**
+     * Lowercased runs of letters and digits.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) start = i;
+            else if (!word && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Words and quoted phrases of a search string.
+     */
+    private static final class Query {
+        final List<String> words = new ArrayList<>();
+        final List<List<String>> phrases = new ArrayList<>();
+
+        static Query parse(String query) {
+            Query q = new Query();
+            if (query == null) return q;
+            boolean inQuote = false;
+            for (String part : query.split("\"", -1)) {
+                if (inQuote) {
+                    List<String> phrase = tokenize(part);
+                    if (phrase.size() == 1) q.words.add(phrase.get(0));
+                    else if (!phrase.isEmpty()) q.phrases.add(phrase);
+                } else {
+                    for (String raw : part.trim().split("\\s+")) {
+                        List<String> tokens = tokenize(raw);
+                        boolean prefix = raw.endsWith("*");
+                        for (int i = 0; i < tokens.size(); i++) {
+                            q.words.add(prefix && i == tokens.size() - 1 ? tokens.get(i) + "*" : tokens.get(i));
+                        }
+                    }
+                }
+                inQuote = !inQuote;
+            }
+            return q;
+        }
+    }
+}
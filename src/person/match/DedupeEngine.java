@@ -0,0 +1,254 @@
+package src.person.match;
+
+import src.date.OCCCDate;
+import src.person.OCCCPerson;
+import src.person.Person;
+import src.person.RegisteredPerson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Finds likely duplicate people (spelling variants, swapped day and month, typos) without
+ * comparing all pairs. Candidate pairs come from blocking keys (phonetic last name with birth
+ * year, phonetic last name with phonetic first name) and from MinHash/LSH bands over name
+ * trigrams; only candidates are scored. Every record lands in a fixed number of blocks and
+ * oversized blocks are walked with a sliding window, so work grows near-linearly.
+ */
+public class DedupeEngine {
+    public static final double DEFAULT_THRESHOLD = 0.85;
+    // Blocks up to this size are paired exhaustively; larger ones only pair neighbours in the window
+    private static final int MAX_BLOCK = 64;
+    private static final int WINDOW = 32;
+    private static final int BANDS = 10, ROWS = 3;
+    private static final int ID_BITS = 26;
+    private static final long ID_MASK = (1L << ID_BITS) - 1;
+
+    private static final double FIRST_WEIGHT = 0.3, LAST_WEIGHT = 0.4, DOB_WEIGHT = 0.3;
+
+    private double threshold = DEFAULT_THRESHOLD;
+    private final long[] hashSeeds = new long[BANDS * ROWS];
+
+    /**
+     * A scored candidate pair. Indexes refer to the lists passed in.
+     */
+    public static class Match {
+        public final int first;
+        public final int second;
+        public final double score;
+        public final String reason;
+        Match(int first, int second, double score, String reason) {
+            this.first = first;
+            this.second = second;
+            this.score = score;
+            this.reason = reason;
+        }
+    }
+
+    public DedupeEngine() {
+        long seed = 0x5DEECE66DL;
+        for (int i = 0; i < hashSeeds.length; i++) hashSeeds[i] = seed = mix(seed + i);
+    }
+
+    public void setThreshold(double threshold) { this.threshold = threshold; }
+    public double getThreshold() { return threshold; }
+
+    /**
+     * Likely duplicate pairs within one list, best first. Match.first &lt; Match.second.
+     */
+    public List<Match> findDuplicates(List<Person> people) {
+        return run(people, -1);
+    }
+
+    /**
+     * Incoming people that look like an existing person, best first.
+     * Match.first indexes existing, Match.second indexes incoming.
+     */
+    public List<Match> findMatches(List<Person> existing, List<Person> incoming) {
+        List<Person> all = new ArrayList<>(existing.size() + incoming.size());
+        all.addAll(existing);
+        all.addAll(incoming);
+        List<Match> matches = run(all, existing.size());
+        List<Match> result = new ArrayList<>(matches.size());
+        for (Match m : matches) result.add(new Match(m.first, m.second - existing.size(), m.score, m.reason));
+        return result;
+    }
+
+    // split >= 0 keeps only pairs with one record on each side of it
+    private List<Match> run(List<Person> people, int split) {
+        int n = people.size();
+        if (n > ID_MASK) throw new IllegalArgumentException("Too many records for dedupe: " + n);
+        Features[] features = new Features[n];
+        IntStream.range(0, n).parallel().forEach(i -> features[i] = people.get(i) == null ? null : new Features(people.get(i), hashSeeds));
+
+        // Every record emits (block key, id) entries; sorting groups each block together
+        int keysPerRecord = 2 + BANDS;
+        long[] entries = new long[n * keysPerRecord];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            Features f = features[i];
+            int base = i * keysPerRecord;
+            if (f == null) {
+                Arrays.fill(entries, base, base + keysPerRecord, -1L);
+                return;
+            }
+            entries[base] = entry(hash("Y", f.lastCode, f.year), i);
+            entries[base + 1] = entry(hash("N", f.lastCode, f.firstCode), i);
+            for (int b = 0; b < BANDS; b++) {
+                long h = b;
+                for (int r = 0; r < ROWS; r++) h = mix(h * 31 + f.signature[b * ROWS + r]);
+                entries[base + 2 + b] = entry(h, i);
+            }
+        });
+        Arrays.parallelSort(entries);
+
+        long[] pairs = collectPairs(entries, split);
+        Match[] scored = new Match[pairs.length];
+        IntStream.range(0, pairs.length).parallel().forEach(k -> {
+            int a = (int) (pairs[k] >>> 32), b = (int) pairs[k];
+            scored[k] = score(a, b, features[a], features[b]);
+        });
+        List<Match> result = new ArrayList<>();
+        for (Match m : scored) {
+            if (m != null && m.score >= threshold) result.add(m);
+        }
+        result.sort(Comparator.comparingDouble((Match m) -> -m.score).thenComparingInt(m -> m.first));
+        return result;
+    }
+
+    private long[] collectPairs(long[] entries, int split) {
+        long[] pairs = new long[Math.max(16, entries.length)];
+        int count = 0;
+        int start = 0;
+        while (start < entries.length) {
+            if (entries[start] == -1L) { start++; continue; }
+            long key = entries[start] >>> ID_BITS;
+            int end = start + 1;
+            while (end < entries.length && entries[end] != -1L && (entries[end] >>> ID_BITS) == key) end++;
+            int size = end - start;
+            for (int i = start; i < end; i++) {
+                int limit = size <= MAX_BLOCK ? end : Math.min(end, i + 1 + WINDOW);
+                for (int j = i + 1; j < limit; j++) {
+                    int a = (int) (entries[i] & ID_MASK), b = (int) (entries[j] & ID_MASK);
+                    if (a == b) continue;
+                    int lo = Math.min(a, b), hi = Math.max(a, b);
+                    if (split >= 0 && !(lo < split && hi >= split)) continue;
+                    if (count == pairs.length) pairs = Arrays.copyOf(pairs, pairs.length * 2);
+                    pairs[count++] = ((long) lo << 32) | hi;
+                }
+            }
+            start = end;
+        }
+        // The same pair can come from several blocks
+        long[] sorted = Arrays.copyOf(pairs, count);
+        Arrays.parallelSort(sorted);
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) sorted[unique++] = sorted[i];
+        }
+        return Arrays.copyOf(sorted, unique);
+    }
+
+    private static long entry(long keyHash, int id) {
+        // Top bit stays clear so -1 can mark empty slots
+        return ((keyHash >>> (ID_BITS + 1)) << ID_BITS) | id;
+    }
+
+    // --- Scoring ---
+
+    private Match score(int a, int b, Features x, Features y) {
+        double first = nameSimilarity(x.first, y.first);
+        double last = nameSimilarity(x.last, y.last);
+        double[] dob = new double[1];
+        String dobReason = dobSimilarity(x, y, dob);
+        double score = FIRST_WEIGHT * first + LAST_WEIGHT * last + DOB_WEIGHT * dob[0];
+        String idReason = "";
+        // IDs are strong evidence either way
+        if (x.govID != null && y.govID != null) {
+            if (x.govID.equals(y.govID)) { score = 0.5 + score / 2; idReason = ", same GovID"; }
+            else { score *= 0.8; idReason = ", different GovID"; }
+        }
+        if (x.studentID != null && y.studentID != null) {
+            if (x.studentID.equals(y.studentID)) { score = 0.5 + score / 2; idReason += ", same StudentID"; }
+            else { score *= 0.8; idReason += ", different StudentID"; }
+        }
+        if (score < threshold) return null;
+        String reason = String.format("first %.2f, last %.2f, DOB %s%s", first, last, dobReason, idReason);
+        return new Match(a, b, score, reason);
+    }
+
+    private static double nameSimilarity(String a, String b) {
+        if (a.isEmpty() || b.isEmpty()) return a.equals(b) ? 1 : 0.5;
+        // "J" vs "John"
+        if ((a.length() == 1 || b.length() == 1) && a.charAt(0) == b.charAt(0)) return 0.9;
+        return Phonetics.jaroWinkler(a, b);
+    }
+
+    private static String dobSimilarity(Features x, Features y, double[] out) {
+        if (x.year == 0 || y.year == 0) { out[0] = 0.5; return "unknown"; }
+        boolean sameYear = x.year == y.year, sameMonth = x.month == y.month, sameDay = x.day == y.day;
+        if (sameYear && sameMonth && sameDay) { out[0] = 1.0; return "equal"; }
+        if (sameYear && x.month == y.day && x.day == y.month) { out[0] = 0.9; return "day/month swapped"; }
+        if (sameMonth && sameDay && Math.abs(x.year - y.year) == 1) { out[0] = 0.75; return "year off by one"; }
+        if (sameMonth && sameDay && oneDigitApart(x.year, y.year)) { out[0] = 0.7; return "year typo"; }
+        if (sameYear && (sameMonth || sameDay)) { out[0] = 0.7; return "one field differs"; }
+        if (sameYear) { out[0] = 0.4; return "same year"; }
+        out[0] = 0;
+        return "different";
+    }
+
+    private static boolean oneDigitApart(int a, int b) {
+        int diffs = 0;
+        while (a > 0 || b > 0) {
+            if (a % 10 != b % 10) diffs++;
+            a /= 10;
+            b /= 10;
+        }
+        return diffs == 1;
+    }
+
+    // --- Hashing ---
+
+    private static long hash(String tag, String a, Object b) {
+        return mix(((long) tag.hashCode() << 32) ^ a.hashCode() * 0x9E3779B97F4A7C15L ^ String.valueOf(b).hashCode());
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    /**
+     * Normalized fields and MinHash signature of one record.
+     */
+    private static class Features {
+        final String first, last, firstCode, lastCode, govID, studentID;
+        final int year, month, day;
+        final int[] signature = new int[BANDS * ROWS];
+
+        Features(Person p, long[] seeds) {
+            first = Phonetics.normalize(p.getFirstName());
+            last = Phonetics.normalize(p.getLastName());
+            firstCode = Phonetics.soundex(first);
+            lastCode = Phonetics.soundex(last);
+            OCCCDate dob = p.getDOB();
+            year = dob == null ? 0 : dob.getYear();
+            month = dob == null ? 0 : dob.getMonthNumber();
+            day = dob == null ? 0 : dob.getDayOfMonth();
+            govID = p instanceof RegisteredPerson rp ? rp.getGovID() : null;
+            studentID = p instanceof OCCCPerson op ? op.getStudentID() : null;
+            Arrays.fill(signature, Integer.MAX_VALUE);
+            String text = "_" + first + "_" + last + "_";
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                long shingle = text.charAt(i) | (long) text.charAt(i + 1) << 16 | (long) text.charAt(i + 2) << 32;
+                for (int k = 0; k < seeds.length; k++) {
+                    int h = (int) mix(shingle ^ seeds[k]);
+                    if (h < signature[k]) signature[k] = h;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package src.person.query;
+
+import src.date.OCCCDate;
+import src.person.BlockFile;
+import src.person.Folding;
+import src.person.OCCCPerson;
+import src.person.People;
+import src.person.Person;
+import src.person.RegisteredPerson;
+import src.person.TagIndex;
+import src.person.TextIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parsed filter query. Terms are <code>field:value</code> pairs combined with AND, OR, NOT and
+ * parentheses, for example
+ * <code>last:smi* AND dob:1930..1950 AND tag:"computer scientist" AND NOT type:Person</code>.
+ * Operators are case-insensitive, NOT binds tightest and AND before OR; adjacent terms are ANDed.
+ * <ul>
+ * <li>first, last, name (either), gov, student: case-insensitive (names also accent-insensitive),
+ * exact unless * wildcards are used.
+ * A bare word without a field matches any part of either name.</li>
+ * <li>dob: a year, yyyy-mm-dd or MM/DD/YYYY, or a range a..b with either end optional.</li>
+ * <li>tag: one tag, or a tag prefix ending in *.</li>
+ * <li>desc: words that must all occur in the description; a quoted value is a phrase.</li>
+ * <li>type: Person, Registered Person or OCCC Person (exact type).</li>
+ * </ul>
+ */
+public abstract class Query {
+
+    /**
+     * Evaluates the query against one entry without using any index.
+     */
+    public abstract boolean test(People.PersonMeta meta);
+
+    /**
+     * False if no entry of a data file block can match, judging by the block's footer alone.
+     */
+    public boolean mightMatch(BlockFile.Footer block) { return true; }
+
+    // Relative cost of test(); terms that parse tags or descriptions are the expensive ones
+    int cost() { return 1; }
+
+    /**
+     * Parses a query.
+     * @throws IllegalArgumentException if the query is malformed or names an unknown field
+     */
+    public static Query parse(String text) {
+        return new Parser(text).parse();
+    }
+
+    // --- Nodes ---
+
+    public static final class And extends Query {
+        public final List<Query> parts;
+        // Cheap checks first, so description and tag parsing only runs on survivors
+        private final List<Query> evaluationOrder;
+        And(List<Query> parts) {
+            this.parts = parts;
+            this.evaluationOrder = new ArrayList<>(parts);
+            this.evaluationOrder.sort(java.util.Comparator.comparingInt(Query::cost));
+        }
+        @Override
+        public boolean test(People.PersonMeta meta) {
+            for (Query q : evaluationOrder) if (!q.test(meta)) return false;
+            return true;
+        }
+        @Override
+        public boolean mightMatch(BlockFile.Footer block) {
+            for (Query q : parts) if (!q.mightMatch(block)) return false;
+            return true;
+        }
+        @Override
+        int cost() { return evaluationOrder.get(evaluationOrder.size() - 1).cost(); }
+        @Override
+        public String toString() { return join(parts, " AND "); }
+    }
+
+    public static final class Or extends Query {
+        public final List<Query> parts;
+        Or(List<Query> parts) { this.parts = parts; }
+        @Override
+        public boolean test(People.PersonMeta meta) {
+            for (Query q : parts) if (q.test(meta)) return true;
+            return false;
+        }
+        @Override
+        public boolean mightMatch(BlockFile.Footer block) {
+            for (Query q : parts) if (q.mightMatch(block)) return true;
+            return false;
+        }
+        @Override
+        int cost() {
+            int max = 0;
+            for (Query q : parts) max = Math.max(max, q.cost());
+            return max;
+        }
+        @Override
+        public String toString() { return "(" + join(parts, " OR ") + ")"; }
+    }
+
+    public static final class Not extends Query {
+        public final Query inner;
+        Not(Query inner) { this.inner = inner; }
+        @Override
+        public boolean test(People.PersonMeta meta) { return !inner.test(meta); }
+        @Override
+        int cost() { return inner.cost(); }
+        @Override
+        public String toString() { return "NOT " + inner; }
+    }
+
+    /**
+     * One field:value condition.
+     */
+    public static final class Term extends Query {
+        public final String field;
+        public final String value;
+        // Value split on *; folded for names, lowercased for IDs
+        private final String[] parts;
+        private int fromDate, toDate;
+        private String typeName;
+        private List<String> words;
+
+        Term(String field, String value) {
+            this.field = field;
+            this.value = value;
+            String pattern = field.equals("gov") || field.equals("student") ? value.toLowerCase(Locale.ROOT) : Folding.fold(value);
+            this.parts = pattern.split("\\*", -1);
+            switch (field) {
+                case "dob" -> parseRange(value);
+                case "type" -> typeName = parseType(value);
+                case "desc" -> words = TextIndex.tokenize(value);
+                default -> {}
+            }
+        }
+
+        @Override
+        int cost() {
+            return switch (field) {
+                case "tag" -> 2;
+                case "desc" -> 3;
+                case "dob", "type", "gov", "student" -> 0;
+                default -> 1;
+            };
+        }
+
+        /**
+         * True if the value has no wildcard.
+         */
+        public boolean isExact() { return value.indexOf('*') < 0; }
+
+        /**
+         * DOB range as yyyymmdd numbers, inclusive.
+         */
+        public int getFromDate() { return fromDate; }
+        public int getToDate() { return toDate; }
+
+        // Only DOB ranges, types and exact tags can rule a block out
+        @Override
+        public boolean mightMatch(BlockFile.Footer block) {
+            return switch (field) {
+                case "dob" -> block.mayHaveDobBetween(fromDate, toDate);
+                case "type" -> block.getTypeCount(typeName) > 0;
+                case "tag" -> !isExact() || block.mightHaveTag(value);
+                default -> true;
+            };
+        }
+
+        @Override
+        public boolean test(People.PersonMeta meta) {
+            Person p = meta.getPerson();
+            if (p == null) return false;
+            switch (field) {
+                case "first": return wildcard(parts, meta.getFoldedFirstName(), false);
+                case "last": return wildcard(parts, meta.getFoldedLastName(), false);
+                case "name": return wildcard(parts, meta.getFoldedFirstName(), false) || wildcard(parts, meta.getFoldedLastName(), false);
+                case "gov": return p instanceof RegisteredPerson rp && wildcard(parts, rp.getGovID(), true);
+                case "student": return p instanceof OCCCPerson op && wildcard(parts, op.getStudentID(), true);
+                case "dob": {
+                    int date = packDate(p.getDOB());
+                    return date != 0 && date >= fromDate && date <= toDate;
+                }
+                // Slot-store rows hand out view subclasses, so test the type, most specific first
+                case "type": return typeName.equals(p instanceof OCCCPerson ? "OCCCPerson" : p instanceof RegisteredPerson ? "RegisteredPerson" : "Person");
+                case "tag": {
+                    String key = TagIndex.fold(value);
+                    boolean prefix = key.endsWith("*");
+                    if (prefix) key = key.substring(0, key.length() - 1);
+                    for (String tag : TagIndex.parseTags(meta.getTags())) {
+                        String t = TagIndex.fold(tag);
+                        if (prefix ? t.startsWith(key) : t.equals(key)) return true;
+                    }
+                    return false;
+                }
+                case "desc": {
+                    if (words.isEmpty()) return false;
+                    List<String> tokens = TextIndex.tokenize(meta.getDescription());
+                    if (value.contains(" ") && words.size() > 1) return containsPhrase(tokens, words);
+                    // A trailing * makes the last word a prefix
+                    boolean prefix = value.endsWith("*");
+                    for (int i = 0; i < words.size(); i++) {
+                        String w = words.get(i);
+                        boolean found = prefix && i == words.size() - 1 ? tokens.stream().anyMatch(t -> t.startsWith(w)) : tokens.contains(w);
+                        if (!found) return false;
+                    }
+                    return true;
+                }
+                default: return false;
+            }
+        }
+
+        private void parseRange(String v) {
+            int dots = v.indexOf("..");
+            if (dots < 0) {
+                fromDate = parseDate(v, false);
+                toDate = parseDate(v, true);
+            } else {
+                String from = v.substring(0, dots).trim(), to = v.substring(dots + 2).trim();
+                fromDate = from.isEmpty() ? 1 : parseDate(from, false);
+                toDate = to.isEmpty() ? Integer.MAX_VALUE : parseDate(to, true);
+            }
+        }
+
+        // A bare year stands for its first or last day
+        private static int parseDate(String s, boolean end) {
+            try {
+                if (s.matches("\\d{1,4}")) return Integer.parseInt(s) * 10000 + (end ? 1231 : 101);
+                if (s.matches("\\d{4}-\\d{1,2}-\\d{1,2}")) {
+                    String[] f = s.split("-");
+                    return Integer.parseInt(f[0]) * 10000 + Integer.parseInt(f[1]) * 100 + Integer.parseInt(f[2]);
+                }
+                if (s.matches("\\d{1,2}/\\d{1,2}/\\d{4}")) {
+                    String[] f = s.split("/");
+                    return Integer.parseInt(f[2]) * 10000 + Integer.parseInt(f[0]) * 100 + Integer.parseInt(f[1]);
+                }
+            } catch (NumberFormatException e) {
+                // Fall through to the error below
+            }
+            throw new IllegalArgumentException("Bad date: " + s + " (use yyyy, yyyy-mm-dd or MM/DD/YYYY)");
+        }
+
+        private static String parseType(String v) {
+            switch (v.toLowerCase(Locale.ROOT).replace(" ", "")) {
+                case "person": return "Person";
+                case "registered": case "registeredperson": return "RegisteredPerson";
+                case "occc": case "occcperson": return "OCCCPerson";
+                default: throw new IllegalArgumentException("Unknown type: " + v + " (use Person, Registered Person or OCCC Person)");
+            }
+        }
+
+        @Override
+        public String toString() {
+            return field + ":" + (value.contains(" ") ? "\"" + value + "\"" : value);
+        }
+    }
+
+    // --- Matching helpers ---
+
+    /**
+     * Match of a pattern, given as its pieces between * wildcards, against text without copying it.
+     * With ignoreCase the pieces must be lowercase; otherwise text is expected to be folded already.
+     */
+    static boolean wildcard(String[] parts, String text, boolean ignoreCase) {
+        if (text == null) return false;
+        String first = parts[0];
+        if (parts.length == 1) return text.length() == first.length() && text.regionMatches(ignoreCase, 0, first, 0, first.length());
+        if (!text.regionMatches(ignoreCase, 0, first, 0, first.length())) return false;
+        int at = first.length();
+        for (int i = 1; i < parts.length - 1; i++) {
+            int found = indexOf(text, parts[i], at, ignoreCase);
+            if (found < 0) return false;
+            at = found + parts[i].length();
+        }
+        String last = parts[parts.length - 1];
+        int tail = text.length() - last.length();
+        return tail >= at && text.regionMatches(ignoreCase, tail, last, 0, last.length());
+    }
+
+    private static int indexOf(String text, String part, int from, boolean ignoreCase) {
+        if (!ignoreCase) return text.indexOf(part, from);
+        for (int i = from; i + part.length() <= text.length(); i++) {
+            if (text.regionMatches(true, i, part, 0, part.length())) return i;
+        }
+        return -1;
+    }
+
+    private static boolean containsPhrase(List<String> tokens, List<String> phrase) {
+        outer:
+        for (int i = 0; i + phrase.size() <= tokens.size(); i++) {
+            for (int j = 0; j < phrase.size(); j++) {
+                if (!tokens.get(i + j).equals(phrase.get(j))) continue outer;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    static int packDate(OCCCDate d) {
+        return d == null ? 0 : d.getYear() * 10000 + d.getMonthNumber() * 100 + d.getDayOfMonth();
+    }
+
+    private static String join(List<Query> parts, String op) {
+        StringBuilder sb = new StringBuilder();
+        for (Query q : parts) {
+            if (sb.length() > 0) sb.append(op);
+            sb.append(q);
+        }
+        return sb.toString();
+    }
+
+    // --- Parsing ---
+
+    private static final class Parser {
+        private final List<String[]> tokens = new ArrayList<>(); // {kind, field, value}; kind is "(", ")", "op" or "term"
+        private int pos = 0;
+
+        Parser(String text) {
+            String s = text == null ? "" : text;
+            int i = 0;
+            while (i < s.length()) {
+                char c = s.charAt(i);
+                if (Character.isWhitespace(c)) { i++; continue; }
+                if (c == '(' || c == ')') {
+                    tokens.add(new String[]{String.valueOf(c), null, null});
+                    i++;
+                    continue;
+                }
+                String field = null;
+                int end = i;
+                while (end < s.length() && Character.isLetter(s.charAt(end))) end++;
+                if (end < s.length() && end > i && s.charAt(end) == ':') {
+                    field = canonicalField(s.substring(i, end));
+                    i = end + 1;
+                }
+                String value;
+                boolean quoted = i < s.length() && s.charAt(i) == '"';
+                if (quoted) {
+                    end = s.indexOf('"', i + 1);
+                    if (end < 0) throw new IllegalArgumentException("Unclosed quote");
+                    value = s.substring(i + 1, end);
+                    i = end + 1;
+                } else {
+                    end = i;
+                    while (end < s.length() && !Character.isWhitespace(s.charAt(end)) && s.charAt(end) != '(' && s.charAt(end) != ')') end++;
+                    value = s.substring(i, end);
+                    i = end;
+                }
+                if (field == null && !quoted && (value.equalsIgnoreCase("AND") || value.equalsIgnoreCase("OR") || value.equalsIgnoreCase("NOT"))) {
+                    tokens.add(new String[]{"op", null, value.toUpperCase(Locale.ROOT)});
+                } else {
+                    if (value.isEmpty()) throw new IllegalArgumentException("Missing value for " + field + ":");
+                    if (field == null) {
+                        // A bare word matches any part of either name
+                        field = "name";
+                        if (value.indexOf('*') < 0) value = "*" + value + "*";
+                    }
+                    tokens.add(new String[]{"term", field, value});
+                }
+            }
+        }
+
+        private static String canonicalField(String name) {
+            switch (name.toLowerCase(Locale.ROOT)) {
+                case "first": case "firstname": return "first";
+                case "last": case "lastname": return "last";
+                case "name": return "name";
+                case "dob": case "born": return "dob";
+                case "gov": case "govid": return "gov";
+                case "student": case "studentid": return "student";
+                case "tag": case "tags": return "tag";
+                case "desc": case "description": return "desc";
+                case "type": return "type";
+                default: throw new IllegalArgumentException("Unknown field: " + name
+                    + " (use first, last, name, dob, gov, student, tag, desc or type)");
+            }
+        }
+
+        Query parse() {
+            if (tokens.isEmpty()) throw new IllegalArgumentException("Empty query");
+            Query q = or();
+            if (pos < tokens.size()) throw new IllegalArgumentException("Unexpected '" + describe(tokens.get(pos)) + "'");
+            return q;
+        }
+
+        private Query or() {
+            List<Query> parts = new ArrayList<>();
+            parts.add(and());
+            while (isOp("OR")) {
+                pos++;
+                parts.add(and());
+            }
+            return parts.size() == 1 ? parts.get(0) : new Or(parts);
+        }
+
+        private Query and() {
+            List<Query> parts = new ArrayList<>();
+            parts.add(not());
+            while (pos < tokens.size() && !isOp("OR") && !is(")")) {
+                if (isOp("AND")) pos++;
+                parts.add(not());
+            }
+            return parts.size() == 1 ? parts.get(0) : new And(parts);
+        }
+
+        private Query not() {
+            if (isOp("NOT")) {
+                pos++;
+                return new Not(not());
+            }
+            if (is("(")) {
+                pos++;
+                Query q = or();
+                if (!is(")")) throw new IllegalArgumentException("Missing ')'");
+                pos++;
+                return q;
+            }
+            if (pos >= tokens.size() || !is("term")) {
+                throw new IllegalArgumentException(pos >= tokens.size() ? "Query ends early" : "Unexpected '" + describe(tokens.get(pos)) + "'");
+            }
+            String[] t = tokens.get(pos++);
+            return new Term(t[1], t[2]);
+        }
+
+        private boolean is(String kind) {
+            return pos < tokens.size() && tokens.get(pos)[0].equals(kind);
+        }
+
+        private boolean isOp(String op) {
+            return is("op") && tokens.get(pos)[2].equals(op);
+        }
+
+        private static String describe(String[] token) {
+            return token[0].equals("term") ? token[1] + ":" + token[2] : token[0].equals("op") ? token[2] : token[0];
+        }
+    }
+}
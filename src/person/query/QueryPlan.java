@@ -0,0 +1,216 @@
+package src.person.query;
+
+import src.person.NameIndex;
+import src.person.People;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * A Query compiled against one People list. Every term that an index can answer (ID hash,
+ * name trigrams, sorted DOBs, tag bitmaps, description postings) gets a candidate lookup with
+ * a size estimate; an AND is driven by its most selective lookup, an OR by the union of its
+ * lookups when every branch has one. Candidates are then checked against the whole query. Queries with
+ * no usable lookup, or whose best lookup would return most of the list anyway, scan every entry.
+ */
+public class QueryPlan {
+    // Above this share of the list a lookup is no cheaper than scanning
+    private static final double SCAN_RATIO = 0.5;
+
+    private final People people;
+    private final Query query;
+    private final Access access;
+    private final List<String> considered = new ArrayList<>();
+
+    /**
+     * A way to fetch a superset of the entries matching part of the query.
+     */
+    private static final class Access {
+        final String description;
+        final long estimate;
+        final Supplier<List<People.PersonMeta>> fetch;
+        final List<Access> inputs;
+
+        Access(String description, long estimate, Supplier<List<People.PersonMeta>> fetch) {
+            this.description = description;
+            this.estimate = estimate;
+            this.fetch = fetch;
+            this.inputs = Collections.emptyList();
+        }
+
+        Access(List<Access> inputs) {
+            long total = 0;
+            for (Access a : inputs) total += a.estimate;
+            this.description = "Union";
+            this.estimate = total;
+            this.inputs = inputs;
+            this.fetch = () -> {
+                Set<People.PersonMeta> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+                List<People.PersonMeta> result = new ArrayList<>();
+                for (Access a : inputs) {
+                    for (People.PersonMeta m : a.fetch.get()) if (seen.add(m)) result.add(m);
+                }
+                return result;
+            };
+        }
+    }
+
+    private QueryPlan(Query query, People people) {
+        this.query = query;
+        this.people = people;
+        Access best = plan(query);
+        this.access = best != null && best.estimate <= people.size() * SCAN_RATIO ? best : null;
+    }
+
+    /**
+     * Parses and plans a query.
+     * @throws IllegalArgumentException if the query is malformed
+     */
+    public static QueryPlan compile(String text, People people) {
+        return new QueryPlan(Query.parse(text), people);
+    }
+
+    public static QueryPlan compile(Query query, People people) {
+        return new QueryPlan(query, people);
+    }
+
+    public Query getQuery() { return query; }
+
+    /**
+     * True if the plan reads candidates from an index instead of scanning every entry.
+     */
+    public boolean usesIndex() { return access != null; }
+
+    /**
+     * Entries matching the query, in no particular order.
+     */
+    public List<People.PersonMeta> execute() {
+        List<People.PersonMeta> result = new ArrayList<>();
+        if (access == null) {
+            for (int i = 0; i < people.size(); i++) {
+                People.PersonMeta meta = people.getMeta(i);
+                if (query.test(meta)) result.add(meta);
+            }
+        } else {
+            for (People.PersonMeta meta : access.fetch.get()) {
+                if (query.test(meta)) result.add(meta);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The chosen plan as indented text, with the lookups that were considered.
+     */
+    public String explain() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Query: ").append(query).append('\n');
+        if (access == null) {
+            sb.append("Scan all ").append(people.size()).append(" entries\n");
+            sb.append("  Filter: ").append(query).append('\n');
+        } else {
+            sb.append("Filter: ").append(query).append('\n');
+            describe(access, 1, sb);
+        }
+        if (!considered.isEmpty()) {
+            sb.append("Considered:\n");
+            for (String c : considered) sb.append("  ").append(c).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void describe(Access a, int depth, StringBuilder sb) {
+        sb.append("  ".repeat(depth)).append(a.description).append("  (est. ").append(a.estimate).append(")\n");
+        for (Access input : a.inputs) describe(input, depth + 1, sb);
+    }
+
+    // --- Planning ---
+
+    private Access plan(Query q) {
+        if (q instanceof Query.Term t) {
+            Access a = lookup(t);
+            considered.add(t + (a == null ? ": no index" : ": " + a.description.replaceFirst("^Index lookup: ", "") + ", est. " + a.estimate));
+            return a;
+        }
+        if (q instanceof Query.And and) {
+            Access best = null;
+            for (Query part : and.parts) {
+                Access a = plan(part);
+                if (a != null && (best == null || a.estimate < best.estimate)) best = a;
+            }
+            return best;
+        }
+        if (q instanceof Query.Or or) {
+            List<Access> inputs = new ArrayList<>();
+            boolean all = true;
+            for (Query part : or.parts) {
+                Access a = plan(part);
+                if (a == null) all = false;
+                else inputs.add(a);
+            }
+            return all ? new Access(inputs) : null;
+        }
+        // NOT can only filter
+        return null;
+    }
+
+    // IDs are stored upper-cased (AppController.normalizeID) but compared case-insensitively, so
+    // look up the normalized form, and the typed form too for IDs stored as they came
+    private static List<People.PersonMeta> byID(String value, java.util.function.Function<String, List<People.PersonMeta>> lookup) {
+        String normalized = value.toUpperCase(java.util.Locale.ROOT);
+        List<People.PersonMeta> result = lookup.apply(normalized);
+        if (normalized.equals(value)) return result;
+        List<People.PersonMeta> typed = lookup.apply(value);
+        if (typed.isEmpty()) return result;
+        List<People.PersonMeta> both = new ArrayList<>(result);
+        for (People.PersonMeta meta : typed) if (!both.contains(meta)) both.add(meta);
+        return both;
+    }
+
+    private Access lookup(Query.Term t) {
+        switch (t.field) {
+            case "gov":
+                if (!t.isExact()) return null;
+                List<People.PersonMeta> gov = byID(t.value, people::getByGovID);
+                return new Access("Index lookup: ID hash " + t, gov.size(), () -> gov);
+            case "student":
+                if (!t.isExact()) return null;
+                List<People.PersonMeta> student = byID(t.value, people::getByStudentID);
+                return new Access("Index lookup: ID hash " + t, student.size(), () -> student);
+            case "tag": {
+                String expression = "\"" + t.value + "\"";
+                int estimate = people.queryTags(expression).cardinality();
+                return new Access("Index lookup: tag bitmap " + t, estimate, () -> people.matchTags(expression));
+            }
+            case "desc": {
+                String text = t.value.contains(" ") ? "\"" + t.value + "\"" : t.value;
+                int estimate = people.estimateDescriptions(text);
+                return new Access("Index lookup: description postings " + t, estimate, () -> people.matchDescriptions(text));
+            }
+            case "dob": {
+                int estimate = people.countBornBetween(t.getFromDate(), t.getToDate());
+                return new Access("Index lookup: DOB range " + t, estimate, () -> people.bornBetween(t.getFromDate(), t.getToDate()));
+            }
+            case "first":
+            case "last": {
+                int field = t.field.equals("first") ? NameIndex.FIRST : NameIndex.LAST;
+                int estimate = people.estimateNames(field, t.value);
+                if (estimate < 0) return null;
+                return new Access("Index lookup: name trigrams " + t, estimate, () -> people.nameCandidates(field, t.value));
+            }
+            case "name": {
+                int first = people.estimateNames(NameIndex.FIRST, t.value), last = people.estimateNames(NameIndex.LAST, t.value);
+                if (first < 0 || last < 0) return null;
+                return new Access(List.of(
+                    new Access("Index lookup: name trigrams first:" + t.value, first, () -> people.nameCandidates(NameIndex.FIRST, t.value)),
+                    new Access("Index lookup: name trigrams last:" + t.value, last, () -> people.nameCandidates(NameIndex.LAST, t.value))));
+            }
+            default:
+                return null;
+        }
+    }
+}